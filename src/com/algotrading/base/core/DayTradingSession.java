@@ -2,6 +2,12 @@ package com.algotrading.base.core;
 
 import com.algotrading.base.core.columns.LongColumn;
 
+/**
+ * Определение границ торговых дней в колонке меток времени.
+ * <p>
+ * Методы этого класса просматривают колонку от заданного индекса. Для многократных запросов к одной колонке
+ * следует один раз построить {@link SessionIndex}.
+ */
 public final class DayTradingSession {
 
     private DayTradingSession() {
@@ -0,0 +1,180 @@
+package com.algotrading.base.core;
+
+import com.algotrading.base.core.columns.LongColumn;
+
+import java.util.Arrays;
+
+/**
+ * Индекс торговых дней колонки меток времени.
+ * <p>
+ * Индекс строится за один проход по колонке и хранит для каждого торгового дня (последовательности идущих подряд
+ * меток времени с одной датой) его дату и индекс первой метки времени, а для каждой метки времени -- порядковый
+ * номер её торгового дня. Поэтому запросы о первой и последней свече дня и о дне свечи выполняются за O(1),
+ * а поиск дня по дате -- двоичным поиском за O(log(количество дней)).
+ * <p>
+ * Индекс соответствует колонке на момент построения (см. {@link #length()}). Поиск по дате предполагает,
+ * что колонка отсортирована по возрастанию.
+ *
+ * @see DayTradingSession
+ */
+public final class SessionIndex {
+    private final LongColumn timeCode;
+    private final int length;
+    private final int days;
+    private final int[] dates;
+    private final int[] dayStarts;
+    private final int[] barDays;
+
+    private SessionIndex(final LongColumn timeCode) {
+        this.timeCode = timeCode;
+        length = timeCode.length();
+        barDays = new int[length];
+        int[] dayDates = new int[16];
+        int[] starts = new int[17];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            final int yyyymmdd = TimeCodes.yyyymmdd(timeCode.get(i));
+            if (count == 0 || dayDates[count - 1] != yyyymmdd) {
+                if (count == dayDates.length) {
+                    dayDates = Arrays.copyOf(dayDates, 2 * count);
+                    starts = Arrays.copyOf(starts, 2 * count + 1);
+                }
+                dayDates[count] = yyyymmdd;
+                starts[count] = i;
+                count++;
+            }
+            barDays[i] = count - 1;
+        }
+        days = count;
+        dates = Arrays.copyOf(dayDates, count);
+        dayStarts = Arrays.copyOf(starts, count + 1);
+        dayStarts[count] = length;
+    }
+
+    /**
+     * Построить индекс торговых дней.
+     *
+     * @param timeCode колонка с метками времени
+     * @return индекс
+     */
+    public static SessionIndex of(final LongColumn timeCode) {
+        return new SessionIndex(timeCode);
+    }
+
+    /**
+     * @return колонка, по которой построен индекс
+     */
+    public LongColumn timeCode() {
+        return timeCode;
+    }
+
+    /**
+     * @return длина колонки на момент построения индекса
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return {@code true}, если индекс построен по этой колонке и её длина не изменилась
+     */
+    public boolean isValidFor(final LongColumn column) {
+        return column == timeCode && column.length() == length;
+    }
+
+    /**
+     * @return количество торговых дней
+     */
+    public int days() {
+        return days;
+    }
+
+    /**
+     * @param index индекс метки времени
+     * @return порядковый номер торгового дня, которому принадлежит метка времени
+     */
+    public int day(final int index) {
+        return barDays[index];
+    }
+
+    /**
+     * @param day порядковый номер торгового дня
+     * @return дата торгового дня в формате YYYYMMDD
+     */
+    public int date(final int day) {
+        return dates[day];
+    }
+
+    /**
+     * @param day порядковый номер торгового дня
+     * @return индекс первой метки времени торгового дня
+     */
+    public int firstIndex(final int day) {
+        return dayStarts[day];
+    }
+
+    /**
+     * @param day порядковый номер торгового дня
+     * @return индекс последней метки времени торгового дня
+     */
+    public int lastIndex(final int day) {
+        return dayStarts[day + 1] - 1;
+    }
+
+    /**
+     * @see DayTradingSession#isFirstSessionCandle(LongColumn, int)
+     */
+    public boolean isFirstSessionCandle(final int index) {
+        return dayStarts[barDays[index]] == index;
+    }
+
+    /**
+     * @see DayTradingSession#isLastSessionCandle(LongColumn, int)
+     */
+    public boolean isLastSessionCandle(final int index) {
+        return dayStarts[barDays[index] + 1] == index + 1;
+    }
+
+    /**
+     * @see DayTradingSession#getFirstSessionCandleIndex(LongColumn, int)
+     */
+    public int getFirstSessionCandleIndex(final int index) {
+        return dayStarts[barDays[index]];
+    }
+
+    /**
+     * @see DayTradingSession#getLastSessionCandleIndex(LongColumn, int)
+     */
+    public int getLastSessionCandleIndex(final int index) {
+        return dayStarts[barDays[index] + 1] - 1;
+    }
+
+    /**
+     * Найти торговый день по дате.
+     *
+     * @param yyyymmdd дата в формате YYYYMMDD
+     * @return порядковый номер торгового дня или {@code (-(insertion point) - 1)}, если дня с такой датой нет,
+     * как в методе {@link Arrays#binarySearch(int[], int)}
+     */
+    public int findDay(final int yyyymmdd) {
+        return Arrays.binarySearch(dates, 0, days, yyyymmdd);
+    }
+
+    /**
+     * @param yyyymmdd дата в формате YYYYMMDD
+     * @return индекс первой метки времени с указанной датой или {@link #length()}, если таких меток нет
+     */
+    public int getFirstDayIndex(final int yyyymmdd) {
+        final int day = findDay(yyyymmdd);
+        return (day >= 0) ? dayStarts[day] : length;
+    }
+
+    /**
+     * @param yyyymmdd дата в формате YYYYMMDD
+     * @return индекс последней метки времени с указанной датой или (-1), если таких меток нет
+     */
+    public int getLastDayIndex(final int yyyymmdd) {
+        final int day = findDay(yyyymmdd);
+        return (day >= 0) ? dayStarts[day + 1] - 1 : -1;
+    }
+}
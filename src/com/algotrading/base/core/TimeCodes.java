@@ -1,10 +1,13 @@
 package com.algotrading.base.core;
 
+import com.algotrading.base.core.columns.IntColumn;
+import com.algotrading.base.core.columns.LongColumn;
 import com.algotrading.base.core.values.DoubleValue;
 import com.algotrading.base.core.values.IntValue;
 
 import java.time.*;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
 import java.util.concurrent.TimeUnit;
@@ -16,11 +19,33 @@ import java.util.concurrent.TimeUnit;
  * Зимнее/летнее время и временные зоны в расчёт не берутся.
  */
 public class TimeCodes {
+    /**
+     * Первый год, для которого количество дней от начала эпохи берётся из таблицы.
+     */
+    private static final int TABLE_MIN_YEAR = 1900;
+    /**
+     * Год, следующий за последним годом, для которого количество дней от начала эпохи берётся из таблицы.
+     */
+    private static final int TABLE_MAX_YEAR = 2100;
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    /**
+     * Количество дней от 1 января 1970 г. до первого числа каждого месяца годов
+     * [{@link #TABLE_MIN_YEAR}, {@link #TABLE_MAX_YEAR}) и до 1 января {@link #TABLE_MAX_YEAR} г.
+     */
+    private static final int[] MONTH_START_DAYS = monthStartDays();
 
     private TimeCodes() {
         throw new UnsupportedOperationException();
     }
 
+    private static int[] monthStartDays() {
+        final int[] days = new int[(TABLE_MAX_YEAR - TABLE_MIN_YEAR) * 12 + 1];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = (int) LocalDate.of(TABLE_MIN_YEAR + i / 12, i % 12 + 1, 1).toEpochDay();
+        }
+        return days;
+    }
+
     /**
      * Получить метку времени t.
      *
@@ -169,6 +194,9 @@ public class TimeCodes {
     }
 
     /**
+     * Метка времени интерпретируется во временной зоне по умолчанию. Метод создаёт объект календаря,
+     * для вычислений без учёта временных зон следует использовать метод {@link #epochMillis(long)}.
+     *
      * @return количество миллисекунд между t и полуночью 1 января 1970 г.
      */
     @SuppressWarnings("MagicConstant")
@@ -190,6 +218,266 @@ public class TimeCodes {
         return c.getTimeInMillis() + ms;
     }
 
+    /**
+     * Получить количество дней от 1 января 1970 г. до даты. Для 1900-2099 гг. количество дней
+     * берётся из таблицы и метод не создаёт объектов.
+     *
+     * @param yyyymmdd дата в формате YYYYMMDD
+     * @return количество дней от 1 января 1970 г.
+     * @throws IllegalArgumentException если месяц или день месяца недопустимы
+     */
+    public static long epochDay(final int yyyymmdd) {
+        final int year = yyyymmdd / 10000;
+        final int month = (yyyymmdd / 100) % 100;
+        final int day = yyyymmdd % 100;
+        if (month < 1 || month > 12 || day < 1) {
+            throw new IllegalArgumentException("Invalid date " + yyyymmdd);
+        }
+        if (TABLE_MIN_YEAR <= year && year < TABLE_MAX_YEAR) {
+            final int i = (year - TABLE_MIN_YEAR) * 12 + month - 1;
+            if (day > MONTH_START_DAYS[i + 1] - MONTH_START_DAYS[i]) {
+                throw new IllegalArgumentException("Invalid date " + yyyymmdd);
+            }
+            return MONTH_START_DAYS[i] + day - 1;
+        }
+        if (day > YearMonth.of(year, month).lengthOfMonth()) {
+            throw new IllegalArgumentException("Invalid date " + yyyymmdd);
+        }
+        return LocalDate.of(year, month, day).toEpochDay();
+    }
+
+    /**
+     * Получить дату по количеству дней от 1 января 1970 г.
+     *
+     * @param epochDay количество дней от 1 января 1970 г.
+     * @return дата в формате YYYYMMDD
+     * @see #epochDay(int)
+     */
+    public static int yyyymmddOfEpochDay(final long epochDay) {
+        if (MONTH_START_DAYS[0] <= epochDay && epochDay < MONTH_START_DAYS[MONTH_START_DAYS.length - 1]) {
+            int i = Arrays.binarySearch(MONTH_START_DAYS, (int) epochDay);
+            if (i < 0) {
+                i = -i - 2;
+            }
+            return (TABLE_MIN_YEAR + i / 12) * 10000 + (i % 12 + 1) * 100 + (int) (epochDay - MONTH_START_DAYS[i]) + 1;
+        }
+        final LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    /**
+     * Получить количество миллисекунд от начала эпохи (1 января 1970 г. 00:00:00.000) до метки времени
+     * без учёта временных зон, то есть так, как если бы метка времени была задана в UTC.
+     *
+     * @param t метка времени
+     * @return количество миллисекунд от начала эпохи
+     */
+    public static long epochMillis(final long t) {
+        return epochDay(yyyymmdd(t)) * MILLIS_PER_DAY + millisOfDay(t);
+    }
+
+    /**
+     * Получить метку времени по количеству миллисекунд от начала эпохи.
+     *
+     * @param epochMillis количество миллисекунд от начала эпохи
+     * @return метка времени
+     * @see #epochMillis(long)
+     */
+    public static long fromEpochMillis(final long epochMillis) {
+        final long epochDay = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        return yyyymmddOfEpochDay(epochDay) * 1_000000_000L + timeOfDay(epochMillis - epochDay * MILLIS_PER_DAY);
+    }
+
+    /**
+     * Преобразовать метки времени в количество миллисекунд от начала эпохи, см. {@link #epochMillis(long)}.
+     * <p>
+     * Для идущих подряд меток времени с одной датой количество дней до даты вычисляется один раз.
+     *
+     * @param timeCode колонка с метками времени
+     * @param name     название колонки результата
+     * @return колонка с количеством миллисекунд от начала эпохи
+     */
+    public static LongColumn epochMillis(final LongColumn timeCode, final String name) {
+        final int len = timeCode.length();
+        final LongColumn result = new LongColumn(name, len);
+        int date = -1;
+        long dateMillis = 0L;
+        for (int i = 0; i < len; i++) {
+            final long t = timeCode.get(i);
+            if (yyyymmdd(t) != date) {
+                date = yyyymmdd(t);
+                dateMillis = epochDay(date) * MILLIS_PER_DAY;
+            }
+            result.set(i, dateMillis + millisOfDay(t));
+        }
+        return result;
+    }
+
+    /**
+     * Преобразовать количество миллисекунд от начала эпохи в метки времени, см. {@link #fromEpochMillis(long)}.
+     * <p>
+     * Для идущих подряд значений из одних суток дата вычисляется один раз.
+     *
+     * @param epochMillis колонка с количеством миллисекунд от начала эпохи
+     * @param name        название колонки результата
+     * @return колонка с метками времени
+     */
+    public static LongColumn fromEpochMillis(final LongColumn epochMillis, final String name) {
+        final int len = epochMillis.length();
+        final LongColumn result = new LongColumn(name, len);
+        long dayStart = 0L;
+        long dayEnd = 0L;
+        long date = 0L;
+        for (int i = 0; i < len; i++) {
+            final long millis = epochMillis.get(i);
+            if (millis < dayStart || millis >= dayEnd) {
+                final long epochDay = Math.floorDiv(millis, MILLIS_PER_DAY);
+                dayStart = epochDay * MILLIS_PER_DAY;
+                dayEnd = dayStart + MILLIS_PER_DAY;
+                date = yyyymmddOfEpochDay(epochDay) * 1_000000_000L;
+            }
+            result.set(i, date + timeOfDay(millis - dayStart));
+        }
+        return result;
+    }
+
+    /**
+     * Вычислить даты меток времени, см. {@link #yyyymmdd(long)}.
+     *
+     * @param timeCode колонка с метками времени
+     * @param name     название колонки результата
+     * @return колонка с датами в формате YYYYMMDD
+     */
+    public static IntColumn yyyymmdd(final LongColumn timeCode, final String name) {
+        final int len = timeCode.length();
+        final IntColumn result = new IntColumn(name, len);
+        for (int i = 0; i < len; i++) {
+            result.set(i, (int) (timeCode.get(i) / 1_000000_000L));
+        }
+        return result;
+    }
+
+    /**
+     * Вычислить время дня меток времени с точностью до минут, см. {@link #hhmm(long)}.
+     *
+     * @param timeCode колонка с метками времени
+     * @param name     название колонки результата
+     * @return колонка со временем в формате HHMM
+     */
+    public static IntColumn hhmm(final LongColumn timeCode, final String name) {
+        final int len = timeCode.length();
+        final IntColumn result = new IntColumn(name, len);
+        for (int i = 0; i < len; i++) {
+            result.set(i, (int) ((timeCode.get(i) / 1_00_000L) % 1_00_00L));
+        }
+        return result;
+    }
+
+    /**
+     * Вычислить время дня меток времени с точностью до секунд, см. {@link #hhmmss(long)}.
+     *
+     * @param timeCode колонка с метками времени
+     * @param name     название колонки результата
+     * @return колонка со временем в формате HHMMSS
+     */
+    public static IntColumn hhmmss(final LongColumn timeCode, final String name) {
+        final int len = timeCode.length();
+        final IntColumn result = new IntColumn(name, len);
+        for (int i = 0; i < len; i++) {
+            result.set(i, (int) ((timeCode.get(i) / 1000L) % 1_00_00_00L));
+        }
+        return result;
+    }
+
+    /**
+     * Вычислить дни недели меток времени. Для идущих подряд меток времени с одной датой день недели
+     * вычисляется один раз.
+     *
+     * @param timeCode колонка с метками времени
+     * @param name     название колонки результата
+     * @return колонка с номерами дней недели от 1 (понедельник) до 7 (воскресенье), см. {@link DayOfWeek#getValue()}
+     */
+    public static IntColumn dayOfWeek(final LongColumn timeCode, final String name) {
+        final int len = timeCode.length();
+        final IntColumn result = new IntColumn(name, len);
+        int date = -1;
+        int dayOfWeek = 0;
+        for (int i = 0; i < len; i++) {
+            final int yyyymmdd = yyyymmdd(timeCode.get(i));
+            if (yyyymmdd != date) {
+                date = yyyymmdd;
+                dayOfWeek = dayOfWeekOfEpochDay(epochDay(date));
+            }
+            result.set(i, dayOfWeek);
+        }
+        return result;
+    }
+
+    /**
+     * Вычислить порядковые номера таймфреймов меток времени: номер увеличивается на 1, когда метка времени
+     * начала таймфрейма (см. {@link #getTimeFrameStart(long, int, TimeUnit)}) отличается от предыдущей.
+     * По этим номерам строки группируются без повторного разбора меток времени.
+     *
+     * @param timeCode колонка с метками времени
+     * @param period   период времени (делитель 60 для минут и секунд, делитель 24 для часов)
+     * @param unit     единица измерения времени ({@link TimeUnit#HOURS}, {@link TimeUnit#MINUTES},
+     *                 {@link TimeUnit#SECONDS}) или {@link TimeUnit#DAYS}
+     * @param name     название колонки результата
+     * @return колонка с номерами таймфреймов, начиная с 0
+     */
+    public static IntColumn timeFrameIds(final LongColumn timeCode,
+                                         final int period,
+                                         final TimeUnit unit,
+                                         final String name) {
+        final int len = timeCode.length();
+        final IntColumn result = new IntColumn(name, len);
+        if (len == 0) {
+            return result;
+        }
+        final long frameLength = period * switch (unit) {
+            case DAYS -> 1_00_00_00_000L;
+            case HOURS -> 1_00_00_000L;
+            case MINUTES -> 1_00_000L;
+            default -> 1_000L;
+        };
+        int id = 0;
+        long frameStart = getTimeFrameStart(timeCode.get(0), period, unit);
+        // граница таймфрейма -- его начало плюс длина, например, 10:45 + 15 мин = "10:60"
+        long frameLimit = frameStart + frameLength;
+        for (int i = 0; i < len; i++) {
+            final long t = timeCode.get(i);
+            if (t < frameStart || t >= frameLimit) {
+                final long start = getTimeFrameStart(t, period, unit);
+                if (start != frameStart) {
+                    id++;
+                    frameStart = start;
+                    frameLimit = start + frameLength;
+                }
+            }
+            result.set(i, id);
+        }
+        return result;
+    }
+
+    /**
+     * @return количество миллисекунд от начала суток до метки времени
+     */
+    private static long millisOfDay(final long t) {
+        final long hhmmssmil = t % 1_000000_000L;
+        return (hhmmssmil / 1_00_00_000L) * (60L * 60 * 1000)
+               + ((hhmmssmil / 1_00_000L) % 100L) * (60L * 1000)
+               + ((hhmmssmil / 1000L) % 100L) * 1000L
+               + hhmmssmil % 1000L;
+    }
+
+    /**
+     * @return время дня в формате HHMMSSmil по количеству миллисекунд от начала суток
+     */
+    private static long timeOfDay(final long millisOfDay) {
+        final long sec = millisOfDay / 1000L;
+        return ((sec / 3600L) * 1_00_00L + ((sec / 60L) % 60L) * 1_00L + sec % 60L) * 1000L + millisOfDay % 1000L;
+    }
+
     /**
      * Преобразовать метку времени в объект типа {@link LocalDateTime}.
      *
@@ -239,7 +527,7 @@ public class TimeCodes {
             d += ((tEnd % 100L) - (tStart % 100L)) * 60L * 60L * 1000L; // hour
             return d;
         } else { // different dates
-            return timeInMillis(tEnd) - timeInMillis(tStart);
+            return epochMillis(tEnd) - epochMillis(tStart);
         }
     }
 
@@ -328,7 +616,14 @@ public class TimeCodes {
      * @return день недели
      */
     public static DayOfWeek dayOfWeek(final long t) {
-        return LocalDate.of(year(t), month(t), day(t)).getDayOfWeek();
+        return DayOfWeek.of(dayOfWeekOfEpochDay(epochDay(yyyymmdd(t))));
+    }
+
+    /**
+     * @return номер дня недели от 1 (понедельник) до 7 (воскресенье), 1 января 1970 г. -- четверг
+     */
+    private static int dayOfWeekOfEpochDay(final long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L) + 1;
     }
 
     /**
@@ -399,26 +694,17 @@ public class TimeCodes {
                 if (period < 1 || (24 % period != 0)) {
                     throw new IllegalArgumentException("period=" + period + "hour");
                 }
-                final long yymmdd000000000 = t - t % 1_00_00_00_000L;
-                int hour = hour(t);
-                hour = (hour / period) * period;
-                return yymmdd000000000 + hour * 1_00_00_000L;
+                return t - t % 1_00_00_000L - (hour(t) % period) * 1_00_00_000L;
             case MINUTES:
                 if (period < 1 || (60 % period != 0)) {
                     throw new IllegalArgumentException("period=" + period + "min");
                 }
-                final long yymmddhh0000000 = t - t % 1_00_00_000L;
-                int min = min(t);
-                min = (min / period) * period;
-                return yymmddhh0000000 + min * 1_00_000L;
+                return t - t % 1_00_000L - (min(t) % period) * 1_00_000L;
             case SECONDS:
                 if (period < 1 || (60 % period != 0)) {
                     throw new IllegalArgumentException("period=" + period + "sec");
                 }
-                final long yymmddhhmm00000 = t - t % 1_00_000L;
-                int sec = sec(t);
-                sec = (sec / period) * period;
-                return yymmddhhmm00000 + sec * 1_000L;
+                return t - t % 1_000L - (sec(t) % period) * 1_000L;
             default:
                 throw new IllegalArgumentException("Illegal time unit " + unit);
         }
@@ -475,21 +761,13 @@ public class TimeCodes {
      * @param yyyymmdd дата
      * @param hhmmss   время
      * @return unix-время
+     * @throws IllegalArgumentException если дата или время недопустимы
      */
     public static long getUnixTime(final int yyyymmdd, final int hhmmss) {
-        int t = yyyymmdd;
-        final int day = t % 100;
-        t /= 100;
-        final int month = t % 100;
-        t /= 100;
-        final int year = t;
-        t = hhmmss;
-        final int sec = t % 100;
-        t /= 100;
-        final int min = t % 100;
-        t /= 100;
-        final int hour = t;
-        return ZonedDateTime.of(year, month, day, hour, min, sec, 0, ZoneId.of("Z")).toEpochSecond();
+        if (hhmmss < 0 || hhmmss / 10000 > 23 || (hhmmss / 100) % 100 > 59 || hhmmss % 100 > 59) {
+            throw new IllegalArgumentException("Invalid time " + hhmmss);
+        }
+        return epochMillis(t(yyyymmdd, hhmmss)) / 1000L;
     }
 
     /**
@@ -509,6 +787,6 @@ public class TimeCodes {
      * @return метка временя для UTC
      */
     public static long fromUnixTime(final long unixTime) {
-        return t(LocalDateTime.ofEpochSecond(unixTime, 0, ZoneOffset.UTC));
+        return fromEpochMillis(unixTime * 1000L);
     }
 }
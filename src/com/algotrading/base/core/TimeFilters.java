@@ -1,10 +1,15 @@
 package com.algotrading.base.core;
 
-import java.time.LocalDate;
+import com.algotrading.base.core.columns.LongColumn;
+
+import java.util.Arrays;
 import java.util.function.LongPredicate;
 
 /**
  * Фильтры по времени.
+ * <p>
+ * Фильтры, возвращаемые методами этого класса, можно вычислить сразу для всей колонки меток времени
+ * методом {@link #mask(LongColumn, LongPredicate)}.
  */
 public class TimeFilters {
 
@@ -20,17 +25,7 @@ public class TimeFilters {
      * @return фильтр
      */
     public static LongPredicate between(final int hhmmFrom, final int hhmmTill) {
-        if (hhmmFrom <= hhmmTill) {
-            return t -> {
-                final int hhmm = TimeCodes.hhmm(t);
-                return hhmmFrom <= hhmm && hhmm < hhmmTill;
-            };
-        } else {
-            return t -> {
-                final int hhmm = TimeCodes.hhmm(t);
-                return hhmm >= hhmmFrom || hhmm < hhmmTill;
-            };
-        }
+        return new Between(hhmmFrom, hhmmTill);
     }
 
     /**
@@ -39,10 +34,146 @@ public class TimeFilters {
      * @return фильтр
      */
     public static LongPredicate weekDays() {
-        return t -> switch (LocalDate.of(TimeCodes.year(t), TimeCodes.month(t), TimeCodes.day(t)).getDayOfWeek()) {
-            case MONDAY, TUESDAY, WEDNESDAY, THURSDAY, FRIDAY -> true;
-            case SATURDAY, SUNDAY -> false;
-        };
+        return WeekDays.INSTANCE;
+    }
+
+    /**
+     * Вычислить фильтр для всех меток времени колонки.
+     * <p>
+     * Фильтры этого класса и их комбинации методом {@link LongPredicate#and(LongPredicate)} вычисляются
+     * в одном цикле по колонке без вызова фильтра для каждой метки времени, остальные фильтры
+     * вызываются для каждой метки времени.
+     *
+     * @param timeCode колонка с метками времени
+     * @param filter   фильтр
+     * @return массив, где {@code true} соответствует меткам времени, прошедшим фильтр
+     */
+    public static boolean[] mask(final LongColumn timeCode, final LongPredicate filter) {
+        final int len = timeCode.length();
+        final boolean[] mask = new boolean[len];
+        if (filter instanceof final ColumnFilter columnFilter) {
+            columnFilter.fill(timeCode, mask);
+        } else {
+            for (int i = 0; i < len; i++) {
+                mask[i] = filter.test(timeCode.get(i));
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Фильтр, который можно вычислить сразу для всей колонки меток времени.
+     */
+    private abstract static class ColumnFilter implements LongPredicate {
+
+        /**
+         * Сбросить в {@code false} элементы массива, соответствующие меткам времени, не прошедшим фильтр.
+         *
+         * @param timeCode колонка с метками времени
+         * @param mask     массив той же длины, что и колонка
+         */
+        abstract void apply(LongColumn timeCode, boolean[] mask);
+
+        final void fill(final LongColumn timeCode, final boolean[] mask) {
+            Arrays.fill(mask, true);
+            apply(timeCode, mask);
+        }
+
+        @Override
+        public LongPredicate and(final LongPredicate other) {
+            if (!(other instanceof final ColumnFilter otherFilter)) {
+                return LongPredicate.super.and(other);
+            }
+            final ColumnFilter self = this;
+            return new ColumnFilter() {
+                @Override
+                public boolean test(final long t) {
+                    return self.test(t) && otherFilter.test(t);
+                }
+
+                @Override
+                void apply(final LongColumn timeCode, final boolean[] mask) {
+                    self.apply(timeCode, mask);
+                    otherFilter.apply(timeCode, mask);
+                }
+            };
+        }
+    }
+
+    private static final class Between extends ColumnFilter {
+        private final int hhmmFrom;
+        private final int hhmmTill;
+
+        Between(final int hhmmFrom, final int hhmmTill) {
+            this.hhmmFrom = hhmmFrom;
+            this.hhmmTill = hhmmTill;
+        }
+
+        @Override
+        public boolean test(final long t) {
+            final int hhmm = TimeCodes.hhmm(t);
+            return (hhmmFrom <= hhmmTill) ? hhmmFrom <= hhmm && hhmm < hhmmTill
+                    : hhmm >= hhmmFrom || hhmm < hhmmTill;
+        }
+
+        @Override
+        void apply(final LongColumn timeCode, final boolean[] mask) {
+            final int len = mask.length;
+            if (hhmmFrom <= hhmmTill) {
+                for (int i = 0; i < len; i++) {
+                    final int hhmm = (int) ((timeCode.get(i) / 1_00_000L) % 1_00_00L);
+                    mask[i] &= hhmmFrom <= hhmm && hhmm < hhmmTill;
+                }
+            } else {
+                for (int i = 0; i < len; i++) {
+                    final int hhmm = (int) ((timeCode.get(i) / 1_00_000L) % 1_00_00L);
+                    mask[i] &= hhmm >= hhmmFrom || hhmm < hhmmTill;
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "between(" + hhmmFrom + ", " + hhmmTill + ')';
+        }
+    }
+
+    /**
+     * Фильтр рабочих дней. День недели вычисляется один раз для идущих подряд меток времени с одной датой.
+     */
+    private static final class WeekDays extends ColumnFilter {
+        static final WeekDays INSTANCE = new WeekDays();
+
+        @Override
+        public boolean test(final long t) {
+            return isWeekDay(TimeCodes.yyyymmdd(t));
+        }
+
+        @Override
+        void apply(final LongColumn timeCode, final boolean[] mask) {
+            final int len = mask.length;
+            int date = -1;
+            boolean weekDay = false;
+            for (int i = 0; i < len; i++) {
+                final int yyyymmdd = TimeCodes.yyyymmdd(timeCode.get(i));
+                if (yyyymmdd != date) {
+                    date = yyyymmdd;
+                    weekDay = isWeekDay(date);
+                }
+                mask[i] &= weekDay;
+            }
+        }
+
+        private static boolean isWeekDay(final int yyyymmdd) {
+            // 1 января 1970 г. -- четверг, поэтому суббота и воскресенье дают остатки 2 и 3
+            final long r = Math.floorMod(TimeCodes.epochDay(yyyymmdd), 7L);
+            return r != 2 && r != 3;
+        }
+
+        @Override
+        public String toString() {
+            return "weekDays()";
+        }
     }
 
     /**
@@ -3,6 +3,8 @@ package com.algotrading.base.core.candles;
 import com.algotrading.base.core.columns.ColumnUpdater;
 import com.algotrading.base.core.columns.DoubleColumn;
 import com.algotrading.base.core.columns.LongColumn;
+import com.algotrading.base.core.indicators.Ema;
+import com.algotrading.base.core.indicators.Ma;
 import com.algotrading.base.core.series.FinSeries;
 
 import java.util.ArrayList;
@@ -24,7 +26,12 @@ import java.util.List;
  * значений в дополнительных колонках для добавленных новых данных.
  * <p>
  * При урезании временного ряда с удалением самых ранних свечей происходит полный
- * перерасчёт значений в дополнительных колонках.
+ * перерасчёт значений в дополнительных колонках, если обновляющий их объект не может
+ * сдвинуть своё состояние (см. {@link ColumnUpdater#truncate(int)}). Объекты, обновляющие индикаторы
+ * без перерасчёта при урезании, создаются, например, методами {@link Ma#updater} и {@link Ema#updater}.
+ * <p>
+ * В режиме кольцевого буфера колонки свечей хранят данные в кольцевых буферах
+ * (см. {@link FinSeries#newRingCandles()}), и урезание временного ряда не копирует данные.
  */
 public class UpdatableCandles {
     /**
@@ -40,12 +47,16 @@ public class UpdatableCandles {
     /**
      * Временной ряд свечей, возможно, с дополнительными колонками.
      */
-    public final FinSeries series = FinSeries.newCandles();
+    public final FinSeries series;
     /**
      * Список объектов типа {@link ColumnUpdater} для обновления
      * дополнительных колонок во временном ряде.
      */
     public final List<ColumnUpdater> updaters = new ArrayList<>();
+    /**
+     * Количество свечей, удалённых из начала временного ряда за всё время.
+     */
+    private long offset;
 
     /**
      * Конструктор.
@@ -54,11 +65,23 @@ public class UpdatableCandles {
      * @param targetSize     количество свечей после урезания временного ряда
      */
     public UpdatableCandles(final int truncationSize, final int targetSize) {
+        this(truncationSize, targetSize, false);
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param truncationSize граница количества свечей для урезания временного ряда
+     * @param targetSize     количество свечей после урезания временного ряда
+     * @param ringBuffer     {@code true}, если колонки свечей должны хранить данные в кольцевых буферах
+     */
+    public UpdatableCandles(final int truncationSize, final int targetSize, final boolean ringBuffer) {
         if (targetSize < 1 || truncationSize <= targetSize) {
             throw new IllegalArgumentException("targetSize = " + targetSize + ", truncationSize = " + truncationSize);
         }
         this.truncationSize = truncationSize;
         this.targetSize = targetSize;
+        series = ringBuffer ? FinSeries.newRingCandles() : FinSeries.newCandles();
     }
 
     /**
@@ -68,6 +91,16 @@ public class UpdatableCandles {
         return series.timeCode().length();
     }
 
+    /**
+     * Логический индекс свечи -- это её индекс во временном ряде плюс количество свечей,
+     * удалённых из начала временного ряда. Логический индекс свечи не меняется при урезании.
+     *
+     * @return логический индекс первой свечи временного ряда
+     */
+    public long offset() {
+        return offset;
+    }
+
     /**
      * Если это возможно, добавить к уже имеющимся свечам новые свечи.
      * <p>
@@ -104,7 +137,8 @@ public class UpdatableCandles {
                 oldClose.set(i, newClose.get(i));
                 oldVolume.set(i, newVolume.get(i));
             }
-            if (truncate()) {
+            offset = 0;
+            if (truncate() > 0) {
                 len = oldTimeCode.length();
             }
             for (final ColumnUpdater updater : updaters) {
@@ -138,7 +172,7 @@ public class UpdatableCandles {
                 || oldVolume.get(oldIndex) != newVolume.get(newIndex)) {
             return -1;
         }
-        int len = oldTimeCode.length() - 2 + newTimeCode.length() - newIndex;
+        final int len = oldTimeCode.length() - 2 + newTimeCode.length() - newIndex;
         oldSeries.setLength(len);
         for (int i = oldIndex + 1, j = newIndex + 1; j < newTimeCode.length(); i++, j++) {
             oldTimeCode.set(i, newTimeCode.get(j));
@@ -148,17 +182,7 @@ public class UpdatableCandles {
             oldClose.set(i, newClose.get(j));
             oldVolume.set(i, newVolume.get(j));
         }
-        final int startIndex;
-        if (truncate()) {
-            startIndex = 0;
-            len = oldTimeCode.length();
-        } else {
-            startIndex = oldIndex + 1;
-        }
-        for (final ColumnUpdater updater : updaters) {
-            updater.update(startIndex, len);
-        }
-        return startIndex;
+        return updateColumns(oldIndex + 1, truncate());
     }
 
     private static boolean shouldReplaceSeries(final LongColumn oldTimeCode, final LongColumn newTimeCode) {
@@ -168,14 +192,43 @@ public class UpdatableCandles {
                 && newTimeCode.getLast() >= oldTimeCode.getLast());
     }
 
-    private boolean truncate() {
+    /**
+     * Удалить самые старые свечи, если количество свечей достигло границы урезания.
+     *
+     * @return количество удалённых свечей
+     */
+    private int truncate() {
         final int size = series.timeCode().length();
         if (size < truncationSize) {
-            return false;
+            return 0;
         }
-        series.move(targetSize - size);
+        final int count = size - targetSize;
+        series.move(-count);
         series.setLength(targetSize);
-        return true;
+        offset += count;
+        return count;
+    }
+
+    /**
+     * Обновить дополнительные колонки после добавления новых данных.
+     *
+     * @param startIndex индекс первой новой свечи до урезания временного ряда
+     * @param removed    количество свечей, удалённых при урезании
+     * @return индекс, начиная с которого обновлены значения во всех колонках
+     */
+    private int updateColumns(final int startIndex, final int removed) {
+        final int len = length();
+        final int newStartIndex = Math.max(0, startIndex - removed);
+        int updatedIndex = newStartIndex;
+        for (final ColumnUpdater updater : updaters) {
+            if (removed == 0 || updater.truncate(removed)) {
+                updater.update(newStartIndex, len);
+            } else {
+                updater.update(0, len);
+                updatedIndex = 0;
+            }
+        }
+        return updatedIndex;
     }
 
     /**
@@ -221,16 +274,6 @@ public class UpdatableCandles {
         close.set(i, c);
         volume.set(i, v);
 
-        final int startIndex;
-        if (truncate()) {
-            startIndex = 0;
-            len = timeCode.length();
-        } else {
-            startIndex = i;
-        }
-        for (final ColumnUpdater updater : updaters) {
-            updater.update(startIndex, len);
-        }
-        return startIndex;
+        return updateColumns(i, truncate());
     }
 }
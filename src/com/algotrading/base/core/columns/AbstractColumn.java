@@ -50,6 +50,26 @@ public abstract class AbstractColumn {
 
     public abstract AbstractColumn subColumn(final int[] indices);
 
+    /**
+     * Получить представление фрагмента колонки [from, to) без копирования данных.
+     * Представление доступно только для чтения и отражает последующие изменения исходной колонки
+     * в пределах фрагмента.
+     *
+     * @param from индекс начала фрагмента (включительно)
+     * @param to   индекс конца фрагмента (не включительно)
+     * @return представление фрагмента колонки
+     */
+    public abstract AbstractColumn view(final int from, final int to);
+
+    /**
+     * Получить представление колонки, состоящее из элементов с заданными индексами, без копирования данных.
+     * Представление доступно только для чтения.
+     *
+     * @param indices индексы элементов исходной колонки
+     * @return представление колонки
+     */
+    public abstract AbstractColumn view(final int[] indices);
+
     public abstract AbstractColumn append(final AbstractColumn column);
 
     public abstract void move(final int offset);
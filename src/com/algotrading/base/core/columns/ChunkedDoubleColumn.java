@@ -0,0 +1,211 @@
+package com.algotrading.base.core.columns;
+
+import java.util.Arrays;
+
+/**
+ * Колонка значений типа double, данные которой хранятся в виде массивов фиксированного размера.
+ * <p>
+ * Добавление значения в конец колонки и доступ по индексу выполняются за время O(1).
+ * Увеличение ёмкости колонки выделяет новые фрагменты и не копирует ранее записанные данные,
+ * поэтому колонка подходит для длительного накопления данных, например, тиков.
+ */
+public class ChunkedDoubleColumn extends DoubleColumn {
+
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final double[][] EMPTY = new double[0][];
+
+    private double[][] chunks = EMPTY;
+    private int numChunks = 0;
+
+    public ChunkedDoubleColumn(final String name) {
+        super(name);
+    }
+
+    public ChunkedDoubleColumn(final String name, final int length) {
+        super(name);
+        allocateChunks(length);
+        this.length = length;
+    }
+
+    @Override
+    public void set(final int index, final double value) {
+        rangeCheck(index);
+        chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = value;
+    }
+
+    @Override
+    public double get(final int index) {
+        rangeCheck(index);
+        return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    @Override
+    public void get(int from, final double[] dst, int dstPos, int count) {
+        if (from < 0 || count < 0 || from + count > length) {
+            throw new IndexOutOfBoundsException("from=" + from + ", count=" + count + ", length=" + length);
+        }
+        while (count > 0) {
+            final int n = Math.min(count, CHUNK_SIZE - (from & CHUNK_MASK));
+            System.arraycopy(chunks[from >>> CHUNK_SHIFT], from & CHUNK_MASK, dst, dstPos, n);
+            from += n;
+            dstPos += n;
+            count -= n;
+        }
+    }
+
+    private void put(int from, final double[] src, int srcPos, int count) {
+        while (count > 0) {
+            final int n = Math.min(count, CHUNK_SIZE - (from & CHUNK_MASK));
+            System.arraycopy(src, srcPos, chunks[from >>> CHUNK_SHIFT], from & CHUNK_MASK, n);
+            from += n;
+            srcPos += n;
+            count -= n;
+        }
+    }
+
+    @Override
+    public void append(final double value) {
+        if ((length >>> CHUNK_SHIFT) == numChunks) {
+            ensureCapacity(length + 1);
+        }
+        chunks[length >>> CHUNK_SHIFT][length & CHUNK_MASK] = value;
+        length++;
+    }
+
+    @Override
+    public void ensureCapacity(final int capacity) {
+        allocateChunks(capacity);
+    }
+
+    private void allocateChunks(final int capacity) {
+        final int newNumChunks = (capacity + CHUNK_MASK) >>> CHUNK_SHIFT;
+        if (newNumChunks > numChunks) {
+            if (newNumChunks > chunks.length) {
+                chunks = Arrays.copyOf(chunks, Math.max(16, Math.max(chunks.length * 2, newNumChunks)));
+            }
+            while (numChunks < newNumChunks) {
+                chunks[numChunks++] = new double[CHUNK_SIZE];
+            }
+        }
+    }
+
+    @Override
+    public ChunkedDoubleColumn copy(final int from, final int to) {
+        final ChunkedDoubleColumn copy = new ChunkedDoubleColumn(name(), to - from);
+        for (int i = from; i < to; ) {
+            final int n = Math.min(to - i, CHUNK_SIZE - (i & CHUNK_MASK));
+            copy.put(i - from, chunks[i >>> CHUNK_SHIFT], i & CHUNK_MASK, n);
+            i += n;
+        }
+        return copy;
+    }
+
+    @Override
+    public ChunkedDoubleColumn subColumn(final int[] indices) {
+        final ChunkedDoubleColumn subColumn = new ChunkedDoubleColumn(name(), indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            subColumn.set(i, get(indices[i]));
+        }
+        return subColumn;
+    }
+
+    @Override
+    public ChunkedDoubleColumn append(final AbstractColumn column) {
+        final DoubleColumn doubleColumn = (DoubleColumn) column;
+        final int len = doubleColumn.length();
+        ensureCapacity(length + len);
+        final double[] buffer = new double[Math.min(len, CHUNK_SIZE)];
+        for (int from = 0; from < len; from += buffer.length) {
+            final int count = Math.min(buffer.length, len - from);
+            doubleColumn.get(from, buffer, 0, count);
+            put(length + from, buffer, 0, count);
+        }
+        length += len;
+        return this;
+    }
+
+    @Override
+    public void move(final int offset) {
+        if (offset > 0) {
+            ensureCapacity(length + offset);
+            for (int i = length - 1; i >= 0; i--) {
+                chunks[(i + offset) >>> CHUNK_SHIFT][(i + offset) & CHUNK_MASK] = chunks[i >>> CHUNK_SHIFT][i & CHUNK_MASK];
+            }
+        } else if (offset < 0) {
+            for (int i = -offset; i < length; i++) {
+                chunks[(i + offset) >>> CHUNK_SHIFT][(i + offset) & CHUNK_MASK] = chunks[i >>> CHUNK_SHIFT][i & CHUNK_MASK];
+            }
+        }
+    }
+
+    @Override
+    public int binarySearch(final double v) {
+        int low = 0;
+        int high = length() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final double midVal = chunks[mid >>> CHUNK_SHIFT][mid & CHUNK_MASK];
+
+            if (midVal < v) {
+                low = mid + 1;
+            } else if (midVal > v) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    public void reorder(final int[] indices) {
+        if (length != indices.length) {
+            throw new IndexOutOfBoundsException("length=" + length + ", indices.length=" + indices.length);
+        }
+        final double[][] newChunks = new double[chunks.length][];
+        for (int chunk = 0; chunk < numChunks; chunk++) {
+            newChunks[chunk] = new double[CHUNK_SIZE];
+        }
+        for (int i = 0; i < length; i++) {
+            newChunks[i >>> CHUNK_SHIFT][i & CHUNK_MASK] = chunks[indices[i] >>> CHUNK_SHIFT][indices[i] & CHUNK_MASK];
+        }
+        chunks = newChunks;
+    }
+
+    @Override
+    public double sum() {
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += chunks[i >>> CHUNK_SHIFT][i & CHUNK_MASK];
+        }
+        return sum;
+    }
+
+    @Override
+    public double average() {
+        if (length == 0) {
+            return Double.NaN;
+        }
+        return sum() / length;
+    }
+
+    @Override
+    public double max() {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < length; i++) {
+            max = Math.max(max, chunks[i >>> CHUNK_SHIFT][i & CHUNK_MASK]);
+        }
+        return max;
+    }
+
+    @Override
+    public double min() {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < length; i++) {
+            min = Math.min(min, chunks[i >>> CHUNK_SHIFT][i & CHUNK_MASK]);
+        }
+        return min;
+    }
+}
@@ -0,0 +1,176 @@
+package com.algotrading.base.core.columns;
+
+import java.util.Arrays;
+
+/**
+ * Колонка значений типа long, данные которой хранятся в виде массивов фиксированного размера.
+ * <p>
+ * Добавление значения в конец колонки и доступ по индексу выполняются за время O(1).
+ * Увеличение ёмкости колонки выделяет новые фрагменты и не копирует ранее записанные данные,
+ * поэтому колонка подходит для длительного накопления данных, например, тиков.
+ */
+public class ChunkedLongColumn extends LongColumn {
+
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final long[][] EMPTY = new long[0][];
+
+    private long[][] chunks = EMPTY;
+    private int numChunks = 0;
+
+    public ChunkedLongColumn(final String name) {
+        super(name);
+    }
+
+    public ChunkedLongColumn(final String name, final int length) {
+        super(name);
+        allocateChunks(length);
+        this.length = length;
+    }
+
+    @Override
+    public void set(final int index, final long value) {
+        rangeCheck(index);
+        chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = value;
+    }
+
+    @Override
+    public long get(final int index) {
+        rangeCheck(index);
+        return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    @Override
+    public void get(int from, final long[] dst, int dstPos, int count) {
+        if (from < 0 || count < 0 || from + count > length) {
+            throw new IndexOutOfBoundsException("from=" + from + ", count=" + count + ", length=" + length);
+        }
+        while (count > 0) {
+            final int n = Math.min(count, CHUNK_SIZE - (from & CHUNK_MASK));
+            System.arraycopy(chunks[from >>> CHUNK_SHIFT], from & CHUNK_MASK, dst, dstPos, n);
+            from += n;
+            dstPos += n;
+            count -= n;
+        }
+    }
+
+    private void put(int from, final long[] src, int srcPos, int count) {
+        while (count > 0) {
+            final int n = Math.min(count, CHUNK_SIZE - (from & CHUNK_MASK));
+            System.arraycopy(src, srcPos, chunks[from >>> CHUNK_SHIFT], from & CHUNK_MASK, n);
+            from += n;
+            srcPos += n;
+            count -= n;
+        }
+    }
+
+    @Override
+    public void append(final long value) {
+        if ((length >>> CHUNK_SHIFT) == numChunks) {
+            ensureCapacity(length + 1);
+        }
+        chunks[length >>> CHUNK_SHIFT][length & CHUNK_MASK] = value;
+        length++;
+    }
+
+    @Override
+    public void ensureCapacity(final int capacity) {
+        allocateChunks(capacity);
+    }
+
+    private void allocateChunks(final int capacity) {
+        final int newNumChunks = (capacity + CHUNK_MASK) >>> CHUNK_SHIFT;
+        if (newNumChunks > numChunks) {
+            if (newNumChunks > chunks.length) {
+                chunks = Arrays.copyOf(chunks, Math.max(16, Math.max(chunks.length * 2, newNumChunks)));
+            }
+            while (numChunks < newNumChunks) {
+                chunks[numChunks++] = new long[CHUNK_SIZE];
+            }
+        }
+    }
+
+    @Override
+    public ChunkedLongColumn copy(final int from, final int to) {
+        final ChunkedLongColumn copy = new ChunkedLongColumn(name(), to - from);
+        for (int i = from; i < to; ) {
+            final int n = Math.min(to - i, CHUNK_SIZE - (i & CHUNK_MASK));
+            copy.put(i - from, chunks[i >>> CHUNK_SHIFT], i & CHUNK_MASK, n);
+            i += n;
+        }
+        return copy;
+    }
+
+    @Override
+    public ChunkedLongColumn subColumn(final int[] indices) {
+        final ChunkedLongColumn subColumn = new ChunkedLongColumn(name(), indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            subColumn.set(i, get(indices[i]));
+        }
+        return subColumn;
+    }
+
+    @Override
+    public ChunkedLongColumn append(final AbstractColumn column) {
+        final LongColumn longColumn = (LongColumn) column;
+        final int len = longColumn.length();
+        ensureCapacity(length + len);
+        final long[] buffer = new long[Math.min(len, CHUNK_SIZE)];
+        for (int from = 0; from < len; from += buffer.length) {
+            final int count = Math.min(buffer.length, len - from);
+            longColumn.get(from, buffer, 0, count);
+            put(length + from, buffer, 0, count);
+        }
+        length += len;
+        return this;
+    }
+
+    @Override
+    public void move(final int offset) {
+        if (offset > 0) {
+            ensureCapacity(length + offset);
+            for (int i = length - 1; i >= 0; i--) {
+                chunks[(i + offset) >>> CHUNK_SHIFT][(i + offset) & CHUNK_MASK] = chunks[i >>> CHUNK_SHIFT][i & CHUNK_MASK];
+            }
+        } else if (offset < 0) {
+            for (int i = -offset; i < length; i++) {
+                chunks[(i + offset) >>> CHUNK_SHIFT][(i + offset) & CHUNK_MASK] = chunks[i >>> CHUNK_SHIFT][i & CHUNK_MASK];
+            }
+        }
+    }
+
+    @Override
+    public int binarySearch(final long v) {
+        int low = 0;
+        int high = length() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final long midVal = chunks[mid >>> CHUNK_SHIFT][mid & CHUNK_MASK];
+
+            if (midVal < v) {
+                low = mid + 1;
+            } else if (midVal > v) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    public void reorder(final int[] indices) {
+        if (length != indices.length) {
+            throw new IndexOutOfBoundsException("length=" + length + ", indices.length=" + indices.length);
+        }
+        final long[][] newChunks = new long[chunks.length][];
+        for (int chunk = 0; chunk < numChunks; chunk++) {
+            newChunks[chunk] = new long[CHUNK_SIZE];
+        }
+        for (int i = 0; i < length; i++) {
+            newChunks[i >>> CHUNK_SHIFT][i & CHUNK_MASK] = chunks[indices[i] >>> CHUNK_SHIFT][indices[i] & CHUNK_MASK];
+        }
+        chunks = newChunks;
+    }
+}
@@ -84,6 +84,16 @@ public class Column<T> extends AbstractColumn {
         return subColumn;
     }
 
+    @Override
+    public ColumnView<T> view(final int from, final int to) {
+        return new ColumnView<>(this, from, to);
+    }
+
+    @Override
+    public ColumnView<T> view(final int[] indices) {
+        return new ColumnView<>(this, indices.clone());
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public Column<T> append(final AbstractColumn column) {
@@ -92,7 +102,9 @@ public class Column<T> extends AbstractColumn {
             throw new ClassCastException("Cannot cast type " + tColumn.type() + " to " + type());
         }
         ensureCapacity(length + tColumn.length);
-        System.arraycopy(tColumn.data, 0, data, length, tColumn.length);
+        for (int i = 0; i < tColumn.length; i++) {
+            data[length + i] = tColumn.get(i);
+        }
         length += tColumn.length;
         return this;
     }
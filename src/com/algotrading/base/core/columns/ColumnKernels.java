@@ -0,0 +1,238 @@
+package com.algotrading.base.core.columns;
+
+/**
+ * Вычислительные ядра над массивами значений колонок (скалярная реализация).
+ * <p>
+ * Методы работают с первыми {@code n} элементами массивов, свёртки чисел типа double -- с диапазоном
+ * [from, to) массива. Результирующий массив может совпадать с одним из массивов-аргументов.
+ *
+ * @see VectorColumnKernels
+ */
+class ColumnKernels {
+
+    double sum(final double[] a, final int from, final int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    double max(final double[] a, final int from, final int to) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, a[i]);
+        }
+        return max;
+    }
+
+    double min(final double[] a, final int from, final int to) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, a[i]);
+        }
+        return min;
+    }
+
+    long sum(final long[] a, final int n) {
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    long max(final long[] a, final int n) {
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            max = Math.max(max, a[i]);
+        }
+        return max;
+    }
+
+    long min(final long[] a, final int n) {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            min = Math.min(min, a[i]);
+        }
+        return min;
+    }
+
+    long sum(final int[] a, final int n) {
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    int max(final int[] a, final int n) {
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            max = Math.max(max, a[i]);
+        }
+        return max;
+    }
+
+    int min(final int[] a, final int n) {
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            min = Math.min(min, a[i]);
+        }
+        return min;
+    }
+
+    boolean isIncreasing(final double[] a, final int n) {
+        for (int i = 1; i < n; i++) {
+            if (a[i] <= a[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isNonDecreasing(final double[] a, final int n) {
+        for (int i = 1; i < n; i++) {
+            if (a[i] < a[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isIncreasing(final long[] a, final int n) {
+        for (int i = 1; i < n; i++) {
+            if (a[i] <= a[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isNonDecreasing(final long[] a, final int n) {
+        for (int i = 1; i < n; i++) {
+            if (a[i] < a[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isIncreasing(final int[] a, final int n) {
+        for (int i = 1; i < n; i++) {
+            if (a[i] <= a[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isNonDecreasing(final int[] a, final int n) {
+        for (int i = 1; i < n; i++) {
+            if (a[i] < a[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void add(final double[] a, final double[] b, final double[] r, final int n) {
+        for (int i = 0; i < n; i++) {
+            r[i] = a[i] + b[i];
+        }
+    }
+
+    void add(final double[] a, final double b, final double[] r, final int n) {
+        for (int i = 0; i < n; i++) {
+            r[i] = a[i] + b;
+        }
+    }
+
+    void subtract(final double[] a, final double[] b, final double[] r, final int n) {
+        for (int i = 0; i < n; i++) {
+            r[i] = a[i] - b[i];
+        }
+    }
+
+    void subtract(final double[] a, final double b, final double[] r, final int n) {
+        for (int i = 0; i < n; i++) {
+            r[i] = a[i] - b;
+        }
+    }
+
+    void multiply(final double[] a, final double[] b, final double[] r, final int n) {
+        for (int i = 0; i < n; i++) {
+            r[i] = a[i] * b[i];
+        }
+    }
+
+    void multiply(final double[] a, final double b, final double[] r, final int n) {
+        for (int i = 0; i < n; i++) {
+            r[i] = a[i] * b;
+        }
+    }
+
+    void divide(final double[] a, final double[] b, final double[] r, final int n) {
+        for (int i = 0; i < n; i++) {
+            r[i] = a[i] / b[i];
+        }
+    }
+
+    void divide(final double[] a, final double b, final double[] r, final int n) {
+        for (int i = 0; i < n; i++) {
+            r[i] = a[i] / b;
+        }
+    }
+
+    void fma(final double[] a, final double[] b, final double[] c, final double[] r, final int n) {
+        for (int i = 0; i < n; i++) {
+            r[i] = Math.fma(a[i], b[i], c[i]);
+        }
+    }
+
+    void fma(final double[] a, final double b, final double c, final double[] r, final int n) {
+        for (int i = 0; i < n; i++) {
+            r[i] = Math.fma(a[i], b, c);
+        }
+    }
+
+    void greaterThan(final double[] a, final double b, final boolean[] mask, final int n) {
+        for (int i = 0; i < n; i++) {
+            mask[i] = a[i] > b;
+        }
+    }
+
+    void greaterThan(final double[] a, final double[] b, final boolean[] mask, final int n) {
+        for (int i = 0; i < n; i++) {
+            mask[i] = a[i] > b[i];
+        }
+    }
+
+    void lessThan(final double[] a, final double b, final boolean[] mask, final int n) {
+        for (int i = 0; i < n; i++) {
+            mask[i] = a[i] < b;
+        }
+    }
+
+    void lessThan(final double[] a, final double[] b, final boolean[] mask, final int n) {
+        for (int i = 0; i < n; i++) {
+            mask[i] = a[i] < b[i];
+        }
+    }
+
+    void cumulativeSum(final double[] a, final double[] r, final int n) {
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += a[i];
+            r[i] = sum;
+        }
+    }
+
+    void cumulativeSum(final long[] a, final long[] r, final int n) {
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += a[i];
+            r[i] = sum;
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package com.algotrading.base.core.columns;
+
+import java.util.logging.Logger;
+
+/**
+ * Векторные операции над колонками: свёртки, поэлементная арифметика, сравнения и накопленные суммы.
+ * <p>
+ * Если JVM запущена с опцией {@code --add-modules jdk.incubator.vector}, операции выполняются
+ * с использованием SIMD-инструкций, иначе -- скалярными циклами. Поэлементные операции в обоих случаях
+ * дают одинаковые результаты, сумма чисел типа double может отличаться в последних битах из-за другого
+ * порядка суммирования.
+ * <p>
+ * Колонки базовых типов {@link DoubleColumn}, {@link LongColumn}, {@link IntColumn} обрабатываются
+ * без копирования данных, колонки других типов (вне кучи, сжатые, представления и т.п.) --
+ * через промежуточный массив. Колонка результата должна иметь ту же длину, что и колонки-аргументы,
+ * и может совпадать с одной из них.
+ */
+public final class ColumnOps {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final ColumnKernels KERNELS = createKernels();
+
+    private ColumnOps() {
+        throw new UnsupportedOperationException();
+    }
+
+    private static ColumnKernels createKernels() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                // класс загружается по имени, чтобы без модуля jdk.incubator.vector не возникало ошибок связывания
+                return (ColumnKernels) Class.forName(ColumnKernels.class.getPackageName() + ".VectorColumnKernels")
+                        .getDeclaredConstructor()
+                        .newInstance();
+            } catch (final ReflectiveOperationException | LinkageError e) {
+                Logger.getLogger(ColumnOps.class.getName()).warning("Vector API is unavailable: " + e);
+            }
+        }
+        return new ColumnKernels();
+    }
+
+    /**
+     * @return {@code true}, если операции выполняются с использованием SIMD-инструкций
+     */
+    public static boolean isVectorized() {
+        return KERNELS.getClass() != ColumnKernels.class;
+    }
+
+    private static double[] values(final DoubleColumn column) {
+        if (column.getClass() == DoubleColumn.class) {
+            return column.data;
+        }
+        final double[] values = new double[column.length()];
+        column.get(0, values, 0, values.length);
+        return values;
+    }
+
+    private static long[] values(final LongColumn column) {
+        if (column.getClass() == LongColumn.class) {
+            return column.data;
+        }
+        final long[] values = new long[column.length()];
+        column.get(0, values, 0, values.length);
+        return values;
+    }
+
+    private static int[] values(final IntColumn column) {
+        if (column.getClass() == IntColumn.class) {
+            return column.data;
+        }
+        final int[] values = new int[column.length()];
+        column.get(0, values, 0, values.length);
+        return values;
+    }
+
+    private static double[] target(final DoubleColumn result) {
+        return (result.getClass() == DoubleColumn.class) ? result.data : new double[result.length()];
+    }
+
+    private static long[] target(final LongColumn result) {
+        return (result.getClass() == LongColumn.class) ? result.data : new long[result.length()];
+    }
+
+    private static void store(final DoubleColumn result, final double[] values) {
+        if (values != result.data) {
+            for (int i = 0; i < result.length(); i++) {
+                result.set(i, values[i]);
+            }
+        } else {
+            result.dataChanged();
+        }
+    }
+
+    private static void store(final LongColumn result, final long[] values) {
+        if (values != result.data) {
+            for (int i = 0; i < result.length(); i++) {
+                result.set(i, values[i]);
+            }
+        } else {
+            result.dataChanged();
+        }
+    }
+
+    private static int checkLength(final AbstractColumn... columns) {
+        final int len = columns[0].length();
+        for (final AbstractColumn column : columns) {
+            if (column.length() != len) {
+                throw new IllegalArgumentException("Column length mismatch for " + column + ", expected " + len);
+            }
+        }
+        return len;
+    }
+
+    public static double sum(final DoubleColumn column) {
+        return KERNELS.sum(values(column), 0, column.length());
+    }
+
+    public static double average(final DoubleColumn column) {
+        final int len = column.length();
+        return (len == 0) ? Double.NaN : KERNELS.sum(values(column), 0, len) / len;
+    }
+
+    public static double max(final DoubleColumn column) {
+        return KERNELS.max(values(column), 0, column.length());
+    }
+
+    public static double min(final DoubleColumn column) {
+        return KERNELS.min(values(column), 0, column.length());
+    }
+
+    /**
+     * Копия диапазона [from, to) колонки, не являющейся колонкой базового типа.
+     */
+    private static double[] values(final DoubleColumn column, final int from, final int to) {
+        final double[] values = new double[to - from];
+        column.get(from, values, 0, values.length);
+        return values;
+    }
+
+    private static void checkRange(final DoubleColumn column, final int from, final int to) {
+        if (from < 0 || from > to || to > column.length()) {
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + column.length());
+        }
+    }
+
+    public static double sum(final DoubleColumn column, final int from, final int to) {
+        checkRange(column, from, to);
+        if (column.getClass() == DoubleColumn.class) {
+            return KERNELS.sum(column.data, from, to);
+        }
+        return KERNELS.sum(values(column, from, to), 0, to - from);
+    }
+
+    public static double max(final DoubleColumn column, final int from, final int to) {
+        checkRange(column, from, to);
+        if (column.getClass() == DoubleColumn.class) {
+            return KERNELS.max(column.data, from, to);
+        }
+        return KERNELS.max(values(column, from, to), 0, to - from);
+    }
+
+    public static double min(final DoubleColumn column, final int from, final int to) {
+        checkRange(column, from, to);
+        if (column.getClass() == DoubleColumn.class) {
+            return KERNELS.min(column.data, from, to);
+        }
+        return KERNELS.min(values(column, from, to), 0, to - from);
+    }
+
+    public static long sum(final LongColumn column) {
+        return KERNELS.sum(values(column), column.length());
+    }
+
+    public static long max(final LongColumn column) {
+        return KERNELS.max(values(column), column.length());
+    }
+
+    public static long min(final LongColumn column) {
+        return KERNELS.min(values(column), column.length());
+    }
+
+    public static long sum(final IntColumn column) {
+        return KERNELS.sum(values(column), column.length());
+    }
+
+    public static int max(final IntColumn column) {
+        return KERNELS.max(values(column), column.length());
+    }
+
+    public static int min(final IntColumn column) {
+        return KERNELS.min(values(column), column.length());
+    }
+
+    public static boolean isIncreasing(final DoubleColumn column) {
+        return KERNELS.isIncreasing(values(column), column.length());
+    }
+
+    public static boolean isNonDecreasing(final DoubleColumn column) {
+        return KERNELS.isNonDecreasing(values(column), column.length());
+    }
+
+    public static boolean isIncreasing(final LongColumn column) {
+        return KERNELS.isIncreasing(values(column), column.length());
+    }
+
+    public static boolean isNonDecreasing(final LongColumn column) {
+        return KERNELS.isNonDecreasing(values(column), column.length());
+    }
+
+    public static boolean isIncreasing(final IntColumn column) {
+        return KERNELS.isIncreasing(values(column), column.length());
+    }
+
+    public static boolean isNonDecreasing(final IntColumn column) {
+        return KERNELS.isNonDecreasing(values(column), column.length());
+    }
+
+    /**
+     * result[i] = a[i] + b[i]
+     */
+    public static DoubleColumn add(final DoubleColumn a, final DoubleColumn b, final DoubleColumn result) {
+        final int len = checkLength(a, b, result);
+        final double[] r = target(result);
+        KERNELS.add(values(a), values(b), r, len);
+        store(result, r);
+        return result;
+    }
+
+    /**
+     * result[i] = a[i] + b
+     */
+    public static DoubleColumn add(final DoubleColumn a, final double b, final DoubleColumn result) {
+        final int len = checkLength(a, result);
+        final double[] r = target(result);
+        KERNELS.add(values(a), b, r, len);
+        store(result, r);
+        return result;
+    }
+
+    /**
+     * result[i] = a[i] - b[i]
+     */
+    public static DoubleColumn subtract(final DoubleColumn a, final DoubleColumn b, final DoubleColumn result) {
+        final int len = checkLength(a, b, result);
+        final double[] r = target(result);
+        KERNELS.subtract(values(a), values(b), r, len);
+        store(result, r);
+        return result;
+    }
+
+    /**
+     * result[i] = a[i] - b
+     */
+    public static DoubleColumn subtract(final DoubleColumn a, final double b, final DoubleColumn result) {
+        final int len = checkLength(a, result);
+        final double[] r = target(result);
+        KERNELS.subtract(values(a), b, r, len);
+        store(result, r);
+        return result;
+    }
+
+    /**
+     * result[i] = a[i] * b[i]
+     */
+    public static DoubleColumn multiply(final DoubleColumn a, final DoubleColumn b, final DoubleColumn result) {
+        final int len = checkLength(a, b, result);
+        final double[] r = target(result);
+        KERNELS.multiply(values(a), values(b), r, len);
+        store(result, r);
+        return result;
+    }
+
+    /**
+     * result[i] = a[i] * b
+     */
+    public static DoubleColumn multiply(final DoubleColumn a, final double b, final DoubleColumn result) {
+        final int len = checkLength(a, result);
+        final double[] r = target(result);
+        KERNELS.multiply(values(a), b, r, len);
+        store(result, r);
+        return result;
+    }
+
+    /**
+     * result[i] = a[i] / b[i]
+     */
+    public static DoubleColumn divide(final DoubleColumn a, final DoubleColumn b, final DoubleColumn result) {
+        final int len = checkLength(a, b, result);
+        final double[] r = target(result);
+        KERNELS.divide(values(a), values(b), r, len);
+        store(result, r);
+        return result;
+    }
+
+    /**
+     * result[i] = a[i] / b
+     */
+    public static DoubleColumn divide(final DoubleColumn a, final double b, final DoubleColumn result) {
+        final int len = checkLength(a, result);
+        final double[] r = target(result);
+        KERNELS.divide(values(a), b, r, len);
+        store(result, r);
+        return result;
+    }
+
+    /**
+     * result[i] = a[i] * b[i] + c[i] с однократным округлением, см. {@link Math#fma(double, double, double)}.
+     */
+    public static DoubleColumn fma(final DoubleColumn a, final DoubleColumn b, final DoubleColumn c,
+                                   final DoubleColumn result) {
+        final int len = checkLength(a, b, c, result);
+        final double[] r = target(result);
+        KERNELS.fma(values(a), values(b), values(c), r, len);
+        store(result, r);
+        return result;
+    }
+
+    /**
+     * result[i] = a[i] * b + c с однократным округлением, см. {@link Math#fma(double, double, double)}.
+     */
+    public static DoubleColumn fma(final DoubleColumn a, final double b, final double c, final DoubleColumn result) {
+        final int len = checkLength(a, result);
+        final double[] r = target(result);
+        KERNELS.fma(values(a), b, c, r, len);
+        store(result, r);
+        return result;
+    }
+
+    /**
+     * @return маска: mask[i] = a[i] > b
+     */
+    public static boolean[] greaterThan(final DoubleColumn a, final double b) {
+        final boolean[] mask = new boolean[a.length()];
+        KERNELS.greaterThan(values(a), b, mask, mask.length);
+        return mask;
+    }
+
+    /**
+     * @return маска: mask[i] = a[i] > b[i]
+     */
+    public static boolean[] greaterThan(final DoubleColumn a, final DoubleColumn b) {
+        final boolean[] mask = new boolean[checkLength(a, b)];
+        KERNELS.greaterThan(values(a), values(b), mask, mask.length);
+        return mask;
+    }
+
+    /**
+     * @return маска: mask[i] = a[i] < b
+     */
+    public static boolean[] lessThan(final DoubleColumn a, final double b) {
+        final boolean[] mask = new boolean[a.length()];
+        KERNELS.lessThan(values(a), b, mask, mask.length);
+        return mask;
+    }
+
+    /**
+     * @return маска: mask[i] = a[i] < b[i]
+     */
+    public static boolean[] lessThan(final DoubleColumn a, final DoubleColumn b) {
+        final boolean[] mask = new boolean[checkLength(a, b)];
+        KERNELS.lessThan(values(a), values(b), mask, mask.length);
+        return mask;
+    }
+
+    /**
+     * result[i] = a[0] + a[1] + ... + a[i]
+     */
+    public static DoubleColumn cumulativeSum(final DoubleColumn a, final DoubleColumn result) {
+        final int len = checkLength(a, result);
+        final double[] r = target(result);
+        KERNELS.cumulativeSum(values(a), r, len);
+        store(result, r);
+        return result;
+    }
+
+    /**
+     * result[i] = a[0] + a[1] + ... + a[i]
+     */
+    public static LongColumn cumulativeSum(final LongColumn a, final LongColumn result) {
+        final int len = checkLength(a, result);
+        final long[] r = target(result);
+        KERNELS.cumulativeSum(values(a), r, len);
+        store(result, r);
+        return result;
+    }
+}
@@ -12,4 +12,19 @@ public interface ColumnUpdater {
      * @param endIndex   индекс, до которого (исключая) нужно произвести обновление
      */
     void update(int startIndex, int endIndex);
+
+    /**
+     * Сообщить об удалении самых ранних значений: значения колонок уже сдвинуты к началу на {@code count} позиций.
+     * <p>
+     * Если значения в обновляемых колонках зависят только от предыдущих значений, объект может сдвинуть своё
+     * внутреннее состояние (например, индексы) на {@code count} позиций и вернуть {@code true}: тогда
+     * метод {@link #update(int, int)} будет вызван только для новых данных. Иначе значения будут вычислены
+     * заново с начала временного ряда.
+     *
+     * @param count количество удалённых значений
+     * @return {@code true}, если значения в обновляемых колонках остались корректными после сдвига
+     */
+    default boolean truncate(final int count) {
+        return false;
+    }
 }
@@ -0,0 +1,123 @@
+package com.algotrading.base.core.columns;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Представление фрагмента колонки типа {@link Column} без копирования данных.
+ * <p>
+ * Фрагмент задаётся либо диапазоном индексов [from, to) исходной колонки, либо массивом индексов.
+ * Представление доступно только для чтения. Для получения независимой копии данных
+ * следует использовать методы {@link #copy()} и {@link #copy(int, int)}.
+ */
+public class ColumnView<T> extends Column<T> {
+
+    private final Column<T> source;
+    private final int offset;
+    private final int[] indices;
+
+    ColumnView(final Column<T> source, final int from, final int to) {
+        super(source.name(), source.type());
+        if (from < 0 || from > to || to > source.length()) {
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + source.length());
+        }
+        this.source = source;
+        offset = from;
+        indices = null;
+        length = to - from;
+    }
+
+    ColumnView(final Column<T> source, final int[] indices) {
+        super(source.name(), source.type());
+        this.source = source;
+        offset = 0;
+        this.indices = requireNonNull(indices);
+        length = indices.length;
+    }
+
+    private int sourceIndex(final int index) {
+        if (index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        rangeCheck(index);
+        return (indices == null) ? offset + index : indices[index];
+    }
+
+    @Override
+    public void set(final int index, final T value) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public T get(final int index) {
+        return source.get(sourceIndex(index));
+    }
+
+    @Override
+    public void append(final T value) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public void ensureCapacity(final int capacity) {
+    }
+
+    @Override
+    public void setLength(final int newLength) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public Column<T> copy(final int from, final int to) {
+        final Column<T> copy = new Column<>(name(), type(), to - from);
+        for (int i = from; i < to; i++) {
+            copy.data[i - from] = get(i);
+        }
+        return copy;
+    }
+
+    @Override
+    public Column<T> subColumn(final int[] indices) {
+        final Column<T> subColumn = new Column<>(name(), type(), indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            subColumn.data[i] = get(indices[i]);
+        }
+        return subColumn;
+    }
+
+    @Override
+    public ColumnView<T> view(final int from, final int to) {
+        if (indices == null) {
+            if (from < 0 || from > to || to > length) {
+                throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + length);
+            }
+            return new ColumnView<>(source, offset + from, offset + to);
+        }
+        return new ColumnView<>(source, Arrays.copyOfRange(indices, from, to));
+    }
+
+    @Override
+    public ColumnView<T> view(final int[] indices) {
+        final int[] sourceIndices = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            sourceIndices[i] = sourceIndex(indices[i]);
+        }
+        return new ColumnView<>(source, sourceIndices);
+    }
+
+    @Override
+    public Column<T> append(final AbstractColumn column) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public void move(final int offset) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public void reorder(final int[] indices) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+}
@@ -0,0 +1,189 @@
+package com.algotrading.base.core.columns;
+
+import java.util.Arrays;
+
+/**
+ * Хранилище значений, представленных 64-битными целыми числами, в виде сжатых блоков.
+ * <p>
+ * Значения разбиты на блоки по {@link #BLOCK_SIZE} штук. Заполненные блоки хранятся в сжатом виде,
+ * последний (незаполненный) блок -- в несжатом, поэтому добавление значений в конец дешёвое.
+ * Для произвольного доступа последний прочитанный сжатый блок хранится в раскодированном виде.
+ * Изменения значений записываются в этот раскодированный блок, а блок кодируется заново только тогда,
+ * когда вместо него раскодируется другой блок или требуются сжатые данные (см. {@link #flush()}).
+ * <p>
+ * Объект не является потокобезопасным даже при одновременном чтении из нескольких потоков.
+ */
+final class CompressedBlocks {
+    static final int BLOCK_SHIFT = 10;
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    private static final byte[][] EMPTY = new byte[0][];
+
+    private final CompressionCodec codec;
+    /**
+     * Сжатые заполненные блоки.
+     */
+    private byte[][] blocks = EMPTY;
+    private int numBlocks = 0;
+    /**
+     * Незаполненный последний блок.
+     */
+    private final long[] tail = new long[BLOCK_SIZE];
+    private int tailLength = 0;
+    /**
+     * Раскодированный блок для произвольного доступа и номер этого блока.
+     */
+    private final long[] cache = new long[BLOCK_SIZE];
+    private int cachedBlock = -1;
+    /**
+     * {@code true}, если раскодированный блок изменён и ещё не закодирован.
+     */
+    private boolean cacheDirty = false;
+
+    CompressedBlocks(final CompressionCodec codec) {
+        this.codec = codec;
+    }
+
+    CompressionCodec codec() {
+        return codec;
+    }
+
+    int length() {
+        return (numBlocks << BLOCK_SHIFT) + tailLength;
+    }
+
+    private long[] block(final int block) {
+        if (block == numBlocks) {
+            return tail;
+        }
+        if (block != cachedBlock) {
+            flush();
+            codec.decode(blocks[block], cache, BLOCK_SIZE);
+            cachedBlock = block;
+        }
+        return cache;
+    }
+
+    /**
+     * Закодировать изменённый раскодированный блок.
+     */
+    void flush() {
+        if (cacheDirty) {
+            blocks[cachedBlock] = codec.encode(cache, BLOCK_SIZE);
+            cacheDirty = false;
+        }
+    }
+
+    long get(final int index) {
+        return block(index >>> BLOCK_SHIFT)[index & BLOCK_MASK];
+    }
+
+    void get(int from, final long[] dst, int dstPos, int count) {
+        while (count > 0) {
+            final int n = Math.min(count, BLOCK_SIZE - (from & BLOCK_MASK));
+            System.arraycopy(block(from >>> BLOCK_SHIFT), from & BLOCK_MASK, dst, dstPos, n);
+            from += n;
+            dstPos += n;
+            count -= n;
+        }
+    }
+
+    /**
+     * Копировать значения, представленные битами чисел типа double (см. {@link Double#doubleToRawLongBits}),
+     * раскодируя каждый затронутый блок один раз.
+     */
+    void getDoubles(int from, final double[] dst, int dstPos, int count) {
+        while (count > 0) {
+            final int n = Math.min(count, BLOCK_SIZE - (from & BLOCK_MASK));
+            final long[] values = block(from >>> BLOCK_SHIFT);
+            final int offset = from & BLOCK_MASK;
+            for (int i = 0; i < n; i++) {
+                dst[dstPos + i] = Double.longBitsToDouble(values[offset + i]);
+            }
+            from += n;
+            dstPos += n;
+            count -= n;
+        }
+    }
+
+    /**
+     * Изменить значение. Значение сжатого блока изменяется в раскодированном блоке, блок кодируется заново
+     * при переходе к другому блоку.
+     */
+    void set(final int index, final long value) {
+        final int block = index >>> BLOCK_SHIFT;
+        final long[] values = block(block);
+        values[index & BLOCK_MASK] = value;
+        if (block != numBlocks) {
+            cacheDirty = true;
+        }
+    }
+
+    void append(final long value) {
+        tail[tailLength++] = value;
+        if (tailLength == BLOCK_SIZE) {
+            if (numBlocks == blocks.length) {
+                blocks = Arrays.copyOf(blocks, Math.max(16, numBlocks + numBlocks / 2));
+            }
+            blocks[numBlocks++] = codec.encode(tail, BLOCK_SIZE);
+            tailLength = 0;
+        }
+    }
+
+    void setLength(final int newLength) {
+        while (length() < newLength) {
+            append(0L);
+        }
+        if (newLength < length()) {
+            final int newNumBlocks = newLength >>> BLOCK_SHIFT;
+            if (newNumBlocks < numBlocks) {
+                // раскодированный блок становится незаполненным последним и перекодировать его не нужно
+                System.arraycopy(block(newNumBlocks), 0, tail, 0, BLOCK_SIZE);
+                Arrays.fill(blocks, newNumBlocks, numBlocks, null);
+                numBlocks = newNumBlocks;
+                cachedBlock = -1;
+                cacheDirty = false;
+            }
+            tailLength = newLength & BLOCK_MASK;
+        }
+    }
+
+    /**
+     * @return все значения в виде массива
+     */
+    long[] toArray() {
+        final int length = length();
+        final long[] values = new long[length];
+        get(0, values, 0, length);
+        return values;
+    }
+
+    /**
+     * Заменить все значения.
+     *
+     * @param values новые значения
+     * @param count  количество значений
+     */
+    void reset(final long[] values, final int count) {
+        Arrays.fill(blocks, 0, numBlocks, null);
+        numBlocks = 0;
+        tailLength = 0;
+        cachedBlock = -1;
+        cacheDirty = false;
+        for (int i = 0; i < count; i++) {
+            append(values[i]);
+        }
+    }
+
+    /**
+     * @return приблизительный объём занимаемой памяти в байтах
+     */
+    long sizeInBytes() {
+        flush();
+        long size = 2L * BLOCK_SIZE * Long.BYTES;
+        for (int i = 0; i < numBlocks; i++) {
+            size += blocks[i].length;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,178 @@
+package com.algotrading.base.core.columns;
+
+/**
+ * Колонка значений типа double, хранящая данные в виде сжатых блоков
+ * (кодирование XOR соседних значений, см. {@link CompressionCodec#XOR}).
+ * <p>
+ * Последовательное чтение и добавление значений в конец колонки быстрые, произвольный доступ
+ * к сжатым данным требует раскодирования блока, изменённый блок перекодируется при переходе к другому блоку.
+ * Колонка не является потокобезопасной даже при одновременном чтении из нескольких потоков.
+ */
+public class CompressedDoubleColumn extends DoubleColumn {
+
+    private final CompressedBlocks blocks = new CompressedBlocks(CompressionCodec.XOR);
+
+    public CompressedDoubleColumn(final String name) {
+        super(name);
+    }
+
+    public CompressedDoubleColumn(final String name, final int length) {
+        super(name);
+        blocks.setLength(length);
+        this.length = length;
+    }
+
+    /**
+     * @return приблизительный объём памяти, занимаемой данными колонки, в байтах
+     */
+    public long sizeInBytes() {
+        return blocks.sizeInBytes();
+    }
+
+    @Override
+    public void set(final int index, final double value) {
+        rangeCheck(index);
+        blocks.set(index, Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public double get(final int index) {
+        rangeCheck(index);
+        return Double.longBitsToDouble(blocks.get(index));
+    }
+
+    @Override
+    public void get(final int from, final double[] dst, final int dstPos, final int count) {
+        if (from < 0 || count < 0 || from + count > length) {
+            throw new IndexOutOfBoundsException("from=" + from + ", count=" + count + ", length=" + length);
+        }
+        blocks.getDoubles(from, dst, dstPos, count);
+    }
+
+    @Override
+    public void append(final double value) {
+        blocks.append(Double.doubleToRawLongBits(value));
+        length++;
+    }
+
+    @Override
+    public void ensureCapacity(final int capacity) {
+    }
+
+    @Override
+    public void setLength(final int newLength) {
+        blocks.setLength(newLength);
+        length = newLength;
+    }
+
+    @Override
+    public CompressedDoubleColumn copy(final int from, final int to) {
+        final CompressedDoubleColumn copy = new CompressedDoubleColumn(name());
+        for (int i = from; i < to; i++) {
+            copy.blocks.append(blocks.get(i));
+            copy.length++;
+        }
+        return copy;
+    }
+
+    @Override
+    public CompressedDoubleColumn subColumn(final int[] indices) {
+        final CompressedDoubleColumn subColumn = new CompressedDoubleColumn(name());
+        for (final int index : indices) {
+            subColumn.append(get(index));
+        }
+        return subColumn;
+    }
+
+    @Override
+    public CompressedDoubleColumn append(final AbstractColumn column) {
+        final DoubleColumn doubleColumn = (DoubleColumn) column;
+        final int len = doubleColumn.length();
+        for (int i = 0; i < len; i++) {
+            append(doubleColumn.get(i));
+        }
+        return this;
+    }
+
+    @Override
+    public void move(final int offset) {
+        final long[] values = blocks.toArray();
+        final long[] moved = new long[length + Math.max(0, offset)];
+        if (offset > 0) {
+            System.arraycopy(values, 0, moved, offset, length);
+        } else if (offset < 0) {
+            System.arraycopy(values, -offset, moved, 0, Math.max(0, length + offset));
+        } else {
+            return;
+        }
+        blocks.reset(moved, moved.length);
+        blocks.setLength(length);
+    }
+
+    @Override
+    public int binarySearch(final double v) {
+        int low = 0;
+        int high = length() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final double midVal = Double.longBitsToDouble(blocks.get(mid));
+
+            if (midVal < v) {
+                low = mid + 1;
+            } else if (midVal > v) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    public void reorder(final int[] indices) {
+        if (length != indices.length) {
+            throw new IndexOutOfBoundsException("length=" + length + ", indices.length=" + indices.length);
+        }
+        final long[] values = blocks.toArray();
+        final long[] newValues = new long[length];
+        for (int i = 0; i < length; i++) {
+            newValues[i] = values[indices[i]];
+        }
+        blocks.reset(newValues, length);
+    }
+
+    @Override
+    public double sum() {
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += Double.longBitsToDouble(blocks.get(i));
+        }
+        return sum;
+    }
+
+    @Override
+    public double average() {
+        if (length == 0) {
+            return Double.NaN;
+        }
+        return sum() / length;
+    }
+
+    @Override
+    public double max() {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < length; i++) {
+            max = Math.max(max, Double.longBitsToDouble(blocks.get(i)));
+        }
+        return max;
+    }
+
+    @Override
+    public double min() {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < length; i++) {
+            min = Math.min(min, Double.longBitsToDouble(blocks.get(i)));
+        }
+        return min;
+    }
+}
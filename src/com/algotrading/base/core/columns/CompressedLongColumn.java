@@ -0,0 +1,151 @@
+package com.algotrading.base.core.columns;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Колонка значений типа long, хранящая данные в виде сжатых блоков.
+ * <p>
+ * Для меток времени следует использовать {@link CompressionCodec#DELTA_OF_DELTA},
+ * для объёмов -- {@link CompressionCodec#VARINT}.
+ * <p>
+ * Последовательное чтение и добавление значений в конец колонки быстрые, произвольный доступ
+ * к сжатым данным требует раскодирования блока, изменённый блок перекодируется при переходе к другому блоку.
+ * Колонка не является потокобезопасной даже при одновременном чтении из нескольких потоков.
+ */
+public class CompressedLongColumn extends LongColumn {
+
+    private final CompressedBlocks blocks;
+
+    public CompressedLongColumn(final String name, final CompressionCodec codec) {
+        super(name);
+        blocks = new CompressedBlocks(requireNonNull(codec));
+    }
+
+    public CompressedLongColumn(final String name, final CompressionCodec codec, final int length) {
+        this(name, codec);
+        blocks.setLength(length);
+        this.length = length;
+    }
+
+    public CompressionCodec codec() {
+        return blocks.codec();
+    }
+
+    /**
+     * @return приблизительный объём памяти, занимаемой данными колонки, в байтах
+     */
+    public long sizeInBytes() {
+        return blocks.sizeInBytes();
+    }
+
+    @Override
+    public void set(final int index, final long value) {
+        rangeCheck(index);
+        blocks.set(index, value);
+    }
+
+    @Override
+    public long get(final int index) {
+        rangeCheck(index);
+        return blocks.get(index);
+    }
+
+    @Override
+    public void get(final int from, final long[] dst, final int dstPos, final int count) {
+        if (from < 0 || count < 0 || from + count > length) {
+            throw new IndexOutOfBoundsException("from=" + from + ", count=" + count + ", length=" + length);
+        }
+        blocks.get(from, dst, dstPos, count);
+    }
+
+    @Override
+    public void append(final long value) {
+        blocks.append(value);
+        length++;
+    }
+
+    @Override
+    public void ensureCapacity(final int capacity) {
+    }
+
+    @Override
+    public void setLength(final int newLength) {
+        blocks.setLength(newLength);
+        length = newLength;
+    }
+
+    @Override
+    public CompressedLongColumn copy(final int from, final int to) {
+        final CompressedLongColumn copy = new CompressedLongColumn(name(), codec());
+        for (int i = from; i < to; i++) {
+            copy.append(blocks.get(i));
+        }
+        return copy;
+    }
+
+    @Override
+    public CompressedLongColumn subColumn(final int[] indices) {
+        final CompressedLongColumn subColumn = new CompressedLongColumn(name(), codec());
+        for (final int index : indices) {
+            subColumn.append(get(index));
+        }
+        return subColumn;
+    }
+
+    @Override
+    public CompressedLongColumn append(final AbstractColumn column) {
+        final LongColumn longColumn = (LongColumn) column;
+        final int len = longColumn.length();
+        for (int i = 0; i < len; i++) {
+            append(longColumn.get(i));
+        }
+        return this;
+    }
+
+    @Override
+    public void move(final int offset) {
+        final long[] values = blocks.toArray();
+        final long[] moved = new long[length + Math.max(0, offset)];
+        if (offset > 0) {
+            System.arraycopy(values, 0, moved, offset, length);
+        } else if (offset < 0) {
+            System.arraycopy(values, -offset, moved, 0, Math.max(0, length + offset));
+        } else {
+            return;
+        }
+        blocks.reset(moved, moved.length);
+        blocks.setLength(length);
+    }
+
+    @Override
+    public int binarySearch(final long v) {
+        int low = 0;
+        int high = length() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final long midVal = blocks.get(mid);
+
+            if (midVal < v) {
+                low = mid + 1;
+            } else if (midVal > v) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    public void reorder(final int[] indices) {
+        if (length != indices.length) {
+            throw new IndexOutOfBoundsException("length=" + length + ", indices.length=" + indices.length);
+        }
+        final long[] values = blocks.toArray();
+        final long[] newValues = new long[length];
+        for (int i = 0; i < length; i++) {
+            newValues[i] = values[indices[i]];
+        }
+        blocks.reset(newValues, length);
+    }
+}
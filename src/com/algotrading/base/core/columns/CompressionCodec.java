@@ -0,0 +1,259 @@
+package com.algotrading.base.core.columns;
+
+import java.util.Arrays;
+
+/**
+ * Способы сжатия блоков значений, представленных 64-битными целыми числами.
+ */
+public enum CompressionCodec {
+    /**
+     * Кодирование разностей второго порядка ("delta-of-delta"). Подходит для почти регулярных
+     * последовательностей, например, меток времени свечей.
+     */
+    DELTA_OF_DELTA {
+        @Override
+        byte[] encode(final long[] values, final int count) {
+            final BitWriter w = new BitWriter(count);
+            if (count == 0) {
+                return w.toByteArray();
+            }
+            w.write(values[0], 64);
+            long prevDelta = 0;
+            for (int i = 1; i < count; i++) {
+                final long delta = values[i] - values[i - 1];
+                final long dod = zigZag(delta - prevDelta);
+                prevDelta = delta;
+                if (dod == 0) {
+                    w.write(0b0, 1);
+                } else if ((dod >>> 7) == 0) {
+                    w.write(0b10, 2);
+                    w.write(dod, 7);
+                } else if ((dod >>> 9) == 0) {
+                    w.write(0b110, 3);
+                    w.write(dod, 9);
+                } else if ((dod >>> 12) == 0) {
+                    w.write(0b1110, 4);
+                    w.write(dod, 12);
+                } else if ((dod >>> 32) == 0) {
+                    w.write(0b11110, 5);
+                    w.write(dod, 32);
+                } else {
+                    w.write(0b11111, 5);
+                    w.write(dod, 64);
+                }
+            }
+            return w.toByteArray();
+        }
+
+        @Override
+        void decode(final byte[] bytes, final long[] values, final int count) {
+            if (count == 0) {
+                return;
+            }
+            final BitReader r = new BitReader(bytes);
+            long value = r.read(64);
+            values[0] = value;
+            long delta = 0;
+            for (int i = 1; i < count; i++) {
+                final long dod;
+                if (r.read(1) == 0) {
+                    dod = 0;
+                } else if (r.read(1) == 0) {
+                    dod = r.read(7);
+                } else if (r.read(1) == 0) {
+                    dod = r.read(9);
+                } else if (r.read(1) == 0) {
+                    dod = r.read(12);
+                } else if (r.read(1) == 0) {
+                    dod = r.read(32);
+                } else {
+                    dod = r.read(64);
+                }
+                delta += unZigZag(dod);
+                value += delta;
+                values[i] = value;
+            }
+        }
+    },
+    /**
+     * Кодирование XOR соседних значений по схеме Gorilla. Подходит для битовых представлений
+     * чисел типа double, мало отличающихся друг от друга, например, цен.
+     */
+    XOR {
+        @Override
+        byte[] encode(final long[] values, final int count) {
+            final BitWriter w = new BitWriter(count);
+            if (count == 0) {
+                return w.toByteArray();
+            }
+            w.write(values[0], 64);
+            int prevLeading = -1;
+            int prevTrailing = 0;
+            for (int i = 1; i < count; i++) {
+                final long xor = values[i] ^ values[i - 1];
+                if (xor == 0) {
+                    w.write(0b0, 1);
+                    continue;
+                }
+                final int leading = Math.min(31, Long.numberOfLeadingZeros(xor));
+                final int trailing = Long.numberOfTrailingZeros(xor);
+                if (prevLeading >= 0 && leading >= prevLeading && trailing >= prevTrailing) {
+                    w.write(0b10, 2);
+                    w.write(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+                } else {
+                    final int significant = 64 - leading - trailing;
+                    w.write(0b11, 2);
+                    w.write(leading, 5);
+                    w.write(significant - 1, 6);
+                    w.write(xor >>> trailing, significant);
+                    prevLeading = leading;
+                    prevTrailing = trailing;
+                }
+            }
+            return w.toByteArray();
+        }
+
+        @Override
+        void decode(final byte[] bytes, final long[] values, final int count) {
+            if (count == 0) {
+                return;
+            }
+            final BitReader r = new BitReader(bytes);
+            long value = r.read(64);
+            values[0] = value;
+            int leading = 0;
+            int trailing = 0;
+            for (int i = 1; i < count; i++) {
+                if (r.read(1) != 0) {
+                    if (r.read(1) != 0) {
+                        leading = (int) r.read(5);
+                        trailing = 64 - leading - (int) r.read(6) - 1;
+                    }
+                    value ^= r.read(64 - leading - trailing) << trailing;
+                }
+                values[i] = value;
+            }
+        }
+    },
+    /**
+     * Кодирование значений целыми числами переменной длины (zigzag + varint). Подходит для небольших
+     * по модулю значений, например, объёмов.
+     */
+    VARINT {
+        @Override
+        byte[] encode(final long[] values, final int count) {
+            byte[] bytes = new byte[count + 16];
+            int pos = 0;
+            for (int i = 0; i < count; i++) {
+                if (bytes.length - pos < 10) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                long v = zigZag(values[i]);
+                while ((v & ~0x7FL) != 0) {
+                    bytes[pos++] = (byte) ((v & 0x7F) | 0x80);
+                    v >>>= 7;
+                }
+                bytes[pos++] = (byte) v;
+            }
+            return Arrays.copyOf(bytes, pos);
+        }
+
+        @Override
+        void decode(final byte[] bytes, final long[] values, final int count) {
+            int pos = 0;
+            for (int i = 0; i < count; i++) {
+                long v = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = bytes[pos++];
+                    v |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                values[i] = unZigZag(v);
+            }
+        }
+    };
+
+    /**
+     * Закодировать блок значений.
+     *
+     * @param values значения
+     * @param count  количество значений
+     * @return закодированный блок
+     */
+    abstract byte[] encode(long[] values, int count);
+
+    /**
+     * Раскодировать блок значений.
+     *
+     * @param bytes  закодированный блок
+     * @param values массив, куда будут записаны значения
+     * @param count  количество значений
+     */
+    abstract void decode(byte[] bytes, long[] values, int count);
+
+    private static long zigZag(final long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unZigZag(final long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * Запись последовательности битов, начиная со старших.
+     */
+    private static class BitWriter {
+        private byte[] bytes;
+        private long position = 0;
+
+        BitWriter(final int count) {
+            bytes = new byte[Math.max(16, count)];
+        }
+
+        void write(final long value, int bits) {
+            while (bits > 0) {
+                final int index = (int) (position >>> 3);
+                if (index == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                final int available = 8 - (int) (position & 7);
+                final int n = Math.min(available, bits);
+                final int chunk = (int) ((value >>> (bits - n)) & ((1 << n) - 1));
+                bytes[index] |= (byte) (chunk << (available - n));
+                position += n;
+                bits -= n;
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, (int) ((position + 7) >>> 3));
+        }
+    }
+
+    /**
+     * Чтение последовательности битов, записанной с помощью {@link BitWriter}.
+     */
+    private static class BitReader {
+        private final byte[] bytes;
+        private long position = 0;
+
+        BitReader(final byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        long read(int bits) {
+            long result = 0;
+            while (bits > 0) {
+                final int available = 8 - (int) (position & 7);
+                final int n = Math.min(available, bits);
+                final int b = ((bytes[(int) (position >>> 3)] & 0xFF) >>> (available - n)) & ((1 << n) - 1);
+                result = (result << n) | b;
+                position += n;
+                bits -= n;
+            }
+            return result;
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package com.algotrading.base.core.columns;
 
+import java.util.Arrays;
+
 public class DoubleColumn extends AbstractColumn {
 
     private static final double[] EMPTY = new double[0];
     protected double[] data;
+    /**
+     * Сводка значений: минимумы и максимумы по блокам и признаки сортировки, {@code null}, если не построена.
+     * Используется только экземплярами самого класса {@link DoubleColumn}, так как подклассы хранят данные иначе.
+     * Сводка, построенная при чтении, публикуется только полностью построенной.
+     */
+    private volatile DoubleZoneMap zoneMap;
 
     public DoubleColumn(final String name) {
         super(name);
@@ -17,7 +25,12 @@ public class DoubleColumn extends AbstractColumn {
 
     public void set(final int index, final double value) {
         rangeCheck(index);
+        final double oldValue = data[index];
         data[index] = value;
+        final DoubleZoneMap zoneMap = this.zoneMap;
+        if (zoneMap != null) {
+            zoneMap.set(data, index, oldValue);
+        }
     }
 
     public double get(final int index) {
@@ -29,10 +42,62 @@ public class DoubleColumn extends AbstractColumn {
         return get(length() - 1);
     }
 
+    /**
+     * Скопировать значения колонки в массив.
+     *
+     * @param from   индекс в колонке, начиная с которого (включая) копируются значения
+     * @param dst    массив-приёмник
+     * @param dstPos индекс в массиве-приёмнике, куда копируется первое значение
+     * @param count  количество копируемых значений
+     */
+    public void get(final int from, final double[] dst, final int dstPos, final int count) {
+        if (from < 0 || count < 0 || from + count > length) {
+            throw new IndexOutOfBoundsException("from=" + from + ", count=" + count + ", length=" + length);
+        }
+        System.arraycopy(data, from, dst, dstPos, count);
+    }
+
     public void append(final double value) {
         ensureCapacity(length + 1);
         data[length] = value;
         length++;
+        final DoubleZoneMap zoneMap = this.zoneMap;
+        if (zoneMap != null) {
+            zoneMap.append(value);
+        }
+    }
+
+    @Override
+    public void setLength(final int newLength) {
+        if (newLength != length) {
+            zoneMap = null;
+        }
+        super.setLength(newLength);
+    }
+
+    /**
+     * Отметить, что данные колонки изменены в обход методов {@link #set} и {@link #append}.
+     */
+    void dataChanged() {
+        zoneMap = null;
+    }
+
+    /**
+     * Получить сводку значений, построив её при первом обращении после создания или изменения колонки
+     * в обход сводки.
+     *
+     * @return сводка значений колонки или {@code null} для подклассов
+     */
+    private DoubleZoneMap zoneMap() {
+        if (getClass() != DoubleColumn.class) {
+            return null;
+        }
+        DoubleZoneMap zoneMap = this.zoneMap;
+        if (zoneMap == null) {
+            zoneMap = DoubleZoneMap.of(data, length);
+            this.zoneMap = zoneMap;
+        }
+        return zoneMap;
     }
 
     @Override
@@ -70,17 +135,32 @@ public class DoubleColumn extends AbstractColumn {
         return subColumn;
     }
 
+    @Override
+    public DoubleColumnView view(final int from, final int to) {
+        return new DoubleColumnView(this, from, to);
+    }
+
+    @Override
+    public DoubleColumnView view(final int[] indices) {
+        return new DoubleColumnView(this, indices.clone());
+    }
+
     @Override
     public DoubleColumn append(final AbstractColumn column) {
         final DoubleColumn doubleColumn = (DoubleColumn) column;
         ensureCapacity(length + doubleColumn.length);
-        System.arraycopy(doubleColumn.data, 0, data, length, doubleColumn.length);
+        doubleColumn.get(0, data, length, doubleColumn.length);
+        final DoubleZoneMap zoneMap = this.zoneMap;
+        if (zoneMap != null) {
+            zoneMap.append(data, length, doubleColumn.length);
+        }
         length += doubleColumn.length;
         return this;
     }
 
     @Override
     public void move(final int offset) {
+        zoneMap = null;
         if (offset > 0) {
             System.arraycopy(data, 0, data, offset, data.length - offset);
         } else if (offset < 0) {
@@ -93,22 +173,95 @@ public class DoubleColumn extends AbstractColumn {
         return "double[" + length() + "] " + name();
     }
 
+    /**
+     * Проверить, что значения колонки возрастают. Для колонки класса {@link DoubleColumn} признак хранится
+     * в сводке значений и обновляется при добавлении значений, поэтому повторная проверка не требует
+     * просмотра колонки.
+     */
     public boolean isIncreasing() {
-        for (int index = 1; index < length; index++) {
-            if (get(index) <= get(index - 1)) {
-                return false;
-            }
-        }
-        return true;
+        final DoubleZoneMap zoneMap = zoneMap();
+        return (zoneMap == null) ? ColumnOps.isIncreasing(this) : zoneMap.isIncreasing();
     }
 
+    /**
+     * Проверить, что значения колонки не убывают, см. {@link #isIncreasing()}.
+     */
     public boolean isNonDecreasing() {
-        for (int index = 1; index < length; index++) {
-            if (get(index) < get(index - 1)) {
-                return false;
+        final DoubleZoneMap zoneMap = zoneMap();
+        return (zoneMap == null) ? ColumnOps.isNonDecreasing(this) : zoneMap.isNonDecreasing();
+    }
+
+    /**
+     * Вычислить минимум значений с индексами [from, to). Для колонки класса {@link DoubleColumn} блоки значений,
+     * целиком попавшие в диапазон, не просматриваются, а берутся из сводки значений.
+     *
+     * @param from индекс начала диапазона (включительно)
+     * @param to   индекс конца диапазона (не включительно)
+     * @return минимум
+     */
+    public double min(final int from, final int to) {
+        checkRange(from, to);
+        final DoubleZoneMap zoneMap = zoneMap();
+        if (zoneMap != null) {
+            return zoneMap.min(data, from, to);
+        }
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, get(i));
+        }
+        return min;
+    }
+
+    /**
+     * Вычислить максимум значений с индексами [from, to), см. {@link #min(int, int)}.
+     *
+     * @param from индекс начала диапазона (включительно)
+     * @param to   индекс конца диапазона (не включительно)
+     * @return максимум
+     */
+    public double max(final int from, final int to) {
+        checkRange(from, to);
+        final DoubleZoneMap zoneMap = zoneMap();
+        if (zoneMap != null) {
+            return zoneMap.max(data, from, to);
+        }
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, get(i));
+        }
+        return max;
+    }
+
+    /**
+     * Найти индексы значений из отрезка [lo, hi]. Для колонки класса {@link DoubleColumn} блоки значений,
+     * не пересекающиеся с отрезком по сводке значений, пропускаются без просмотра.
+     * Результат можно использовать для получения фрагмента временного ряда методом
+     * {@link com.algotrading.base.core.series.Series#view(int[])}.
+     *
+     * @param lo нижняя граница (включительно)
+     * @param hi верхняя граница (включительно)
+     * @return индексы в порядке возрастания
+     */
+    public int[] indicesBetween(final double lo, final double hi) {
+        final DoubleZoneMap zoneMap = zoneMap();
+        if (zoneMap != null) {
+            return zoneMap.indicesBetween(data, lo, hi);
+        }
+        final int[] indices = new int[length];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            final double v = get(i);
+            if (lo <= v && v <= hi) {
+                indices[count++] = i;
             }
         }
-        return true;
+        return Arrays.copyOf(indices, count);
+    }
+
+    private void checkRange(final int from, final int to) {
+        if (from < 0 || from > to || to > length) {
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + length);
+        }
     }
 
     /**
@@ -144,40 +297,22 @@ public class DoubleColumn extends AbstractColumn {
             newData[i] = data[indices[i]];
         }
         data = newData;
+        zoneMap = null;
     }
 
     public double sum() {
-        double sum = 0;
-        for (int i = 0; i < length; i++) {
-            sum += data[i];
-        }
-        return sum;
+        return ColumnOps.sum(this);
     }
 
     public double average() {
-        if (length == 0) {
-            return Double.NaN;
-        }
-        double sum = 0;
-        for (int i = 0; i < length; i++) {
-            sum += data[i];
-        }
-        return sum / length;
+        return ColumnOps.average(this);
     }
 
     public double max() {
-        double max = Double.NEGATIVE_INFINITY;
-        for (int i = 0; i < length; i++) {
-            max = Math.max(max, data[i]);
-        }
-        return max;
+        return ColumnOps.max(this);
     }
 
     public double min() {
-        double min = Double.POSITIVE_INFINITY;
-        for (int i = 0; i < length; i++) {
-            min = Math.min(min, data[i]);
-        }
-        return min;
+        return ColumnOps.min(this);
     }
 }
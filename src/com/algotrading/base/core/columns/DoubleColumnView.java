@@ -0,0 +1,198 @@
+package com.algotrading.base.core.columns;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Представление фрагмента колонки типа {@link DoubleColumn} без копирования данных.
+ * <p>
+ * Фрагмент задаётся либо диапазоном индексов [from, to) исходной колонки, либо массивом индексов.
+ * Представление доступно только для чтения. Для получения независимой копии данных
+ * следует использовать методы {@link #copy()} и {@link #copy(int, int)}.
+ */
+public class DoubleColumnView extends DoubleColumn {
+
+    private final DoubleColumn source;
+    private final int offset;
+    private final int[] indices;
+
+    DoubleColumnView(final DoubleColumn source, final int from, final int to) {
+        super(source.name());
+        if (from < 0 || from > to || to > source.length()) {
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + source.length());
+        }
+        this.source = source;
+        offset = from;
+        indices = null;
+        length = to - from;
+    }
+
+    DoubleColumnView(final DoubleColumn source, final int[] indices) {
+        super(source.name());
+        this.source = source;
+        offset = 0;
+        this.indices = requireNonNull(indices);
+        length = indices.length;
+    }
+
+    private int sourceIndex(final int index) {
+        if (index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        rangeCheck(index);
+        return (indices == null) ? offset + index : indices[index];
+    }
+
+    @Override
+    public void set(final int index, final double value) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public double get(final int index) {
+        return source.get(sourceIndex(index));
+    }
+
+    @Override
+    public void get(final int from, final double[] dst, final int dstPos, final int count) {
+        if (from < 0 || count < 0 || from + count > length) {
+            throw new IndexOutOfBoundsException("from=" + from + ", count=" + count + ", length=" + length);
+        }
+        if (indices == null) {
+            source.get(offset + from, dst, dstPos, count);
+        } else {
+            for (int i = 0; i < count; i++) {
+                dst[dstPos + i] = source.get(indices[from + i]);
+            }
+        }
+    }
+
+    @Override
+    public void append(final double value) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public void ensureCapacity(final int capacity) {
+    }
+
+    @Override
+    public void setLength(final int newLength) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public DoubleColumn copy(final int from, final int to) {
+        final DoubleColumn copy = new DoubleColumn(name(), to - from);
+        get(from, copy.data, 0, to - from);
+        return copy;
+    }
+
+    @Override
+    public DoubleColumn subColumn(final int[] indices) {
+        final DoubleColumn subColumn = new DoubleColumn(name(), indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            subColumn.data[i] = get(indices[i]);
+        }
+        return subColumn;
+    }
+
+    @Override
+    public DoubleColumnView view(final int from, final int to) {
+        if (indices == null) {
+            if (from < 0 || from > to || to > length) {
+                throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + length);
+            }
+            return new DoubleColumnView(source, offset + from, offset + to);
+        }
+        return new DoubleColumnView(source, Arrays.copyOfRange(indices, from, to));
+    }
+
+    @Override
+    public DoubleColumnView view(final int[] indices) {
+        final int[] sourceIndices = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            sourceIndices[i] = sourceIndex(indices[i]);
+        }
+        return new DoubleColumnView(source, sourceIndices);
+    }
+
+    @Override
+    public DoubleColumn append(final AbstractColumn column) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public void move(final int offset) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public int binarySearch(final double v) {
+        int low = 0;
+        int high = length() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final double midVal = get(mid);
+
+            if (midVal < v) {
+                low = mid + 1;
+            } else if (midVal > v) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    public void reorder(final int[] indices) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public double sum() {
+        if (indices == null) {
+            return ColumnOps.sum(source, offset, offset + length);
+        }
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += get(i);
+        }
+        return sum;
+    }
+
+    @Override
+    public double average() {
+        if (length == 0) {
+            return Double.NaN;
+        }
+        return sum() / length;
+    }
+
+    @Override
+    public double max() {
+        if (indices == null) {
+            return ColumnOps.max(source, offset, offset + length);
+        }
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < length; i++) {
+            max = Math.max(max, get(i));
+        }
+        return max;
+    }
+
+    @Override
+    public double min() {
+        if (indices == null) {
+            return ColumnOps.min(source, offset, offset + length);
+        }
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < length; i++) {
+            min = Math.min(min, get(i));
+        }
+        return min;
+    }
+}
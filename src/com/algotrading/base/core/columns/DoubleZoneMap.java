@@ -0,0 +1,226 @@
+package com.algotrading.base.core.columns;
+
+import java.util.Arrays;
+
+/**
+ * Сводка значений колонки типа double: минимум и максимум в каждом блоке из {@link #BLOCK_SIZE} значений
+ * и признаки возрастания и неубывания всех значений.
+ * <p>
+ * Сводка обновляется за O(1) при добавлении значения в конец колонки и при изменении значения. Если изменённое
+ * значение было минимумом или максимумом блока, граница блока пересчитывается по значениям блока. Признаки
+ * сортировки вычисляются по количеству пар соседних значений, нарушающих порядок, поэтому при изменении значения
+ * пересчитываются только две пары с его участием. При прочих изменениях колонка отбрасывает сводку и строит
+ * её заново при следующем запросе.
+ * <p>
+ * Сводка изменяется только вместе с колонкой и, как и колонка, не предназначена для изменения одновременно
+ * с чтением из других потоков. Колонка публикует через volatile-поле только полностью построенную сводку.
+ */
+final class DoubleZoneMap {
+    static final int BLOCK_SHIFT = 10;
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    private static final double[] EMPTY = new double[0];
+
+    private double[] min = EMPTY;
+    private double[] max = EMPTY;
+    private int length = 0;
+    private double last = 0.0;
+    /**
+     * Количество пар соседних значений (v[i - 1], v[i]), для которых не выполнено v[i - 1] &lt; v[i].
+     */
+    private int notIncreasingPairs = 0;
+    /**
+     * Количество пар соседних значений (v[i - 1], v[i]), для которых выполнено v[i] &lt; v[i - 1].
+     */
+    private int decreasingPairs = 0;
+    private int modifications = 0;
+
+    static DoubleZoneMap of(final double[] values, final int length) {
+        final DoubleZoneMap zoneMap = new DoubleZoneMap();
+        zoneMap.append(values, 0, length);
+        return zoneMap;
+    }
+
+    void append(final double v) {
+        final int block = length >>> BLOCK_SHIFT;
+        if ((length & BLOCK_MASK) == 0) {
+            if (block == min.length) {
+                final int newLength = Math.max(16, block + block / 2);
+                min = Arrays.copyOf(min, newLength);
+                max = Arrays.copyOf(max, newLength);
+            }
+            min[block] = v;
+            max[block] = v;
+        } else {
+            min[block] = Math.min(min[block], v);
+            max[block] = Math.max(max[block], v);
+        }
+        if (length > 0) {
+            countPair(last, v, 1);
+        }
+        last = v;
+        length++;
+    }
+
+    /**
+     * Учесть изменение значения с индексом {@code index}. Новое значение уже записано в {@code values}.
+     *
+     * @param values   значения колонки
+     * @param index    индекс изменённого значения
+     * @param oldValue прежнее значение
+     */
+    void set(final double[] values, final int index, final double oldValue) {
+        final double v = values[index];
+        if (index > 0) {
+            countPair(values[index - 1], oldValue, -1);
+            countPair(values[index - 1], v, 1);
+        }
+        if (index + 1 < length) {
+            countPair(oldValue, values[index + 1], -1);
+            countPair(v, values[index + 1], 1);
+        } else {
+            last = v;
+        }
+        final int block = index >>> BLOCK_SHIFT;
+        final int from = block << BLOCK_SHIFT;
+        final int to = Math.min(length, from + BLOCK_SIZE);
+        // прежнее значение могло быть границей блока, только если совпадает с ней (NaN совпадает с NaN)
+        if (Double.compare(oldValue, min[block]) == 0) {
+            min[block] = blockMin(values, from, to);
+        } else {
+            min[block] = Math.min(min[block], v);
+        }
+        if (Double.compare(oldValue, max[block]) == 0) {
+            max[block] = blockMax(values, from, to);
+        } else {
+            max[block] = Math.max(max[block], v);
+        }
+        modifications++;
+    }
+
+    private void countPair(final double prev, final double next, final int delta) {
+        if (next <= prev) {
+            notIncreasingPairs += delta;
+            if (next < prev) {
+                decreasingPairs += delta;
+            }
+        }
+    }
+
+    void append(final double[] values, final int from, final int count) {
+        for (int i = from; i < from + count; i++) {
+            append(values[i]);
+        }
+    }
+
+    int length() {
+        return length;
+    }
+
+    boolean isIncreasing() {
+        return notIncreasingPairs == 0;
+    }
+
+    boolean isNonDecreasing() {
+        return decreasingPairs == 0;
+    }
+
+    /**
+     * @return количество изменений значений методом {@link #set(double[], int, double)}
+     */
+    int modifications() {
+        return modifications;
+    }
+
+    private static double blockMin(final double[] values, final int from, final int to) {
+        double result = values[from];
+        for (int i = from + 1; i < to; i++) {
+            result = Math.min(result, values[i]);
+        }
+        return result;
+    }
+
+    private static double blockMax(final double[] values, final int from, final int to) {
+        double result = values[from];
+        for (int i = from + 1; i < to; i++) {
+            result = Math.max(result, values[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @return минимум значений с индексами [from, to), {@link Double#POSITIVE_INFINITY} для пустого диапазона, NaN, если среди значений есть NaN
+     */
+    double min(final double[] values, final int from, final int to) {
+        double result = Double.POSITIVE_INFINITY;
+        int i = from;
+        while (i < to) {
+            final int end = Math.min(to, (i | BLOCK_MASK) + 1);
+            if ((i & BLOCK_MASK) == 0 && end - i == BLOCK_SIZE) {
+                result = Math.min(result, min[i >>> BLOCK_SHIFT]);
+            } else {
+                for (int j = i; j < end; j++) {
+                    result = Math.min(result, values[j]);
+                }
+            }
+            i = end;
+        }
+        return result;
+    }
+
+    /**
+     * @return максимум значений с индексами [from, to), {@link Double#NEGATIVE_INFINITY} для пустого диапазона, NaN, если среди значений есть NaN
+     */
+    double max(final double[] values, final int from, final int to) {
+        double result = Double.NEGATIVE_INFINITY;
+        int i = from;
+        while (i < to) {
+            final int end = Math.min(to, (i | BLOCK_MASK) + 1);
+            if ((i & BLOCK_MASK) == 0 && end - i == BLOCK_SIZE) {
+                result = Math.max(result, max[i >>> BLOCK_SHIFT]);
+            } else {
+                for (int j = i; j < end; j++) {
+                    result = Math.max(result, values[j]);
+                }
+            }
+            i = end;
+        }
+        return result;
+    }
+
+    /**
+     * Найти индексы значений из отрезка [lo, hi]. Блоки, сводка которых не пересекается с отрезком,
+     * пропускаются, блоки, сводка которых целиком лежит в отрезке, добавляются без проверки значений.
+     * Значения NaN в отрезок не попадают.
+     *
+     * @return индексы в порядке возрастания
+     */
+    int[] indicesBetween(final double[] values, final double lo, final double hi) {
+        int[] indices = new int[16];
+        int count = 0;
+        for (int block = 0, from = 0; from < length; block++, from += BLOCK_SIZE) {
+            final double blockMin = min[block];
+            final double blockMax = max[block];
+            if (blockMax < lo || blockMin > hi) {
+                continue;
+            }
+            final int to = Math.min(length, from + BLOCK_SIZE);
+            if (count + (to - from) > indices.length) {
+                indices = Arrays.copyOf(indices, Math.max(indices.length * 2, count + (to - from)));
+            }
+            if (lo <= blockMin && blockMax <= hi) {
+                for (int i = from; i < to; i++) {
+                    indices[count++] = i;
+                }
+            } else {
+                for (int i = from; i < to; i++) {
+                    final double v = values[i];
+                    if (lo <= v && v <= hi) {
+                        indices[count++] = i;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(indices, count);
+    }
+}
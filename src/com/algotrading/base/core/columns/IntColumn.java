@@ -29,6 +29,21 @@ public class IntColumn extends AbstractColumn {
         return get(length() - 1);
     }
 
+    /**
+     * Скопировать значения колонки в массив.
+     *
+     * @param from   индекс в колонке, начиная с которого (включая) копируются значения
+     * @param dst    массив-приёмник
+     * @param dstPos индекс в массиве-приёмнике, куда копируется первое значение
+     * @param count  количество копируемых значений
+     */
+    public void get(final int from, final int[] dst, final int dstPos, final int count) {
+        if (from < 0 || count < 0 || from + count > length) {
+            throw new IndexOutOfBoundsException("from=" + from + ", count=" + count + ", length=" + length);
+        }
+        System.arraycopy(data, from, dst, dstPos, count);
+    }
+
     public void append(final int value) {
         ensureCapacity(length + 1);
         data[length] = value;
@@ -70,11 +85,21 @@ public class IntColumn extends AbstractColumn {
         return subColumn;
     }
 
+    @Override
+    public IntColumnView view(final int from, final int to) {
+        return new IntColumnView(this, from, to);
+    }
+
+    @Override
+    public IntColumnView view(final int[] indices) {
+        return new IntColumnView(this, indices.clone());
+    }
+
     @Override
     public IntColumn append(final AbstractColumn column) {
         final IntColumn intColumn = (IntColumn) column;
         ensureCapacity(length + intColumn.length);
-        System.arraycopy(intColumn.data, 0, data, length, intColumn.length);
+        intColumn.get(0, data, length, intColumn.length);
         length += intColumn.length;
         return this;
     }
@@ -94,21 +119,11 @@ public class IntColumn extends AbstractColumn {
     }
 
     public boolean isIncreasing() {
-        for (int index = 1; index < length; index++) {
-            if (get(index) <= get(index - 1)) {
-                return false;
-            }
-        }
-        return true;
+        return ColumnOps.isIncreasing(this);
     }
 
     public boolean isNonDecreasing() {
-        for (int index = 1; index < length; index++) {
-            if (get(index) < get(index - 1)) {
-                return false;
-            }
-        }
-        return true;
+        return ColumnOps.isNonDecreasing(this);
     }
 
     /**
@@ -0,0 +1,154 @@
+package com.algotrading.base.core.columns;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Представление фрагмента колонки типа {@link IntColumn} без копирования данных.
+ * <p>
+ * Фрагмент задаётся либо диапазоном индексов [from, to) исходной колонки, либо массивом индексов.
+ * Представление доступно только для чтения. Для получения независимой копии данных
+ * следует использовать методы {@link #copy()} и {@link #copy(int, int)}.
+ */
+public class IntColumnView extends IntColumn {
+
+    private final IntColumn source;
+    private final int offset;
+    private final int[] indices;
+
+    IntColumnView(final IntColumn source, final int from, final int to) {
+        super(source.name());
+        if (from < 0 || from > to || to > source.length()) {
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + source.length());
+        }
+        this.source = source;
+        offset = from;
+        indices = null;
+        length = to - from;
+    }
+
+    IntColumnView(final IntColumn source, final int[] indices) {
+        super(source.name());
+        this.source = source;
+        offset = 0;
+        this.indices = requireNonNull(indices);
+        length = indices.length;
+    }
+
+    private int sourceIndex(final int index) {
+        if (index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        rangeCheck(index);
+        return (indices == null) ? offset + index : indices[index];
+    }
+
+    @Override
+    public void set(final int index, final int value) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public int get(final int index) {
+        return source.get(sourceIndex(index));
+    }
+
+    @Override
+    public void get(final int from, final int[] dst, final int dstPos, final int count) {
+        if (from < 0 || count < 0 || from + count > length) {
+            throw new IndexOutOfBoundsException("from=" + from + ", count=" + count + ", length=" + length);
+        }
+        if (indices == null) {
+            source.get(offset + from, dst, dstPos, count);
+        } else {
+            for (int i = 0; i < count; i++) {
+                dst[dstPos + i] = source.get(indices[from + i]);
+            }
+        }
+    }
+
+    @Override
+    public void append(final int value) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public void ensureCapacity(final int capacity) {
+    }
+
+    @Override
+    public void setLength(final int newLength) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public IntColumn copy(final int from, final int to) {
+        final IntColumn copy = new IntColumn(name(), to - from);
+        get(from, copy.data, 0, to - from);
+        return copy;
+    }
+
+    @Override
+    public IntColumn subColumn(final int[] indices) {
+        final IntColumn subColumn = new IntColumn(name(), indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            subColumn.data[i] = get(indices[i]);
+        }
+        return subColumn;
+    }
+
+    @Override
+    public IntColumnView view(final int from, final int to) {
+        if (indices == null) {
+            if (from < 0 || from > to || to > length) {
+                throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + length);
+            }
+            return new IntColumnView(source, offset + from, offset + to);
+        }
+        return new IntColumnView(source, Arrays.copyOfRange(indices, from, to));
+    }
+
+    @Override
+    public IntColumnView view(final int[] indices) {
+        final int[] sourceIndices = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            sourceIndices[i] = sourceIndex(indices[i]);
+        }
+        return new IntColumnView(source, sourceIndices);
+    }
+
+    @Override
+    public IntColumn append(final AbstractColumn column) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public void move(final int offset) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public int binarySearch(final int v) {
+        int low = 0;
+        int high = length() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int midVal = get(mid);
+
+            if (midVal < v) {
+                low = mid + 1;
+            } else if (midVal > v) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    public void reorder(final int[] indices) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+}
@@ -1,9 +1,17 @@
 package com.algotrading.base.core.columns;
 
+import java.util.Arrays;
+
 public class LongColumn extends AbstractColumn {
 
     private static final long[] EMPTY = new long[0];
     protected long[] data;
+    /**
+     * Сводка значений: минимумы и максимумы по блокам и признаки сортировки, {@code null}, если не построена.
+     * Используется только экземплярами самого класса {@link LongColumn}, так как подклассы хранят данные иначе.
+     * Сводка, построенная при чтении, публикуется только полностью построенной.
+     */
+    private volatile LongZoneMap zoneMap;
 
     public LongColumn(final String name) {
         super(name);
@@ -17,7 +25,12 @@ public class LongColumn extends AbstractColumn {
 
     public void set(final int index, final long value) {
         rangeCheck(index);
+        final long oldValue = data[index];
         data[index] = value;
+        final LongZoneMap zoneMap = this.zoneMap;
+        if (zoneMap != null) {
+            zoneMap.set(data, index, oldValue);
+        }
     }
 
     public long get(final int index) {
@@ -29,10 +42,62 @@ public class LongColumn extends AbstractColumn {
         return get(length() - 1);
     }
 
+    /**
+     * Скопировать значения колонки в массив.
+     *
+     * @param from   индекс в колонке, начиная с которого (включая) копируются значения
+     * @param dst    массив-приёмник
+     * @param dstPos индекс в массиве-приёмнике, куда копируется первое значение
+     * @param count  количество копируемых значений
+     */
+    public void get(final int from, final long[] dst, final int dstPos, final int count) {
+        if (from < 0 || count < 0 || from + count > length) {
+            throw new IndexOutOfBoundsException("from=" + from + ", count=" + count + ", length=" + length);
+        }
+        System.arraycopy(data, from, dst, dstPos, count);
+    }
+
     public void append(final long value) {
         ensureCapacity(length + 1);
         data[length] = value;
         length++;
+        final LongZoneMap zoneMap = this.zoneMap;
+        if (zoneMap != null) {
+            zoneMap.append(value);
+        }
+    }
+
+    @Override
+    public void setLength(final int newLength) {
+        if (newLength != length) {
+            zoneMap = null;
+        }
+        super.setLength(newLength);
+    }
+
+    /**
+     * Отметить, что данные колонки изменены в обход методов {@link #set} и {@link #append}.
+     */
+    void dataChanged() {
+        zoneMap = null;
+    }
+
+    /**
+     * Получить сводку значений, построив её при первом обращении после создания или изменения колонки
+     * в обход сводки.
+     *
+     * @return сводка значений колонки или {@code null} для подклассов
+     */
+    LongZoneMap zoneMap() {
+        if (getClass() != LongColumn.class) {
+            return null;
+        }
+        LongZoneMap zoneMap = this.zoneMap;
+        if (zoneMap == null) {
+            zoneMap = LongZoneMap.of(data, length);
+            this.zoneMap = zoneMap;
+        }
+        return zoneMap;
     }
 
     @Override
@@ -70,17 +135,32 @@ public class LongColumn extends AbstractColumn {
         return subColumn;
     }
 
+    @Override
+    public LongColumnView view(final int from, final int to) {
+        return new LongColumnView(this, from, to);
+    }
+
+    @Override
+    public LongColumnView view(final int[] indices) {
+        return new LongColumnView(this, indices.clone());
+    }
+
     @Override
     public LongColumn append(final AbstractColumn column) {
         final LongColumn longColumn = (LongColumn) column;
         ensureCapacity(length + longColumn.length);
-        System.arraycopy(longColumn.data, 0, data, length, longColumn.length);
+        longColumn.get(0, data, length, longColumn.length);
+        final LongZoneMap zoneMap = this.zoneMap;
+        if (zoneMap != null) {
+            zoneMap.append(data, length, longColumn.length);
+        }
         length += longColumn.length;
         return this;
     }
 
     @Override
     public void move(final int offset) {
+        zoneMap = null;
         if (offset > 0) {
             System.arraycopy(data, 0, data, offset, data.length - offset);
         } else if (offset < 0) {
@@ -93,26 +173,100 @@ public class LongColumn extends AbstractColumn {
         return "long[" + length() + "] " + name();
     }
 
+    /**
+     * Проверить, что значения колонки возрастают. Для колонки класса {@link LongColumn} признак хранится
+     * в сводке значений и обновляется при добавлении значений, поэтому повторная проверка не требует
+     * просмотра колонки.
+     */
     public boolean isIncreasing() {
-        for (int index = 1; index < length; index++) {
-            if (get(index) <= get(index - 1)) {
-                return false;
-            }
-        }
-        return true;
+        final LongZoneMap zoneMap = zoneMap();
+        return (zoneMap == null) ? ColumnOps.isIncreasing(this) : zoneMap.isIncreasing();
     }
 
+    /**
+     * Проверить, что значения колонки не убывают, см. {@link #isIncreasing()}.
+     */
     public boolean isNonDecreasing() {
-        for (int index = 1; index < length; index++) {
-            if (get(index) < get(index - 1)) {
-                return false;
+        final LongZoneMap zoneMap = zoneMap();
+        return (zoneMap == null) ? ColumnOps.isNonDecreasing(this) : zoneMap.isNonDecreasing();
+    }
+
+    /**
+     * Вычислить минимум значений с индексами [from, to). Для колонки класса {@link LongColumn} блоки значений,
+     * целиком попавшие в диапазон, не просматриваются, а берутся из сводки значений.
+     *
+     * @param from индекс начала диапазона (включительно)
+     * @param to   индекс конца диапазона (не включительно)
+     * @return минимум
+     */
+    public long min(final int from, final int to) {
+        checkRange(from, to);
+        final LongZoneMap zoneMap = zoneMap();
+        if (zoneMap != null) {
+            return zoneMap.min(data, from, to);
+        }
+        long min = Long.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, get(i));
+        }
+        return min;
+    }
+
+    /**
+     * Вычислить максимум значений с индексами [from, to), см. {@link #min(int, int)}.
+     *
+     * @param from индекс начала диапазона (включительно)
+     * @param to   индекс конца диапазона (не включительно)
+     * @return максимум
+     */
+    public long max(final int from, final int to) {
+        checkRange(from, to);
+        final LongZoneMap zoneMap = zoneMap();
+        if (zoneMap != null) {
+            return zoneMap.max(data, from, to);
+        }
+        long max = Long.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, get(i));
+        }
+        return max;
+    }
+
+    /**
+     * Найти индексы значений из отрезка [lo, hi]. Для колонки класса {@link LongColumn} блоки значений,
+     * не пересекающиеся с отрезком по сводке значений, пропускаются без просмотра.
+     * Результат можно использовать для получения фрагмента временного ряда методом
+     * {@link com.algotrading.base.core.series.Series#view(int[])}.
+     *
+     * @param lo нижняя граница (включительно)
+     * @param hi верхняя граница (включительно)
+     * @return индексы в порядке возрастания
+     */
+    public int[] indicesBetween(final long lo, final long hi) {
+        final LongZoneMap zoneMap = zoneMap();
+        if (zoneMap != null) {
+            return zoneMap.indicesBetween(data, lo, hi);
+        }
+        final int[] indices = new int[length];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            final long v = get(i);
+            if (lo <= v && v <= hi) {
+                indices[count++] = i;
             }
         }
-        return true;
+        return Arrays.copyOf(indices, count);
+    }
+
+    private void checkRange(final int from, final int to) {
+        if (from < 0 || from > to || to > length) {
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + length);
+        }
     }
 
     /**
      * Предполагая, что колонка отсортирована по возрастанию, найти индекс данного элемента в колонке.
+     * Для многократного поиска в неизменяемой колонке эффективнее использовать {@link LongSearchIndex}.
      *
      * @param v искомый элемент
      * @return индекс, если элемент содержится в колонке, иначе <tt>(-(<i>insertion point</i>) - 1)</tt>.
@@ -144,5 +298,6 @@ public class LongColumn extends AbstractColumn {
             newData[i] = data[indices[i]];
         }
         data = newData;
+        zoneMap = null;
     }
 }
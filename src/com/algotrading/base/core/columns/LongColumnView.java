@@ -0,0 +1,154 @@
+package com.algotrading.base.core.columns;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Представление фрагмента колонки типа {@link LongColumn} без копирования данных.
+ * <p>
+ * Фрагмент задаётся либо диапазоном индексов [from, to) исходной колонки, либо массивом индексов.
+ * Представление доступно только для чтения. Для получения независимой копии данных
+ * следует использовать методы {@link #copy()} и {@link #copy(int, int)}.
+ */
+public class LongColumnView extends LongColumn {
+
+    private final LongColumn source;
+    private final int offset;
+    private final int[] indices;
+
+    LongColumnView(final LongColumn source, final int from, final int to) {
+        super(source.name());
+        if (from < 0 || from > to || to > source.length()) {
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + source.length());
+        }
+        this.source = source;
+        offset = from;
+        indices = null;
+        length = to - from;
+    }
+
+    LongColumnView(final LongColumn source, final int[] indices) {
+        super(source.name());
+        this.source = source;
+        offset = 0;
+        this.indices = requireNonNull(indices);
+        length = indices.length;
+    }
+
+    private int sourceIndex(final int index) {
+        if (index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        rangeCheck(index);
+        return (indices == null) ? offset + index : indices[index];
+    }
+
+    @Override
+    public void set(final int index, final long value) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public long get(final int index) {
+        return source.get(sourceIndex(index));
+    }
+
+    @Override
+    public void get(final int from, final long[] dst, final int dstPos, final int count) {
+        if (from < 0 || count < 0 || from + count > length) {
+            throw new IndexOutOfBoundsException("from=" + from + ", count=" + count + ", length=" + length);
+        }
+        if (indices == null) {
+            source.get(offset + from, dst, dstPos, count);
+        } else {
+            for (int i = 0; i < count; i++) {
+                dst[dstPos + i] = source.get(indices[from + i]);
+            }
+        }
+    }
+
+    @Override
+    public void append(final long value) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public void ensureCapacity(final int capacity) {
+    }
+
+    @Override
+    public void setLength(final int newLength) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public LongColumn copy(final int from, final int to) {
+        final LongColumn copy = new LongColumn(name(), to - from);
+        get(from, copy.data, 0, to - from);
+        return copy;
+    }
+
+    @Override
+    public LongColumn subColumn(final int[] indices) {
+        final LongColumn subColumn = new LongColumn(name(), indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            subColumn.data[i] = get(indices[i]);
+        }
+        return subColumn;
+    }
+
+    @Override
+    public LongColumnView view(final int from, final int to) {
+        if (indices == null) {
+            if (from < 0 || from > to || to > length) {
+                throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + length);
+            }
+            return new LongColumnView(source, offset + from, offset + to);
+        }
+        return new LongColumnView(source, Arrays.copyOfRange(indices, from, to));
+    }
+
+    @Override
+    public LongColumnView view(final int[] indices) {
+        final int[] sourceIndices = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            sourceIndices[i] = sourceIndex(indices[i]);
+        }
+        return new LongColumnView(source, sourceIndices);
+    }
+
+    @Override
+    public LongColumn append(final AbstractColumn column) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public void move(final int offset) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public int binarySearch(final long v) {
+        int low = 0;
+        int high = length() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final long midVal = get(mid);
+
+            if (midVal < v) {
+                low = mid + 1;
+            } else if (midVal > v) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    public void reorder(final int[] indices) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+}
@@ -0,0 +1,209 @@
+package com.algotrading.base.core.columns;
+
+/**
+ * Индекс для поиска в отсортированной по неубыванию колонке типа {@link LongColumn}.
+ * <p>
+ * Индекс двухуровневый: в отдельном массиве хранится каждое {@link #SAMPLE_SIZE}-е значение колонки.
+ * Этот массив в 64 раза меньше колонки и при многократном поиске остаётся в кэше процессора, поэтому
+ * двоичный поиск по нему (без условных переходов в теле цикла) не обращается к памяти колонки. Затем
+ * внутри найденного фрагмента колонки из {@link #SAMPLE_SIZE} значений выполняется последовательный просмотр,
+ * который читает несколько соседних строк кэша. Для колонки класса {@link LongColumn} данные не копируются.
+ * <p>
+ * Метод {@link #searchAll(long[])} для отсортированного массива ключей продолжает поиск от позиции
+ * предыдущего ключа, поэтому близкие ключи находятся за время, зависящее от расстояния между ними,
+ * а не от длины колонки.
+ * <p>
+ * Индекс соответствует колонке на момент построения (см. {@link #length()}), значения, добавленные позже,
+ * в поиске не участвуют. Изменение значений колонки методом {@link LongColumn#set(int, long)} и т.п. делает
+ * индекс недействительным, см. {@link #isValidFor(LongColumn)}.
+ */
+public final class LongSearchIndex {
+    static final int SAMPLE_SHIFT = 6;
+    static final int SAMPLE_SIZE = 1 << SAMPLE_SHIFT;
+
+    private final LongColumn column;
+    private final int length;
+    private final long[] values;
+    private final long[] samples;
+    /**
+     * Сводка значений колонки на момент построения индекса, по ней определяется, изменялась ли колонка.
+     */
+    private final LongZoneMap zoneMap;
+    /**
+     * Количество изменений значений колонки, учтённых сводкой на момент построения индекса.
+     */
+    private final int modifications;
+
+    private LongSearchIndex(final LongColumn column) {
+        if (!column.isNonDecreasing()) {
+            throw new IllegalArgumentException("Column " + column + " should be non-decreasing");
+        }
+        this.column = column;
+        length = column.length();
+        if (column.getClass() == LongColumn.class) {
+            values = column.data;
+            zoneMap = column.zoneMap();
+            modifications = zoneMap.modifications();
+        } else {
+            values = new long[length];
+            column.get(0, values, 0, length);
+            zoneMap = null;
+            modifications = 0;
+        }
+        samples = new long[(length + SAMPLE_SIZE - 1) >>> SAMPLE_SHIFT];
+        for (int k = 0; k < samples.length; k++) {
+            samples[k] = values[k << SAMPLE_SHIFT];
+        }
+    }
+
+    /**
+     * Построить индекс.
+     *
+     * @param column колонка, отсортированная по неубыванию
+     * @return индекс
+     * @throws IllegalArgumentException если колонка не отсортирована
+     */
+    public static LongSearchIndex of(final LongColumn column) {
+        return new LongSearchIndex(column);
+    }
+
+    /**
+     * @return колонка, по которой построен индекс
+     */
+    public LongColumn column() {
+        return column;
+    }
+
+    /**
+     * @return длина колонки на момент построения индекса
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Проверить, что индекс построен по этой колонке и колонка с тех пор не изменялась. Для колонки
+     * класса {@link LongColumn} учитываются любые изменения, для подклассов -- только изменение длины.
+     *
+     * @param column колонка
+     * @return {@code true}, если индекс действителен для колонки
+     */
+    public boolean isValidFor(final LongColumn column) {
+        return column == this.column
+                && column.length() == length
+                && (zoneMap == null || (column.zoneMap() == zoneMap && zoneMap.modifications() == modifications));
+    }
+
+    /**
+     * Найти индекс первого значения, не меньшего данного.
+     *
+     * @param v значение
+     * @return индекс или {@link #length()}, если все значения меньше данного
+     */
+    public int lowerBound(final long v) {
+        final int count = samples.length;
+        if (count == 0) {
+            return 0;
+        }
+        // первый образец, не меньший v; тело цикла компилируется без условных переходов
+        int base = 0;
+        int n = count;
+        while (n > 1) {
+            final int half = n >>> 1;
+            base = (samples[base + half] < v) ? base + half : base;
+            n -= half;
+        }
+        final int sample = (samples[base] < v) ? base + 1 : base;
+        if (sample == 0) {
+            return 0;
+        }
+        // искомый индекс лежит в (начало предыдущего фрагмента, начало найденного фрагмента]
+        int i = ((sample - 1) << SAMPLE_SHIFT) + 1;
+        final int to = Math.min(length, sample << SAMPLE_SHIFT);
+        while (i < to && values[i] < v) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Найти индекс данного значения, см. {@link LongColumn#binarySearch(long)}. Если значение встречается
+     * несколько раз, возвращается индекс первого вхождения.
+     *
+     * @param v искомое значение
+     * @return индекс, если значение содержится в колонке, иначе <tt>(-(<i>insertion point</i>) - 1)</tt>.
+     */
+    public int binarySearch(final long v) {
+        final int i = lowerBound(v);
+        return (i < length && values[i] == v) ? i : -(i + 1);
+    }
+
+    /**
+     * Найти индекс последнего значения, не большего данного.
+     *
+     * @param v значение
+     * @return индекс или (-1), если все значения больше данного
+     */
+    public int floorIndex(final long v) {
+        final int i = (v == Long.MAX_VALUE) ? length : lowerBound(v + 1);
+        return i - 1;
+    }
+
+    /**
+     * Найти индексы значений, см. {@link #binarySearch(long)}. Если ключи отсортированы по неубыванию,
+     * поиск каждого следующего ключа начинается с позиции предыдущего.
+     *
+     * @param keys искомые значения
+     * @return массив результатов поиска для каждого ключа
+     */
+    public int[] searchAll(final long[] keys) {
+        final int[] result = new int[keys.length];
+        int i = 0;
+        for (int k = 0; k < keys.length; k++) {
+            final long v = keys[k];
+            if (k > 0 && v < keys[k - 1]) {
+                i = lowerBound(v);
+            } else {
+                i = lowerBoundFrom(i, v);
+            }
+            result[k] = (i < length && values[i] == v) ? i : -(i + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Найти индекс первого значения, не меньшего данного, среди значений с индексами не меньше {@code from},
+     * экспоненциально увеличивая шаг, а затем двоичным поиском.
+     */
+    private int lowerBoundFrom(final int from, final long v) {
+        if (from >= length || values[from] >= v) {
+            return from;
+        }
+        // values[low] < v
+        int low = from;
+        int step = 1;
+        while (step < length - from && values[from + step] < v) {
+            low = from + step;
+            step <<= 1;
+        }
+        if (step > SAMPLE_SIZE) {
+            return lowerBound(v);
+        }
+        int high = (step < length - from) ? from + step : length;
+        // values[low] < v <= values[high]
+        while (high - low > 1) {
+            final int mid = (low + high) >>> 1;
+            if (values[mid] < v) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return high;
+    }
+
+    @Override
+    public String toString() {
+        return "LongSearchIndex[" + length + "] " + column.name();
+    }
+}
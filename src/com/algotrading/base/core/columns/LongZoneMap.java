@@ -0,0 +1,224 @@
+package com.algotrading.base.core.columns;
+
+import java.util.Arrays;
+
+/**
+ * Сводка значений колонки типа long: минимум и максимум в каждом блоке из {@link #BLOCK_SIZE} значений
+ * и признаки возрастания и неубывания всех значений.
+ * <p>
+ * Сводка обновляется за O(1) при добавлении значения в конец колонки и при изменении значения. Если изменённое
+ * значение было минимумом или максимумом блока, граница блока пересчитывается по значениям блока. Признаки
+ * сортировки вычисляются по количеству пар соседних значений, нарушающих порядок, поэтому при изменении значения
+ * пересчитываются только две пары с его участием. При прочих изменениях колонка отбрасывает сводку и строит
+ * её заново при следующем запросе.
+ * <p>
+ * Сводка изменяется только вместе с колонкой и, как и колонка, не предназначена для изменения одновременно
+ * с чтением из других потоков. Колонка публикует через volatile-поле только полностью построенную сводку.
+ */
+final class LongZoneMap {
+    static final int BLOCK_SHIFT = 10;
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    private static final long[] EMPTY = new long[0];
+
+    private long[] min = EMPTY;
+    private long[] max = EMPTY;
+    private int length = 0;
+    private long last = 0L;
+    /**
+     * Количество пар соседних значений (v[i - 1], v[i]), для которых не выполнено v[i - 1] &lt; v[i].
+     */
+    private int notIncreasingPairs = 0;
+    /**
+     * Количество пар соседних значений (v[i - 1], v[i]), для которых выполнено v[i] &lt; v[i - 1].
+     */
+    private int decreasingPairs = 0;
+    private int modifications = 0;
+
+    static LongZoneMap of(final long[] values, final int length) {
+        final LongZoneMap zoneMap = new LongZoneMap();
+        zoneMap.append(values, 0, length);
+        return zoneMap;
+    }
+
+    void append(final long v) {
+        final int block = length >>> BLOCK_SHIFT;
+        if ((length & BLOCK_MASK) == 0) {
+            if (block == min.length) {
+                final int newLength = Math.max(16, block + block / 2);
+                min = Arrays.copyOf(min, newLength);
+                max = Arrays.copyOf(max, newLength);
+            }
+            min[block] = v;
+            max[block] = v;
+        } else {
+            min[block] = Math.min(min[block], v);
+            max[block] = Math.max(max[block], v);
+        }
+        if (length > 0) {
+            countPair(last, v, 1);
+        }
+        last = v;
+        length++;
+    }
+
+    /**
+     * Учесть изменение значения с индексом {@code index}. Новое значение уже записано в {@code values}.
+     *
+     * @param values   значения колонки
+     * @param index    индекс изменённого значения
+     * @param oldValue прежнее значение
+     */
+    void set(final long[] values, final int index, final long oldValue) {
+        final long v = values[index];
+        if (index > 0) {
+            countPair(values[index - 1], oldValue, -1);
+            countPair(values[index - 1], v, 1);
+        }
+        if (index + 1 < length) {
+            countPair(oldValue, values[index + 1], -1);
+            countPair(v, values[index + 1], 1);
+        } else {
+            last = v;
+        }
+        final int block = index >>> BLOCK_SHIFT;
+        final int from = block << BLOCK_SHIFT;
+        final int to = Math.min(length, from + BLOCK_SIZE);
+        if (v <= min[block]) {
+            min[block] = v;
+        } else if (oldValue == min[block]) {
+            min[block] = blockMin(values, from, to);
+        }
+        if (v >= max[block]) {
+            max[block] = v;
+        } else if (oldValue == max[block]) {
+            max[block] = blockMax(values, from, to);
+        }
+        modifications++;
+    }
+
+    private void countPair(final long prev, final long next, final int delta) {
+        if (next <= prev) {
+            notIncreasingPairs += delta;
+            if (next < prev) {
+                decreasingPairs += delta;
+            }
+        }
+    }
+
+    void append(final long[] values, final int from, final int count) {
+        for (int i = from; i < from + count; i++) {
+            append(values[i]);
+        }
+    }
+
+    int length() {
+        return length;
+    }
+
+    boolean isIncreasing() {
+        return notIncreasingPairs == 0;
+    }
+
+    boolean isNonDecreasing() {
+        return decreasingPairs == 0;
+    }
+
+    /**
+     * @return количество изменений значений методом {@link #set(long[], int, long)}
+     */
+    int modifications() {
+        return modifications;
+    }
+
+    private static long blockMin(final long[] values, final int from, final int to) {
+        long result = values[from];
+        for (int i = from + 1; i < to; i++) {
+            result = Math.min(result, values[i]);
+        }
+        return result;
+    }
+
+    private static long blockMax(final long[] values, final int from, final int to) {
+        long result = values[from];
+        for (int i = from + 1; i < to; i++) {
+            result = Math.max(result, values[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @return минимум значений с индексами [from, to), {@link Long#MAX_VALUE} для пустого диапазона
+     */
+    long min(final long[] values, final int from, final int to) {
+        long result = Long.MAX_VALUE;
+        int i = from;
+        while (i < to) {
+            final int end = Math.min(to, (i | BLOCK_MASK) + 1);
+            if ((i & BLOCK_MASK) == 0 && end - i == BLOCK_SIZE) {
+                result = Math.min(result, min[i >>> BLOCK_SHIFT]);
+            } else {
+                for (int j = i; j < end; j++) {
+                    result = Math.min(result, values[j]);
+                }
+            }
+            i = end;
+        }
+        return result;
+    }
+
+    /**
+     * @return максимум значений с индексами [from, to), {@link Long#MIN_VALUE} для пустого диапазона
+     */
+    long max(final long[] values, final int from, final int to) {
+        long result = Long.MIN_VALUE;
+        int i = from;
+        while (i < to) {
+            final int end = Math.min(to, (i | BLOCK_MASK) + 1);
+            if ((i & BLOCK_MASK) == 0 && end - i == BLOCK_SIZE) {
+                result = Math.max(result, max[i >>> BLOCK_SHIFT]);
+            } else {
+                for (int j = i; j < end; j++) {
+                    result = Math.max(result, values[j]);
+                }
+            }
+            i = end;
+        }
+        return result;
+    }
+
+    /**
+     * Найти индексы значений из отрезка [lo, hi]. Блоки, сводка которых не пересекается с отрезком,
+     * пропускаются, блоки, сводка которых целиком лежит в отрезке, добавляются без проверки значений.
+     *
+     * @return индексы в порядке возрастания
+     */
+    int[] indicesBetween(final long[] values, final long lo, final long hi) {
+        int[] indices = new int[16];
+        int count = 0;
+        for (int block = 0, from = 0; from < length; block++, from += BLOCK_SIZE) {
+            final long blockMin = min[block];
+            final long blockMax = max[block];
+            if (blockMax < lo || blockMin > hi) {
+                continue;
+            }
+            final int to = Math.min(length, from + BLOCK_SIZE);
+            if (count + (to - from) > indices.length) {
+                indices = Arrays.copyOf(indices, Math.max(indices.length * 2, count + (to - from)));
+            }
+            if (lo <= blockMin && blockMax <= hi) {
+                for (int i = from; i < to; i++) {
+                    indices[count++] = i;
+                }
+            } else {
+                for (int i = from; i < to; i++) {
+                    final long v = values[i];
+                    if (lo <= v && v <= hi) {
+                        indices[count++] = i;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(indices, count);
+    }
+}
@@ -0,0 +1,200 @@
+package com.algotrading.base.core.columns;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Колонка значений типа double, данные которой хранятся вне кучи Java.
+ * <p>
+ * Данные размещаются в памяти, выделенной вне кучи, или в отображённом в память фрагменте файла.
+ * Во втором случае данные подгружаются операционной системой по мере обращения к ним и хранятся
+ * в страничном кэше, а изменения данных в файл не записываются.
+ * <p>
+ * Увеличение ёмкости колонки не требует копирования ранее записанных данных.
+ */
+public class OffHeapDoubleColumn extends DoubleColumn {
+
+    private static final int BUFFER_SIZE = 8192;
+    private OffHeapStorage storage;
+
+    public OffHeapDoubleColumn(final String name) {
+        super(name);
+        storage = OffHeapStorage.allocate(Double.BYTES, 0);
+    }
+
+    public OffHeapDoubleColumn(final String name, final int length) {
+        super(name);
+        storage = OffHeapStorage.allocate(Double.BYTES, length);
+        this.length = length;
+    }
+
+    private OffHeapDoubleColumn(final String name, final OffHeapStorage storage, final int length) {
+        super(name);
+        this.storage = storage;
+        this.length = length;
+    }
+
+    /**
+     * Создать колонку, отображая в память фрагмент файла с данными в формате little-endian.
+     *
+     * @param name     название колонки
+     * @param path     путь к файлу
+     * @param position смещение фрагмента от начала файла в байтах
+     * @param length   количество значений во фрагменте
+     * @return колонка
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    public static OffHeapDoubleColumn map(final String name,
+                                          final Path path,
+                                          final long position,
+                                          final int length) throws IOException {
+        return new OffHeapDoubleColumn(name, OffHeapStorage.map(path, position, length, Double.BYTES), length);
+    }
+
+    @Override
+    public void set(final int index, final double value) {
+        rangeCheck(index);
+        storage.putDouble(index, value);
+    }
+
+    @Override
+    public double get(final int index) {
+        rangeCheck(index);
+        return storage.getDouble(index);
+    }
+
+    @Override
+    public void get(final int from, final double[] dst, final int dstPos, final int count) {
+        if (from < 0 || count < 0 || from + count > length) {
+            throw new IndexOutOfBoundsException("from=" + from + ", count=" + count + ", length=" + length);
+        }
+        storage.getDoubles(from, dst, dstPos, count);
+    }
+
+    @Override
+    public void append(final double value) {
+        ensureCapacity(length + 1);
+        storage.putDouble(length, value);
+        length++;
+    }
+
+    @Override
+    public void ensureCapacity(final int capacity) {
+        storage.ensureCapacity(capacity);
+    }
+
+    @Override
+    public OffHeapDoubleColumn copy(final int from, final int to) {
+        final OffHeapDoubleColumn copy = new OffHeapDoubleColumn(name(), to - from);
+        copy.storage.copyFrom(storage, from, 0, to - from);
+        return copy;
+    }
+
+    @Override
+    public OffHeapDoubleColumn subColumn(final int[] indices) {
+        final OffHeapDoubleColumn subColumn = new OffHeapDoubleColumn(name(), indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            subColumn.storage.putDouble(i, get(indices[i]));
+        }
+        return subColumn;
+    }
+
+    @Override
+    public OffHeapDoubleColumn append(final AbstractColumn column) {
+        final DoubleColumn doubleColumn = (DoubleColumn) column;
+        final int len = doubleColumn.length();
+        ensureCapacity(length + len);
+        if (doubleColumn instanceof final OffHeapDoubleColumn offHeapColumn) {
+            storage.copyFrom(offHeapColumn.storage, 0, length, len);
+        } else {
+            final double[] buffer = new double[Math.min(len, BUFFER_SIZE)];
+            for (int from = 0; from < len; from += buffer.length) {
+                final int count = Math.min(buffer.length, len - from);
+                doubleColumn.get(from, buffer, 0, count);
+                storage.putDoubles(length + from, buffer, 0, count);
+            }
+        }
+        length += len;
+        return this;
+    }
+
+    @Override
+    public void move(final int offset) {
+        // как и у колонок в куче, сдвиг выполняется в пределах ёмкости, значения за её границей отбрасываются
+        final int capacity = storage.capacity();
+        if (Math.abs(offset) > capacity) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", capacity=" + capacity);
+        }
+        if (offset > 0) {
+            storage.move(0, offset, capacity - offset);
+        } else if (offset < 0) {
+            storage.move(-offset, 0, capacity + offset);
+        }
+    }
+
+    @Override
+    public int binarySearch(final double v) {
+        int low = 0;
+        int high = length() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final double midVal = storage.getDouble(mid);
+
+            if (midVal < v) {
+                low = mid + 1;
+            } else if (midVal > v) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    public void reorder(final int[] indices) {
+        if (length != indices.length) {
+            throw new IndexOutOfBoundsException("length=" + length + ", indices.length=" + indices.length);
+        }
+        final OffHeapStorage newStorage = OffHeapStorage.allocate(Double.BYTES, storage.capacity());
+        for (int i = 0; i < length; i++) {
+            newStorage.putDouble(i, storage.getDouble(indices[i]));
+        }
+        storage = newStorage;
+    }
+
+    @Override
+    public double sum() {
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += storage.getDouble(i);
+        }
+        return sum;
+    }
+
+    @Override
+    public double average() {
+        if (length == 0) {
+            return Double.NaN;
+        }
+        return sum() / length;
+    }
+
+    @Override
+    public double max() {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < length; i++) {
+            max = Math.max(max, storage.getDouble(i));
+        }
+        return max;
+    }
+
+    @Override
+    public double min() {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < length; i++) {
+            min = Math.min(min, storage.getDouble(i));
+        }
+        return min;
+    }
+}
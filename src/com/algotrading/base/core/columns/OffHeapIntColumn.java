@@ -0,0 +1,165 @@
+package com.algotrading.base.core.columns;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Колонка значений типа int, данные которой хранятся вне кучи Java.
+ * <p>
+ * Данные размещаются в памяти, выделенной вне кучи, или в отображённом в память фрагменте файла.
+ * Во втором случае данные подгружаются операционной системой по мере обращения к ним и хранятся
+ * в страничном кэше, а изменения данных в файл не записываются.
+ * <p>
+ * Увеличение ёмкости колонки не требует копирования ранее записанных данных.
+ */
+public class OffHeapIntColumn extends IntColumn {
+
+    private static final int BUFFER_SIZE = 8192;
+    private OffHeapStorage storage;
+
+    public OffHeapIntColumn(final String name) {
+        super(name);
+        storage = OffHeapStorage.allocate(Integer.BYTES, 0);
+    }
+
+    public OffHeapIntColumn(final String name, final int length) {
+        super(name);
+        storage = OffHeapStorage.allocate(Integer.BYTES, length);
+        this.length = length;
+    }
+
+    private OffHeapIntColumn(final String name, final OffHeapStorage storage, final int length) {
+        super(name);
+        this.storage = storage;
+        this.length = length;
+    }
+
+    /**
+     * Создать колонку, отображая в память фрагмент файла с данными в формате little-endian.
+     *
+     * @param name     название колонки
+     * @param path     путь к файлу
+     * @param position смещение фрагмента от начала файла в байтах
+     * @param length   количество значений во фрагменте
+     * @return колонка
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    public static OffHeapIntColumn map(final String name,
+                                          final Path path,
+                                          final long position,
+                                          final int length) throws IOException {
+        return new OffHeapIntColumn(name, OffHeapStorage.map(path, position, length, Integer.BYTES), length);
+    }
+
+    @Override
+    public void set(final int index, final int value) {
+        rangeCheck(index);
+        storage.putInt(index, value);
+    }
+
+    @Override
+    public int get(final int index) {
+        rangeCheck(index);
+        return storage.getInt(index);
+    }
+
+    @Override
+    public void get(final int from, final int[] dst, final int dstPos, final int count) {
+        if (from < 0 || count < 0 || from + count > length) {
+            throw new IndexOutOfBoundsException("from=" + from + ", count=" + count + ", length=" + length);
+        }
+        storage.getInts(from, dst, dstPos, count);
+    }
+
+    @Override
+    public void append(final int value) {
+        ensureCapacity(length + 1);
+        storage.putInt(length, value);
+        length++;
+    }
+
+    @Override
+    public void ensureCapacity(final int capacity) {
+        storage.ensureCapacity(capacity);
+    }
+
+    @Override
+    public OffHeapIntColumn copy(final int from, final int to) {
+        final OffHeapIntColumn copy = new OffHeapIntColumn(name(), to - from);
+        copy.storage.copyFrom(storage, from, 0, to - from);
+        return copy;
+    }
+
+    @Override
+    public OffHeapIntColumn subColumn(final int[] indices) {
+        final OffHeapIntColumn subColumn = new OffHeapIntColumn(name(), indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            subColumn.storage.putInt(i, get(indices[i]));
+        }
+        return subColumn;
+    }
+
+    @Override
+    public OffHeapIntColumn append(final AbstractColumn column) {
+        final IntColumn intColumn = (IntColumn) column;
+        final int len = intColumn.length();
+        ensureCapacity(length + len);
+        if (intColumn instanceof final OffHeapIntColumn offHeapColumn) {
+            storage.copyFrom(offHeapColumn.storage, 0, length, len);
+        } else {
+            final int[] buffer = new int[Math.min(len, BUFFER_SIZE)];
+            for (int from = 0; from < len; from += buffer.length) {
+                final int count = Math.min(buffer.length, len - from);
+                intColumn.get(from, buffer, 0, count);
+                storage.putInts(length + from, buffer, 0, count);
+            }
+        }
+        length += len;
+        return this;
+    }
+
+    @Override
+    public void move(final int offset) {
+        // как и у колонок в куче, сдвиг выполняется в пределах ёмкости, значения за её границей отбрасываются
+        final int capacity = storage.capacity();
+        if (Math.abs(offset) > capacity) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", capacity=" + capacity);
+        }
+        if (offset > 0) {
+            storage.move(0, offset, capacity - offset);
+        } else if (offset < 0) {
+            storage.move(-offset, 0, capacity + offset);
+        }
+    }
+
+    @Override
+    public int binarySearch(final int v) {
+        int low = 0;
+        int high = length() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int midVal = storage.getInt(mid);
+
+            if (midVal < v) {
+                low = mid + 1;
+            } else if (midVal > v) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    public void reorder(final int[] indices) {
+        if (length != indices.length) {
+            throw new IndexOutOfBoundsException("length=" + length + ", indices.length=" + indices.length);
+        }
+        final OffHeapStorage newStorage = OffHeapStorage.allocate(Integer.BYTES, storage.capacity());
+        for (int i = 0; i < length; i++) {
+            newStorage.putInt(i, storage.getInt(indices[i]));
+        }
+        storage = newStorage;
+    }
+}
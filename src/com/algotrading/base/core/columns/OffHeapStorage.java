@@ -0,0 +1,309 @@
+package com.algotrading.base.core.columns;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Хранилище данных колонки вне кучи Java.
+ * <p>
+ * Данные хранятся в наборе буферов (чанков) одинаковой ёмкости, поэтому увеличение ёмкости хранилища
+ * не требует копирования ранее записанных данных. Буферы либо выделяются с помощью
+ * {@link ByteBuffer#allocateDirect(int)}, либо отображаются в память из файла в режиме
+ * {@link FileChannel.MapMode#PRIVATE}, т.е. изменения данных не попадают в файл. Если файл недоступен
+ * для записи, он отображается в режиме {@link FileChannel.MapMode#READ_ONLY}, и попытка изменить
+ * отображённые данные приводит к исключению {@link java.nio.ReadOnlyBufferException}.
+ * <p>
+ * Порядок байтов всегда {@link ByteOrder#LITTLE_ENDIAN}.
+ */
+final class OffHeapStorage {
+    /**
+     * Логарифм размера чанка в байтах для памяти, выделяемой вне кучи (1 Мб).
+     */
+    private static final int DIRECT_CHUNK_BYTES_SHIFT = 20;
+    /**
+     * Логарифм размера чанка в байтах для отображаемых в память файлов (128 Мб).
+     */
+    private static final int MAPPED_CHUNK_BYTES_SHIFT = 27;
+    /**
+     * Минимальный размер неполного чанка в элементах.
+     */
+    private static final int MIN_CHUNK_SIZE = 1024;
+    private static final ByteBuffer[] EMPTY = new ByteBuffer[0];
+
+    /**
+     * Логарифм размера элемента в байтах.
+     */
+    private final int elementShift;
+    /**
+     * Логарифм количества элементов в чанке.
+     */
+    private final int chunkShift;
+    private final int chunkMask;
+    private ByteBuffer[] chunks;
+    /**
+     * Количество элементов, которое можно разместить в хранилище.
+     */
+    private int capacity;
+
+    private OffHeapStorage(final int elementBytes, final int chunkBytesShift) {
+        elementShift = Integer.numberOfTrailingZeros(elementBytes);
+        if (elementBytes != 1 << elementShift) {
+            throw new IllegalArgumentException("elementBytes=" + elementBytes);
+        }
+        chunkShift = chunkBytesShift - elementShift;
+        chunkMask = (1 << chunkShift) - 1;
+        chunks = EMPTY;
+        capacity = 0;
+    }
+
+    /**
+     * Создать хранилище в памяти вне кучи.
+     *
+     * @param elementBytes размер элемента в байтах (степень двойки)
+     * @param capacity     начальная ёмкость хранилища в элементах
+     * @return хранилище
+     */
+    static OffHeapStorage allocate(final int elementBytes, final int capacity) {
+        final OffHeapStorage storage = new OffHeapStorage(elementBytes, DIRECT_CHUNK_BYTES_SHIFT);
+        storage.ensureCapacity(capacity);
+        return storage;
+    }
+
+    /**
+     * Создать хранилище, отображая в память фрагмент файла.
+     *
+     * @param path         путь к файлу
+     * @param position     смещение фрагмента от начала файла в байтах
+     * @param count        количество элементов во фрагменте
+     * @param elementBytes размер элемента в байтах (степень двойки)
+     * @return хранилище
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    static OffHeapStorage map(final Path path,
+                              final long position,
+                              final int count,
+                              final int elementBytes) throws IOException {
+        final OffHeapStorage storage = new OffHeapStorage(elementBytes, MAPPED_CHUNK_BYTES_SHIFT);
+        final int numChunks = (int) (((long) count + storage.chunkMask) >>> storage.chunkShift);
+        storage.chunks = new ByteBuffer[numChunks];
+        // режим PRIVATE требует канала, открытого на запись, поэтому размер файла проверяется явно,
+        // чтобы отображение никогда не увеличивало файл; файл, недоступный для записи, отображается
+        // только для чтения
+        final boolean writable = Files.isWritable(path);
+        final FileChannel.MapMode mode = writable ? FileChannel.MapMode.PRIVATE : FileChannel.MapMode.READ_ONLY;
+        try (final FileChannel channel = writable
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ)) {
+            if (position < 0 || channel.size() < position + ((long) count << storage.elementShift)) {
+                throw new EOFException("File " + path + " is too short for " + count + " elements at " + position);
+            }
+            for (int i = 0; i < numChunks; i++) {
+                final long from = (long) i << storage.chunkShift;
+                final long size = (Math.min(count, from + storage.chunkMask + 1) - from) << storage.elementShift;
+                storage.chunks[i] = channel.map(mode, position + (from << storage.elementShift), size)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        storage.capacity = count;
+        return storage;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Обеспечить ёмкость хранилища. Все чанки, кроме последнего, имеют полный размер. Последний чанк
+     * может быть неполным (так бывает у отображённого файла и у небольшого хранилища); при нехватке места
+     * он заменяется чанком в памяти вне кучи, размер которого растёт в геометрической прогрессии
+     * до полного размера чанка. Данные прочих чанков не копируются.
+     *
+     * @param capacity требуемая ёмкость в элементах
+     */
+    void ensureCapacity(final int capacity) {
+        if (capacity <= this.capacity) {
+            return;
+        }
+        final int chunkSize = chunkMask + 1;
+        final int numChunks = (int) (((long) capacity + chunkMask) >>> chunkShift);
+        final int oldNumChunks = chunks.length;
+        if (numChunks > oldNumChunks) {
+            chunks = Arrays.copyOf(chunks, numChunks);
+        }
+        int lastSize = 0;
+        for (int i = Math.max(0, oldNumChunks - 1); i < numChunks; i++) {
+            final ByteBuffer old = chunks[i];
+            final int oldSize = (old == null) ? 0 : old.capacity() >>> elementShift;
+            final int size;
+            if (i < numChunks - 1) {
+                size = chunkSize;
+            } else {
+                final int required = capacity - (i << chunkShift);
+                size = Math.min(chunkSize, Math.max(required, Math.max(MIN_CHUNK_SIZE, oldSize + oldSize / 2)));
+            }
+            if (oldSize < size) {
+                final ByteBuffer chunk = newChunk(size);
+                if (old != null) {
+                    chunk.put(0, old, 0, old.capacity());
+                }
+                chunks[i] = chunk;
+            }
+            lastSize = Math.max(size, oldSize);
+        }
+        this.capacity = (int) Math.min(Integer.MAX_VALUE, ((long) (numChunks - 1) << chunkShift) + lastSize);
+    }
+
+    private ByteBuffer newChunk(final int chunkSize) {
+        return ByteBuffer.allocateDirect(chunkSize << elementShift).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private int offset(final int index) {
+        return (index & chunkMask) << elementShift;
+    }
+
+    double getDouble(final int index) {
+        return chunks[index >>> chunkShift].getDouble(offset(index));
+    }
+
+    void putDouble(final int index, final double value) {
+        chunks[index >>> chunkShift].putDouble(offset(index), value);
+    }
+
+    long getLong(final int index) {
+        return chunks[index >>> chunkShift].getLong(offset(index));
+    }
+
+    void putLong(final int index, final long value) {
+        chunks[index >>> chunkShift].putLong(offset(index), value);
+    }
+
+    int getInt(final int index) {
+        return chunks[index >>> chunkShift].getInt(offset(index));
+    }
+
+    void putInt(final int index, final int value) {
+        chunks[index >>> chunkShift].putInt(offset(index), value);
+    }
+
+    void getDoubles(int index, final double[] dst, int dstPos, int count) {
+        while (count > 0) {
+            final int n = Math.min(count, chunkMask + 1 - (index & chunkMask));
+            chunks[index >>> chunkShift].asDoubleBuffer().get(index & chunkMask, dst, dstPos, n);
+            index += n;
+            dstPos += n;
+            count -= n;
+        }
+    }
+
+    void putDoubles(int index, final double[] src, int srcPos, int count) {
+        while (count > 0) {
+            final int n = Math.min(count, chunkMask + 1 - (index & chunkMask));
+            chunks[index >>> chunkShift].asDoubleBuffer().put(index & chunkMask, src, srcPos, n);
+            index += n;
+            srcPos += n;
+            count -= n;
+        }
+    }
+
+    void getLongs(int index, final long[] dst, int dstPos, int count) {
+        while (count > 0) {
+            final int n = Math.min(count, chunkMask + 1 - (index & chunkMask));
+            chunks[index >>> chunkShift].asLongBuffer().get(index & chunkMask, dst, dstPos, n);
+            index += n;
+            dstPos += n;
+            count -= n;
+        }
+    }
+
+    void putLongs(int index, final long[] src, int srcPos, int count) {
+        while (count > 0) {
+            final int n = Math.min(count, chunkMask + 1 - (index & chunkMask));
+            chunks[index >>> chunkShift].asLongBuffer().put(index & chunkMask, src, srcPos, n);
+            index += n;
+            srcPos += n;
+            count -= n;
+        }
+    }
+
+    void getInts(int index, final int[] dst, int dstPos, int count) {
+        while (count > 0) {
+            final int n = Math.min(count, chunkMask + 1 - (index & chunkMask));
+            chunks[index >>> chunkShift].asIntBuffer().get(index & chunkMask, dst, dstPos, n);
+            index += n;
+            dstPos += n;
+            count -= n;
+        }
+    }
+
+    void putInts(int index, final int[] src, int srcPos, int count) {
+        while (count > 0) {
+            final int n = Math.min(count, chunkMask + 1 - (index & chunkMask));
+            chunks[index >>> chunkShift].asIntBuffer().put(index & chunkMask, src, srcPos, n);
+            index += n;
+            srcPos += n;
+            count -= n;
+        }
+    }
+
+    /**
+     * Скопировать элементы из другого хранилища с тем же размером элемента.
+     *
+     * @param src      хранилище-источник
+     * @param srcIndex индекс первого копируемого элемента в источнике
+     * @param dstIndex индекс, куда копируется первый элемент
+     * @param count    количество элементов
+     */
+    void copyFrom(final OffHeapStorage src, int srcIndex, int dstIndex, int count) {
+        if (src.elementShift != elementShift) {
+            throw new IllegalArgumentException("Element size mismatch");
+        }
+        while (count > 0) {
+            final int n = Math.min(count, Math.min(
+                    src.chunkMask + 1 - (srcIndex & src.chunkMask),
+                    chunkMask + 1 - (dstIndex & chunkMask)));
+            chunks[dstIndex >>> chunkShift].put(offset(dstIndex),
+                    src.chunks[srcIndex >>> src.chunkShift], src.offset(srcIndex), n << elementShift);
+            srcIndex += n;
+            dstIndex += n;
+            count -= n;
+        }
+    }
+
+    /**
+     * Сдвинуть элементы внутри хранилища с учётом возможного перекрытия диапазонов.
+     *
+     * @param srcIndex индекс первого сдвигаемого элемента
+     * @param dstIndex индекс, куда сдвигается первый элемент
+     * @param count    количество элементов
+     */
+    void move(final int srcIndex, final int dstIndex, final int count) {
+        if (elementShift == 3) {
+            if (dstIndex < srcIndex) {
+                for (int i = 0; i < count; i++) {
+                    putLong(dstIndex + i, getLong(srcIndex + i));
+                }
+            } else {
+                for (int i = count - 1; i >= 0; i--) {
+                    putLong(dstIndex + i, getLong(srcIndex + i));
+                }
+            }
+        } else {
+            if (dstIndex < srcIndex) {
+                for (int i = 0; i < count; i++) {
+                    putInt(dstIndex + i, getInt(srcIndex + i));
+                }
+            } else {
+                for (int i = count - 1; i >= 0; i--) {
+                    putInt(dstIndex + i, getInt(srcIndex + i));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.algotrading.base.core.columns;
+
+/**
+ * Колонка значений типа double, данные которой хранятся в кольцевом буфере.
+ * <p>
+ * Удаление значений из начала колонки методом {@link #move(int)} с отрицательным сдвигом выполняется
+ * за время O(1): сдвигается только указатель на начало данных, сами данные не копируются.
+ * Колонка подходит для скользящих окон фиксированного размера, например, свечей в {@link
+ * com.algotrading.base.core.candles.UpdatableCandles}. Доступ по индексу выполняется за время O(1).
+ */
+public class RingDoubleColumn extends DoubleColumn {
+
+    private static final double[] EMPTY = new double[0];
+
+    private double[] ring = EMPTY;
+    private int mask = -1;
+    private int head = 0;
+
+    public RingDoubleColumn(final String name) {
+        super(name);
+    }
+
+    public RingDoubleColumn(final String name, final int length) {
+        super(name);
+        grow(length);
+        this.length = length;
+    }
+
+    /**
+     * Проверить индекс: отрицательный индекс в кольцевом буфере не привёл бы к исключению.
+     */
+    private void ringRangeCheck(final int index) {
+        if (index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        rangeCheck(index);
+    }
+
+    @Override
+    public void set(final int index, final double value) {
+        ringRangeCheck(index);
+        ring[(head + index) & mask] = value;
+    }
+
+    @Override
+    public double get(final int index) {
+        ringRangeCheck(index);
+        return ring[(head + index) & mask];
+    }
+
+    @Override
+    public void get(final int from, final double[] dst, final int dstPos, final int count) {
+        if (from < 0 || count < 0 || from + count > length) {
+            throw new IndexOutOfBoundsException("from=" + from + ", count=" + count + ", length=" + length);
+        }
+        final int start = (head + from) & mask;
+        final int n = Math.min(count, ring.length - start);
+        System.arraycopy(ring, start, dst, dstPos, n);
+        System.arraycopy(ring, 0, dst, dstPos + n, count - n);
+    }
+
+    private void put(final int from, final double[] src, final int srcPos, final int count) {
+        final int start = (head + from) & mask;
+        final int n = Math.min(count, ring.length - start);
+        System.arraycopy(src, srcPos, ring, start, n);
+        System.arraycopy(src, srcPos + n, ring, 0, count - n);
+    }
+
+    @Override
+    public void append(final double value) {
+        if (length == ring.length) {
+            ensureCapacity(length + 1);
+        }
+        ring[(head + length) & mask] = value;
+        length++;
+    }
+
+    @Override
+    public void ensureCapacity(final int capacity) {
+        grow(capacity);
+    }
+
+    private void grow(final int capacity) {
+        if (ring.length < capacity) {
+            final int newCapacity = Integer.highestOneBit(Math.max(DEFAULT_SIZE, Math.max(ring.length * 2, capacity)) - 1) << 1;
+            final double[] newRing = new double[newCapacity];
+            final int n = ring.length - head;
+            System.arraycopy(ring, head, newRing, 0, n);
+            System.arraycopy(ring, 0, newRing, n, head);
+            ring = newRing;
+            mask = newCapacity - 1;
+            head = 0;
+        }
+    }
+
+    @Override
+    public RingDoubleColumn copy(final int from, final int to) {
+        final RingDoubleColumn copy = new RingDoubleColumn(name(), to - from);
+        get(from, copy.ring, 0, to - from);
+        return copy;
+    }
+
+    @Override
+    public RingDoubleColumn subColumn(final int[] indices) {
+        final RingDoubleColumn subColumn = new RingDoubleColumn(name(), indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            subColumn.ring[i] = get(indices[i]);
+        }
+        return subColumn;
+    }
+
+    @Override
+    public RingDoubleColumn append(final AbstractColumn column) {
+        final DoubleColumn doubleColumn = (DoubleColumn) column;
+        final int len = doubleColumn.length();
+        ensureCapacity(length + len);
+        final double[] buffer = new double[len];
+        doubleColumn.get(0, buffer, 0, len);
+        put(length, buffer, 0, len);
+        length += len;
+        return this;
+    }
+
+    /**
+     * Сдвинуть данные колонки. Отрицательный сдвиг (удаление значений из начала колонки) выполняется
+     * за время O(1), положительный -- копированием значений.
+     *
+     * @param offset сдвиг
+     */
+    @Override
+    public void move(final int offset) {
+        if (offset > 0) {
+            ensureCapacity(length + offset);
+            for (int i = length - 1; i >= 0; i--) {
+                ring[(head + i + offset) & mask] = ring[(head + i) & mask];
+            }
+        } else if (offset < 0) {
+            head = (head - offset) & mask;
+        }
+    }
+
+    @Override
+    public int binarySearch(final double v) {
+        int low = 0;
+        int high = length() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final double midVal = ring[(head + mid) & mask];
+
+            if (midVal < v) {
+                low = mid + 1;
+            } else if (midVal > v) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    public void reorder(final int[] indices) {
+        if (length != indices.length) {
+            throw new IndexOutOfBoundsException("length=" + length + ", indices.length=" + indices.length);
+        }
+        final double[] newRing = new double[ring.length];
+        for (int i = 0; i < length; i++) {
+            newRing[i] = ring[(head + indices[i]) & mask];
+        }
+        ring = newRing;
+        head = 0;
+    }
+}
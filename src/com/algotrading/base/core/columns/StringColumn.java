@@ -70,11 +70,23 @@ public class StringColumn extends AbstractColumn {
         return subColumn;
     }
 
+    @Override
+    public StringColumnView view(final int from, final int to) {
+        return new StringColumnView(this, from, to);
+    }
+
+    @Override
+    public StringColumnView view(final int[] indices) {
+        return new StringColumnView(this, indices.clone());
+    }
+
     @Override
     public StringColumn append(final AbstractColumn column) {
         final StringColumn stringColumn = (StringColumn) column;
         ensureCapacity(length + stringColumn.length);
-        System.arraycopy(stringColumn.data, 0, data, length, stringColumn.length);
+        for (int i = 0; i < stringColumn.length; i++) {
+            data[length + i] = stringColumn.get(i);
+        }
         length += stringColumn.length;
         return this;
     }
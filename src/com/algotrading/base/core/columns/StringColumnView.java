@@ -0,0 +1,123 @@
+package com.algotrading.base.core.columns;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Представление фрагмента колонки типа {@link StringColumn} без копирования данных.
+ * <p>
+ * Фрагмент задаётся либо диапазоном индексов [from, to) исходной колонки, либо массивом индексов.
+ * Представление доступно только для чтения. Для получения независимой копии данных
+ * следует использовать методы {@link #copy()} и {@link #copy(int, int)}.
+ */
+public class StringColumnView extends StringColumn {
+
+    private final StringColumn source;
+    private final int offset;
+    private final int[] indices;
+
+    StringColumnView(final StringColumn source, final int from, final int to) {
+        super(source.name());
+        if (from < 0 || from > to || to > source.length()) {
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + source.length());
+        }
+        this.source = source;
+        offset = from;
+        indices = null;
+        length = to - from;
+    }
+
+    StringColumnView(final StringColumn source, final int[] indices) {
+        super(source.name());
+        this.source = source;
+        offset = 0;
+        this.indices = requireNonNull(indices);
+        length = indices.length;
+    }
+
+    private int sourceIndex(final int index) {
+        if (index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        rangeCheck(index);
+        return (indices == null) ? offset + index : indices[index];
+    }
+
+    @Override
+    public void set(final int index, final String value) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public String get(final int index) {
+        return source.get(sourceIndex(index));
+    }
+
+    @Override
+    public void append(final String value) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public void ensureCapacity(final int capacity) {
+    }
+
+    @Override
+    public void setLength(final int newLength) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public StringColumn copy(final int from, final int to) {
+        final StringColumn copy = new StringColumn(name(), to - from);
+        for (int i = from; i < to; i++) {
+            copy.data[i - from] = get(i);
+        }
+        return copy;
+    }
+
+    @Override
+    public StringColumn subColumn(final int[] indices) {
+        final StringColumn subColumn = new StringColumn(name(), indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            subColumn.data[i] = get(indices[i]);
+        }
+        return subColumn;
+    }
+
+    @Override
+    public StringColumnView view(final int from, final int to) {
+        if (indices == null) {
+            if (from < 0 || from > to || to > length) {
+                throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + length);
+            }
+            return new StringColumnView(source, offset + from, offset + to);
+        }
+        return new StringColumnView(source, Arrays.copyOfRange(indices, from, to));
+    }
+
+    @Override
+    public StringColumnView view(final int[] indices) {
+        final int[] sourceIndices = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            sourceIndices[i] = sourceIndex(indices[i]);
+        }
+        return new StringColumnView(source, sourceIndices);
+    }
+
+    @Override
+    public StringColumn append(final AbstractColumn column) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public void move(final int offset) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+
+    @Override
+    public void reorder(final int[] indices) {
+        throw new UnsupportedOperationException("Read-only view " + this);
+    }
+}
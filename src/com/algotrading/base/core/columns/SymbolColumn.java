@@ -0,0 +1,159 @@
+package com.algotrading.base.core.columns;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Строковая колонка, хранящая номера строк в словаре {@link SymbolDictionary} вместо самих строк.
+ * <p>
+ * Подходит для колонок с небольшим количеством различных значений, например, кодов инструментов.
+ * Значения {@code null} хранятся с номером -1. Сравнение значений колонок с общим словарём
+ * можно выполнять по номерам строк, см. {@link #getId(int)}.
+ */
+public class SymbolColumn extends StringColumn {
+
+    private static final int[] EMPTY = new int[0];
+    private final SymbolDictionary dictionary;
+    private int[] ids;
+
+    public SymbolColumn(final String name) {
+        this(name, new SymbolDictionary());
+    }
+
+    public SymbolColumn(final String name, final SymbolDictionary dictionary) {
+        super(name);
+        this.dictionary = requireNonNull(dictionary);
+        ids = EMPTY;
+    }
+
+    public SymbolColumn(final String name, final SymbolDictionary dictionary, final int length) {
+        super(name);
+        this.dictionary = requireNonNull(dictionary);
+        ids = new int[length];
+        Arrays.fill(ids, -1);
+        this.length = length;
+    }
+
+    public SymbolDictionary dictionary() {
+        return dictionary;
+    }
+
+    private int toId(final String value) {
+        return (value == null) ? -1 : dictionary.acquireId(value);
+    }
+
+    /**
+     * @param index индекс
+     * @return номер строки в словаре или -1 для значения {@code null}
+     */
+    public int getId(final int index) {
+        rangeCheck(index);
+        return ids[index];
+    }
+
+    public void setId(final int index, final int id) {
+        rangeCheck(index);
+        ids[index] = id;
+    }
+
+    public void appendId(final int id) {
+        ensureCapacity(length + 1);
+        ids[length] = id;
+        length++;
+    }
+
+    @Override
+    public void set(final int index, final String value) {
+        rangeCheck(index);
+        ids[index] = toId(value);
+    }
+
+    @Override
+    public String get(final int index) {
+        rangeCheck(index);
+        final int id = ids[index];
+        return (id < 0) ? null : dictionary.getSymbol(id);
+    }
+
+    @Override
+    public void append(final String value) {
+        ensureCapacity(length + 1);
+        ids[length] = toId(value);
+        length++;
+    }
+
+    @Override
+    public void ensureCapacity(final int capacity) {
+        if (ids.length < capacity) {
+            final int[] newIds = new int[Math.max(DEFAULT_SIZE, Math.max(ids.length + ids.length / 2, capacity))];
+            System.arraycopy(ids, 0, newIds, 0, ids.length);
+            Arrays.fill(newIds, ids.length, newIds.length, -1);
+            ids = newIds;
+        }
+    }
+
+    @Override
+    public SymbolColumn copy() {
+        return copy(0, length());
+    }
+
+    @Override
+    public SymbolColumn copy(final int from, final int to) {
+        final SymbolColumn copy = new SymbolColumn(name(), dictionary, to - from);
+        System.arraycopy(ids, from, copy.ids, 0, to - from);
+        return copy;
+    }
+
+    @Override
+    public SymbolColumn subColumn(final int[] indices) {
+        final SymbolColumn subColumn = new SymbolColumn(name(), dictionary, indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            subColumn.ids[i] = getId(indices[i]);
+        }
+        return subColumn;
+    }
+
+    @Override
+    public SymbolColumn append(final AbstractColumn column) {
+        final StringColumn stringColumn = (StringColumn) column;
+        final int len = stringColumn.length();
+        ensureCapacity(length + len);
+        if (stringColumn instanceof final SymbolColumn symbolColumn && symbolColumn.dictionary == dictionary) {
+            System.arraycopy(symbolColumn.ids, 0, ids, length, len);
+        } else {
+            for (int i = 0; i < len; i++) {
+                ids[length + i] = toId(stringColumn.get(i));
+            }
+        }
+        length += len;
+        return this;
+    }
+
+    @Override
+    public void move(final int offset) {
+        if (offset > 0) {
+            System.arraycopy(ids, 0, ids, offset, ids.length - offset);
+        } else if (offset < 0) {
+            System.arraycopy(ids, -offset, ids, 0, ids.length + offset);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Symbol[" + length() + "] " + name();
+    }
+
+    @Override
+    public void reorder(final int[] indices) {
+        if (length != indices.length) {
+            throw new IndexOutOfBoundsException("length=" + length + ", indices.length=" + indices.length);
+        }
+        final int[] newIds = new int[ids.length];
+        Arrays.fill(newIds, length, newIds.length, -1);
+        for (int i = 0; i < length; i++) {
+            newIds[i] = ids[indices[i]];
+        }
+        ids = newIds;
+    }
+}
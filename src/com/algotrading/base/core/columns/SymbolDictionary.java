@@ -0,0 +1,89 @@
+package com.algotrading.base.core.columns;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Словарь строк, сопоставляющий каждой различной строке целочисленный номер.
+ * <p>
+ * Номера присваиваются последовательно, начиная с нуля, и не меняются. Словарь может использоваться
+ * несколькими колонками типа {@link SymbolColumn} одновременно. Объект не является потокобезопасным.
+ */
+public final class SymbolDictionary {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] symbols = new String[16];
+    private int size = 0;
+
+    /**
+     * @return количество строк в словаре
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Получить номер строки, добавив строку в словарь при её отсутствии.
+     *
+     * @param symbol строка
+     * @return номер строки
+     */
+    public int acquireId(final String symbol) {
+        final Integer id = ids.get(requireNonNull(symbol));
+        if (id != null) {
+            return id;
+        }
+        if (size == symbols.length) {
+            symbols = Arrays.copyOf(symbols, size + size / 2);
+        }
+        symbols[size] = symbol;
+        ids.put(symbol, size);
+        return size++;
+    }
+
+    /**
+     * @param symbol строка
+     * @return номер строки или -1, если строка отсутствует в словаре
+     */
+    public int getId(final String symbol) {
+        final Integer id = ids.get(symbol);
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * @param id номер строки
+     * @return строка с данным номером
+     */
+    public String getSymbol(final int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("id=" + id + ", size=" + size);
+        }
+        return symbols[id];
+    }
+
+    /**
+     * Вычислить ранги строк словаря в лексикографическом порядке.
+     *
+     * @return массив, в котором i-й элемент равен рангу строки с номером i
+     */
+    public int[] ranks() {
+        final Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (i1, i2) -> symbols[i1].compareTo(symbols[i2]));
+        final int[] ranks = new int[size];
+        for (int i = 0; i < size; i++) {
+            ranks[order[i]] = i;
+        }
+        return ranks;
+    }
+
+    @Override
+    public String toString() {
+        return "SymbolDictionary[" + size + ']';
+    }
+}
@@ -0,0 +1,412 @@
+package com.algotrading.base.core.columns;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Вычислительные ядра над массивами значений колонок, использующие SIMD-инструкции
+ * посредством модуля {@code jdk.incubator.vector}.
+ * <p>
+ * Класс загружается только при наличии модуля (опция JVM {@code --add-modules jdk.incubator.vector}),
+ * см. {@link ColumnOps}. Поэлементные операции дают результаты, совпадающие со скалярной реализацией;
+ * суммирование выполняется в другом порядке, поэтому сумма чисел типа double может отличаться в последних битах.
+ */
+final class VectorColumnKernels extends ColumnKernels {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    double sum(final double[] a, final int from, final int to) {
+        final int bound = from + DOUBLES.loopBound(to - from);
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        int i = from;
+        for (; i < bound; i += DOUBLES.length()) {
+            acc = acc.add(DoubleVector.fromArray(DOUBLES, a, i));
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    @Override
+    double max(final double[] a, final int from, final int to) {
+        final int bound = from + DOUBLES.loopBound(to - from);
+        DoubleVector acc = DoubleVector.broadcast(DOUBLES, Double.NEGATIVE_INFINITY);
+        int i = from;
+        for (; i < bound; i += DOUBLES.length()) {
+            acc = acc.max(DoubleVector.fromArray(DOUBLES, a, i));
+        }
+        double max = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            max = Math.max(max, a[i]);
+        }
+        return max;
+    }
+
+    @Override
+    double min(final double[] a, final int from, final int to) {
+        final int bound = from + DOUBLES.loopBound(to - from);
+        DoubleVector acc = DoubleVector.broadcast(DOUBLES, Double.POSITIVE_INFINITY);
+        int i = from;
+        for (; i < bound; i += DOUBLES.length()) {
+            acc = acc.min(DoubleVector.fromArray(DOUBLES, a, i));
+        }
+        double min = acc.reduceLanes(VectorOperators.MIN);
+        for (; i < to; i++) {
+            min = Math.min(min, a[i]);
+        }
+        return min;
+    }
+
+    @Override
+    long sum(final long[] a, final int n) {
+        final int bound = LONGS.loopBound(n);
+        LongVector acc = LongVector.zero(LONGS);
+        int i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            acc = acc.add(LongVector.fromArray(LONGS, a, i));
+        }
+        long sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    @Override
+    long max(final long[] a, final int n) {
+        final int bound = LONGS.loopBound(n);
+        LongVector acc = LongVector.broadcast(LONGS, Long.MIN_VALUE);
+        int i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            acc = acc.max(LongVector.fromArray(LONGS, a, i));
+        }
+        long max = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < n; i++) {
+            max = Math.max(max, a[i]);
+        }
+        return max;
+    }
+
+    @Override
+    long min(final long[] a, final int n) {
+        final int bound = LONGS.loopBound(n);
+        LongVector acc = LongVector.broadcast(LONGS, Long.MAX_VALUE);
+        int i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            acc = acc.min(LongVector.fromArray(LONGS, a, i));
+        }
+        long min = acc.reduceLanes(VectorOperators.MIN);
+        for (; i < n; i++) {
+            min = Math.min(min, a[i]);
+        }
+        return min;
+    }
+
+    @Override
+    int max(final int[] a, final int n) {
+        final int bound = INTS.loopBound(n);
+        IntVector acc = IntVector.broadcast(INTS, Integer.MIN_VALUE);
+        int i = 0;
+        for (; i < bound; i += INTS.length()) {
+            acc = acc.max(IntVector.fromArray(INTS, a, i));
+        }
+        int max = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < n; i++) {
+            max = Math.max(max, a[i]);
+        }
+        return max;
+    }
+
+    @Override
+    int min(final int[] a, final int n) {
+        final int bound = INTS.loopBound(n);
+        IntVector acc = IntVector.broadcast(INTS, Integer.MAX_VALUE);
+        int i = 0;
+        for (; i < bound; i += INTS.length()) {
+            acc = acc.min(IntVector.fromArray(INTS, a, i));
+        }
+        int min = acc.reduceLanes(VectorOperators.MIN);
+        for (; i < n; i++) {
+            min = Math.min(min, a[i]);
+        }
+        return min;
+    }
+
+    @Override
+    boolean isIncreasing(final double[] a, final int n) {
+        return isOrdered(a, n, VectorOperators.LE);
+    }
+
+    @Override
+    boolean isNonDecreasing(final double[] a, final int n) {
+        return isOrdered(a, n, VectorOperators.LT);
+    }
+
+    /**
+     * @param violation сравнение a[i] с a[i - 1], нарушающее порядок
+     */
+    private static boolean isOrdered(final double[] a, final int n, final VectorOperators.Comparison violation) {
+        if (n < 2) {
+            return true;
+        }
+        final int bound = DOUBLES.loopBound(n - 1);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            final DoubleVector prev = DoubleVector.fromArray(DOUBLES, a, i);
+            final DoubleVector next = DoubleVector.fromArray(DOUBLES, a, i + 1);
+            if (next.compare(violation, prev).anyTrue()) {
+                return false;
+            }
+        }
+        for (i++; i < n; i++) {
+            if (violation == VectorOperators.LE ? a[i] <= a[i - 1] : a[i] < a[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    boolean isIncreasing(final long[] a, final int n) {
+        return isOrdered(a, n, VectorOperators.LE);
+    }
+
+    @Override
+    boolean isNonDecreasing(final long[] a, final int n) {
+        return isOrdered(a, n, VectorOperators.LT);
+    }
+
+    private static boolean isOrdered(final long[] a, final int n, final VectorOperators.Comparison violation) {
+        if (n < 2) {
+            return true;
+        }
+        final int bound = LONGS.loopBound(n - 1);
+        int i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            final LongVector prev = LongVector.fromArray(LONGS, a, i);
+            final LongVector next = LongVector.fromArray(LONGS, a, i + 1);
+            if (next.compare(violation, prev).anyTrue()) {
+                return false;
+            }
+        }
+        for (i++; i < n; i++) {
+            if (violation == VectorOperators.LE ? a[i] <= a[i - 1] : a[i] < a[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    boolean isIncreasing(final int[] a, final int n) {
+        return isOrdered(a, n, VectorOperators.LE);
+    }
+
+    @Override
+    boolean isNonDecreasing(final int[] a, final int n) {
+        return isOrdered(a, n, VectorOperators.LT);
+    }
+
+    private static boolean isOrdered(final int[] a, final int n, final VectorOperators.Comparison violation) {
+        if (n < 2) {
+            return true;
+        }
+        final int bound = INTS.loopBound(n - 1);
+        int i = 0;
+        for (; i < bound; i += INTS.length()) {
+            final IntVector prev = IntVector.fromArray(INTS, a, i);
+            final IntVector next = IntVector.fromArray(INTS, a, i + 1);
+            if (next.compare(violation, prev).anyTrue()) {
+                return false;
+            }
+        }
+        for (i++; i < n; i++) {
+            if (violation == VectorOperators.LE ? a[i] <= a[i - 1] : a[i] < a[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    void add(final double[] a, final double[] b, final double[] r, final int n) {
+        final int bound = DOUBLES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, a, i).add(DoubleVector.fromArray(DOUBLES, b, i)).intoArray(r, i);
+        }
+        for (; i < n; i++) {
+            r[i] = a[i] + b[i];
+        }
+    }
+
+    @Override
+    void add(final double[] a, final double b, final double[] r, final int n) {
+        final int bound = DOUBLES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, a, i).add(b).intoArray(r, i);
+        }
+        for (; i < n; i++) {
+            r[i] = a[i] + b;
+        }
+    }
+
+    @Override
+    void subtract(final double[] a, final double[] b, final double[] r, final int n) {
+        final int bound = DOUBLES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, a, i).sub(DoubleVector.fromArray(DOUBLES, b, i)).intoArray(r, i);
+        }
+        for (; i < n; i++) {
+            r[i] = a[i] - b[i];
+        }
+    }
+
+    @Override
+    void subtract(final double[] a, final double b, final double[] r, final int n) {
+        final int bound = DOUBLES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, a, i).sub(b).intoArray(r, i);
+        }
+        for (; i < n; i++) {
+            r[i] = a[i] - b;
+        }
+    }
+
+    @Override
+    void multiply(final double[] a, final double[] b, final double[] r, final int n) {
+        final int bound = DOUBLES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, a, i).mul(DoubleVector.fromArray(DOUBLES, b, i)).intoArray(r, i);
+        }
+        for (; i < n; i++) {
+            r[i] = a[i] * b[i];
+        }
+    }
+
+    @Override
+    void multiply(final double[] a, final double b, final double[] r, final int n) {
+        final int bound = DOUBLES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, a, i).mul(b).intoArray(r, i);
+        }
+        for (; i < n; i++) {
+            r[i] = a[i] * b;
+        }
+    }
+
+    @Override
+    void divide(final double[] a, final double[] b, final double[] r, final int n) {
+        final int bound = DOUBLES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, a, i).div(DoubleVector.fromArray(DOUBLES, b, i)).intoArray(r, i);
+        }
+        for (; i < n; i++) {
+            r[i] = a[i] / b[i];
+        }
+    }
+
+    @Override
+    void divide(final double[] a, final double b, final double[] r, final int n) {
+        final int bound = DOUBLES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, a, i).div(b).intoArray(r, i);
+        }
+        for (; i < n; i++) {
+            r[i] = a[i] / b;
+        }
+    }
+
+    @Override
+    void fma(final double[] a, final double[] b, final double[] c, final double[] r, final int n) {
+        final int bound = DOUBLES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, a, i)
+                    .fma(DoubleVector.fromArray(DOUBLES, b, i), DoubleVector.fromArray(DOUBLES, c, i))
+                    .intoArray(r, i);
+        }
+        for (; i < n; i++) {
+            r[i] = Math.fma(a[i], b[i], c[i]);
+        }
+    }
+
+    @Override
+    void fma(final double[] a, final double b, final double c, final double[] r, final int n) {
+        final int bound = DOUBLES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, a, i).fma(b, c).intoArray(r, i);
+        }
+        for (; i < n; i++) {
+            r[i] = Math.fma(a[i], b, c);
+        }
+    }
+
+    @Override
+    void greaterThan(final double[] a, final double b, final boolean[] mask, final int n) {
+        final int bound = DOUBLES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, a, i).compare(VectorOperators.GT, b).intoArray(mask, i);
+        }
+        for (; i < n; i++) {
+            mask[i] = a[i] > b;
+        }
+    }
+
+    @Override
+    void greaterThan(final double[] a, final double[] b, final boolean[] mask, final int n) {
+        final int bound = DOUBLES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, a, i)
+                    .compare(VectorOperators.GT, DoubleVector.fromArray(DOUBLES, b, i))
+                    .intoArray(mask, i);
+        }
+        for (; i < n; i++) {
+            mask[i] = a[i] > b[i];
+        }
+    }
+
+    @Override
+    void lessThan(final double[] a, final double b, final boolean[] mask, final int n) {
+        final int bound = DOUBLES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, a, i).compare(VectorOperators.LT, b).intoArray(mask, i);
+        }
+        for (; i < n; i++) {
+            mask[i] = a[i] < b;
+        }
+    }
+
+    @Override
+    void lessThan(final double[] a, final double[] b, final boolean[] mask, final int n) {
+        final int bound = DOUBLES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, a, i)
+                    .compare(VectorOperators.LT, DoubleVector.fromArray(DOUBLES, b, i))
+                    .intoArray(mask, i);
+        }
+        for (; i < n; i++) {
+            mask[i] = a[i] < b[i];
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.algotrading.base.core.csv;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Разбор полей csv-файла непосредственно из массива байтов в кодировке UTF-8.
+ * <p>
+ * Поиск байта выполняется по 8 байтов за шаг (SWAR): слово из 8 байтов сравнивается с искомым байтом
+ * одной операцией XOR, а нулевые байты результата находятся арифметикой над словом без ветвлений.
+ * <p>
+ * Числа в распространённом виде (знак, цифры, разделитель дробной части '.' или ',') разбираются без создания
+ * строк, если все цифры числа без разделителя образуют целую мантиссу, не превышающую 2<sup>53</sup>
+ * (то есть не более 15-16 значащих цифр), а дробная часть содержит не более 22 цифр. Тогда мантисса и степень 10
+ * представимы в типе double точно, единственное деление округляется корректно, и результат совпадает
+ * с {@link Double#parseDouble(String)}. Прочие значения (больше значащих цифр, экспонента, NaN, Infinity,
+ * ошибки формата) разбираются стандартными методами через строку, поэтому и исключения совпадают.
+ */
+final class CsvBytes {
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+    /**
+     * Максимальное количество значащих цифр, при котором число гарантированно помещается в long.
+     */
+    private static final int MAX_DIGITS = 18;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private CsvBytes() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @return индекс первого байта {@code value} в диапазоне [from, to) или (-1), если такого байта нет
+     */
+    static int indexOf(final byte[] bytes, final int from, final int to, final byte value) {
+        final long pattern = (value & 0xFFL) * ONES;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            final long word = (long) LONGS.get(bytes, i) ^ pattern;
+            // старший бит байта установлен для первого нулевого байта слова (и, возможно, для байтов после него)
+            final long found = (word - ONES) & ~word & HIGHS;
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return {@code true}, если диапазон [from, to) содержит последовательность байтов {@code part}
+     */
+    static boolean contains(final byte[] bytes, final int from, final int to, final byte[] part) {
+        if (part.length == 0) {
+            return true;
+        }
+        final int last = to - part.length;
+        int i = from;
+        while (i <= last) {
+            i = indexOf(bytes, i, last + 1, part[0]);
+            if (i < 0) {
+                return false;
+            }
+            int j = 1;
+            while (j < part.length && bytes[i + j] == part[j]) {
+                j++;
+            }
+            if (j == part.length) {
+                return true;
+            }
+            i++;
+        }
+        return false;
+    }
+
+    static String string(final byte[] bytes, final int from, final int to) {
+        return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Разобрать число типа double, как {@code Double.parseDouble(s.trim().replace(',', '.'))}.
+     */
+    static double parseDouble(final byte[] bytes, final int from, final int to) {
+        int i = trimStart(bytes, from, to);
+        final int end = trimEnd(bytes, i, to);
+        final boolean negative = i < end && bytes[i] == '-';
+        if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int significantDigits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            final int b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                digits++;
+                if (mantissa != 0 || b != '0') {
+                    if (++significantDigits > MAX_DIGITS) {
+                        return parseDoubleString(bytes, from, to);
+                    }
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (fraction) {
+                    fractionDigits++;
+                }
+            } else if ((b == '.' || b == ',') && !fraction) {
+                fraction = true;
+            } else {
+                return parseDoubleString(bytes, from, to);
+            }
+        }
+        if (digits == 0 || mantissa > MAX_EXACT_MANTISSA || fractionDigits >= POWERS_OF_TEN.length) {
+            return parseDoubleString(bytes, from, to);
+        }
+        final double value = (double) mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private static double parseDoubleString(final byte[] bytes, final int from, final int to) {
+        return Double.parseDouble(string(bytes, from, to).trim().replace(',', '.'));
+    }
+
+    /**
+     * Разобрать целое число, как {@code Long.parseLong(s.trim())}.
+     */
+    static long parseLong(final byte[] bytes, final int from, final int to) {
+        int i = trimStart(bytes, from, to);
+        final int end = trimEnd(bytes, i, to);
+        final boolean negative = i < end && bytes[i] == '-';
+        if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+            i++;
+        }
+        if (i == end || end - i > MAX_DIGITS) {
+            return Long.parseLong(string(bytes, from, to).trim());
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            final int b = bytes[i];
+            if (b < '0' || b > '9') {
+                return Long.parseLong(string(bytes, from, to).trim());
+            }
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * @return индекс первого байта, не являющегося пробельным символом в смысле {@link String#trim()}
+     */
+    private static int trimStart(final byte[] bytes, int from, final int to) {
+        while (from < to && (bytes[from] & 0xFF) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimEnd(final byte[] bytes, final int from, int to) {
+        while (to > from && (bytes[to - 1] & 0xFF) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+}
@@ -9,6 +9,7 @@ import com.algotrading.base.core.values.StringValue;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.*;
 import java.util.regex.Pattern;
@@ -19,18 +20,31 @@ import static java.util.Objects.requireNonNull;
 
 /**
  * Класс, реализующий чтение данных из csv-файлов в колонки.
+ * <p>
+ * Если поля разделены одним символом ASCII, не являющимся специальным символом регулярных выражений
+ * (см. {@link #splitSeparator(String)}), файлы читаются блоками байтов, строки и поля находятся поиском байтов,
+ * а числа разбираются прямо из байтов (см. {@link CsvBytes}). Объекты {@link String} создаются только для
+ * строковых колонок и значений, для фильтра строк, заданного методом {@link #lineFilter(Predicate)},
+ * и для чисел необычного вида. Концом строки при этом считается символ '\n' или пара символов "\r\n".
+ * Иначе строки файлов разделяются на поля методом {@link String#split(String)} или регулярным выражением.
  */
 public class CsvReader {
 
+    private static final Predicate<String> ALL_LINES = s -> true;
+    private static final String REGEX_META_CHARS = ".$|()[{^?*+\\";
+    private static final int BUFFER_SIZE = 1 << 20;
+
     private final List<File> files = new ArrayList<>();
     private int linesToSkip = 0;
     private Pattern splitPattern = null;
     private String splitSeparator = ";";
     private final List<String> nanList = new ArrayList<>();
     private Pattern nanPattern = null;
-    private Predicate<String> lineFilter = s -> true;
+    private byte[][] nanBytes = null;
+    private Predicate<String> lineFilter = ALL_LINES;
     private BooleanSupplier rowFilter = () -> true;
     private final List<Consumer<String>> columnActions = new ArrayList<>();
+    private final List<FieldAction> fieldActions = new ArrayList<>();
     private final List<Runnable> computations = new ArrayList<>();
     private final List<Runnable> undo = new ArrayList<>();
 
@@ -74,18 +88,22 @@ public class CsvReader {
     public CsvReader asNaN(final String nan) {
         nanList.add(requireNonNull(nan));
         nanPattern = null;
+        nanBytes = null;
         return this;
     }
 
     public CsvReader asNaN(final Pattern nanPattern) {
         this.nanPattern = nanPattern;
         nanList.clear();
+        nanBytes = null;
         return this;
     }
 
     public CsvReader skipColumn() {
         columnActions.add(s -> {
         });
+        fieldActions.add((bytes, from, to) -> {
+        });
         return this;
     }
 
@@ -119,52 +137,101 @@ public class CsvReader {
         }
     }
 
+    private byte[][] nanBytes() {
+        if (nanBytes == null) {
+            nanBytes = new byte[nanList.size()][];
+            for (int i = 0; i < nanBytes.length; i++) {
+                nanBytes[i] = nanList.get(i).getBytes(StandardCharsets.UTF_8);
+            }
+        }
+        return nanBytes;
+    }
+
+    private double parseDouble(final byte[] bytes, final int from, final int to) {
+        for (final byte[] nan : nanBytes()) {
+            if (CsvBytes.contains(bytes, from, to, nan)) {
+                return Double.NaN;
+            }
+        }
+        if (nanPattern != null && nanPattern.matcher(CsvBytes.string(bytes, from, to)).matches()) {
+            return Double.NaN;
+        }
+        return CsvBytes.parseDouble(bytes, from, to);
+    }
+
+    private int parseInt(final byte[] bytes, final int from, final int to) {
+        return Math.toIntExact(parseLong(bytes, from, to));
+    }
+
+    private long parseLong(final byte[] bytes, final int from, final int to) {
+        if (CsvBytes.indexOf(bytes, from, to, (byte) ',') >= 0 || CsvBytes.indexOf(bytes, from, to, (byte) '.') >= 0) {
+            final double doubleValue = parseDouble(bytes, from, to);
+            final long longValue = Math.round(doubleValue);
+            if (doubleValue == longValue) {
+                return longValue;
+            } else {
+                throw new NumberFormatException(CsvBytes.string(bytes, from, to));
+            }
+        } else {
+            return CsvBytes.parseLong(bytes, from, to);
+        }
+    }
+
     public CsvReader value(final DoubleValue value) {
         columnActions.add(s -> value.set(parseDouble(s)));
+        fieldActions.add((bytes, from, to) -> value.set(parseDouble(bytes, from, to)));
         return this;
     }
 
     public CsvReader value(final LongValue value) {
         columnActions.add(s -> value.set(parseLong(s)));
+        fieldActions.add((bytes, from, to) -> value.set(parseLong(bytes, from, to)));
         return this;
     }
 
     public CsvReader value(final IntValue value) {
         columnActions.add(s -> value.set(parseInt(s)));
+        fieldActions.add((bytes, from, to) -> value.set(parseInt(bytes, from, to)));
         return this;
     }
 
     public CsvReader value(final StringValue value) {
         columnActions.add(value::set);
+        fieldActions.add((bytes, from, to) -> value.set(CsvBytes.string(bytes, from, to)));
         return this;
     }
 
     public CsvReader column(final DoubleColumn doubleColumn) {
         columnActions.add(s -> doubleColumn.append(parseDouble(s)));
+        fieldActions.add((bytes, from, to) -> doubleColumn.append(parseDouble(bytes, from, to)));
         undo.add(() -> doubleColumn.setLength(doubleColumn.length() - 1));
         return this;
     }
 
     public CsvReader column(final LongColumn longColumn) {
         columnActions.add(s -> longColumn.append(parseLong(s)));
+        fieldActions.add((bytes, from, to) -> longColumn.append(parseLong(bytes, from, to)));
         undo.add(() -> longColumn.setLength(longColumn.length() - 1));
         return this;
     }
 
     public CsvReader column(final IntColumn intColumn) {
         columnActions.add(s -> intColumn.append(parseInt(s)));
+        fieldActions.add((bytes, from, to) -> intColumn.append(parseInt(bytes, from, to)));
         undo.add(() -> intColumn.setLength(intColumn.length() - 1));
         return this;
     }
 
     public CsvReader column(final StringColumn stringColumn) {
         columnActions.add(stringColumn::append);
+        fieldActions.add((bytes, from, to) -> stringColumn.append(CsvBytes.string(bytes, from, to)));
         undo.add(() -> stringColumn.setLength(stringColumn.length() - 1));
         return this;
     }
 
     public <T> CsvReader column(final Column<T> column, final Function<String, T> f) {
         columnActions.add(s -> column.append(f.apply(s)));
+        fieldActions.add((bytes, from, to) -> column.append(f.apply(CsvBytes.string(bytes, from, to))));
         undo.add(() -> column.setLength(column.length() - 1));
         return this;
     }
@@ -205,6 +272,7 @@ public class CsvReader {
     }
 
     public void read() throws IOException {
+        final int separator = byteSeparator();
         int lineNumber = 0;
         for (final File file : files) {
             if (file.getName().toLowerCase().endsWith("zip")) {
@@ -212,41 +280,22 @@ public class CsvReader {
                      final BufferedReader br = new BufferedReader(new InputStreamReader(zipInputStream, StandardCharsets.UTF_8))) {
                     ZipEntry zipEntry;
                     while ((zipEntry = zipInputStream.getNextEntry()) != null) {
-                        int toSkip = linesToSkip;
-                        lineNumber = 0;
-                        String line;
-                        while ((line = br.readLine()) != null) {
-                            lineNumber++;
-                            if (toSkip > 0) {
-                                toSkip--;
-                            } else {
-                                try {
-                                    parseLine(line);
-                                } catch (final RuntimeException e) {
-                                    throw new IllegalArgumentException("Parse exception at line " + lineNumber
-                                            + " in zip-entry " + zipEntry
-                                            + " in file " + file, e);
-                                }
-                            }
+                        final String location = " in zip-entry " + zipEntry + " in file " + file;
+                        if (separator >= 0) {
+                            readBytes(zipInputStream, (byte) separator, 0, location);
+                        } else {
+                            readLines(br, 0, location);
                         }
                     }
                 }
             } else {
-                try (final BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
-                    int toSkip = linesToSkip;
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        lineNumber++;
-                        if (toSkip > 0) {
-                            toSkip--;
-                        } else {
-                            try {
-                                parseLine(line);
-                            } catch (final RuntimeException e) {
-                                throw new IllegalArgumentException("Parse exception at line " + lineNumber
-                                        + " in file " + file, e);
-                            }
-                        }
+                try (final InputStream in = new FileInputStream(file)) {
+                    final String location = " in file " + file;
+                    if (separator >= 0) {
+                        lineNumber = readBytes(in, (byte) separator, lineNumber, location);
+                    } else {
+                        lineNumber = readLines(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)),
+                                               lineNumber, location);
                     }
                 }
             }
@@ -254,6 +303,90 @@ public class CsvReader {
         files.clear();
     }
 
+    /**
+     * @return байт-разделитель полей или (-1), если строки разделяются на поля методами класса {@link String}
+     */
+    private int byteSeparator() {
+        if (splitSeparator == null || splitSeparator.length() != 1) {
+            return -1;
+        }
+        final char c = splitSeparator.charAt(0);
+        return (c < 0x80 && REGEX_META_CHARS.indexOf(c) < 0) ? c : -1;
+    }
+
+    private int readLines(final BufferedReader br, int lineNumber, final String location) throws IOException {
+        int toSkip = linesToSkip;
+        String line;
+        while ((line = br.readLine()) != null) {
+            lineNumber++;
+            if (toSkip > 0) {
+                toSkip--;
+            } else {
+                try {
+                    parseLine(line);
+                } catch (final RuntimeException e) {
+                    throw new IllegalArgumentException("Parse exception at line " + lineNumber + location, e);
+                }
+            }
+        }
+        return lineNumber;
+    }
+
+    private int readBytes(final InputStream in,
+                          final byte separator,
+                          int lineNumber,
+                          final String location) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        final int[] bounds = new int[2 * fieldActions.size()];
+        int toSkip = linesToSkip;
+        int start = 0;
+        int end = 0;
+        boolean eof = false;
+        while (!eof) {
+            if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, end - start);
+                end -= start;
+                start = 0;
+            }
+            if (end == buffer.length) {
+                buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+            }
+            final int n = in.read(buffer, end, buffer.length - end);
+            if (n < 0) {
+                eof = true;
+            } else {
+                end += n;
+            }
+            while (start < end) {
+                int lineEnd = CsvBytes.indexOf(buffer, start, end, (byte) '\n');
+                final int next;
+                if (lineEnd >= 0) {
+                    next = lineEnd + 1;
+                } else if (eof) {
+                    lineEnd = end;
+                    next = end;
+                } else {
+                    break;
+                }
+                if (lineEnd > start && buffer[lineEnd - 1] == '\r') {
+                    lineEnd--;
+                }
+                lineNumber++;
+                if (toSkip > 0) {
+                    toSkip--;
+                } else {
+                    try {
+                        parseLine(buffer, start, lineEnd, separator, bounds);
+                    } catch (final RuntimeException e) {
+                        throw new IllegalArgumentException("Parse exception at line " + lineNumber + location, e);
+                    }
+                }
+                start = next;
+            }
+        }
+        return lineNumber;
+    }
+
     private void parseLine(final String line) {
         if (line.isEmpty() || !lineFilter.test(line)) {
             return;
@@ -276,4 +409,66 @@ public class CsvReader {
             undo.forEach(Runnable::run);
         }
     }
+
+    /**
+     * Разобрать строку [from, to) массива байтов.
+     *
+     * @param bounds массив для индексов начала и конца полей
+     */
+    private void parseLine(final byte[] bytes,
+                           final int from,
+                           final int to,
+                           final byte separator,
+                           final int[] bounds) {
+        if (from == to || (lineFilter != ALL_LINES && !lineFilter.test(CsvBytes.string(bytes, from, to)))) {
+            return;
+        }
+        final int size = fieldActions.size();
+        int start = from;
+        for (int i = 0; i < size; i++) {
+            if (start > to) {
+                throw new IllegalArgumentException(CsvBytes.string(bytes, from, to));
+            }
+            int end = CsvBytes.indexOf(bytes, start, to, separator);
+            if (end < 0) {
+                end = to;
+            }
+            bounds[2 * i] = start;
+            bounds[2 * i + 1] = end;
+            start = end + 1;
+        }
+        // как и String.split, пустые поля в конце строки не учитываются: последнее нужное поле
+        // или одно из полей после него должно быть непустым
+        if (size > 0 && bounds[2 * size - 2] == bounds[2 * size - 1]
+                && !containsNonSeparator(bytes, bounds[2 * size - 1], to, separator)) {
+            throw new IllegalArgumentException(CsvBytes.string(bytes, from, to));
+        }
+        for (int i = 0; i < size; i++) {
+            fieldActions.get(i).accept(bytes, bounds[2 * i], bounds[2 * i + 1]);
+        }
+        computations.forEach(Runnable::run);
+        if (!rowFilter.getAsBoolean()) {
+            undo.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * @return {@code true}, если диапазон [from, to) содержит байт, отличный от разделителя
+     */
+    private static boolean containsNonSeparator(final byte[] bytes, final int from, final int to, final byte separator) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] != separator) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Действие над полем строки, заданным диапазоном [from, to) массива байтов.
+     */
+    @FunctionalInterface
+    private interface FieldAction {
+        void accept(byte[] bytes, int from, int to);
+    }
 }
@@ -1,6 +1,7 @@
 package com.algotrading.base.core.csv;
 
 import com.algotrading.base.core.columns.DoubleColumn;
+import com.algotrading.base.core.columns.FloatColumn;
 import com.algotrading.base.core.columns.IntColumn;
 import com.algotrading.base.core.columns.LongColumn;
 import com.algotrading.base.core.columns.StringColumn;
@@ -65,7 +66,11 @@ public class CsvWriter {
     }
 
     public CsvWriter column(final DoubleColumn doubleColumn) {
-        columnActions.add(index -> sb.append(doubleColumn.get(index)).append(separator));
+        if (doubleColumn instanceof final FloatColumn floatColumn) {
+            columnActions.add(index -> sb.append(floatColumn.getFloat(index)).append(separator));
+        } else {
+            columnActions.add(index -> sb.append(doubleColumn.get(index)).append(separator));
+        }
         return this;
     }
 
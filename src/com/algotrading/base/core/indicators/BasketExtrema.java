@@ -4,10 +4,8 @@ import com.algotrading.base.core.columns.DoubleColumn;
 import com.algotrading.base.core.columns.LongColumn;
 import com.algotrading.base.core.series.FinSeries;
 import com.algotrading.base.core.sync.Synchronizer;
-import com.algotrading.base.core.values.DoubleValue;
 import com.algotrading.base.core.window.WindowOfDouble;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.function.ToDoubleFunction;
 
@@ -47,39 +45,51 @@ public class BasketExtrema {
         final LongColumn timeCode = indicatorSeries.acquireLongColumn(FinSeries.T);
         final DoubleColumn column = indicatorSeries.acquireDoubleColumn(columnName);
 
+        // колонки рядов и окна находятся один раз, а не на каждом шаге синхронизации
+        final int count = marketDataMap.size();
+        final LongColumn[] timeCodes = new LongColumn[count];
+        final DoubleColumn[] highs = new DoubleColumn[count];
+        final DoubleColumn[] lows = new DoubleColumn[count];
+        final double[] weights = new double[count];
+        final WindowOfDouble[] windowsOfHighs = new WindowOfDouble[count];
+        final WindowOfDouble[] windowsOfLows = new WindowOfDouble[count];
         final Synchronizer synchronizer = new Synchronizer();
-        final Map<String, WindowOfDouble> mapOfHighs = new HashMap<>();
-        final Map<String, WindowOfDouble> mapOfLows = new HashMap<>();
-        final DoubleValue totalWeightValue = new DoubleValue(0);
-        marketDataMap.forEach((secCode, series) -> {
-            synchronizer.put(series.timeCode());
-            mapOfHighs.put(secCode, new WindowOfDouble(longPeriod + shortPeriod));
-            mapOfLows.put(secCode, new WindowOfDouble(longPeriod + shortPeriod));
-            totalWeightValue.set(totalWeightValue.get() + weightFunction.applyAsDouble(secCode));
-        });
+        double totalWeight = 0;
+        int s = 0;
+        for (final Map.Entry<String, FinSeries> entry : marketDataMap.entrySet()) {
+            final FinSeries series = entry.getValue();
+            timeCodes[s] = series.timeCode();
+            highs[s] = series.high();
+            lows[s] = series.low();
+            weights[s] = weightFunction.applyAsDouble(entry.getKey());
+            windowsOfHighs[s] = new WindowOfDouble(longPeriod + shortPeriod);
+            windowsOfLows[s] = new WindowOfDouble(longPeriod + shortPeriod);
+            synchronizer.put(timeCodes[s]);
+            totalWeight += weights[s];
+            s++;
+        }
 
         int counter = 0;
-        final DoubleValue doubleValue = new DoubleValue();
         long t;
         while ((t = synchronizer.synchronize()) != Long.MAX_VALUE) {
-            marketDataMap.forEach((secCode, series) -> {
-                final int id = synchronizer.getLastIndex(series.timeCode());
+            for (s = 0; s < count; s++) {
+                final int id = synchronizer.getLastIndex(timeCodes[s]);
                 if (id < 0) {
-                    mapOfHighs.get(secCode).add(Double.NEGATIVE_INFINITY);
-                    mapOfLows.get(secCode).add(Double.POSITIVE_INFINITY);
+                    windowsOfHighs[s].add(Double.NEGATIVE_INFINITY);
+                    windowsOfLows[s].add(Double.POSITIVE_INFINITY);
                 } else {
-                    mapOfHighs.get(secCode).add(series.high().get(id));
-                    mapOfLows.get(secCode).add(series.low().get(id));
+                    windowsOfHighs[s].add(highs[s].get(id));
+                    windowsOfLows[s].add(lows[s].get(id));
                 }
-            });
+            }
 
-            doubleValue.set(0.0);
+            double value = 0.0;
             if (++counter >= longPeriod + shortPeriod) {
-                marketDataMap.forEach((secCode, series) -> {
+                for (s = 0; s < count; s++) {
                     double max = Double.NEGATIVE_INFINITY;
                     double min = Double.POSITIVE_INFINITY;
-                    final WindowOfDouble windowOfHighs = mapOfHighs.get(secCode);
-                    final WindowOfDouble windowOfLows = mapOfLows.get(secCode);
+                    final WindowOfDouble windowOfHighs = windowsOfHighs[s];
+                    final WindowOfDouble windowOfLows = windowsOfLows[s];
                     for (int i = -longPeriod - shortPeriod + 1; i <= -shortPeriod; i++) {
                         max = Math.max(max, windowOfHighs.get(i));
                         min = Math.min(min, windowOfLows.get(i));
@@ -87,7 +97,7 @@ public class BasketExtrema {
                     if (Double.isFinite(max)) {
                         for (int i = -shortPeriod + 1; i <= 0; i++) {
                             if (windowOfHighs.get(i) > max) {
-                                doubleValue.set(doubleValue.get() + weightFunction.applyAsDouble(secCode));
+                                value += weights[s];
                                 break;
                             }
                         }
@@ -95,16 +105,16 @@ public class BasketExtrema {
                     if (Double.isFinite(min)) {
                         for (int i = -shortPeriod + 1; i <= 0; i++) {
                             if (windowOfLows.get(i) < min) {
-                                doubleValue.set(doubleValue.get() - weightFunction.applyAsDouble(secCode));
+                                value -= weights[s];
                                 break;
                             }
                         }
                     }
-                });
+                }
             }
 
             timeCode.append(t);
-            column.append(doubleValue.get() / totalWeightValue.get());
+            column.append(value / totalWeight);
         }
 
         return indicatorSeries;
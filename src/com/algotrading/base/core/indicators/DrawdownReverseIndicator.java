@@ -2,9 +2,9 @@ package com.algotrading.base.core.indicators;
 
 import com.algotrading.base.core.columns.DoubleColumn;
 import com.algotrading.base.core.columns.IntColumn;
-import com.algotrading.base.core.columns.LongColumn;
 import com.algotrading.base.core.series.FinSeries;
-import com.algotrading.base.core.sync.TimeframeCouple;
+import com.algotrading.base.core.series.TimeframeCandles;
+import com.algotrading.base.core.series.TimeframeSpec;
 
 import java.util.concurrent.TimeUnit;
 
@@ -48,20 +48,16 @@ public final class DrawdownReverseIndicator {
         if (len == 0) {
             return column;
         }
-        final LongColumn timeCode = series.timeCode();
         final DoubleColumn close = series.close();
 
-        final FinSeries atrSeries = series.compressedCandles(atrTimeframe, atrTimeUnit);
-        final LongColumn atrTimeCode = atrSeries.timeCode();
-        final DoubleColumn atrColumn = Atr.atr(atrSeries, atrPeriod, "ATR");
-
-        final TimeframeCouple timeframeCouple = new TimeframeCouple(timeCode, atrTimeCode);
+        final TimeframeCandles atrCandles = series.compressedCandles(TimeframeSpec.of(atrTimeframe, atrTimeUnit))[0];
+        final DoubleColumn atrColumn = Atr.atr(atrCandles.candles(), atrPeriod, "ATR");
 
         int dir = 0;
         double price = close.get(0);
         int priceId = 0;
         for (int i = 0; i < len; i++) {
-            final int j = timeframeCouple.getLongId(i);
+            final int j = atrCandles.candleIndex(i);
             final double atr = (j == 0) ? atrColumn.get(0) : atrColumn.get(j - 1);
             final double c = close.get(i);
             if (dir > 0) {
@@ -1,5 +1,7 @@
 package com.algotrading.base.core.indicators;
 
+import com.algotrading.base.core.candles.UpdatableCandles;
+import com.algotrading.base.core.columns.ColumnUpdater;
 import com.algotrading.base.core.columns.DoubleColumn;
 import com.algotrading.base.core.series.Series;
 
@@ -55,4 +57,61 @@ public final class Ema {
         }
         return emaColumn;
     }
+
+    /**
+     * Создать объект, обновляющий значения индикатора EMA по мере добавления цен, например, для обновляемых
+     * свечей {@link UpdatableCandles}. Очередное значение индикатора вычисляется по предыдущему значению,
+     * поэтому при удалении самых ранних значений временного ряда значения индикатора не пересчитываются.
+     *
+     * @param series          временной ряд
+     * @param priceColumnName название колонки временного ряда, содержащей цены, по которым вычисляется индикатор
+     * @param period          период
+     * @param emaColumnName   имя колонки, куда будут записаны значения индикатора
+     * @return объект, обновляющий значения индикатора
+     */
+    public static ColumnUpdater updater(final Series series,
+                                        final String priceColumnName,
+                                        final int period,
+                                        final String emaColumnName) {
+        return new Updater(series.getDoubleColumn(priceColumnName), series.acquireDoubleColumn(emaColumnName), period);
+    }
+
+    private static final class Updater implements ColumnUpdater {
+        private final DoubleColumn priceColumn;
+        private final DoubleColumn emaColumn;
+        private final int period;
+
+        Updater(final DoubleColumn priceColumn, final DoubleColumn emaColumn, final int period) {
+            this.priceColumn = priceColumn;
+            this.emaColumn = emaColumn;
+            this.period = period;
+        }
+
+        @Override
+        public void update(final int startIndex, final int endIndex) {
+            if (startIndex >= endIndex) {
+                return;
+            }
+            int i = startIndex;
+            double ema;
+            if (i == 0) {
+                ema = priceColumn.get(0);
+                emaColumn.set(0, ema);
+                i++;
+            } else {
+                ema = emaColumn.get(i - 1);
+            }
+            final int pm = period - 1;
+            final int pp = period + 1;
+            for (; i < endIndex; i++) {
+                ema = (ema * pm + 2 * priceColumn.get(i)) / pp;
+                emaColumn.set(i, ema);
+            }
+        }
+
+        @Override
+        public boolean truncate(final int count) {
+            return true;
+        }
+    }
 }
@@ -0,0 +1,249 @@
+package com.algotrading.base.core.indicators;
+
+import com.algotrading.base.core.columns.DoubleColumn;
+import com.algotrading.base.core.series.Series;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Выражение над колонками временного ряда.
+ * <p>
+ * Выражения строятся цепочками вызовов, например, нормированное отклонение EMA(20) от MA(50):
+ * <pre>{@code
+ * expr(C).ema(20).sub(expr(C).ma(50)).div(stDev(C, 20))
+ * }</pre>
+ * и вычисляются за один проход по временному ряду (см. {@link FusedPipeline}): промежуточные значения
+ * не записываются в колонки, а одинаковые подвыражения вычисляются один раз.
+ * <p>
+ * Скользящие индикаторы вычисляются так же, как соответствующие индикаторы этого пакета:
+ * {@link #ema(int)} -- как {@link Ema}, {@link #ma(int)} -- как {@link Ma}.
+ * <p>
+ * Выражения неизменяемы. Два выражения равны, если они имеют одинаковую структуру; функции, переданные
+ * в методы {@link #map(DoubleUnaryOperator)} и {@link #combine(Expr, DoubleBinaryOperator)},
+ * сравниваются по ссылке.
+ */
+public final class Expr {
+
+    enum Kind {
+        COLUMN,
+        CONSTANT,
+        ADD,
+        SUB,
+        MUL,
+        DIV,
+        MAP,
+        COMBINE,
+        SHIFT,
+        EMA,
+        MA,
+        STDEV,
+        MAX,
+        MIN
+    }
+
+    final Kind kind;
+    final String column;
+    final double value;
+    final int period;
+    final Object function;
+    final Expr[] args;
+    private final int hash;
+
+    private Expr(final Kind kind,
+                 final String column,
+                 final double value,
+                 final int period,
+                 final Object function,
+                 final Expr... args) {
+        this.kind = kind;
+        this.column = column;
+        this.value = value;
+        this.period = period;
+        this.function = function;
+        this.args = args;
+        hash = Objects.hash(kind, column, value, period, System.identityHashCode(function), Arrays.hashCode(args));
+    }
+
+    /**
+     * @param columnName название колонки временного ряда типа {@link DoubleColumn},
+     *                   {@link com.algotrading.base.core.columns.LongColumn} или
+     *                   {@link com.algotrading.base.core.columns.IntColumn}
+     * @return выражение, значение которого равно значению колонки
+     */
+    public static Expr expr(final String columnName) {
+        return new Expr(Kind.COLUMN, Objects.requireNonNull(columnName), 0, 0, null);
+    }
+
+    /**
+     * @return выражение, значение которого постоянно
+     */
+    public static Expr constant(final double value) {
+        return new Expr(Kind.CONSTANT, null, value, 0, null);
+    }
+
+    /**
+     * @return скользящее стандартное отклонение значений колонки, см. {@link #stDev(int)}
+     */
+    public static Expr stDev(final String columnName, final int period) {
+        return expr(columnName).stDev(period);
+    }
+
+    public Expr add(final Expr expr) {
+        return new Expr(Kind.ADD, null, 0, 0, null, this, expr);
+    }
+
+    public Expr add(final double value) {
+        return add(constant(value));
+    }
+
+    public Expr sub(final Expr expr) {
+        return new Expr(Kind.SUB, null, 0, 0, null, this, expr);
+    }
+
+    public Expr sub(final double value) {
+        return sub(constant(value));
+    }
+
+    public Expr mul(final Expr expr) {
+        return new Expr(Kind.MUL, null, 0, 0, null, this, expr);
+    }
+
+    public Expr mul(final double value) {
+        return mul(constant(value));
+    }
+
+    public Expr div(final Expr expr) {
+        return new Expr(Kind.DIV, null, 0, 0, null, this, expr);
+    }
+
+    public Expr div(final double value) {
+        return div(constant(value));
+    }
+
+    /**
+     * @return выражение f(x), где x -- значение этого выражения
+     */
+    public Expr map(final DoubleUnaryOperator f) {
+        return new Expr(Kind.MAP, null, 0, 0, Objects.requireNonNull(f), this);
+    }
+
+    /**
+     * @return выражение f(x, y), где x -- значение этого выражения, y -- значение выражения-аргумента
+     */
+    public Expr combine(final Expr expr, final DoubleBinaryOperator f) {
+        return new Expr(Kind.COMBINE, null, 0, 0, Objects.requireNonNull(f), this, expr);
+    }
+
+    /**
+     * @param lag сдвиг (положительное число)
+     * @return значение этого выражения {@code lag} строк назад или {@code NaN} для первых {@code lag} строк
+     */
+    public Expr shift(final int lag) {
+        return new Expr(Kind.SHIFT, null, 0, checkPeriod(lag), null, this);
+    }
+
+    /**
+     * @return скорость изменения в процентах, как в индикаторе {@link Roc}
+     */
+    public Expr roc(final int period) {
+        return div(shift(period)).sub(1).mul(100);
+    }
+
+    /**
+     * @return экспоненциальное скользящее среднее, как в индикаторе {@link Ema}
+     */
+    public Expr ema(final int period) {
+        return new Expr(Kind.EMA, null, 0, checkPeriod(period), null, this);
+    }
+
+    /**
+     * @return простое скользящее среднее, как в индикаторе {@link Ma}
+     */
+    public Expr ma(final int period) {
+        return new Expr(Kind.MA, null, 0, checkPeriod(period), null, this);
+    }
+
+    /**
+     * Скользящее стандартное отклонение (несмещённая оценка) значений выражения за {@code period} строк.
+     * Нечисловые значения пропускаются. До заполнения окна значение равно {@code NaN}.
+     */
+    public Expr stDev(final int period) {
+        if (period < 2) {
+            throw new IllegalArgumentException("Illegal period " + period);
+        }
+        return new Expr(Kind.STDEV, null, 0, period, null, this);
+    }
+
+    /**
+     * @return максимум значений выражения за последние {@code period} строк (нечисловые значения пропускаются)
+     */
+    public Expr max(final int period) {
+        return new Expr(Kind.MAX, null, 0, checkPeriod(period), null, this);
+    }
+
+    /**
+     * @return минимум значений выражения за последние {@code period} строк (нечисловые значения пропускаются)
+     */
+    public Expr min(final int period) {
+        return new Expr(Kind.MIN, null, 0, checkPeriod(period), null, this);
+    }
+
+    /**
+     * Вычислить выражение и записать значения в колонку временного ряда.
+     *
+     * @param series     временной ряд
+     * @param columnName название колонки, куда будут записаны значения выражения
+     * @return колонка со значениями выражения
+     */
+    public DoubleColumn evaluate(final Series series, final String columnName) {
+        FusedPipeline.compile(Map.of(columnName, this)).evaluate(series);
+        return series.getDoubleColumn(columnName);
+    }
+
+    private static int checkPeriod(final int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Illegal period " + period);
+        }
+        return period;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof final Expr that) || hash != that.hash) {
+            return false;
+        }
+        return kind == that.kind
+               && Objects.equals(column, that.column)
+               && Double.compare(value, that.value) == 0
+               && period == that.period
+               && function == that.function
+               && Arrays.equals(args, that.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case COLUMN -> column;
+            case CONSTANT -> Double.toString(value);
+            case ADD -> "(" + args[0] + " + " + args[1] + ")";
+            case SUB -> "(" + args[0] + " - " + args[1] + ")";
+            case MUL -> "(" + args[0] + " * " + args[1] + ")";
+            case DIV -> "(" + args[0] + " / " + args[1] + ")";
+            case MAP -> "map(" + args[0] + ")";
+            case COMBINE -> "combine(" + args[0] + ", " + args[1] + ")";
+            default -> kind.name().toLowerCase() + "(" + args[0] + ", " + period + ")";
+        };
+    }
+}
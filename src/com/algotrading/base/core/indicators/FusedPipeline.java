@@ -0,0 +1,371 @@
+package com.algotrading.base.core.indicators;
+
+import com.algotrading.base.core.columns.AbstractColumn;
+import com.algotrading.base.core.columns.DoubleColumn;
+import com.algotrading.base.core.columns.IntColumn;
+import com.algotrading.base.core.columns.LongColumn;
+import com.algotrading.base.core.series.Series;
+import com.algotrading.base.core.window.WindowOfDouble;
+
+import java.util.*;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Набор выражений {@link Expr}, скомпилированный для вычисления за один проход по временному ряду.
+ * <p>
+ * При компиляции одинаковые подвыражения всех выражений объединяются, а узлы упорядочиваются так, чтобы
+ * аргументы вычислялись раньше использующих их узлов. На каждой строке временного ряда узлы вычисляются
+ * по порядку, значения хранятся в массиве размером с число узлов. В колонки записываются только значения
+ * выражений-результатов.
+ * <p>
+ * Объединяются только проходы по данным: код узлов не сливается в один цикл, а интерпретируется --
+ * на каждой строке для каждого узла выполняется виртуальный вызов. Выигрыш по сравнению с последовательным
+ * вычислением индикаторов -- в отсутствии промежуточных колонок и повторных вычислений общих подвыражений,
+ * а не в скорости вычисления отдельного узла.
+ * <p>
+ * Скомпилированный набор неизменяем и может использоваться для вычисления разных временных рядов,
+ * в том числе параллельно.
+ */
+public final class FusedPipeline {
+
+    private final Expr[] nodes;
+    private final int[][] args;
+    private final String[] outputNames;
+    private final int[] outputs;
+
+    private FusedPipeline(final Expr[] nodes, final int[][] args, final String[] outputNames, final int[] outputs) {
+        this.nodes = nodes;
+        this.args = args;
+        this.outputNames = outputNames;
+        this.outputs = outputs;
+    }
+
+    /**
+     * Скомпилировать набор выражений.
+     *
+     * @param outputs выражения по названиям колонок, куда будут записаны их значения
+     * @return скомпилированный набор выражений
+     */
+    public static FusedPipeline compile(final Map<String, Expr> outputs) {
+        final Map<Expr, Integer> slots = new LinkedHashMap<>();
+        final List<int[]> args = new ArrayList<>();
+        final String[] outputNames = new String[outputs.size()];
+        final int[] outputSlots = new int[outputs.size()];
+        int i = 0;
+        for (final Map.Entry<String, Expr> entry : outputs.entrySet()) {
+            outputNames[i] = entry.getKey();
+            outputSlots[i] = slot(entry.getValue(), slots, args);
+            i++;
+        }
+        return new FusedPipeline(slots.keySet().toArray(new Expr[0]), args.toArray(new int[0][]),
+                                 outputNames, outputSlots);
+    }
+
+    private static int slot(final Expr expr, final Map<Expr, Integer> slots, final List<int[]> args) {
+        final Integer known = slots.get(expr);
+        if (known != null) {
+            return known;
+        }
+        final int[] exprArgs = new int[expr.args.length];
+        for (int i = 0; i < exprArgs.length; i++) {
+            exprArgs[i] = slot(expr.args[i], slots, args);
+        }
+        final int slot = slots.size();
+        slots.put(expr, slot);
+        args.add(exprArgs);
+        return slot;
+    }
+
+    /**
+     * @return число узлов после объединения одинаковых подвыражений
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Вычислить выражения и записать значения в колонки временного ряда.
+     *
+     * @param series временной ряд
+     * @throws IllegalArgumentException если во временном ряду нет колонки, используемой в выражениях
+     */
+    public void evaluate(final Series series) {
+        final int len = series.length();
+        final Step[] steps = new Step[nodes.length];
+        for (int i = 0; i < steps.length; i++) {
+            steps[i] = step(series, nodes[i], args[i]);
+        }
+        final DoubleColumn[] columns = new DoubleColumn[outputs.length];
+        for (int j = 0; j < columns.length; j++) {
+            columns[j] = series.acquireDoubleColumn(outputNames[j]);
+        }
+        final double[] values = new double[steps.length];
+        for (int i = 0; i < len; i++) {
+            for (int k = 0; k < steps.length; k++) {
+                values[k] = steps[k].next(i, values);
+            }
+            for (int j = 0; j < columns.length; j++) {
+                columns[j].set(i, values[outputs[j]]);
+            }
+        }
+    }
+
+    private static Step step(final Series series, final Expr expr, final int[] args) {
+        return switch (expr.kind) {
+            case COLUMN -> columnStep(series, expr.column);
+            case CONSTANT -> {
+                final double value = expr.value;
+                yield (i, v) -> value;
+            }
+            case ADD -> {
+                final int a = args[0];
+                final int b = args[1];
+                yield (i, v) -> v[a] + v[b];
+            }
+            case SUB -> {
+                final int a = args[0];
+                final int b = args[1];
+                yield (i, v) -> v[a] - v[b];
+            }
+            case MUL -> {
+                final int a = args[0];
+                final int b = args[1];
+                yield (i, v) -> v[a] * v[b];
+            }
+            case DIV -> {
+                final int a = args[0];
+                final int b = args[1];
+                yield (i, v) -> v[a] / v[b];
+            }
+            case MAP -> {
+                final int a = args[0];
+                final DoubleUnaryOperator f = (DoubleUnaryOperator) expr.function;
+                yield (i, v) -> f.applyAsDouble(v[a]);
+            }
+            case COMBINE -> {
+                final int a = args[0];
+                final int b = args[1];
+                final DoubleBinaryOperator f = (DoubleBinaryOperator) expr.function;
+                yield (i, v) -> f.applyAsDouble(v[a], v[b]);
+            }
+            case SHIFT -> new ShiftStep(args[0], expr.period);
+            case EMA -> new EmaStep(args[0], expr.period);
+            case MA -> new MaStep(args[0], expr.period);
+            case STDEV -> new StDevStep(args[0], expr.period);
+            case MAX -> new ExtremumStep(args[0], expr.period, true);
+            case MIN -> new ExtremumStep(args[0], expr.period, false);
+        };
+    }
+
+    private static Step columnStep(final Series series, final String name) {
+        final AbstractColumn column = series.column(series.schema().slot(name));
+        if (column instanceof final DoubleColumn doubleColumn) {
+            return (i, v) -> doubleColumn.get(i);
+        }
+        if (column instanceof final LongColumn longColumn) {
+            return (i, v) -> longColumn.get(i);
+        }
+        if (column instanceof final IntColumn intColumn) {
+            return (i, v) -> intColumn.get(i);
+        }
+        throw new IllegalArgumentException("Column " + column + " is not numeric");
+    }
+
+    /**
+     * Узел скомпилированного выражения.
+     */
+    @FunctionalInterface
+    private interface Step {
+        /**
+         * @param index  индекс строки временного ряда
+         * @param values значения узлов в этой строке, вычисленные ранее
+         * @return значение узла в этой строке
+         */
+        double next(int index, double[] values);
+    }
+
+    private static final class ShiftStep implements Step {
+        private final int arg;
+        private final int lag;
+        private final WindowOfDouble window;
+
+        ShiftStep(final int arg, final int lag) {
+            this.arg = arg;
+            this.lag = lag;
+            window = new WindowOfDouble(lag + 1);
+        }
+
+        @Override
+        public double next(final int index, final double[] values) {
+            window.add(values[arg]);
+            return window.isFull() ? window.get(-lag) : Double.NaN;
+        }
+    }
+
+    private static final class EmaStep implements Step {
+        private final int arg;
+        private final int pm;
+        private final int pp;
+        private double ema = Double.NaN;
+        private boolean first = true;
+
+        EmaStep(final int arg, final int period) {
+            this.arg = arg;
+            pm = period - 1;
+            pp = period + 1;
+        }
+
+        @Override
+        public double next(final int index, final double[] values) {
+            if (first) {
+                first = false;
+                ema = values[arg];
+            } else {
+                ema = (ema * pm + 2 * values[arg]) / pp;
+            }
+            return ema;
+        }
+    }
+
+    private static final class MaStep implements Step {
+        private final int arg;
+        private final int period;
+        private final WindowOfDouble window;
+        private double sum;
+
+        MaStep(final int arg, final int period) {
+            this.arg = arg;
+            this.period = period;
+            window = new WindowOfDouble(period);
+        }
+
+        @Override
+        public double next(final int index, final double[] values) {
+            if (window.isFull()) {
+                sum -= window.get(-period + 1);
+            }
+            final double value = values[arg];
+            sum += value;
+            window.add(value);
+            return sum / window.size();
+        }
+    }
+
+    /**
+     * Скользящее стандартное отклонение по алгоритму Уэлфорда для окна: хранятся среднее и сумма квадратов
+     * отклонений от него, а не суммы значений и их квадратов, поэтому нет потери точности при вычитании
+     * близких больших чисел. Значения берутся со сдвигом на первое значение или на среднее окна
+     * при последнем пересчёте, чтобы среднее было малым числом. Накопленная ошибка округления сбрасывается
+     * пересчётом по окну при каждом полном обновлении окна.
+     */
+    private static final class StDevStep implements Step {
+        private final int arg;
+        private final int period;
+        private final WindowOfDouble window;
+        private double shift;
+        private double mean;
+        private double m2;
+        private int updates;
+
+        StDevStep(final int arg, final int period) {
+            this.arg = arg;
+            this.period = period;
+            window = new WindowOfDouble(period);
+        }
+
+        @Override
+        public double next(final int index, final double[] values) {
+            if (Double.isFinite(values[arg])) {
+                if (window.size() == 0) {
+                    shift = values[arg];
+                }
+                final double x = values[arg] - shift;
+                if (window.isFull()) {
+                    final double y = window.get(-period + 1) - shift;
+                    window.add(values[arg]);
+                    if (++updates == period) {
+                        updates = 0;
+                        recompute();
+                    } else {
+                        final double oldMean = mean;
+                        mean += (x - y) / period;
+                        m2 += (x - y) * (x - mean + y - oldMean);
+                    }
+                } else {
+                    window.add(values[arg]);
+                    final double delta = x - mean;
+                    mean += delta / window.size();
+                    m2 += delta * (x - mean);
+                }
+            }
+            if (!window.isFull()) {
+                return Double.NaN;
+            }
+            final double v = m2 / (period - 1);
+            return (v < 0 || !Double.isFinite(v)) ? 0 : Math.sqrt(v);
+        }
+
+        private void recompute() {
+            double sum = 0;
+            for (int k = 0; k < period; k++) {
+                sum += window.get(-k);
+            }
+            shift = sum / period;
+            mean = 0;
+            m2 = 0;
+            for (int k = 0; k < period; k++) {
+                final double d = window.get(-k) - shift;
+                mean += d;
+                m2 += d * d;
+            }
+            // поправка на ошибку округления среднего, как в двухпроходном алгоритме
+            m2 -= mean * mean / period;
+            mean /= period;
+        }
+    }
+
+    /**
+     * Скользящий максимум или минимум на монотонной очереди: каждое значение добавляется и удаляется один раз.
+     */
+    private static final class ExtremumStep implements Step {
+        private final int arg;
+        private final int period;
+        private final boolean max;
+        private final int[] positions;
+        private final double[] extrema;
+        private int head;
+        private int size;
+
+        ExtremumStep(final int arg, final int period, final boolean max) {
+            this.arg = arg;
+            this.period = period;
+            this.max = max;
+            positions = new int[period];
+            extrema = new double[period];
+        }
+
+        @Override
+        public double next(final int index, final double[] values) {
+            if (size > 0 && positions[head] <= index - period) {
+                head = (head + 1) % period;
+                size--;
+            }
+            final double x = values[arg];
+            if (!Double.isNaN(x)) {
+                while (size > 0) {
+                    final double last = extrema[(head + size - 1) % period];
+                    if (max ? last > x : last < x) {
+                        break;
+                    }
+                    size--;
+                }
+                final int tail = (head + size) % period;
+                positions[tail] = index;
+                extrema[tail] = x;
+                size++;
+            }
+            return (size == 0) ? Double.NaN : extrema[head];
+        }
+    }
+}
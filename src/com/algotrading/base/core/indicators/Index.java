@@ -55,8 +55,26 @@ public class Index {
         final LongColumn indexTimeCode = indexSeries.acquireLongColumn(FinSeries.T);
         final DoubleColumn indexColumn = indexSeries.acquireDoubleColumn(indexColumnName);
 
+        // колонки рядов находятся один раз, а не на каждом шаге синхронизации
+        final int count = marketDataMap.size();
+        final String[] secCodes = new String[count];
+        final LongColumn[] timeCodes = new LongColumn[count];
+        final DoubleColumn[] opens = new DoubleColumn[count];
+        final DoubleColumn[] closes = new DoubleColumn[count];
+        int k = 0;
+        for (final Map.Entry<String, FinSeries> entry : marketDataMap.entrySet()) {
+            final FinSeries series = entry.getValue();
+            secCodes[k] = entry.getKey();
+            timeCodes[k] = series.timeCode();
+            opens[k] = series.open();
+            closes[k] = series.close();
+            k++;
+        }
+
         final Synchronizer synchronizer = new Synchronizer();
-        marketDataMap.forEach((secCode, series) -> synchronizer.put(series.timeCode()));
+        for (final LongColumn timeCode : timeCodes) {
+            synchronizer.put(timeCode);
+        }
 
         double sumWeights, sumWeightedDeltas;
         double indexValue = 1.0;
@@ -64,10 +82,9 @@ public class Index {
             final long t = synchronizer.t();
             sumWeights = 0;
             sumWeightedDeltas = 0;
-            for (final Map.Entry<String, FinSeries> entry : marketDataMap.entrySet()) {
-                final String secCode = entry.getKey();
-                final FinSeries series = entry.getValue();
-                final LongColumn timeCode = series.timeCode();
+            for (int s = 0; s < secCodes.length; s++) {
+                final String secCode = secCodes[s];
+                final LongColumn timeCode = timeCodes[s];
                 final int lastId = synchronizer.getLastIndex(timeCode);
                 if (lastId < 0) {
                     continue;
@@ -82,10 +99,9 @@ public class Index {
                 if (currId < 0) {
                     delta = 0;
                 } else if (currId == 0) {
-                    delta = series.close().get(currId) / series.open().get(currId) - 1.0;
+                    delta = closes[s].get(currId) / opens[s].get(currId) - 1.0;
                 } else {
-                    final DoubleColumn close = series.close();
-                    delta = close.get(currId) / close.get(currId - 1) - 1.0;
+                    delta = closes[s].get(currId) / closes[s].get(currId - 1) - 1.0;
                 }
                 sumWeightedDeltas += weight * delta;
             }
@@ -1,5 +1,7 @@
 package com.algotrading.base.core.indicators;
 
+import com.algotrading.base.core.candles.UpdatableCandles;
+import com.algotrading.base.core.columns.ColumnUpdater;
 import com.algotrading.base.core.columns.DoubleColumn;
 import com.algotrading.base.core.series.Series;
 import com.algotrading.base.core.window.WindowOfDouble;
@@ -58,4 +60,55 @@ public final class Ma {
         }
         return maColumn;
     }
+
+    /**
+     * Создать объект, обновляющий значения индикатора MA по мере добавления цен, например, для обновляемых
+     * свечей {@link UpdatableCandles}. Значение индикатора зависит только от предыдущих цен, поэтому
+     * при удалении самых ранних значений временного ряда значения индикатора не пересчитываются.
+     *
+     * @param series          временной ряд
+     * @param priceColumnName название колонки временного ряда, содержащей цены, по которым вычисляется индикатор
+     * @param period          период
+     * @param maColumnName    имя колонки, куда будут записаны значения индикатора
+     * @return объект, обновляющий значения индикатора
+     */
+    public static ColumnUpdater updater(final Series series,
+                                        final String priceColumnName,
+                                        final int period,
+                                        final String maColumnName) {
+        return new Updater(series.getDoubleColumn(priceColumnName), series.acquireDoubleColumn(maColumnName), period);
+    }
+
+    private static final class Updater implements ColumnUpdater {
+        private final DoubleColumn priceColumn;
+        private final DoubleColumn maColumn;
+        private final int period;
+
+        Updater(final DoubleColumn priceColumn, final DoubleColumn maColumn, final int period) {
+            this.priceColumn = priceColumn;
+            this.maColumn = maColumn;
+            this.period = period;
+        }
+
+        @Override
+        public void update(final int startIndex, final int endIndex) {
+            int from = Math.max(0, startIndex - period + 1);
+            double sum = 0;
+            for (int i = from; i < startIndex; i++) {
+                sum += priceColumn.get(i);
+            }
+            for (int i = startIndex; i < endIndex; i++) {
+                if (i - from == period) {
+                    sum -= priceColumn.get(from++);
+                }
+                sum += priceColumn.get(i);
+                maColumn.set(i, sum / (i - from + 1));
+            }
+        }
+
+        @Override
+        public boolean truncate(final int count) {
+            return true;
+        }
+    }
 }
@@ -31,6 +31,7 @@ public class QuadraticRegressionIndicator {
                                 final int period,
                                 final String velocityColumnName,
                                 final String accelerationColumnName) {
+        final DoubleColumn open = series.open();
         final DoubleColumn high = series.high();
         final DoubleColumn low = series.low();
         final DoubleColumn close = series.close();
@@ -53,7 +54,7 @@ public class QuadraticRegressionIndicator {
                 continue;
             }
             for (int j = i - period + 1, k = 0; j <= i; j++) {
-                final double cPrev = (j == 0) ? series.open().get(0) : close.get(j - 1);
+                final double cPrev = (j == 0) ? open.get(0) : close.get(j - 1);
                 final double h = high.get(j);
                 final double l = low.get(j);
                 final double c = close.get(j);
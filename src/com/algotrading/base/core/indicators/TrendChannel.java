@@ -62,6 +62,7 @@ public final class TrendChannel {
             x[i] = k;
         }
 
+        final DoubleColumn open = series.open();
         final DoubleColumn high = series.high();
         final DoubleColumn low = series.low();
         final DoubleColumn close = series.close();
@@ -85,7 +86,7 @@ public final class TrendChannel {
                 continue;
             }
             for (int j = i - period + 1, k = 0; j <= i; j++) {
-                final double cPrev = (j == 0) ? series.open().get(0) : close.get(j - 1);
+                final double cPrev = (j == 0) ? open.get(0) : close.get(j - 1);
                 final double h = high.get(j);
                 final double l = low.get(j);
                 final double c = close.get(j);
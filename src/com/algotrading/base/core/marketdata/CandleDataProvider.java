@@ -1,10 +1,9 @@
 package com.algotrading.base.core.marketdata;
 
-import com.algotrading.base.core.columns.LongColumn;
 import com.algotrading.base.core.marketdata.locators.CandleDataLocator;
 import com.algotrading.base.core.marketdata.readers.SeriesReader;
 import com.algotrading.base.core.series.FinSeries;
-import com.algotrading.base.core.sync.Synchronizer;
+import com.algotrading.base.core.series.SeriesMerge;
 
 import java.io.File;
 import java.io.IOException;
@@ -64,32 +63,10 @@ public class CandleDataProvider {
     public FinSeries getSeries(final String secCode) throws IOException {
         final List<File> files = candleDataLocator().getFiles(secCode);
         final List<FinSeries> seriesList = new ArrayList<>(files.size());
-        final List<LongColumn> timeColumnList = new ArrayList<>(files.size());
-        final Synchronizer synchronizer = new Synchronizer();
         for (final File file : files) {
-            final FinSeries series = seriesReader().file(file).read();
-            seriesList.add(series);
-            final LongColumn timeColumn = series.timeCode();
-            timeColumnList.add(timeColumn);
-            synchronizer.put(timeColumn);
+            seriesList.add(seriesReader().file(file).read());
         }
-        final FinSeries series = FinSeries.newCandles();
-        long timeCode;
-        while ((timeCode = synchronizer.synchronize()) != Long.MAX_VALUE) {
-            for (int i = 0; i < timeColumnList.size(); i++) {
-                final int index = synchronizer.getCurrIndex(timeColumnList.get(i));
-                if (index >= 0) {
-                    final FinSeries src = seriesList.get(i);
-                    series.timeCode().append(timeCode);
-                    series.open().append(src.open().get(index));
-                    series.high().append(src.high().get(index));
-                    series.low().append(src.low().get(index));
-                    series.close().append(src.close().get(index));
-                    series.volume().append(src.volume().get(index));
-                    break;
-                }
-            }
-        }
-        return series;
+        return SeriesMerge.merge(seriesList, FinSeries.T, SeriesMerge.Duplicates.KEEP_FIRST, true,
+                                 FinSeries.newCandles());
     }
 }
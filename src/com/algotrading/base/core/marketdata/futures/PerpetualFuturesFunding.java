@@ -2,6 +2,7 @@ package com.algotrading.base.core.marketdata.futures;
 
 import com.algotrading.base.core.columns.DoubleColumn;
 import com.algotrading.base.core.columns.LongColumn;
+import com.algotrading.base.core.columns.LongSearchIndex;
 import com.algotrading.base.core.series.FinSeries;
 
 import java.io.File;
@@ -23,6 +24,10 @@ public class PerpetualFuturesFunding {
 
     private LongColumn timeCode = null;
     private DoubleColumn fundingRates = null;
+    /**
+     * Индекс для поиска по времени фандинга или {@code null}, если время в файле не упорядочено.
+     */
+    private LongSearchIndex timeCodeIndex = null;
 
     /**
      * Прочитать данные о фандинге из файла.
@@ -47,6 +52,7 @@ public class PerpetualFuturesFunding {
             timeCode.append(t);
             fundingRates.append(fundingRate);
         }
+        timeCodeIndex = timeCode.isNonDecreasing() ? LongSearchIndex.of(timeCode) : null;
     }
 
     /***
@@ -59,6 +65,9 @@ public class PerpetualFuturesFunding {
         if (timeCode == null || timeCode.length() == 0 || t < timeCode.get(0)) {
             return Double.NaN;
         }
+        if (timeCodeIndex != null) {
+            return fundingRates.get(timeCodeIndex.floorIndex(t));
+        }
         int id = timeCode.binarySearch(t);
         if (id >= 0) {
             return fundingRates.get(id);
@@ -0,0 +1,284 @@
+package com.algotrading.base.core.series;
+
+import com.algotrading.base.core.columns.AbstractColumn;
+import com.algotrading.base.core.columns.Column;
+import com.algotrading.base.core.columns.DoubleColumn;
+import com.algotrading.base.core.columns.IntColumn;
+import com.algotrading.base.core.columns.LongColumn;
+import com.algotrading.base.core.columns.StringColumn;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Присоединение к временному ряду значений колонок другого ряда "по состоянию на" моменты времени
+ * его строк (as-of join).
+ * <p>
+ * Обе колонки времени должны быть упорядочены по неубыванию, поэтому соответствующие строки находятся
+ * одним совместным проходом по колонкам. Для больших рядов строки левого ряда делятся на части,
+ * начало каждой части в правом ряду находится двоичным поиском, и части обрабатываются параллельно.
+ * Затем значения присоединяемых колонок копируются по найденным индексам, колонки обрабатываются параллельно.
+ * <p>
+ * Допустимое расстояние между моментами времени задаётся в единицах значений колонок времени. Для меток
+ * времени разности значений не равны длительностям, поэтому для ограничения расстояния в миллисекундах
+ * следует использовать ряды с колонкой времени в миллисекундах от начала эпохи,
+ * см. {@link FinSeries#toEpochMillisTime()}.
+ */
+public final class AsOfJoin {
+    /**
+     * Минимальная длина левого ряда, начиная с которой поиск строк выполняется параллельно.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+    /**
+     * Расстояние между моментами времени не ограничено.
+     */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    /**
+     * Направление поиска строки правого ряда.
+     */
+    public enum Direction {
+        /**
+         * Последняя строка, время которой не больше времени строки левого ряда.
+         */
+        BACKWARD,
+        /**
+         * Первая строка, время которой не меньше времени строки левого ряда.
+         */
+        FORWARD
+    }
+
+    private AsOfJoin() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Найти для каждой строки левого ряда соответствующую строку правого ряда.
+     *
+     * @param leftTime  колонка времени левого ряда, упорядоченная по неубыванию
+     * @param rightTime колонка времени правого ряда, упорядоченная по неубыванию
+     * @param direction направление поиска
+     * @param tolerance максимальное расстояние между значениями времени строк или {@link #UNLIMITED}
+     * @return массив длины левого ряда с индексами строк правого ряда или (-1), если строка не найдена
+     * @throws IllegalArgumentException если колонка времени не упорядочена
+     */
+    public static int[] indices(final LongColumn leftTime,
+                                final LongColumn rightTime,
+                                final Direction direction,
+                                final long tolerance) {
+        checkNonDecreasing(leftTime);
+        checkNonDecreasing(rightTime);
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("tolerance=" + tolerance);
+        }
+        final long[] left = new long[leftTime.length()];
+        leftTime.get(0, left, 0, left.length);
+        final long[] right = new long[rightTime.length()];
+        rightTime.get(0, right, 0, right.length);
+        final int[] indices = new int[left.length];
+        final int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        if (left.length < PARALLEL_THRESHOLD || parallelism < 2) {
+            match(left, right, direction, tolerance, indices, 0, left.length);
+            return indices;
+        }
+        final int parts = Math.min(4 * parallelism, left.length / (PARALLEL_THRESHOLD / 4));
+        IntStream.range(0, parts)
+                .parallel()
+                .forEach(p -> match(left, right, direction, tolerance, indices,
+                                    (int) ((long) left.length * p / parts),
+                                    (int) ((long) left.length * (p + 1) / parts)));
+        return indices;
+    }
+
+    /**
+     * Присоединить к левому ряду колонки правого ряда.
+     * <p>
+     * Присоединённые колонки имеют те же названия и классы, что и в правом ряду (для представлений -- базовые
+     * классы {@link DoubleColumn}, {@link LongColumn}, {@link IntColumn}, {@link StringColumn} или {@link Column}).
+     * Для строк, которым не нашлось строки правого ряда, в колонки записываются значения
+     * {@link Double#NaN}, 0 или {@code null}; отличить такие строки позволяет метод
+     * {@link #indices(LongColumn, LongColumn, Direction, long)}.
+     *
+     * @param left            левый ряд, к которому присоединяются колонки
+     * @param leftTimeColumn  название колонки времени левого ряда
+     * @param right           правый ряд
+     * @param rightTimeColumn название колонки времени правого ряда
+     * @param direction       направление поиска
+     * @param tolerance       максимальное расстояние между значениями времени строк или {@link #UNLIMITED}
+     * @param columns         названия присоединяемых колонок правого ряда
+     * @param <S>             тип левого ряда
+     * @return левый ряд
+     * @throws IllegalArgumentException если колонка не найдена, колонка с таким названием уже есть в левом ряду
+     *                                  или колонка времени не упорядочена
+     */
+    public static <S extends Series> S join(final S left,
+                                            final String leftTimeColumn,
+                                            final Series right,
+                                            final String rightTimeColumn,
+                                            final Direction direction,
+                                            final long tolerance,
+                                            final String... columns) {
+        final LongColumn leftTime = timeColumn(left, leftTimeColumn);
+        final LongColumn rightTime = timeColumn(right, rightTimeColumn);
+        final AbstractColumn[] sources = new AbstractColumn[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            sources[c] = right.columnMap.get(columns[c]);
+            if (sources[c] == null) {
+                throw new IllegalArgumentException("Column " + columns[c] + " not found in " + right);
+            }
+            if (left.columnMap.containsKey(columns[c])) {
+                throw new IllegalArgumentException("Column " + columns[c] + " already exists in " + left);
+            }
+        }
+        final int[] indices = indices(leftTime, rightTime, direction, tolerance);
+        final AbstractColumn[] results = new AbstractColumn[columns.length];
+        IntStream.range(0, columns.length)
+                .parallel()
+                .forEach(c -> results[c] = gather(sources[c], indices));
+        for (final AbstractColumn column : results) {
+            left.columnMap.put(column.name(), column);
+        }
+        left.columnsChanged();
+        return left;
+    }
+
+    private static LongColumn timeColumn(final Series series, final String name) {
+        if (!(series.columnMap.get(name) instanceof final LongColumn time)) {
+            throw new IllegalArgumentException("Column " + name + " not found in " + series);
+        }
+        return time;
+    }
+
+    private static void checkNonDecreasing(final LongColumn time) {
+        if (!time.isNonDecreasing()) {
+            throw new IllegalArgumentException("Column " + time + " should be non-decreasing");
+        }
+    }
+
+    /**
+     * Найти строки правого ряда для строк левого ряда с индексами [from, to) совместным проходом по колонкам.
+     */
+    private static void match(final long[] left,
+                              final long[] right,
+                              final Direction direction,
+                              final long tolerance,
+                              final int[] indices,
+                              final int from,
+                              final int to) {
+        if (from == to) {
+            return;
+        }
+        final boolean backward = direction == Direction.BACKWARD;
+        // j -- количество строк правого ряда, время которых меньше (при поиске назад -- не больше) текущего
+        int j = backward ? upperBound(right, left[from]) : lowerBound(right, left[from]);
+        for (int i = from; i < to; i++) {
+            final long t = left[i];
+            int id;
+            if (backward) {
+                while (j < right.length && right[j] <= t) {
+                    j++;
+                }
+                id = j - 1;
+                if (id >= 0 && tolerance != UNLIMITED && t - right[id] > tolerance) {
+                    id = -1;
+                }
+            } else {
+                while (j < right.length && right[j] < t) {
+                    j++;
+                }
+                id = (j < right.length) ? j : -1;
+                if (id >= 0 && tolerance != UNLIMITED && right[id] - t > tolerance) {
+                    id = -1;
+                }
+            }
+            indices[i] = id;
+        }
+    }
+
+    /**
+     * @return количество значений, меньших {@code t}
+     */
+    private static int lowerBound(final long[] values, final long t) {
+        int from = 0;
+        int to = values.length;
+        while (from < to) {
+            final int mid = (from + to) >>> 1;
+            if (values[mid] < t) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * @return количество значений, не больших {@code t}
+     */
+    private static int upperBound(final long[] values, final long t) {
+        return (t == Long.MAX_VALUE) ? values.length : lowerBound(values, t + 1);
+    }
+
+    /**
+     * Собрать значения колонки по найденным индексам строк. Колонка результата получается методом
+     * {@link AbstractColumn#subColumn(int[])} и имеет тот же класс, что и исходная колонка (для представлений --
+     * базовый класс), затем значения для ненайденных строк заменяются на {@link Double#NaN}, 0 или {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    private static AbstractColumn gather(final AbstractColumn source, final int[] indices) {
+        final int len = indices.length;
+        if (source instanceof final Column<?> column) {
+            // метод Column.set не принимает null, поэтому ненайденные строки пропускаются
+            final Column<Object> objColumn = (Column<Object>) column;
+            final Column<Object> result = new Column<>(column.name(), objColumn.type(), len);
+            for (int i = 0; i < len; i++) {
+                final Object value = (indices[i] < 0) ? null : objColumn.get(indices[i]);
+                if (value != null) {
+                    result.set(i, value);
+                }
+            }
+            return result;
+        }
+        // для ненайденных строк берётся первая строка, если она есть, и значение затем заменяется
+        final int[] safeIndices = new int[(source.length() == 0) ? 0 : len];
+        for (int i = 0; i < safeIndices.length; i++) {
+            safeIndices[i] = Math.max(indices[i], 0);
+        }
+        final AbstractColumn result = source.subColumn(safeIndices);
+        if (result.length() != len) {
+            result.setLength(len);
+        }
+        switch (result) {
+            case final DoubleColumn column -> {
+                for (int i = 0; i < len; i++) {
+                    if (indices[i] < 0) {
+                        column.set(i, Double.NaN);
+                    }
+                }
+            }
+            case final LongColumn column -> {
+                for (int i = 0; i < len; i++) {
+                    if (indices[i] < 0) {
+                        column.set(i, 0L);
+                    }
+                }
+            }
+            case final IntColumn column -> {
+                for (int i = 0; i < len; i++) {
+                    if (indices[i] < 0) {
+                        column.set(i, 0);
+                    }
+                }
+            }
+            case final StringColumn column -> {
+                for (int i = 0; i < len; i++) {
+                    if (indices[i] < 0) {
+                        column.set(i, null);
+                    }
+                }
+            }
+            default -> throw new ClassCastException("Unknown column type: " + source.getClass());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,259 @@
+package com.algotrading.base.core.series;
+
+import com.algotrading.base.core.TimeFilters;
+import com.algotrading.base.core.columns.DoubleColumn;
+import com.algotrading.base.core.columns.LongColumn;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Сжатие свечей в таймфрейм, заданный периодом и единицей измерения времени.
+ * <p>
+ * Фильтр по времени вычисляется сразу для всей колонки меток времени. Строки исходного временного ряда
+ * просматриваются фрагментами: фрагмент состоит из идущих подряд строк,
+ * прошедших фильтр и попавших в границы текущей свечи. Начало и границы свечи вычисляются один раз
+ * для первой строки фрагмента. Затем для каждой свечи максимум, минимум и сумма по её фрагментам
+ * вычисляются отдельными циклами по колонкам, а значения записываются в колонки заранее известной длины.
+ * <p>
+ * Свечи таких таймфреймов не выходят за границы суток, поэтому длинный временной ряд делится по границам
+ * суток на части, которые сжимаются параллельно.
+ */
+final class CandleCompression {
+    /**
+     * Минимальная длина временного ряда, начиная с которой сжатие выполняется параллельно.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+    private static final int MIN_PART_LENGTH = 1 << 18;
+    private static final long DAY = 1_00_00_00_000L;
+
+    private CandleCompression() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @return колонка цены {@code column}, а если её нет -- колонка LAST или колонка close
+     */
+    private static DoubleColumn price(final DoubleColumn column, final DoubleColumn last, final DoubleColumn close) {
+        return (column != null) ? column : (last != null) ? last : close;
+    }
+
+    /**
+     * Сжать свечи временного ряда.
+     *
+     * @param series    временной ряд
+     * @param timeframe таймфрейм, заданный периодом и единицей измерения времени
+     * @return временной ряд свечей
+     */
+    static FinSeries compress(final FinSeries series, final TimeframeSpec timeframe) {
+        final Sources sources = new Sources(series);
+        final int length = sources.time.length();
+        final boolean[] accepted = accepted(sources.time, timeframe.timeFilter());
+        if (length < PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            return compress(sources, timeframe, accepted, 0, length);
+        }
+        final int[] bounds = dayBounds(sources.time, length);
+        final FinSeries[] parts = new FinSeries[bounds.length - 1];
+        IntStream.range(0, parts.length)
+                .parallel()
+                .forEach(p -> parts[p] = compress(sources, timeframe, accepted, bounds[p], bounds[p + 1]));
+        int total = 0;
+        for (final FinSeries part : parts) {
+            total += part.length();
+        }
+        final FinSeries result = parts[0];
+        result.ensureCapacity(total);
+        for (int p = 1; p < parts.length; p++) {
+            result.append(parts[p]);
+        }
+        return result;
+    }
+
+    /**
+     * Вычислить фильтр по времени для всех строк, см. {@link TimeFilters#mask(LongColumn, LongPredicate)}.
+     *
+     * @return массив, где {@code true} соответствует строкам, прошедшим фильтр,
+     * или {@code null}, если фильтрация не нужна
+     */
+    static boolean[] accepted(final LongColumn time, final LongPredicate filter) {
+        return (filter == FinSeries.ALL) ? null : TimeFilters.mask(time, filter);
+    }
+
+    /**
+     * Разделить строки на части примерно одинаковой длины по границам суток.
+     *
+     * @return индексы начала частей и длина временного ряда
+     */
+    private static int[] dayBounds(final LongColumn time, final int length) {
+        final int parts = Math.min(4 * ForkJoinPool.getCommonPoolParallelism(), length / MIN_PART_LENGTH);
+        final List<Integer> bounds = new ArrayList<>(parts + 1);
+        bounds.add(0);
+        for (int p = 1; p < parts; p++) {
+            int index = Math.max((int) ((long) length * p / parts), bounds.get(bounds.size() - 1) + 1);
+            final long day = time.get(index - 1) / DAY;
+            while (index < length && time.get(index) / DAY == day) {
+                index++;
+            }
+            if (index < length) {
+                bounds.add(index);
+            }
+        }
+        bounds.add(length);
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static FinSeries compress(final Sources sources,
+                                      final TimeframeSpec timeframe,
+                                      final boolean[] accepted,
+                                      final int from,
+                                      final int to) {
+        final Fragments fragments = new Fragments(sources.time, timeframe, accepted, from, to);
+        final int count = fragments.frameCount;
+        final FinSeries series = new FinSeries();
+        final LongColumn cTime = series.acquireLongColumn(FinSeries.T, () -> new LongColumn(FinSeries.T, count));
+        final DoubleColumn cOpen = series.acquireDoubleColumn(FinSeries.O, () -> new DoubleColumn(FinSeries.O, count));
+        final DoubleColumn cHigh = series.acquireDoubleColumn(FinSeries.H, () -> new DoubleColumn(FinSeries.H, count));
+        final DoubleColumn cLow = series.acquireDoubleColumn(FinSeries.L, () -> new DoubleColumn(FinSeries.L, count));
+        final DoubleColumn cClose = series.acquireDoubleColumn(FinSeries.C, () -> new DoubleColumn(FinSeries.C, count));
+        final LongColumn cVolume = (sources.volume == null) ? null
+                : series.acquireLongColumn(FinSeries.V, () -> new LongColumn(FinSeries.V, count));
+        final LongColumn cOi = (sources.oi == null) ? null
+                : series.acquireLongColumn(FinSeries.OI, () -> new LongColumn(FinSeries.OI, count));
+        for (int frame = 0, fragment = 0; frame < count; frame++) {
+            final int first = fragment;
+            final int end = fragments.frameEnds[frame];
+            double high = max(sources.high, fragments.froms[fragment], fragments.tos[fragment]);
+            double low = min(sources.low, fragments.froms[fragment], fragments.tos[fragment]);
+            for (fragment++; fragment < end; fragment++) {
+                high = Math.max(high, max(sources.high, fragments.froms[fragment], fragments.tos[fragment]));
+                low = Math.min(low, min(sources.low, fragments.froms[fragment], fragments.tos[fragment]));
+            }
+            final int lastRow = fragments.tos[end - 1] - 1;
+            cTime.set(frame, fragments.frameStarts[frame]);
+            cOpen.set(frame, sources.open.get(fragments.froms[first]));
+            cHigh.set(frame, high);
+            cLow.set(frame, low);
+            cClose.set(frame, sources.close.get(lastRow));
+            if (cVolume != null) {
+                long volume = 0L;
+                for (int f = first; f < end; f++) {
+                    volume += sum(sources.volume, fragments.froms[f], fragments.tos[f]);
+                }
+                cVolume.set(frame, volume);
+            }
+            if (cOi != null) {
+                cOi.set(frame, sources.oi.get(lastRow));
+            }
+        }
+        return series;
+    }
+
+    private static double max(final DoubleColumn column, final int from, final int to) {
+        double max = column.get(from);
+        for (int i = from + 1; i < to; i++) {
+            max = Math.max(max, column.get(i));
+        }
+        return max;
+    }
+
+    private static double min(final DoubleColumn column, final int from, final int to) {
+        double min = column.get(from);
+        for (int i = from + 1; i < to; i++) {
+            min = Math.min(min, column.get(i));
+        }
+        return min;
+    }
+
+    private static long sum(final LongColumn column, final int from, final int to) {
+        long sum = 0L;
+        for (int i = from; i < to; i++) {
+            sum += column.get(i);
+        }
+        return sum;
+    }
+
+    /**
+     * Разбиение строк на фрагменты: фрагмент -- идущие подряд строки, прошедшие фильтр и попавшие
+     * в одну свечу. Свеча состоит из одного или нескольких идущих подряд фрагментов (несколько фрагментов
+     * получается, если часть строк свечи не прошла фильтр).
+     */
+    private static final class Fragments {
+        private int[] froms = new int[16];
+        private int[] tos = new int[16];
+        private long[] frameStarts = new long[16];
+        private int[] frameEnds = new int[16];
+        private int fragmentCount;
+        private int frameCount;
+
+        Fragments(final LongColumn time,
+                  final TimeframeSpec timeframe,
+                  final boolean[] accepted,
+                  final int from,
+                  final int to) {
+            int index = from;
+            while (index < to) {
+                if (accepted != null && !accepted[index]) {
+                    index++;
+                    continue;
+                }
+                final long start = timeframe.timeFrameStart(time.get(index));
+                final long limit = timeframe.timeFrameLimit(start);
+                int end = index + 1;
+                while (end < to) {
+                    final long next = time.get(end);
+                    if (next < start || next >= limit || (accepted != null && !accepted[end])) {
+                        break;
+                    }
+                    end++;
+                }
+                if (frameCount == 0 || start != frameStarts[frameCount - 1]) {
+                    if (frameCount == frameStarts.length) {
+                        frameStarts = Arrays.copyOf(frameStarts, 2 * frameCount);
+                        frameEnds = Arrays.copyOf(frameEnds, 2 * frameCount);
+                    }
+                    frameStarts[frameCount++] = start;
+                }
+                if (fragmentCount == froms.length) {
+                    froms = Arrays.copyOf(froms, 2 * fragmentCount);
+                    tos = Arrays.copyOf(tos, 2 * fragmentCount);
+                }
+                froms[fragmentCount] = index;
+                tos[fragmentCount] = end;
+                fragmentCount++;
+                frameEnds[frameCount - 1] = fragmentCount;
+                index = end;
+            }
+        }
+    }
+
+    /**
+     * Колонки исходного временного ряда, из которых берутся значения свечей.
+     */
+    static final class Sources {
+        final LongColumn time;
+        final DoubleColumn open;
+        final DoubleColumn high;
+        final DoubleColumn low;
+        final DoubleColumn close;
+        final LongColumn volume;
+        final LongColumn oi;
+
+        Sources(final FinSeries series) {
+            final DoubleColumn last = series.last();
+            time = series.timeCode();
+            close = (series.close() != null) ? series.close() : last;
+            if (time == null || close == null) {
+                throw new IllegalArgumentException("No time or price column in " + series);
+            }
+            open = price(series.open(), last, close);
+            high = price(series.high(), last, close);
+            low = price(series.low(), last, close);
+            volume = series.volume();
+            oi = series.oi();
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.algotrading.base.core.series;
+
+import com.algotrading.base.core.columns.AbstractColumn;
+import com.algotrading.base.core.columns.DoubleColumn;
+import com.algotrading.base.core.columns.IntColumn;
+import com.algotrading.base.core.columns.LongColumn;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Производные колонки временного ряда, вычисляемые по требованию.
+ * <p>
+ * Производная колонка объявляется названием, списком названий входных колонок, параметрами и функцией
+ * вычисления. Колонка вычисляется при первом обращении, запоминается и добавляется во временной ряд.
+ * Повторное обращение возвращает запомненную колонку, пока не изменились входные колонки. Входными колонками
+ * могут быть как обычные колонки временного ряда, так и другие производные колонки, поэтому общие
+ * промежуточные значения (например, ATR при переборе параметров стратегии) вычисляются один раз.
+ * <p>
+ * Колонка считается устаревшей и вычисляется заново, если входная колонка была заменена другой колонкой,
+ * изменила длину или сама была вычислена заново. Изменение значений входной колонки на месте не отслеживается:
+ * в этом случае следует вызвать метод {@link #invalidate(String)}.
+ * <p>
+ * Функция вычисления получает наложение исходного временного ряда (см. {@link Series#overlay()}), содержащее
+ * обычные колонки исходного временного ряда и входные производные колонки (колонки не копируются).
+ * Наложение создаётся функцией, переданной в конструктор, поэтому имеет тот же тип, что и исходный ряд.
+ * Функция вычисления должна читать входные колонки и создавать колонку результата только через этот
+ * аргумент, например:
+ * <pre>{@code
+ * final DerivedColumns<FinSeries> derived = new DerivedColumns<>(series, FinSeries::overlay)
+ *         .define("ATR", List.of(H, L, C), List.of(14), s -> Atr.atr(s, 14, "ATR"));
+ * }</pre>
+ * Благодаря этому независимые ветви графа зависимостей можно вычислять параллельно методом
+ * {@link #evaluate(Collection, boolean)}.
+ * <p>
+ * Объект не является потокобезопасным.
+ *
+ * @param <S> тип временного ряда
+ */
+public class DerivedColumns<S extends Series> {
+
+    private final S series;
+    private final UnaryOperator<S> overlay;
+    private final Map<String, Node<S>> nodes = new HashMap<>();
+
+    /**
+     * @param series  временной ряд
+     * @param overlay функция, создающая наложение временного ряда того же типа,
+     *                например, {@code FinSeries::overlay}
+     */
+    public DerivedColumns(final S series, final UnaryOperator<S> overlay) {
+        this.series = requireNonNull(series);
+        this.overlay = requireNonNull(overlay);
+    }
+
+    /**
+     * @return временной ряд, к которому относятся производные колонки
+     */
+    public S series() {
+        return series;
+    }
+
+    /**
+     * Объявить производную колонку.
+     * <p>
+     * Если колонка с тем же названием уже объявлена с теми же входными колонками и параметрами, объявление
+     * игнорируется и запомненное значение сохраняется. Иначе прежнее объявление заменяется, а колонка
+     * и все зависящие от неё производные колонки будут вычислены заново.
+     *
+     * @param name       название колонки
+     * @param inputs     названия входных колонок
+     * @param parameters параметры вычисления (сравниваются методом {@link Object#equals(Object)})
+     * @param compute    функция вычисления, возвращающая колонку с названием {@code name}
+     * @return этот объект
+     * @throws IllegalArgumentException если во временном ряду уже есть обычная колонка с таким названием
+     */
+    public DerivedColumns<S> define(final String name,
+                                    final List<String> inputs,
+                                    final List<?> parameters,
+                                    final Function<? super S, ? extends AbstractColumn> compute) {
+        final Node<S> node = nodes.get(name);
+        if (node == null) {
+            if (series.columnMap.containsKey(name)) {
+                throw new IllegalArgumentException("Series already contains column " + name);
+            }
+        } else {
+            if (node.inputs.equals(inputs) && node.parameters.equals(parameters)) {
+                return this;
+            }
+            invalidate(name);
+        }
+        nodes.put(name, new Node<>(name, List.copyOf(inputs), new ArrayList<>(parameters), compute));
+        return this;
+    }
+
+    /**
+     * Объявить производную колонку без параметров.
+     *
+     * @see #define(String, List, List, Function)
+     */
+    public DerivedColumns<S> define(final String name,
+                                    final List<String> inputs,
+                                    final Function<? super S, ? extends AbstractColumn> compute) {
+        return define(name, inputs, List.of(), compute);
+    }
+
+    /**
+     * @param name название колонки
+     * @return {@code true}, если колонка с таким названием объявлена как производная
+     */
+    public boolean isDefined(final String name) {
+        return nodes.containsKey(name);
+    }
+
+    /**
+     * @param name название колонки
+     * @return {@code true}, если производная колонка вычислена и не устарела
+     */
+    public boolean isComputed(final String name) {
+        final Node<S> node = nodes.get(name);
+        return node != null && !isStale(node, new HashSet<>());
+    }
+
+    /**
+     * Получить колонку, при необходимости вычислив её и все производные колонки, от которых она зависит.
+     *
+     * @param name название производной или обычной колонки временного ряда
+     * @return колонка
+     * @throws IllegalArgumentException если колонка не найдена или граф зависимостей содержит цикл
+     */
+    public AbstractColumn get(final String name) {
+        final Node<S> node = nodes.get(name);
+        if (node == null) {
+            final AbstractColumn column = series.columnMap.get(name);
+            if (column == null) {
+                throw new IllegalArgumentException("Unknown column " + name);
+            }
+            return column;
+        }
+        evaluate(node, new HashSet<>());
+        return node.value;
+    }
+
+    public DoubleColumn getDoubleColumn(final String name) {
+        return (DoubleColumn) get(name);
+    }
+
+    public LongColumn getLongColumn(final String name) {
+        return (LongColumn) get(name);
+    }
+
+    public IntColumn getIntColumn(final String name) {
+        return (IntColumn) get(name);
+    }
+
+    /**
+     * Вычислить производные колонки и все колонки, от которых они зависят.
+     * <p>
+     * Колонки вычисляются по уровням графа зависимостей: сначала колонки, зависящие только от обычных колонок,
+     * затем колонки, зависящие от них, и т.д. При параллельном вычислении колонки одного уровня вычисляются
+     * одновременно в пуле потоков {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+     *
+     * @param names    названия производных колонок
+     * @param parallel {@code true}, если независимые колонки следует вычислять параллельно
+     * @return этот объект
+     * @throws IllegalArgumentException если колонка не объявлена или граф зависимостей содержит цикл
+     */
+    public DerivedColumns<S> evaluate(final Collection<String> names, final boolean parallel) {
+        final Map<Node<S>, Integer> levels = new LinkedHashMap<>();
+        for (final String name : names) {
+            final Node<S> node = nodes.get(name);
+            if (node == null) {
+                throw new IllegalArgumentException("Derived column " + name + " is not defined");
+            }
+            level(node, levels, new HashSet<>());
+        }
+        final List<List<Node<S>>> byLevel = new ArrayList<>();
+        levels.forEach((node, level) -> {
+            while (byLevel.size() <= level) {
+                byLevel.add(new ArrayList<>());
+            }
+            byLevel.get(level).add(node);
+        });
+        for (final List<Node<S>> level : byLevel) {
+            final List<Node<S>> stale = new ArrayList<>();
+            for (final Node<S> node : level) {
+                if (isStale(node, new HashSet<>())) {
+                    stale.add(node);
+                }
+            }
+            if (parallel && stale.size() > 1) {
+                // функции вычисления работают с собственными копиями набора колонок и не изменяют исходный ряд
+                final List<S> copies = new ArrayList<>(stale.size());
+                for (final Node<S> node : stale) {
+                    copies.add(scratch(node));
+                }
+                final AbstractColumn[] results = new AbstractColumn[stale.size()];
+                Arrays.parallelSetAll(results, i -> stale.get(i).compute.apply(copies.get(i)));
+                for (int i = 0; i < results.length; i++) {
+                    store(stale.get(i), results[i]);
+                }
+            } else {
+                for (final Node<S> node : stale) {
+                    store(node, node.compute.apply(scratch(node)));
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Вычислить все объявленные производные колонки.
+     *
+     * @param parallel {@code true}, если независимые колонки следует вычислять параллельно
+     * @return этот объект
+     */
+    public DerivedColumns<S> evaluateAll(final boolean parallel) {
+        return evaluate(new ArrayList<>(nodes.keySet()), parallel);
+    }
+
+    /**
+     * Пометить как устаревшие производную колонку с заданным названием и все производные колонки,
+     * зависящие от колонки с заданным названием. Устаревшие колонки удаляются из временного ряда
+     * и будут вычислены заново при следующем обращении.
+     *
+     * @param name название производной или обычной колонки временного ряда
+     */
+    public void invalidate(final String name) {
+        final Node<S> node = nodes.get(name);
+        if (node != null && node.value != null) {
+            if (series.columnMap.get(name) == node.value) {
+                series.columnMap.remove(name);
+                series.columnsChanged();
+            }
+            node.value = null;
+        }
+        for (final Node<S> dependent : nodes.values()) {
+            if (dependent.value != null && dependent.inputs.contains(name)) {
+                invalidate(dependent.name);
+            }
+        }
+    }
+
+    private void evaluate(final Node<S> node, final Set<String> path) {
+        if (!path.add(node.name)) {
+            throw new IllegalArgumentException("Cyclic dependency of derived column " + node.name);
+        }
+        for (final String input : node.inputs) {
+            final Node<S> inputNode = nodes.get(input);
+            if (inputNode != null) {
+                evaluate(inputNode, path);
+            }
+        }
+        path.remove(node.name);
+        if (isStale(node, new HashSet<>())) {
+            store(node, node.compute.apply(scratch(node)));
+        }
+    }
+
+    private int level(final Node<S> node, final Map<Node<S>, Integer> levels, final Set<String> path) {
+        final Integer known = levels.get(node);
+        if (known != null) {
+            return known;
+        }
+        if (!path.add(node.name)) {
+            throw new IllegalArgumentException("Cyclic dependency of derived column " + node.name);
+        }
+        int level = 0;
+        for (final String input : node.inputs) {
+            final Node<S> inputNode = nodes.get(input);
+            if (inputNode != null) {
+                level = Math.max(level, level(inputNode, levels, path) + 1);
+            }
+        }
+        path.remove(node.name);
+        levels.put(node, level);
+        return level;
+    }
+
+    private boolean isStale(final Node<S> node, final Set<String> path) {
+        if (node.value == null || series.columnMap.get(node.name) != node.value) {
+            return true;
+        }
+        if (!path.add(node.name)) {
+            throw new IllegalArgumentException("Cyclic dependency of derived column " + node.name);
+        }
+        for (int i = 0; i < node.inputs.size(); i++) {
+            final String input = node.inputs.get(i);
+            final AbstractColumn column = series.columnMap.get(input);
+            if (column == null || column != node.inputColumns[i] || column.length() != node.inputLengths[i]) {
+                return true;
+            }
+            final Node<S> inputNode = nodes.get(input);
+            if (inputNode != null && isStale(inputNode, path)) {
+                return true;
+            }
+        }
+        path.remove(node.name);
+        return false;
+    }
+
+    private S scratch(final Node<S> node) {
+        for (final String input : node.inputs) {
+            if (!series.columnMap.containsKey(input)) {
+                throw new IllegalArgumentException("Input column " + input + " of " + node.name + " not found");
+            }
+        }
+        final S scratch = overlay.apply(series);
+        if (scratch == series) {
+            throw new IllegalStateException("Overlay of " + series + " is the series itself");
+        }
+        // производные колонки, не являющиеся входными, могут быть устаревшими и иметь другую длину,
+        // а устаревшее значение самой колонки не должно использоваться функцией вычисления повторно
+        scratch.columnMap.keySet().removeIf(name -> nodes.containsKey(name) && !node.inputs.contains(name));
+        scratch.columnsChanged();
+        return scratch;
+    }
+
+    private void store(final Node<S> node, final AbstractColumn column) {
+        if (column == null || !node.name.equals(column.name())) {
+            throw new IllegalArgumentException("Derived column " + node.name + " computed as " + column);
+        }
+        final int size = node.inputs.size();
+        node.inputColumns = new AbstractColumn[size];
+        node.inputLengths = new int[size];
+        for (int i = 0; i < size; i++) {
+            final AbstractColumn input = series.columnMap.get(node.inputs.get(i));
+            node.inputColumns[i] = input;
+            node.inputLengths[i] = input.length();
+        }
+        series.columnMap.put(node.name, column);
+        series.columnsChanged();
+        node.value = column;
+    }
+
+    private static class Node<S extends Series> {
+        private final String name;
+        private final List<String> inputs;
+        private final List<?> parameters;
+        private final Function<? super S, ? extends AbstractColumn> compute;
+        private AbstractColumn value;
+        private AbstractColumn[] inputColumns;
+        private int[] inputLengths;
+
+        Node(final String name,
+             final List<String> inputs,
+             final List<?> parameters,
+             final Function<? super S, ? extends AbstractColumn> compute) {
+            this.name = name;
+            this.inputs = inputs;
+            this.parameters = parameters;
+            this.compute = compute;
+        }
+    }
+}
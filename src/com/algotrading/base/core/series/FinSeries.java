@@ -1,11 +1,26 @@
 package com.algotrading.base.core.series;
 
 import com.algotrading.base.core.TimeCodes;
+import com.algotrading.base.core.columns.AbstractColumn;
+import com.algotrading.base.core.columns.ChunkedDoubleColumn;
+import com.algotrading.base.core.columns.ChunkedLongColumn;
+import com.algotrading.base.core.columns.CompressedDoubleColumn;
+import com.algotrading.base.core.columns.CompressedLongColumn;
+import com.algotrading.base.core.columns.CompressionCodec;
 import com.algotrading.base.core.columns.DoubleColumn;
 import com.algotrading.base.core.columns.LongColumn;
+import com.algotrading.base.core.columns.OffHeapDoubleColumn;
+import com.algotrading.base.core.columns.OffHeapLongColumn;
+import com.algotrading.base.core.columns.RingDoubleColumn;
+import com.algotrading.base.core.columns.RingLongColumn;
+import com.algotrading.base.core.columns.TickPriceColumn;
 import com.algotrading.base.core.values.AbstractValue;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.LongPredicate;
 import java.util.function.LongUnaryOperator;
@@ -60,6 +75,16 @@ public class FinSeries extends Series {
      */
     public static final LongPredicate ALL = t -> true;
 
+    public FinSeries() {
+    }
+
+    /**
+     * @see Series#Series(Map)
+     */
+    FinSeries(final Map<String, AbstractColumn> frozenColumns) {
+        super(frozenColumns);
+    }
+
     public static FinSeries newCandles() {
         return new FinSeries()
                 .withLongColumn(T)
@@ -70,6 +95,89 @@ public class FinSeries extends Series {
                 .withLongColumn(V);
     }
 
+    /**
+     * @return пустой свечной временной ряд, данные колонок которого хранятся вне кучи Java
+     */
+    public static FinSeries newOffHeapCandles() {
+        final FinSeries series = new FinSeries();
+        series.acquireLongColumn(T, () -> new OffHeapLongColumn(T));
+        series.acquireDoubleColumn(O, () -> new OffHeapDoubleColumn(O));
+        series.acquireDoubleColumn(H, () -> new OffHeapDoubleColumn(H));
+        series.acquireDoubleColumn(L, () -> new OffHeapDoubleColumn(L));
+        series.acquireDoubleColumn(C, () -> new OffHeapDoubleColumn(C));
+        series.acquireLongColumn(V, () -> new OffHeapLongColumn(V));
+        return series;
+    }
+
+    /**
+     * Колонки времени, цен и объёма хранят данные в сжатом виде: метки времени кодируются
+     * разностями второго порядка, цены -- XOR соседних значений, объёмы -- целыми числами переменной длины.
+     *
+     * @return пустой свечной временной ряд со сжатыми колонками
+     */
+    public static FinSeries newCompressedCandles() {
+        final FinSeries series = new FinSeries();
+        series.acquireLongColumn(T, () -> new CompressedLongColumn(T, CompressionCodec.DELTA_OF_DELTA));
+        series.acquireDoubleColumn(O, () -> new CompressedDoubleColumn(O));
+        series.acquireDoubleColumn(H, () -> new CompressedDoubleColumn(H));
+        series.acquireDoubleColumn(L, () -> new CompressedDoubleColumn(L));
+        series.acquireDoubleColumn(C, () -> new CompressedDoubleColumn(C));
+        series.acquireLongColumn(V, () -> new CompressedLongColumn(V, CompressionCodec.VARINT));
+        return series;
+    }
+
+    /**
+     * Колонки хранят данные фрагментами фиксированного размера, поэтому добавление данных
+     * не требует копирования ранее записанных значений.
+     *
+     * @return пустой свечной временной ряд с фрагментированными колонками
+     */
+    public static FinSeries newChunkedCandles() {
+        final FinSeries series = new FinSeries();
+        series.acquireLongColumn(T, () -> new ChunkedLongColumn(T));
+        series.acquireDoubleColumn(O, () -> new ChunkedDoubleColumn(O));
+        series.acquireDoubleColumn(H, () -> new ChunkedDoubleColumn(H));
+        series.acquireDoubleColumn(L, () -> new ChunkedDoubleColumn(L));
+        series.acquireDoubleColumn(C, () -> new ChunkedDoubleColumn(C));
+        series.acquireLongColumn(V, () -> new ChunkedLongColumn(V));
+        return series;
+    }
+
+    /**
+     * Колонки хранят данные в кольцевых буферах, поэтому удаление самых старых свечей методом {@link #move(int)}
+     * не требует копирования данных.
+     *
+     * @return пустой свечной временной ряд с колонками на основе кольцевых буферов
+     * @see RingDoubleColumn
+     */
+    public static FinSeries newRingCandles() {
+        final FinSeries series = new FinSeries();
+        series.acquireLongColumn(T, () -> new RingLongColumn(T));
+        series.acquireDoubleColumn(O, () -> new RingDoubleColumn(O));
+        series.acquireDoubleColumn(H, () -> new RingDoubleColumn(H));
+        series.acquireDoubleColumn(L, () -> new RingDoubleColumn(L));
+        series.acquireDoubleColumn(C, () -> new RingDoubleColumn(C));
+        series.acquireLongColumn(V, () -> new RingLongColumn(V));
+        return series;
+    }
+
+    /**
+     * Цены хранятся в виде целого количества шагов цены, см. {@link TickPriceColumn}.
+     *
+     * @param priceStep шаг цены
+     * @return пустой свечной временной ряд с колонками цен типа {@link TickPriceColumn}
+     */
+    public static FinSeries newTickCandles(final double priceStep) {
+        final FinSeries series = new FinSeries();
+        series.acquireLongColumn(T);
+        series.acquireDoubleColumn(O, () -> new TickPriceColumn(O, priceStep));
+        series.acquireDoubleColumn(H, () -> new TickPriceColumn(H, priceStep));
+        series.acquireDoubleColumn(L, () -> new TickPriceColumn(L, priceStep));
+        series.acquireDoubleColumn(C, () -> new TickPriceColumn(C, priceStep));
+        series.acquireLongColumn(V);
+        return series;
+    }
+
     public static FinSeries newLastVol() {
         return new FinSeries()
                 .withLongColumn(T)
@@ -77,6 +185,18 @@ public class FinSeries extends Series {
                 .withLongColumn(V);
     }
 
+    /**
+     * @return пустой временной ряд тиков с фрагментированными колонками
+     * @see #newChunkedCandles()
+     */
+    public static FinSeries newChunkedLastVol() {
+        final FinSeries series = new FinSeries();
+        series.acquireLongColumn(T, () -> new ChunkedLongColumn(T));
+        series.acquireDoubleColumn(LAST, () -> new ChunkedDoubleColumn(LAST));
+        series.acquireLongColumn(V, () -> new ChunkedLongColumn(V));
+        return series;
+    }
+
     @Override
     public FinSeries ensureCapacity(final int capacity) {
         super.ensureCapacity(capacity);
@@ -101,12 +221,24 @@ public class FinSeries extends Series {
         return this;
     }
 
+    @Override
+    public FinSeries withFloatColumn(final String name) {
+        super.withFloatColumn(name);
+        return this;
+    }
+
     @Override
     public FinSeries withStringColumn(final String name) {
         super.withStringColumn(name);
         return this;
     }
 
+    @Override
+    public FinSeries withSymbolColumn(final String name) {
+        super.withSymbolColumn(name);
+        return this;
+    }
+
     @Override
     public <T> FinSeries withColumn(final String name, final Class<T> type) {
         super.withColumn(name, type);
@@ -117,6 +249,36 @@ public class FinSeries extends Series {
         return getLongColumn(T);
     }
 
+    /**
+     * Получить временной ряд, в котором колонка {@link #T} содержит количество миллисекунд от начала эпохи
+     * вместо меток времени (см. {@link TimeCodes#epochMillis(long)}). В таком виде разности значений колонки
+     * равны длительностям, и их можно вычислять векторными операциями {@link com.algotrading.base.core.columns.ColumnOps}.
+     * Остальные колонки не копируются.
+     *
+     * @return новый временной ряд
+     * @see #toTimeCodeTime()
+     */
+    public FinSeries toEpochMillisTime() {
+        final FinSeries series = shallowCopy();
+        series.columnMap.put(T, TimeCodes.epochMillis(timeCode(), T));
+        series.columnsChanged();
+        return series;
+    }
+
+    /**
+     * Получить временной ряд, в котором колонка {@link #T} содержит метки времени вместо количества
+     * миллисекунд от начала эпохи. Остальные колонки не копируются.
+     *
+     * @return новый временной ряд
+     * @see #toEpochMillisTime()
+     */
+    public FinSeries toTimeCodeTime() {
+        final FinSeries series = shallowCopy();
+        series.columnMap.put(T, TimeCodes.fromEpochMillis(timeCode(), T));
+        series.columnsChanged();
+        return series;
+    }
+
     public DoubleColumn open() {
         return getDoubleColumn(O);
     }
@@ -146,23 +308,44 @@ public class FinSeries extends Series {
     }
 
     public FinSeries compressedCandles(final int period, final TimeUnit unit) {
-        return compressedCandles(t -> true, period, unit);
+        return compressedCandles(ALL, period, unit);
     }
 
+    /**
+     * Сжать свечи в таймфрейм, заданный периодом и единицей измерения времени.
+     * <p>
+     * Результат совпадает с результатом общего метода
+     * {@link #compressedCandles(LongUnaryOperator, LongPredicate, LongUnaryOperator, int)}
+     * с функцией {@link TimeCodes#getTimeFrameStart(long, int, TimeUnit)}, но границы свечей вычисляются
+     * один раз для каждого фрагмента строк, а длинный временной ряд сжимается параллельно по суткам.
+     *
+     * @param timeFilter фильтр меток времени строк, которые участвуют в сжатии, или {@code null}
+     * @param period     период времени (делитель 60 для минут и секунд, делитель 24 для часов)
+     * @param unit       единица измерения времени ({@link TimeUnit#HOURS}, {@link TimeUnit#MINUTES},
+     *                   {@link TimeUnit#SECONDS}) или {@link TimeUnit#DAYS}
+     * @return временной ряд свечей
+     */
     public FinSeries compressedCandles(final LongPredicate timeFilter, final int period, final TimeUnit unit) {
-        return compressedCandles(
-                NO_TIME_SHIFT,
-                timeFilter,
-                timeCode -> TimeCodes.getTimeFrameStart(timeCode, period, unit),
-                0);
+        return CandleCompression.compress(this, TimeframeSpec.of(timeFilter, period, unit));
     }
 
     public FinSeries compressedDailyCandles(final LongPredicate timeFilter) {
-        return compressedCandles(
-                NO_TIME_SHIFT,
-                timeFilter,
-                timeCode -> TimeCodes.t(TimeCodes.yyyymmdd(timeCode), 0),
-                0);
+        return CandleCompression.compress(this, TimeframeSpec.daily(timeFilter));
+    }
+
+    /**
+     * Сжать свечи сразу в несколько таймфреймов за один проход по временному ряду.
+     * <p>
+     * Свечи каждого таймфрейма совпадают со свечами, полученными методом
+     * {@link #compressedCandles(LongPredicate, int, TimeUnit)} или {@link #compressedDailyCandles(LongPredicate)}.
+     * Вместе со свечами вычисляется соответствие между строками этого временного ряда и свечами.
+     *
+     * @param timeframes таймфреймы
+     * @return свечи таймфреймов в порядке следования аргументов
+     * @throws IllegalArgumentException если во временном ряду нет колонки времени или цен
+     */
+    public TimeframeCandles[] compressedCandles(final TimeframeSpec... timeframes) {
+        return TimeframeCandles.compress(this, timeframes);
     }
 
     public FinSeries compressedCandles(final LongUnaryOperator timeShift,
@@ -279,6 +462,23 @@ public class FinSeries extends Series {
         return this;
     }
 
+    @Override
+    public FinSeries asOfJoin(final Series right, final String rightTimeColumn, final String... columns) {
+        super.asOfJoin(right, rightTimeColumn, columns);
+        return this;
+    }
+
+    @Override
+    public FinSeries asOfJoin(final String timeColumn,
+                              final Series right,
+                              final String rightTimeColumn,
+                              final AsOfJoin.Direction direction,
+                              final long tolerance,
+                              final String... columns) {
+        super.asOfJoin(timeColumn, right, rightTimeColumn, direction, tolerance, columns);
+        return this;
+    }
+
     @Override
     public FinSeries copy() {
         return copy(0, length());
@@ -298,6 +498,66 @@ public class FinSeries extends Series {
         return series;
     }
 
+    @Override
+    FinSeries shallowCopy() {
+        final FinSeries series = new FinSeries();
+        series.columnMap.putAll(columnMap);
+        series.columnsChanged();
+        return series;
+    }
+
+    @Override
+    public FinSeries freeze() {
+        return isFrozen() ? this : new FinSeries(frozenColumns());
+    }
+
+    @Override
+    public FinSeries overlay() {
+        return shallowCopy();
+    }
+
+    @Override
+    public FinSeries view(final int from, final int to) {
+        final FinSeries series = new FinSeries();
+        columnMap.forEach((key, value) -> series.columnMap.put(key, value.view(from, to)));
+        return series;
+    }
+
+    @Override
+    public FinSeries view(final int[] indices) {
+        final FinSeries series = new FinSeries();
+        columnMap.forEach((key, value) -> series.columnMap.put(key, value.view(indices)));
+        return series;
+    }
+
+    /**
+     * Прочитать финансовый временной ряд из файла, записанного методом {@link #write(Path)}.
+     *
+     * @param path путь к файлу
+     * @return финансовый временной ряд
+     * @throws IOException если произошла ошибка ввода-вывода или формат файла не поддерживается
+     * @see Series#read(Path)
+     */
+    public static FinSeries read(final Path path) throws IOException {
+        return read(path, Set.of());
+    }
+
+    /**
+     * Прочитать финансовый временной ряд из файла, записанного методом {@link #write(Path)}.
+     *
+     * @param path        путь к файлу
+     * @param objectTypes классы, допустимые в колонках объектов
+     * @return финансовый временной ряд
+     * @throws IOException если произошла ошибка ввода-вывода, формат файла не поддерживается
+     *                     или класс значений колонки объектов не допускается
+     * @see Series#read(Path, Set)
+     */
+    public static FinSeries read(final Path path, final Set<Class<?>> objectTypes) throws IOException {
+        final FinSeries series = new FinSeries();
+        SeriesSnapshot.read(path, series, objectTypes);
+        return series;
+    }
+
     public FinSeries subSeries(final long timeCodeFrom, final long timeCodeTill) {
         final LongColumn timeCode = timeCode();
         final int len = timeCode.length();
@@ -327,4 +587,8 @@ public class FinSeries extends Series {
     public FinSeries sortByTimeCode() {
         return (FinSeries) sortBy(timeCode());
     }
+
+    public FinSeries parallelSortByTimeCode() {
+        return (FinSeries) parallelSortBy(timeCode());
+    }
 }
@@ -0,0 +1,142 @@
+package com.algotrading.base.core.series;
+
+import com.algotrading.base.core.columns.AbstractColumn;
+import com.algotrading.base.core.columns.Column;
+import com.algotrading.base.core.columns.DoubleColumn;
+import com.algotrading.base.core.columns.FloatColumn;
+import com.algotrading.base.core.columns.IntColumn;
+import com.algotrading.base.core.columns.LongColumn;
+import com.algotrading.base.core.columns.StringColumn;
+
+/**
+ * Курсор для последовательного доступа к строкам временного ряда.
+ * <p>
+ * Значения полей строки читаются и записываются по номерам колонок в схеме временного ряда без поиска
+ * колонок по названию и без создания объектов:
+ * <pre>{@code
+ * final RowCursor cursor = series.cursor();
+ * final int price = cursor.schema().slot("Price");
+ * while (cursor.next()) {
+ *     sum += cursor.getDouble(price);
+ * }
+ * }</pre>
+ * Курсор действителен, пока не изменился набор колонок временного ряда. Количество строк определяется
+ * в момент создания курсора.
+ */
+public final class RowCursor {
+
+    private final SeriesSchema schema;
+    private final AbstractColumn[] columns;
+    private final int length;
+    private int row = -1;
+
+    RowCursor(final SeriesSchema schema, final AbstractColumn[] columns, final int length) {
+        this.schema = schema;
+        this.columns = columns;
+        this.length = length;
+    }
+
+    /**
+     * @return схема временного ряда
+     */
+    public SeriesSchema schema() {
+        return schema;
+    }
+
+    /**
+     * @return количество строк
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return индекс текущей строки
+     */
+    public int row() {
+        return row;
+    }
+
+    /**
+     * Перейти к следующей строке.
+     *
+     * @return {@code true}, если строка существует
+     */
+    public boolean next() {
+        if (row < length) {
+            row++;
+        }
+        return row < length;
+    }
+
+    /**
+     * Перейти к строке с заданным индексом.
+     *
+     * @param row индекс строки
+     * @return этот курсор
+     */
+    public RowCursor moveTo(final int row) {
+        if (row < 0 || row >= length) {
+            throw new IndexOutOfBoundsException("row=" + row + ", length=" + length);
+        }
+        this.row = row;
+        return this;
+    }
+
+    /**
+     * Установить курсор перед первой строкой.
+     */
+    public void reset() {
+        row = -1;
+    }
+
+    public double getDouble(final int slot) {
+        return ((DoubleColumn) columns[slot]).get(row);
+    }
+
+    public float getFloat(final int slot) {
+        return ((FloatColumn) columns[slot]).getFloat(row);
+    }
+
+    public long getLong(final int slot) {
+        return ((LongColumn) columns[slot]).get(row);
+    }
+
+    public int getInt(final int slot) {
+        return ((IntColumn) columns[slot]).get(row);
+    }
+
+    public String getString(final int slot) {
+        return ((StringColumn) columns[slot]).get(row);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(final int slot) {
+        return ((Column<T>) columns[slot]).get(row);
+    }
+
+    public void setDouble(final int slot, final double value) {
+        ((DoubleColumn) columns[slot]).set(row, value);
+    }
+
+    public void setFloat(final int slot, final float value) {
+        ((FloatColumn) columns[slot]).setFloat(row, value);
+    }
+
+    public void setLong(final int slot, final long value) {
+        ((LongColumn) columns[slot]).set(row, value);
+    }
+
+    public void setInt(final int slot, final int value) {
+        ((IntColumn) columns[slot]).set(row, value);
+    }
+
+    public void setString(final int slot, final String value) {
+        ((StringColumn) columns[slot]).set(row, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> void set(final int slot, final T value) {
+        ((Column<T>) columns[slot]).set(row, value);
+    }
+}
@@ -3,6 +3,8 @@ package com.algotrading.base.core.series;
 import com.algotrading.base.core.columns.*;
 import com.algotrading.base.core.values.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.function.Supplier;
 
@@ -19,7 +21,60 @@ public class Series {
     /**
      * Набор именованных колонок.
      */
-    protected final Map<String, AbstractColumn> columnMap = new LinkedHashMap<>();
+    protected final Map<String, AbstractColumn> columnMap;
+    /**
+     * {@code true}, если временной ряд является неизменяемым снимком, см. {@link #freeze()}.
+     */
+    private final boolean frozen;
+    /**
+     * Колонки в порядке следования, вычисляемые при первом обращении после изменения набора колонок.
+     * Поле volatile, так как неизменяемый снимок временного ряда читается несколькими потоками.
+     */
+    private volatile AbstractColumn[] columnArray;
+    /**
+     * Схема временного ряда, вычисляемая при первом обращении после изменения набора колонок.
+     */
+    private volatile SeriesSchema schema;
+
+    public Series() {
+        columnMap = new LinkedHashMap<>();
+        frozen = false;
+    }
+
+    /**
+     * Создать неизменяемый снимок временного ряда с данными колонками, доступными только для чтения.
+     * Набор колонок присваивается final-полю в конструкторе, поэтому снимок можно передавать другим потокам
+     * без синхронизации.
+     *
+     * @param frozenColumns колонки снимка
+     */
+    Series(final Map<String, AbstractColumn> frozenColumns) {
+        columnMap = Collections.unmodifiableMap(frozenColumns);
+        frozen = true;
+    }
+
+    /**
+     * Сбросить вычисленные по набору колонок данные. Метод должен вызываться после каждого добавления,
+     * удаления или замены колонки в {@link #columnMap} в обход методов этого класса.
+     */
+    protected void columnsChanged() {
+        columnArray = null;
+        schema = null;
+    }
+
+    private AbstractColumn[] columnArray() {
+        AbstractColumn[] columns = columnArray;
+        if (columns == null) {
+            columns = columnMap.values().toArray(new AbstractColumn[0]);
+            columnArray = columns;
+        }
+        return columns;
+    }
+
+    private <C extends AbstractColumn> C added(final C column) {
+        columnsChanged();
+        return column;
+    }
 
     public Series ensureCapacity(final int capacity) {
         columnMap.values().forEach(column -> column.ensureCapacity(capacity));
@@ -31,6 +86,11 @@ public class Series {
         return this;
     }
 
+    public Series withFloatColumn(final String name) {
+        acquireFloatColumn(name);
+        return this;
+    }
+
     public Series withLongColumn(final String name) {
         acquireLongColumn(name);
         return this;
@@ -46,13 +106,24 @@ public class Series {
         return this;
     }
 
+    /**
+     * Добавить строковую колонку типа {@link SymbolColumn} с собственным словарём.
+     *
+     * @param name название колонки
+     * @return этот временной ряд
+     */
+    public Series withSymbolColumn(final String name) {
+        acquireStringColumn(name, () -> new SymbolColumn(name, new SymbolDictionary(), length()));
+        return this;
+    }
+
     public <T> Series withColumn(final String name, final Class<T> type) {
         acquireColumn(name, type);
         return this;
     }
 
     public DoubleColumn acquireDoubleColumn(final String name) {
-        return (DoubleColumn) columnMap.computeIfAbsent(name, n -> new DoubleColumn(n, length()));
+        return (DoubleColumn) columnMap.computeIfAbsent(name, n -> added(new DoubleColumn(n, length())));
     }
 
     public DoubleColumn acquireDoubleColumn(final String name, final Supplier<? extends DoubleColumn> supplier) {
@@ -60,12 +131,25 @@ public class Series {
         if (column == null) {
             column = supplier.get();
             columnMap.put(name, column);
+            columnsChanged();
         }
         return column;
     }
 
+    /**
+     * Получить колонку типа {@link FloatColumn}, создав её при отсутствии.
+     * Колонка может использоваться везде, где ожидается {@link DoubleColumn}, например, в индикаторах,
+     * если создать её до вычисления индикатора.
+     *
+     * @param name название колонки
+     * @return колонка
+     */
+    public FloatColumn acquireFloatColumn(final String name) {
+        return (FloatColumn) columnMap.computeIfAbsent(name, n -> added(new FloatColumn(n, length())));
+    }
+
     public LongColumn acquireLongColumn(final String name) {
-        return (LongColumn) columnMap.computeIfAbsent(name, n -> new LongColumn(n, length()));
+        return (LongColumn) columnMap.computeIfAbsent(name, n -> added(new LongColumn(n, length())));
     }
 
     public LongColumn acquireLongColumn(final String name, final Supplier<? extends LongColumn> supplier) {
@@ -73,12 +157,13 @@ public class Series {
         if (column == null) {
             column = supplier.get();
             columnMap.put(name, column);
+            columnsChanged();
         }
         return column;
     }
 
     public IntColumn acquireIntColumn(final String name) {
-        return (IntColumn) columnMap.computeIfAbsent(name, n -> new IntColumn(n, length()));
+        return (IntColumn) columnMap.computeIfAbsent(name, n -> added(new IntColumn(n, length())));
     }
 
     public IntColumn acquireIntColumn(final String name,
@@ -87,12 +172,13 @@ public class Series {
         if (column == null) {
             column = supplier.get();
             columnMap.put(name, column);
+            columnsChanged();
         }
         return column;
     }
 
     public StringColumn acquireStringColumn(final String name) {
-        return (StringColumn) columnMap.computeIfAbsent(name, n -> new StringColumn(n, length()));
+        return (StringColumn) columnMap.computeIfAbsent(name, n -> added(new StringColumn(n, length())));
     }
 
     public StringColumn acquireStringColumn(final String name, final Supplier<? extends StringColumn> supplier) {
@@ -100,6 +186,7 @@ public class Series {
         if (column == null) {
             column = supplier.get();
             columnMap.put(name, column);
+            columnsChanged();
         }
         return column;
     }
@@ -110,6 +197,7 @@ public class Series {
         if (column == null) {
             column = new Column<>(name, type, length());
             columnMap.put(name, column);
+            columnsChanged();
         }
         if (column.type() != type) {
             throw new ClassCastException("Existing column type " + column.type() + " mismatch argument type " + type);
@@ -121,6 +209,10 @@ public class Series {
         return (DoubleColumn) columnMap.get(name);
     }
 
+    public FloatColumn getFloatColumn(final String name) {
+        return (FloatColumn) columnMap.get(name);
+    }
+
     public LongColumn getLongColumn(final String name) {
         return (LongColumn) columnMap.get(name);
     }
@@ -139,6 +231,7 @@ public class Series {
     }
 
     public AbstractColumn removeColumn(final String name) {
+        columnsChanged();
         return columnMap.remove(name);
     }
 
@@ -152,19 +245,56 @@ public class Series {
     }
 
     public Collection<AbstractColumn> columns() {
-        return columnMap.values();
+        return Collections.unmodifiableCollection(columnMap.values());
+    }
+
+    /**
+     * Получить схему временного ряда: названия и типы колонок с номерами в порядке следования.
+     * <p>
+     * Номер колонки, полученный из схемы однократно, позволяет обращаться к колонке методом {@link #column(int)}
+     * и к значениям строк через {@link RowCursor} без поиска колонки по названию.
+     *
+     * @return схема временного ряда
+     */
+    public SeriesSchema schema() {
+        SeriesSchema s = schema;
+        if (s == null) {
+            s = new SeriesSchema(columnArray());
+            schema = s;
+        }
+        return s;
+    }
+
+    /**
+     * @param slot номер колонки в схеме временного ряда
+     * @return колонка
+     * @see #schema()
+     */
+    public AbstractColumn column(final int slot) {
+        return columnArray()[slot];
+    }
+
+    /**
+     * Получить курсор для последовательного доступа к строкам временного ряда.
+     *
+     * @return курсор, установленный перед первой строкой
+     */
+    public RowCursor cursor() {
+        return new RowCursor(schema(), columnArray(), length());
     }
 
     public int length() {
-        int length = -1;
-        for (final AbstractColumn column : columnMap.values()) {
-            if (length == -1) {
-                length = column.length();
-            } else if (length != column.length()) {
-                throw new IllegalStateException("Column length mismatch for " + column);
+        final AbstractColumn[] columns = columnArray();
+        if (columns.length == 0) {
+            return 0;
+        }
+        final int length = columns[0].length();
+        for (int i = 1; i < columns.length; i++) {
+            if (length != columns[i].length()) {
+                throw new IllegalStateException("Column length mismatch for " + columns[i]);
             }
         }
-        return (length == -1) ? 0 : length;
+        return length;
     }
 
     public void setLength(final int newLength) {
@@ -208,13 +338,18 @@ public class Series {
     }
 
     public Series append(final Series series, final int rowId) {
-        for (final AbstractColumn column : columnMap.values()) {
+        final AbstractColumn[] columns = columnArray();
+        // при совпадении схем колонки сопоставляются по номерам, без поиска по названию
+        final AbstractColumn[] sources = schema().equals(series.schema()) ? series.columnArray() : null;
+        for (int i = 0; i < columns.length; i++) {
+            final AbstractColumn column = columns[i];
+            final AbstractColumn source = (sources != null) ? sources[i] : series.columnMap.get(column.name());
             switch (column) {
-                case final DoubleColumn doubleColumn -> doubleColumn.append(series.getDoubleColumn(column.name()).get(rowId));
-                case final LongColumn longColumn -> longColumn.append(series.getLongColumn(column.name()).get(rowId));
-                case final IntColumn intColumn -> intColumn.append(series.getIntColumn(column.name()).get(rowId));
-                case final StringColumn stringColumn -> stringColumn.append(series.getStringColumn(column.name()).get(rowId));
-                case final Column<?> objColumn -> objColumn.append((Column<?>) series.getColumn(column.name()).get(rowId));
+                case final DoubleColumn doubleColumn -> doubleColumn.append(((DoubleColumn) source).get(rowId));
+                case final LongColumn longColumn -> longColumn.append(((LongColumn) source).get(rowId));
+                case final IntColumn intColumn -> intColumn.append(((IntColumn) source).get(rowId));
+                case final StringColumn stringColumn -> stringColumn.append(((StringColumn) source).get(rowId));
+                case final Column<?> objColumn -> objColumn.append((Column<?>) ((Column<?>) source).get(rowId));
                 case null, default -> throw new ClassCastException("Unknown column type: " + column.getClass());
             }
         }
@@ -259,8 +394,9 @@ public class Series {
 
     public String getAsString(final int index, final String separator) {
         final StringBuilder sb = new StringBuilder();
-        for (final AbstractColumn column : columnMap.values()) {
+        for (final AbstractColumn column : columnArray()) {
             switch (column) {
+                case final FloatColumn floatColumn -> sb.append(floatColumn.getFloat(index));
                 case final DoubleColumn doubleColumn -> sb.append(doubleColumn.get(index));
                 case final LongColumn longColumn -> sb.append(longColumn.get(index));
                 case final IntColumn intColumn -> sb.append(intColumn.get(index));
@@ -301,51 +437,351 @@ public class Series {
         return series;
     }
 
+    /**
+     * Создать временной ряд того же типа с теми же колонками без копирования колонок.
+     * <p>
+     * Добавление и удаление колонок в созданном временном ряду не влияет на этот временной ряд.
+     */
+    Series shallowCopy() {
+        final Series series = new Series();
+        series.columnMap.putAll(columnMap);
+        series.columnsChanged();
+        return series;
+    }
+
+    /**
+     * Получить неизменяемый снимок временного ряда.
+     * <p>
+     * Данные колонок копируются один раз, колонки снимка доступны только для чтения, а набор колонок
+     * снимка изменить нельзя. Поэтому один снимок можно без синхронизации и без копирования использовать
+     * в любом количестве потоков, например, при параллельном переборе параметров стратегии. Индикаторы
+     * и производные колонки каждый поток вычисляет в собственном наложении, см. {@link #overlay()}.
+     * Снимок снимка -- он сам.
+     * <p>
+     * Чтение снимка из нескольких потоков безопасно для колонок всех классов этого пакета. Колонки копируются
+     * методом {@link AbstractColumn#copy()}, кроме двух случаев. Сжатые колонки ({@link CompressedDoubleColumn},
+     * {@link CompressedLongColumn}) при чтении распаковывают блок во внутренний буфер, поэтому копируются
+     * в {@link DoubleColumn} и {@link LongColumn}. Колонки {@link SymbolColumn} копируются вместе со словарём,
+     * колонки снимка с общим словарём получают общую копию словаря. Для колонок других классов безопасность
+     * чтения определяется их методом {@code copy()}.
+     *
+     * @return неизменяемый снимок временного ряда
+     */
+    public Series freeze() {
+        return frozen ? this : new Series(frozenColumns());
+    }
+
+    /**
+     * @return {@code true}, если временной ряд является неизменяемым снимком, см. {@link #freeze()}
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * @return копии колонок, обёрнутые в представления, доступные только для чтения, см. {@link #freeze()}
+     */
+    Map<String, AbstractColumn> frozenColumns() {
+        final Map<String, AbstractColumn> columns = new LinkedHashMap<>();
+        final Map<SymbolDictionary, SymbolDictionary> dictionaries = new IdentityHashMap<>();
+        columnMap.forEach((key, value) -> columns.put(key, frozenCopy(value, dictionaries).view(0, value.length())));
+        return columns;
+    }
+
+    /**
+     * Скопировать колонку для неизменяемого снимка так, чтобы копию можно было читать из нескольких потоков.
+     *
+     * @param column       колонка
+     * @param dictionaries соответствие словарь колонки -> копия словаря для колонок {@link SymbolColumn}
+     * @return копия колонки
+     */
+    private static AbstractColumn frozenCopy(final AbstractColumn column,
+                                             final Map<SymbolDictionary, SymbolDictionary> dictionaries) {
+        switch (column) {
+            case final CompressedDoubleColumn compressed -> {
+                return new DoubleColumn(compressed.name()).append(compressed);
+            }
+            case final CompressedLongColumn compressed -> {
+                return new LongColumn(compressed.name()).append(compressed);
+            }
+            case final SymbolColumn symbols -> {
+                final SymbolDictionary dictionary = dictionaries.computeIfAbsent(symbols.dictionary(), source -> {
+                    final SymbolDictionary copy = new SymbolDictionary();
+                    for (int id = 0; id < source.size(); id++) {
+                        copy.acquireId(source.getSymbol(id));
+                    }
+                    return copy;
+                });
+                final SymbolColumn copy = new SymbolColumn(symbols.name(), dictionary, symbols.length());
+                for (int i = 0; i < symbols.length(); i++) {
+                    copy.setId(i, symbols.getId(i));
+                }
+                return copy;
+            }
+            default -> {
+                return column.copy();
+            }
+        }
+    }
+
+    /**
+     * Получить наложение -- временной ряд, содержащий те же колонки без копирования, к которому можно добавлять
+     * новые колонки, например, результаты индикаторов или {@link DerivedColumns}. Добавленные колонки
+     * не видны в этом временном ряду. Если этот ряд -- неизменяемый снимок, колонки наложения, взятые из него,
+     * доступны только для чтения.
+     *
+     * @return наложение
+     */
+    public Series overlay() {
+        return shallowCopy();
+    }
+
+    /**
+     * Получить представление фрагмента временного ряда [from, to) без копирования данных.
+     * <p>
+     * Колонки представления доступны только для чтения и ссылаются на данные исходных колонок,
+     * поэтому представление действительно, пока не изменены исходные колонки. К представлению
+     * можно добавлять новые колонки. Для получения независимой копии следует использовать {@link #copy()}.
+     *
+     * @param from индекс начала фрагмента (включительно)
+     * @param to   индекс конца фрагмента (не включительно)
+     * @return представление фрагмента временного ряда
+     */
+    public Series view(final int from, final int to) {
+        final Series series = new Series();
+        columnMap.forEach((key, value) -> series.columnMap.put(key, value.view(from, to)));
+        return series;
+    }
+
+    /**
+     * Получить представление временного ряда, состоящее из строк с заданными индексами, без копирования данных.
+     *
+     * @param indices индексы строк исходного временного ряда
+     * @return представление временного ряда
+     * @see #view(int, int)
+     */
+    public Series view(final int[] indices) {
+        final Series series = new Series();
+        columnMap.forEach((key, value) -> series.columnMap.put(key, value.view(indices)));
+        return series;
+    }
+
+    /**
+     * Присоединить к этому временному ряду колонки другого ряда со значениями из последних строк, время которых
+     * не больше времени строк этого ряда. Колонка времени этого ряда имеет то же название, что и в другом ряду.
+     *
+     * @param right           временной ряд, колонки которого присоединяются
+     * @param rightTimeColumn название колонки времени
+     * @param columns         названия присоединяемых колонок
+     * @return этот временной ряд
+     * @see AsOfJoin#join(Series, String, Series, String, AsOfJoin.Direction, long, String...)
+     */
+    public Series asOfJoin(final Series right, final String rightTimeColumn, final String... columns) {
+        return AsOfJoin.join(this, rightTimeColumn, right, rightTimeColumn, AsOfJoin.Direction.BACKWARD,
+                             AsOfJoin.UNLIMITED, columns);
+    }
+
+    /**
+     * Присоединить к этому временному ряду колонки другого ряда "по состоянию на" моменты времени строк этого ряда.
+     *
+     * @param timeColumn      название колонки времени этого ряда
+     * @param right           временной ряд, колонки которого присоединяются
+     * @param rightTimeColumn название колонки времени другого ряда
+     * @param direction       направление поиска строки другого ряда
+     * @param tolerance       максимальное расстояние между значениями времени строк или {@link AsOfJoin#UNLIMITED}
+     * @param columns         названия присоединяемых колонок
+     * @return этот временной ряд
+     * @see AsOfJoin#join(Series, String, Series, String, AsOfJoin.Direction, long, String...)
+     */
+    public Series asOfJoin(final String timeColumn,
+                           final Series right,
+                           final String rightTimeColumn,
+                           final AsOfJoin.Direction direction,
+                           final long tolerance,
+                           final String... columns) {
+        return AsOfJoin.join(this, timeColumn, right, rightTimeColumn, direction, tolerance, columns);
+    }
+
+    /**
+     * Записать временной ряд в файл в бинарном колоночном формате.
+     *
+     * @param path путь к файлу
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    public void write(final Path path) throws IOException {
+        SeriesSnapshot.write(this, path);
+    }
+
+    /**
+     * Прочитать временной ряд из файла, записанного методом {@link #write(Path)}.
+     * <p>
+     * Колонки типа double, long, int не разбираются построчно, а отображаются в память и восстанавливаются
+     * с теми же классами, что и при записи; колонки вне кучи используют отображённые данные без копирования,
+     * изменения их данных в файл не записываются. Колонки объектов могут содержать только объекты стандартных
+     * классов из пакетов {@code java.lang}, {@code java.math}, {@code java.time}, для других классов
+     * следует использовать метод {@link #read(Path, Set)}.
+     *
+     * @param path путь к файлу
+     * @return временной ряд
+     * @throws IOException если произошла ошибка ввода-вывода или формат файла не поддерживается
+     */
+    public static Series read(final Path path) throws IOException {
+        return read(path, Set.of());
+    }
+
+    /**
+     * Прочитать временной ряд из файла, записанного методом {@link #write(Path)}, см. {@link #read(Path)}.
+     * <p>
+     * Колонки объектов могут содержать объекты стандартных классов из пакетов {@code java.lang}, {@code java.math},
+     * {@code java.time} и объекты данных классов (но не их подклассов). Если класс значений колонки объектов
+     * не входит в этот набор, файл не читается.
+     *
+     * @param path        путь к файлу
+     * @param objectTypes классы, допустимые в колонках объектов
+     * @return временной ряд
+     * @throws IOException если произошла ошибка ввода-вывода, формат файла не поддерживается
+     *                     или класс значений колонки объектов не допускается
+     */
+    public static Series read(final Path path, final Set<Class<?>> objectTypes) throws IOException {
+        final Series series = new Series();
+        SeriesSnapshot.read(path, series, objectTypes);
+        return series;
+    }
+
+    /**
+     * Устойчиво отсортировать строки временного ряда по возрастанию значений в колонке.
+     *
+     * @param longColumn колонка временного ряда
+     * @return этот временной ряд
+     */
     public Series sortBy(final LongColumn longColumn) {
+        return sortBy(longColumn, false);
+    }
+
+    /**
+     * Устойчиво отсортировать строки временного ряда по возрастанию значений в колонке,
+     * используя несколько потоков.
+     *
+     * @param longColumn колонка временного ряда
+     * @return этот временной ряд
+     */
+    public Series parallelSortBy(final LongColumn longColumn) {
+        return sortBy(longColumn, true);
+    }
+
+    private Series sortBy(final LongColumn longColumn, final boolean parallel) {
         checkColumn(longColumn);
-        final int len = longColumn.length();
-        final LongInt[] array = new LongInt[len];
-        for (int i = 0; i < len; i++) {
-            array[i] = new LongInt(longColumn.get(i), i);
-        }
-        Arrays.sort(array, Comparator.comparingLong(o -> o.value));
-        reorderBy(array);
+        final long[] keys = new long[longColumn.length()];
+        longColumn.get(0, keys, 0, keys.length);
+        reorderBy(SortIndices.sort(keys, parallel), parallel);
         return this;
     }
 
+    /**
+     * Устойчиво отсортировать строки временного ряда по возрастанию значений в колонке
+     * в порядке {@link Double#compare(double, double)}.
+     *
+     * @param doubleColumn колонка временного ряда
+     * @return этот временной ряд
+     */
     public Series sortBy(final DoubleColumn doubleColumn) {
+        return sortBy(doubleColumn, false);
+    }
+
+    /**
+     * Устойчиво отсортировать строки временного ряда по возрастанию значений в колонке
+     * в порядке {@link Double#compare(double, double)}, используя несколько потоков.
+     *
+     * @param doubleColumn колонка временного ряда
+     * @return этот временной ряд
+     */
+    public Series parallelSortBy(final DoubleColumn doubleColumn) {
+        return sortBy(doubleColumn, true);
+    }
+
+    private Series sortBy(final DoubleColumn doubleColumn, final boolean parallel) {
         checkColumn(doubleColumn);
         final int len = doubleColumn.length();
-        final DoubleInt[] array = new DoubleInt[len];
+        final long[] keys = new long[len];
         for (int i = 0; i < len; i++) {
-            array[i] = new DoubleInt(doubleColumn.get(i), i);
+            keys[i] = SortIndices.sortableLong(doubleColumn.get(i));
         }
-        Arrays.sort(array, Comparator.comparingDouble(o -> o.value));
-        reorderBy(array);
+        reorderBy(SortIndices.sort(keys, parallel), parallel);
         return this;
     }
 
+    /**
+     * Устойчиво отсортировать строки временного ряда по возрастанию значений в колонке.
+     *
+     * @param intColumn колонка временного ряда
+     * @return этот временной ряд
+     */
     public Series sortBy(final IntColumn intColumn) {
+        return sortBy(intColumn, false);
+    }
+
+    /**
+     * Устойчиво отсортировать строки временного ряда по возрастанию значений в колонке,
+     * используя несколько потоков.
+     *
+     * @param intColumn колонка временного ряда
+     * @return этот временной ряд
+     */
+    public Series parallelSortBy(final IntColumn intColumn) {
+        return sortBy(intColumn, true);
+    }
+
+    private Series sortBy(final IntColumn intColumn, final boolean parallel) {
         checkColumn(intColumn);
         final int len = intColumn.length();
-        final IntInt[] array = new IntInt[len];
+        final long[] keys = new long[len];
         for (int i = 0; i < len; i++) {
-            array[i] = new IntInt(intColumn.get(i), i);
+            keys[i] = intColumn.get(i);
         }
-        Arrays.sort(array, Comparator.comparingInt(o -> o.value));
-        reorderBy(array);
+        reorderBy(SortIndices.sort(keys, parallel), parallel);
         return this;
     }
 
+    /**
+     * Устойчиво отсортировать строки временного ряда по возрастанию значений в колонке
+     * в лексикографическом порядке.
+     *
+     * @param stringColumn колонка временного ряда
+     * @return этот временной ряд
+     */
     public Series sortBy(final StringColumn stringColumn) {
+        return sortBy(stringColumn, false);
+    }
+
+    /**
+     * Устойчиво отсортировать строки временного ряда по возрастанию значений в колонке
+     * в лексикографическом порядке, используя несколько потоков.
+     *
+     * @param stringColumn колонка временного ряда
+     * @return этот временной ряд
+     */
+    public Series parallelSortBy(final StringColumn stringColumn) {
+        return sortBy(stringColumn, true);
+    }
+
+    private Series sortBy(final StringColumn stringColumn, final boolean parallel) {
         checkColumn(stringColumn);
         final int len = stringColumn.length();
-        final StringInt[] array = new StringInt[len];
+        if (stringColumn instanceof final SymbolColumn symbolColumn) {
+            final int[] ranks = symbolColumn.dictionary().ranks();
+            final long[] keys = new long[len];
+            for (int i = 0; i < len; i++) {
+                final int id = symbolColumn.getId(i);
+                keys[i] = (id < 0) ? -1 : ranks[id];
+            }
+            reorderBy(SortIndices.sort(keys, parallel), parallel);
+            return this;
+        }
+        final String[] keys = new String[len];
         for (int i = 0; i < len; i++) {
-            array[i] = new StringInt(stringColumn.get(i), i);
+            keys[i] = stringColumn.get(i);
         }
-        Arrays.sort(array, Comparator.comparing(o -> o.value));
-        reorderBy(array);
+        reorderBy(SortIndices.sort(keys, parallel), parallel);
         return this;
     }
 
@@ -355,56 +791,11 @@ public class Series {
         }
     }
 
-    private void reorderBy(final Indexed[] array) {
-        final int len = array.length;
-        final int[] indices = new int[len];
-        for (int i = 0; i < len; i++) {
-            indices[i] = array[i].index;
-        }
-        columnMap.forEach((columnName, column) -> column.reorder(indices));
-    }
-
-    private static abstract class Indexed {
-        final int index;
-
-        Indexed(final int index) {
-            this.index = index;
-        }
-    }
-
-    private static class LongInt extends Indexed {
-        final long value;
-
-        LongInt(final long value, final int index) {
-            super(index);
-            this.value = value;
-        }
-    }
-
-    private static class DoubleInt extends Indexed {
-        final double value;
-
-        DoubleInt(final double value, final int index) {
-            super(index);
-            this.value = value;
-        }
-    }
-
-    private static class IntInt extends Indexed {
-        final int value;
-
-        IntInt(final int value, final int index) {
-            super(index);
-            this.value = value;
-        }
-    }
-
-    private static class StringInt extends Indexed {
-        final String value;
-
-        StringInt(final String value, final int index) {
-            super(index);
-            this.value = value;
+    private void reorderBy(final int[] indices, final boolean parallel) {
+        if (parallel && columnMap.size() > 1) {
+            columnMap.values().parallelStream().forEach(column -> column.reorder(indices));
+        } else {
+            columnMap.values().forEach(column -> column.reorder(indices));
         }
     }
 
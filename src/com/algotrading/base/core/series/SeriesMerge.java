@@ -0,0 +1,346 @@
+package com.algotrading.base.core.series;
+
+import com.algotrading.base.core.columns.AbstractColumn;
+import com.algotrading.base.core.columns.Column;
+import com.algotrading.base.core.columns.DoubleColumn;
+import com.algotrading.base.core.columns.IntColumn;
+import com.algotrading.base.core.columns.LongColumn;
+import com.algotrading.base.core.columns.StringColumn;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Слияние нескольких временных рядов, упорядоченных по неубыванию значений колонки времени.
+ * <p>
+ * Результат совпадает с результатом пошагового слияния с помощью
+ * {@link com.algotrading.base.core.sync.Synchronizer}: на каждом шаге берётся наименьшее значение времени
+ * среди текущих строк рядов, и каждый ряд, у которого текущая строка имеет это значение времени,
+ * сдвигается на одну строку. Строки, значения времени которых меньше текущих значений во всех других рядах,
+ * копируются целыми фрагментами.
+ * <p>
+ * Текущие строки рядов хранятся в двоичной куче номеров рядов, упорядоченной по значению времени и номеру ряда.
+ * При параллельном слиянии диапазон значений времени делится на части, которые сливаются независимо.
+ */
+public final class SeriesMerge {
+    /**
+     * Минимальное общее количество строк, начиная с которого слияние выполняется параллельно.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * Правило обработки строк разных рядов с одинаковым значением времени.
+     */
+    public enum Duplicates {
+        /**
+         * Сохранить строки всех рядов в порядке следования рядов в списке.
+         */
+        KEEP_ALL,
+        /**
+         * Сохранить строку ряда, стоящего в списке раньше.
+         */
+        KEEP_FIRST,
+        /**
+         * Сохранить строку ряда, стоящего в списке позже.
+         */
+        KEEP_LAST
+    }
+
+    private SeriesMerge() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Слить финансовые временные ряды по колонке {@link FinSeries#T}.
+     *
+     * @param inputs     временные ряды с одинаковым набором колонок
+     * @param duplicates правило обработки строк с одинаковым значением времени
+     * @param parallel   {@code true}, если большие ряды следует сливать параллельно
+     * @return новый временной ряд с колонками первого ряда
+     */
+    public static FinSeries merge(final List<? extends FinSeries> inputs,
+                                  final Duplicates duplicates,
+                                  final boolean parallel) {
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException("No series to merge");
+        }
+        return merge(inputs, FinSeries.T, duplicates, parallel, inputs.get(0).copy(0, 0));
+    }
+
+    /**
+     * Слить временные ряды и добавить результат в конец временного ряда {@code result}.
+     * <p>
+     * В результат копируются значения только тех колонок, которые есть в {@code result};
+     * эти колонки должны быть в каждом из сливаемых рядов.
+     *
+     * @param inputs         временные ряды, упорядоченные по неубыванию значений колонки времени
+     * @param timeColumnName название колонки времени
+     * @param duplicates     правило обработки строк с одинаковым значением времени
+     * @param parallel       {@code true}, если большие ряды следует сливать параллельно
+     * @param result         временной ряд, куда добавляется результат
+     * @param <S>            тип временного ряда результата
+     * @return временной ряд {@code result}
+     */
+    public static <S extends Series> S merge(final List<? extends Series> inputs,
+                                             final String timeColumnName,
+                                             final Duplicates duplicates,
+                                             final boolean parallel,
+                                             final S result) {
+        final int n = inputs.size();
+        final LongColumn[] times = new LongColumn[n];
+        final AbstractColumn[][] columns = new AbstractColumn[n][];
+        final SeriesSchema schema = result.schema();
+        int total = 0;
+        for (int s = 0; s < n; s++) {
+            final Series input = inputs.get(s);
+            times[s] = input.getLongColumn(timeColumnName);
+            if (times[s] == null) {
+                throw new IllegalArgumentException("Column " + timeColumnName + " not found in " + input);
+            }
+            columns[s] = new AbstractColumn[schema.size()];
+            final SeriesSchema inputSchema = input.schema();
+            for (int c = 0; c < columns[s].length; c++) {
+                columns[s][c] = input.column(inputSchema.slot(schema.name(c)));
+            }
+            total += times[s].length();
+        }
+        final int[] from = new int[n];
+        final int[] to = new int[n];
+        for (int s = 0; s < n; s++) {
+            to[s] = times[s].length();
+        }
+        if (!parallel || total < PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            result.ensureCapacity(result.length() + total);
+            new Merger(times, columns, duplicates, from, to, result).merge();
+            return result;
+        }
+        final long[] bounds = partitionBounds(times, total);
+        final List<Merger> mergers = new ArrayList<>(bounds.length + 1);
+        for (int p = 0; p <= bounds.length; p++) {
+            final int[] partFrom = new int[n];
+            final int[] partTo = new int[n];
+            for (int s = 0; s < n; s++) {
+                partFrom[s] = (p == 0) ? 0 : lowerBound(times[s], 0, to[s], bounds[p - 1]);
+                partTo[s] = (p == bounds.length) ? to[s] : lowerBound(times[s], 0, to[s], bounds[p]);
+            }
+            int partTotal = 0;
+            for (int s = 0; s < n; s++) {
+                partTotal += partTo[s] - partFrom[s];
+            }
+            final Series partResult = result.copy(0, 0);
+            partResult.ensureCapacity(partTotal);
+            mergers.add(new Merger(times, columns, duplicates, partFrom, partTo, partResult));
+        }
+        mergers.parallelStream().forEach(Merger::merge);
+        result.ensureCapacity(result.length() + total);
+        for (final Merger merger : mergers) {
+            for (int c = 0; c < schema.size(); c++) {
+                result.column(c).append(merger.result.column(c));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Выбрать границы частей диапазона времени по квантилям самого длинного ряда.
+     */
+    private static long[] partitionBounds(final LongColumn[] times, final int total) {
+        LongColumn longest = times[0];
+        for (final LongColumn time : times) {
+            if (time.length() > longest.length()) {
+                longest = time;
+            }
+        }
+        final int parts = Math.min(4 * ForkJoinPool.getCommonPoolParallelism(), total / PARALLEL_THRESHOLD);
+        final long[] bounds = new long[parts - 1];
+        int count = 0;
+        for (int p = 1; p < parts; p++) {
+            final long bound = longest.get((int) ((long) longest.length() * p / parts));
+            if (count == 0 || bound > bounds[count - 1]) {
+                bounds[count++] = bound;
+            }
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * @return индекс первой строки в диапазоне [from, to), значение времени которой не меньше {@code t},
+     * или {@code to}, если таких строк нет
+     */
+    private static int lowerBound(final LongColumn time, int from, int to, final long t) {
+        while (from < to) {
+            final int mid = (from + to) >>> 1;
+            if (time.get(mid) < t) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * Слияние диапазонов строк [from[s], to[s]) рядов в один временной ряд.
+     */
+    private static class Merger {
+        private final LongColumn[] times;
+        private final AbstractColumn[][] columns;
+        private final Duplicates duplicates;
+        private final int[] position;
+        private final int[] to;
+        private final Series result;
+        private final AbstractColumn[] resultColumns;
+        private final long[] keys;
+        private final int[] heap;
+        private int size;
+
+        Merger(final LongColumn[] times,
+               final AbstractColumn[][] columns,
+               final Duplicates duplicates,
+               final int[] from,
+               final int[] to,
+               final Series result) {
+            this.times = times;
+            this.columns = columns;
+            this.duplicates = duplicates;
+            position = from;
+            this.to = to;
+            this.result = result;
+            resultColumns = new AbstractColumn[result.schema().size()];
+            for (int c = 0; c < resultColumns.length; c++) {
+                resultColumns[c] = result.column(c);
+            }
+            keys = new long[times.length];
+            heap = new int[times.length];
+        }
+
+        void merge() {
+            for (int s = 0; s < times.length; s++) {
+                if (position[s] < to[s]) {
+                    keys[s] = times[s].get(position[s]);
+                    heap[size] = s;
+                    siftUp(size++);
+                }
+            }
+            final int[] step = new int[times.length];
+            while (size > 0) {
+                final int s = heap[0];
+                final long t = keys[s];
+                final long next = (size == 1) ? Long.MAX_VALUE
+                        : (size == 2) ? keys[heap[1]] : Math.min(keys[heap[1]], keys[heap[2]]);
+                if (next > t) {
+                    // строки со значением времени меньше текущих значений других рядов копируются целиком
+                    final int end = lowerBound(times[s], position[s], to[s], next);
+                    appendRange(s, position[s], end);
+                    advance(s, end);
+                    continue;
+                }
+                int count = 0;
+                while (size > 0 && keys[heap[0]] == t) {
+                    step[count++] = heap[0];
+                    pop();
+                }
+                // номера рядов в порядке следования в списке
+                Arrays.sort(step, 0, count);
+                switch (duplicates) {
+                    case KEEP_ALL -> {
+                        for (int i = 0; i < count; i++) {
+                            appendRow(step[i], position[step[i]]);
+                        }
+                    }
+                    case KEEP_FIRST -> appendRow(step[0], position[step[0]]);
+                    case KEEP_LAST -> appendRow(step[count - 1], position[step[count - 1]]);
+                }
+                for (int i = 0; i < count; i++) {
+                    final int r = step[i];
+                    if (++position[r] < to[r]) {
+                        keys[r] = times[r].get(position[r]);
+                        heap[size] = r;
+                        siftUp(size++);
+                    }
+                }
+            }
+        }
+
+        private void advance(final int s, final int end) {
+            position[s] = end;
+            if (end < to[s]) {
+                keys[s] = times[s].get(end);
+                siftDown(0);
+            } else {
+                pop();
+            }
+        }
+
+        private void pop() {
+            heap[0] = heap[--size];
+            siftDown(0);
+        }
+
+        private boolean less(final int a, final int b) {
+            return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+        }
+
+        private void siftUp(int i) {
+            final int s = heap[i];
+            while (i > 0) {
+                final int parent = (i - 1) >>> 1;
+                if (!less(s, heap[parent])) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = s;
+        }
+
+        private void siftDown(int i) {
+            if (size == 0) {
+                return;
+            }
+            final int s = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!less(heap[child], s)) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = s;
+        }
+
+        private void appendRange(final int s, final int from, final int to) {
+            if (to - from == 1) {
+                appendRow(s, from);
+                return;
+            }
+            for (int c = 0; c < resultColumns.length; c++) {
+                resultColumns[c].append(columns[s][c].view(from, to));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void appendRow(final int s, final int row) {
+            for (int c = 0; c < resultColumns.length; c++) {
+                final AbstractColumn source = columns[s][c];
+                switch (resultColumns[c]) {
+                    case final DoubleColumn doubleColumn -> doubleColumn.append(((DoubleColumn) source).get(row));
+                    case final LongColumn longColumn -> longColumn.append(((LongColumn) source).get(row));
+                    case final IntColumn intColumn -> intColumn.append(((IntColumn) source).get(row));
+                    case final StringColumn stringColumn -> stringColumn.append(((StringColumn) source).get(row));
+                    case final Column<?> objColumn -> ((Column<Object>) objColumn).append(((Column<?>) source).get(row));
+                    default -> throw new ClassCastException("Unknown column type: " + source.getClass());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.algotrading.base.core.series;
+
+import com.algotrading.base.core.columns.AbstractColumn;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Схема временного ряда: названия и типы колонок с номерами в порядке следования колонок.
+ * <p>
+ * Схема позволяет один раз найти номер колонки по названию и затем обращаться к колонке по номеру
+ * (см. {@link Series#column(int)} и {@link RowCursor}). Схема неизменяема и соответствует набору колонок
+ * временного ряда на момент её получения методом {@link Series#schema()}.
+ */
+public final class SeriesSchema {
+
+    private final String[] names;
+    private final Class<?>[] types;
+    private final Map<String, Integer> slots;
+
+    SeriesSchema(final AbstractColumn[] columns) {
+        names = new String[columns.length];
+        types = new Class<?>[columns.length];
+        slots = new HashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            names[i] = columns[i].name();
+            types[i] = columns[i].getClass();
+            slots.put(names[i], i);
+        }
+    }
+
+    /**
+     * @return количество колонок
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @param name название колонки
+     * @return номер колонки
+     * @throws IllegalArgumentException если колонки с таким названием нет
+     */
+    public int slot(final String name) {
+        final Integer slot = slots.get(name);
+        if (slot == null) {
+            throw new IllegalArgumentException("Column " + name + " not found in " + this);
+        }
+        return slot;
+    }
+
+    /**
+     * @param name название колонки
+     * @return {@code true}, если колонка с таким названием есть
+     */
+    public boolean contains(final String name) {
+        return slots.containsKey(name);
+    }
+
+    /**
+     * @param slot номер колонки
+     * @return название колонки
+     */
+    public String name(final int slot) {
+        return names[slot];
+    }
+
+    /**
+     * @param slot номер колонки
+     * @return класс колонки
+     */
+    public Class<?> type(final int slot) {
+        return types[slot];
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof final SeriesSchema that
+               && Arrays.equals(names, that.names)
+               && Arrays.equals(types, that.types);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(names) + Arrays.hashCode(types);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(names[i]).append(':').append(types[i].getSimpleName());
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,671 @@
+package com.algotrading.base.core.series;
+
+import com.algotrading.base.core.columns.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Бинарный колоночный формат для сохранения и быстрой загрузки временных рядов.
+ * <p>
+ * Структура файла (порядок байтов little-endian):
+ * <pre>
+ * заголовок:  magic (8 байт), версия (int), количество колонок (int), длина ряда (int),
+ *             размер каталога колонок в байтах (int);
+ * каталог:    для каждой колонки тип блока данных (byte), вид колонки (byte), название и параметр
+ *             (short + UTF-8), смещение блока данных (long) и размер блока данных (long);
+ * данные:     блоки колонок, выровненные на 8 байт.
+ * </pre>
+ * Блоки колонок типа double, long, int содержат значения без какого-либо кодирования и при чтении
+ * отображаются в память, т.е. построчный разбор не производится. Вид колонки определяет класс, который
+ * восстанавливается при чтении: колонки вне кучи ({@link OffHeapDoubleColumn} и т.п.) используют
+ * отображённые данные без копирования, для обычных, фрагментированных, сжатых и кольцевых колонок
+ * данные копируются из отображённого файла целиком. Колонки {@link FloatColumn} хранят значения
+ * типа float без кодирования, колонки цен {@link TickPriceColumn} -- шаг цены, смещение и количества шагов цены.
+ * <p>
+ * Строковые колонки кодируются словарём (список различных строк и массив номеров строк). Колонки
+ * {@link SymbolColumn} хранят свой словарь и номера строк в нём; колонки, использовавшие общий словарь,
+ * после чтения также используют общий словарь, параметр каталога для них -- название первой колонки
+ * с этим словарём. Колонки объектов --
+ * стандартной сериализацией Java. Допустимые при чтении классы не зависят от содержимого файла: это классы
+ * из пакетов {@code java.lang}, {@code java.math}, {@code java.time} и классы, явно переданные вызывающим кодом.
+ * Колонка объектов, класс значений которой не входит в этот набор, не читается, а поток объектов проверяется
+ * фильтром (см. {@link ObjectInputFilter}), поэтому файл не может создать объекты произвольных классов.
+ * Параметр каталога -- имя класса значений для колонок объектов и способ сжатия для сжатых колонок типа long.
+ */
+final class SeriesSnapshot {
+    /**
+     * Сигнатура файла: "ATSERIES" в кодировке ASCII.
+     */
+    private static final long MAGIC = 0x5345495245535441L;
+    /**
+     * Версия формата.
+     */
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final byte DOUBLE = 1;
+    private static final byte LONG = 2;
+    private static final byte INT = 3;
+    private static final byte STRING = 4;
+    private static final byte OBJECT = 5;
+    private static final byte TICK_PRICE = 6;
+    private static final byte SYMBOL = 7;
+    private static final byte FLOAT = 8;
+
+    /**
+     * Виды колонок типа double, long, int.
+     */
+    private static final byte PLAIN = 0;
+    private static final byte OFF_HEAP = 1;
+    private static final byte CHUNKED = 2;
+    private static final byte COMPRESSED = 3;
+    private static final byte RING = 4;
+
+    /**
+     * Пакеты, классы из которых всегда допускаются при чтении колонок объектов.
+     */
+    private static final Set<String> OBJECT_PACKAGES = Set.of("java.lang", "java.math", "java.time");
+
+    private SeriesSnapshot() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Записать временной ряд в файл.
+     *
+     * @param series временной ряд
+     * @param path   путь к файлу
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    static void write(final Series series, final Path path) throws IOException {
+        final int length = series.length();
+        final List<Entry> entries = new ArrayList<>();
+        final Map<SymbolDictionary, String> dictionaries = new IdentityHashMap<>();
+        int directorySize = 0;
+        for (final AbstractColumn column : series.columns()) {
+            final Entry entry = new Entry(column, length, dictionaries);
+            entries.add(entry);
+            directorySize += entry.directorySize();
+        }
+        long offset = align(HEADER_SIZE + directorySize);
+        for (final Entry entry : entries) {
+            entry.offset = offset;
+            offset = align(offset + entry.size);
+        }
+
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + directorySize).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(MAGIC).putInt(VERSION).putInt(entries.size()).putInt(length).putInt(directorySize);
+        for (final Entry entry : entries) {
+            header.put(entry.type).put(entry.kind);
+            putString(header, entry.name);
+            putString(header, entry.parameter);
+            header.putLong(entry.offset).putLong(entry.size);
+        }
+        header.flip();
+
+        try (final FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header, 0);
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            for (final Entry entry : entries) {
+                if (entry.encoded != null) {
+                    writeFully(channel, ByteBuffer.wrap(entry.encoded), entry.offset);
+                    continue;
+                }
+                switch (entry.column) {
+                    case final FloatColumn floatColumn -> writeFloats(channel, buffer, floatColumn, length, entry.offset);
+                    case final DoubleColumn doubleColumn -> writeDoubles(channel, buffer, doubleColumn, length, entry.offset);
+                    case final LongColumn longColumn -> writeLongs(channel, buffer, longColumn, length, entry.offset);
+                    case final IntColumn intColumn -> writeInts(channel, buffer, intColumn, length, entry.offset);
+                    default -> throw new ClassCastException("Unknown column type: " + entry.column.getClass());
+                }
+            }
+            if (channel.size() < offset) {
+                writeFully(channel, ByteBuffer.allocate((int) (offset - channel.size())), channel.size());
+            }
+        }
+    }
+
+    /**
+     * Прочитать временной ряд из файла. Восстанавливаются колонки тех же классов, что и при записи.
+     * Колонки вне кучи отображаются в память (см. {@link OffHeapDoubleColumn#map}), изменения их данных
+     * в файл не записываются. Представления колонок восстанавливаются как обычные колонки.
+     *
+     * @param path        путь к файлу
+     * @param series      временной ряд без колонок, куда будут добавлены прочитанные колонки
+     * @param objectTypes классы, допустимые в колонках объектов помимо классов из {@link #OBJECT_PACKAGES}
+     * @throws IOException если произошла ошибка ввода-вывода, формат файла не поддерживается
+     *                     или класс значений колонки объектов не допускается
+     */
+    static void read(final Path path, final Series series, final Set<Class<?>> objectTypes) throws IOException {
+        final ByteBuffer directory;
+        final int columnCount;
+        final int length;
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+            if (header.getLong() != MAGIC) {
+                throw new IOException("Not a series snapshot: " + path);
+            }
+            final int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported series snapshot version " + version + ": " + path);
+            }
+            columnCount = header.getInt();
+            length = header.getInt();
+            directory = readFully(channel, HEADER_SIZE, header.getInt());
+        }
+        for (int i = 0; i < columnCount; i++) {
+            final byte type = directory.get();
+            final byte kind = directory.get();
+            final String name = getString(directory);
+            final String parameter = getString(directory);
+            final long offset = directory.getLong();
+            final long size = directory.getLong();
+            final AbstractColumn column = switch (type) {
+                case DOUBLE -> readDoubles(path, name, kind, offset, length);
+                case LONG -> readLongs(path, name, kind, parameter, offset, length);
+                case INT -> readInts(path, name, kind, offset, length);
+                case STRING -> readStrings(path, name, offset, size, length);
+                case SYMBOL -> readSymbols(path, name, parameter, offset, size, length, series);
+                case OBJECT -> readObjects(path, name, parameter, objectTypes, offset, size, length);
+                case TICK_PRICE -> readTickPrices(path, name, offset, size, length);
+                case FLOAT -> readFloats(path, name, offset, length);
+                default -> throw new IOException("Unknown column type " + type + " in " + path);
+            };
+            series.columnMap.put(name, column);
+        }
+        series.columnsChanged();
+    }
+
+    private static DoubleColumn readDoubles(final Path path, final String name, final byte kind,
+                                            final long offset, final int length) throws IOException {
+        final OffHeapDoubleColumn mapped = OffHeapDoubleColumn.map(name, path, offset, length);
+        return switch (kind) {
+            case PLAIN -> new DoubleColumn(name).append(mapped);
+            case OFF_HEAP -> mapped;
+            case CHUNKED -> new ChunkedDoubleColumn(name).append(mapped);
+            case COMPRESSED -> new CompressedDoubleColumn(name).append(mapped);
+            case RING -> new RingDoubleColumn(name).append(mapped);
+            default -> throw new IOException("Unknown kind " + kind + " of double column " + name + " in " + path);
+        };
+    }
+
+    private static LongColumn readLongs(final Path path, final String name, final byte kind, final String codec,
+                                        final long offset, final int length) throws IOException {
+        final OffHeapLongColumn mapped = OffHeapLongColumn.map(name, path, offset, length);
+        return switch (kind) {
+            case PLAIN -> new LongColumn(name).append(mapped);
+            case OFF_HEAP -> mapped;
+            case CHUNKED -> new ChunkedLongColumn(name).append(mapped);
+            case COMPRESSED -> {
+                try {
+                    yield new CompressedLongColumn(name, CompressionCodec.valueOf(codec)).append(mapped);
+                } catch (final IllegalArgumentException e) {
+                    throw new IOException("Unknown codec " + codec + " of column " + name + " in " + path, e);
+                }
+            }
+            case RING -> new RingLongColumn(name).append(mapped);
+            default -> throw new IOException("Unknown kind " + kind + " of long column " + name + " in " + path);
+        };
+    }
+
+    private static IntColumn readInts(final Path path, final String name, final byte kind,
+                                      final long offset, final int length) throws IOException {
+        final OffHeapIntColumn mapped = OffHeapIntColumn.map(name, path, offset, length);
+        return switch (kind) {
+            case PLAIN -> new IntColumn(name).append(mapped);
+            case OFF_HEAP -> mapped;
+            case CHUNKED -> new ChunkedIntColumn(name).append(mapped);
+            default -> throw new IOException("Unknown kind " + kind + " of int column " + name + " in " + path);
+        };
+    }
+
+    private static long align(final long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static void putString(final ByteBuffer bb, final String s) {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        bb.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String getString(final ByteBuffer bb) {
+        final byte[] bytes = new byte[Short.toUnsignedInt(bb.getShort())];
+        bb.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer bb, long position) throws IOException {
+        while (bb.hasRemaining()) {
+            position += channel.write(bb, position);
+        }
+    }
+
+    private static ByteBuffer readFully(final FileChannel channel, long position, final int size) throws IOException {
+        final ByteBuffer bb = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (bb.hasRemaining()) {
+            final int n = channel.read(bb, position);
+            if (n < 0) {
+                throw new EOFException("Unexpected end of series snapshot");
+            }
+            position += n;
+        }
+        return bb.flip();
+    }
+
+    private static void writeDoubles(final FileChannel channel, final ByteBuffer buffer,
+                                     final DoubleColumn column, final int length, long position) throws IOException {
+        final double[] values = new double[BUFFER_SIZE / Double.BYTES];
+        for (int from = 0; from < length; from += values.length) {
+            final int count = Math.min(values.length, length - from);
+            column.get(from, values, 0, count);
+            buffer.clear();
+            buffer.asDoubleBuffer().put(values, 0, count);
+            buffer.limit(count * Double.BYTES);
+            writeFully(channel, buffer, position);
+            position += (long) count * Double.BYTES;
+        }
+    }
+
+    private static void writeFloats(final FileChannel channel, final ByteBuffer buffer,
+                                    final FloatColumn column, final int length, long position) throws IOException {
+        for (int from = 0; from < length; from += BUFFER_SIZE / Float.BYTES) {
+            final int count = Math.min(BUFFER_SIZE / Float.BYTES, length - from);
+            buffer.clear();
+            for (int i = 0; i < count; i++) {
+                buffer.putFloat(column.getFloat(from + i));
+            }
+            buffer.flip();
+            writeFully(channel, buffer, position);
+            position += (long) count * Float.BYTES;
+        }
+    }
+
+    private static FloatColumn readFloats(final Path path, final String name,
+                                          final long offset, final int length) throws IOException {
+        final ByteBuffer bb;
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            bb = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) length * Float.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+        final FloatColumn column = new FloatColumn(name, length);
+        for (int i = 0; i < length; i++) {
+            column.setFloat(i, bb.getFloat());
+        }
+        return column;
+    }
+
+    private static void writeLongs(final FileChannel channel, final ByteBuffer buffer,
+                                   final LongColumn column, final int length, long position) throws IOException {
+        final long[] values = new long[BUFFER_SIZE / Long.BYTES];
+        for (int from = 0; from < length; from += values.length) {
+            final int count = Math.min(values.length, length - from);
+            column.get(from, values, 0, count);
+            buffer.clear();
+            buffer.asLongBuffer().put(values, 0, count);
+            buffer.limit(count * Long.BYTES);
+            writeFully(channel, buffer, position);
+            position += (long) count * Long.BYTES;
+        }
+    }
+
+    private static void writeInts(final FileChannel channel, final ByteBuffer buffer,
+                                  final IntColumn column, final int length, long position) throws IOException {
+        final int[] values = new int[BUFFER_SIZE / Integer.BYTES];
+        for (int from = 0; from < length; from += values.length) {
+            final int count = Math.min(values.length, length - from);
+            column.get(from, values, 0, count);
+            buffer.clear();
+            buffer.asIntBuffer().put(values, 0, count);
+            buffer.limit(count * Integer.BYTES);
+            writeFully(channel, buffer, position);
+            position += (long) count * Integer.BYTES;
+        }
+    }
+
+    /**
+     * Закодировать строковую колонку словарём: количество различных строк, сами строки
+     * (длина в байтах или -1 для {@code null} и байты UTF-8), затем номера строк для всех элементов колонки.
+     */
+    private static byte[] encodeStrings(final StringColumn column, final int length) {
+        final Map<String, Integer> ids = new HashMap<>();
+        final List<byte[]> dictionary = new ArrayList<>();
+        final int[] rowIds = new int[length];
+        int dictionaryBytes = 0;
+        for (int i = 0; i < length; i++) {
+            final String s = column.get(i);
+            if (s == null) {
+                rowIds[i] = -1;
+                continue;
+            }
+            Integer id = ids.get(s);
+            if (id == null) {
+                id = dictionary.size();
+                ids.put(s, id);
+                final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                dictionary.add(bytes);
+                dictionaryBytes += Integer.BYTES + bytes.length;
+            }
+            rowIds[i] = id;
+        }
+        final ByteBuffer bb = ByteBuffer.allocate(Integer.BYTES + dictionaryBytes + length * Integer.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        bb.putInt(dictionary.size());
+        for (final byte[] bytes : dictionary) {
+            bb.putInt(bytes.length).put(bytes);
+        }
+        for (final int id : rowIds) {
+            bb.putInt(id);
+        }
+        return bb.array();
+    }
+
+    private static StringColumn readStrings(final Path path, final String name,
+                                            final long offset, final long size, final int length) throws IOException {
+        final ByteBuffer bb;
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            bb = readFully(channel, offset, Math.toIntExact(size));
+        }
+        final String[] dictionary = new String[bb.getInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            final byte[] bytes = new byte[bb.getInt()];
+            bb.get(bytes);
+            dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        final StringColumn column = new StringColumn(name, length);
+        for (int i = 0; i < length; i++) {
+            final int id = bb.getInt();
+            if (id >= 0) {
+                column.set(i, dictionary[id]);
+            }
+        }
+        return column;
+    }
+
+    /**
+     * Закодировать колонку с кодированием строк словарём: количество строк словаря, строки словаря
+     * в порядке номеров (длина в байтах и байты UTF-8), затем номера строк для всех элементов колонки.
+     * Если словарь уже записан с другой колонкой, записываются только номера строк.
+     */
+    private static byte[] encodeSymbols(final SymbolColumn column, final int length, final boolean withDictionary) {
+        final SymbolDictionary dictionary = column.dictionary();
+        final int dictionarySize = withDictionary ? dictionary.size() : 0;
+        final byte[][] symbols = new byte[dictionarySize][];
+        int dictionaryBytes = 0;
+        for (int id = 0; id < dictionarySize; id++) {
+            symbols[id] = dictionary.getSymbol(id).getBytes(StandardCharsets.UTF_8);
+            dictionaryBytes += Integer.BYTES + symbols[id].length;
+        }
+        final ByteBuffer bb = ByteBuffer.allocate(Integer.BYTES + dictionaryBytes + length * Integer.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        bb.putInt(dictionarySize);
+        for (final byte[] bytes : symbols) {
+            bb.putInt(bytes.length).put(bytes);
+        }
+        for (int i = 0; i < length; i++) {
+            bb.putInt(column.getId(i));
+        }
+        return bb.array();
+    }
+
+    private static SymbolColumn readSymbols(final Path path, final String name, final String dictionaryOwner,
+                                            final long offset, final long size, final int length,
+                                            final Series series) throws IOException {
+        final ByteBuffer bb;
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            bb = readFully(channel, offset, Math.toIntExact(size));
+        }
+        final SymbolDictionary dictionary;
+        if (dictionaryOwner.isEmpty()) {
+            dictionary = new SymbolDictionary();
+        } else if (series.columnMap.get(dictionaryOwner) instanceof final SymbolColumn owner) {
+            dictionary = owner.dictionary();
+        } else {
+            throw new IOException("Dictionary column " + dictionaryOwner + " of " + name + " not found in " + path);
+        }
+        final int dictionarySize = bb.getInt();
+        for (int id = 0; id < dictionarySize; id++) {
+            final byte[] bytes = new byte[bb.getInt()];
+            bb.get(bytes);
+            if (dictionary.acquireId(new String(bytes, StandardCharsets.UTF_8)) != id) {
+                throw new IOException("Duplicate symbol in dictionary of column " + name + " in " + path);
+            }
+        }
+        final SymbolColumn column = new SymbolColumn(name, dictionary, length);
+        for (int i = 0; i < length; i++) {
+            final int id = bb.getInt();
+            if (id < -1 || id >= dictionary.size()) {
+                throw new IOException("Invalid symbol id " + id + " in column " + name + " in " + path);
+            }
+            column.setId(i, id);
+        }
+        return column;
+    }
+
+    /**
+     * Закодировать колонку цен: шаг цены, смещение и количества шагов цены для всех элементов колонки.
+     */
+    private static byte[] encodeTickPrices(final TickPriceColumn column, final int length) {
+        final ByteBuffer bb = ByteBuffer.allocate(2 * Double.BYTES + length * Integer.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        bb.putDouble(column.priceStep()).putDouble(column.offset());
+        for (int i = 0; i < length; i++) {
+            bb.putInt(column.getTicks(i));
+        }
+        return bb.array();
+    }
+
+    private static TickPriceColumn readTickPrices(final Path path, final String name,
+                                                  final long offset, final long size, final int length) throws IOException {
+        final ByteBuffer bb;
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            bb = readFully(channel, offset, Math.toIntExact(size));
+        }
+        final double priceStep = bb.getDouble();
+        final TickPriceColumn column = new TickPriceColumn(name, priceStep, bb.getDouble(), length);
+        for (int i = 0; i < length; i++) {
+            column.setTicks(i, bb.getInt());
+        }
+        return column;
+    }
+
+    private static byte[] encodeObjects(final Column<?> column, final int length) {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            for (int i = 0; i < length; i++) {
+                oos.writeObject(column.get(i));
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Cannot serialize column " + column, e);
+        }
+        return baos.toByteArray();
+    }
+
+    private static Column<?> readObjects(final Path path, final String name, final String typeName,
+                                         final Set<Class<?>> objectTypes,
+                                         final long offset, final long size, final int length) throws IOException {
+        final Class<?> type = objectType(typeName, objectTypes);
+        if (type == null) {
+            throw new IOException("Column value type " + typeName + " of column " + name + " is not allowed");
+        }
+        final ByteBuffer bb;
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            bb = readFully(channel, offset, Math.toIntExact(size));
+        }
+        try (final ObjectInputStream ois = new ObjectInputStream(
+                new ByteArrayInputStream(bb.array(), bb.arrayOffset(), bb.limit()))) {
+            ois.setObjectInputFilter(objectFilter(objectTypes));
+            return readObjects(ois, name, type, length);
+        } catch (final ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Cannot read column " + name + " of " + typeName, e);
+        }
+    }
+
+    /**
+     * Найти класс значений колонки объектов среди допустимых классов. Имя класса берётся из файла, поэтому
+     * класс загружается, только если он из пакетов {@link #OBJECT_PACKAGES}.
+     *
+     * @return класс или {@code null}, если класс не допускается
+     */
+    private static Class<?> objectType(final String typeName, final Set<Class<?>> objectTypes) throws IOException {
+        for (final Class<?> type : objectTypes) {
+            if (type.getName().equals(typeName)) {
+                return type;
+            }
+        }
+        final int dot = typeName.lastIndexOf('.');
+        if (dot < 0 || !OBJECT_PACKAGES.contains(typeName.substring(0, dot))) {
+            return null;
+        }
+        try {
+            return Class.forName(typeName, false, SeriesSnapshot.class.getClassLoader());
+        } catch (final ClassNotFoundException e) {
+            throw new IOException("Unknown column value type " + typeName, e);
+        }
+    }
+
+    /**
+     * Фильтр, допускающий объекты из пакетов {@link #OBJECT_PACKAGES}, объекты данных классов и массивы таких объектов.
+     */
+    private static ObjectInputFilter objectFilter(final Set<Class<?>> objectTypes) {
+        return info -> {
+            Class<?> c = info.serialClass();
+            if (c == null) {
+                return ObjectInputFilter.Status.UNDECIDED;
+            }
+            while (c.isArray()) {
+                c = c.getComponentType();
+            }
+            if (c.isPrimitive() || objectTypes.contains(c) || OBJECT_PACKAGES.contains(c.getPackageName())) {
+                return ObjectInputFilter.Status.ALLOWED;
+            }
+            return ObjectInputFilter.Status.REJECTED;
+        };
+    }
+
+    private static <T> Column<T> readObjects(final ObjectInputStream ois, final String name, final Class<T> type,
+                                             final int length) throws IOException, ClassNotFoundException {
+        final Column<T> column = new Column<>(name, type, length);
+        for (int i = 0; i < length; i++) {
+            final Object value = ois.readObject();
+            if (value != null) {
+                column.set(i, type.cast(value));
+            }
+        }
+        return column;
+    }
+
+    /**
+     * Элемент каталога колонок.
+     */
+    private static class Entry {
+        final AbstractColumn column;
+        final byte type;
+        final byte kind;
+        final String name;
+        final String parameter;
+        final byte[] encoded;
+        final long size;
+        long offset;
+
+        Entry(final AbstractColumn column, final int length, final Map<SymbolDictionary, String> dictionaries) {
+            this.column = column;
+            name = column.name();
+            switch (column) {
+                case final TickPriceColumn tickPriceColumn -> {
+                    type = TICK_PRICE;
+                    kind = PLAIN;
+                    parameter = "";
+                    encoded = encodeTickPrices(tickPriceColumn, length);
+                    size = encoded.length;
+                }
+                case final FloatColumn ignored -> {
+                    type = FLOAT;
+                    kind = PLAIN;
+                    parameter = "";
+                    encoded = null;
+                    size = (long) length * Float.BYTES;
+                }
+                case final DoubleColumn doubleColumn -> {
+                    type = DOUBLE;
+                    kind = switch (doubleColumn) {
+                        case final OffHeapDoubleColumn ignored -> OFF_HEAP;
+                        case final ChunkedDoubleColumn ignored -> CHUNKED;
+                        case final CompressedDoubleColumn ignored -> COMPRESSED;
+                        case final RingDoubleColumn ignored -> RING;
+                        default -> PLAIN;
+                    };
+                    parameter = "";
+                    encoded = null;
+                    size = (long) length * Double.BYTES;
+                }
+                case final LongColumn longColumn -> {
+                    type = LONG;
+                    kind = switch (longColumn) {
+                        case final OffHeapLongColumn ignored -> OFF_HEAP;
+                        case final ChunkedLongColumn ignored -> CHUNKED;
+                        case final CompressedLongColumn ignored -> COMPRESSED;
+                        case final RingLongColumn ignored -> RING;
+                        default -> PLAIN;
+                    };
+                    parameter = (longColumn instanceof final CompressedLongColumn compressed)
+                            ? compressed.codec().name() : "";
+                    encoded = null;
+                    size = (long) length * Long.BYTES;
+                }
+                case final IntColumn intColumn -> {
+                    type = INT;
+                    kind = switch (intColumn) {
+                        case final OffHeapIntColumn ignored -> OFF_HEAP;
+                        case final ChunkedIntColumn ignored -> CHUNKED;
+                        default -> PLAIN;
+                    };
+                    parameter = "";
+                    encoded = null;
+                    size = (long) length * Integer.BYTES;
+                }
+                case final SymbolColumn symbolColumn -> {
+                    type = SYMBOL;
+                    kind = PLAIN;
+                    final String owner = dictionaries.putIfAbsent(symbolColumn.dictionary(), name);
+                    parameter = (owner == null) ? "" : owner;
+                    encoded = encodeSymbols(symbolColumn, length, owner == null);
+                    size = encoded.length;
+                }
+                case final StringColumn stringColumn -> {
+                    type = STRING;
+                    kind = PLAIN;
+                    parameter = "";
+                    encoded = encodeStrings(stringColumn, length);
+                    size = encoded.length;
+                }
+                case final Column<?> objColumn -> {
+                    type = OBJECT;
+                    kind = PLAIN;
+                    parameter = objColumn.type().getName();
+                    encoded = encodeObjects(objColumn, length);
+                    size = encoded.length;
+                }
+                default -> throw new ClassCastException("Unknown column type: " + column.getClass());
+            }
+        }
+
+        int directorySize() {
+            return 1 + 1 + 2 + name.getBytes(StandardCharsets.UTF_8).length
+                   + 2 + parameter.getBytes(StandardCharsets.UTF_8).length + 8 + 8;
+        }
+    }
+}
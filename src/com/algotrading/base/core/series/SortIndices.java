@@ -0,0 +1,286 @@
+package com.algotrading.base.core.series;
+
+import java.io.Serial;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Устойчивая сортировка ключей с вычислением перестановки индексов без создания объекта на каждый элемент.
+ * <p>
+ * Целочисленные ключи сортируются поразрядной сортировкой (LSD radix sort по байтам), строки -- сортировкой
+ * слиянием массива индексов. Параллельный вариант сортирует части массива в пуле потоков
+ * {@link ForkJoinPool#commonPool()} и сливает их с сохранением устойчивости.
+ */
+final class SortIndices {
+    /**
+     * Минимальный размер части массива, сортируемой отдельной задачей при параллельной сортировке.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private SortIndices() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Отобразить число типа double в число типа long с сохранением порядка {@link Double#compare(double, double)}.
+     */
+    static long sortableLong(final double value) {
+        final long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Устойчиво отсортировать ключи по возрастанию.
+     *
+     * @param keys     ключи; после вызова метода массив отсортирован
+     * @param parallel {@code true}, если сортировку следует выполнять параллельно
+     * @return перестановка: на i-м месте стоит исходный индекс i-го по порядку ключа
+     */
+    static int[] sort(final long[] keys, final boolean parallel) {
+        final int len = keys.length;
+        final int[] indices = identity(len);
+        final long[] keysBuffer = new long[len];
+        final int[] indicesBuffer = new int[len];
+        if (parallel && len > PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new LongSortTask(keys, indices, keysBuffer, indicesBuffer, 0, len));
+        } else {
+            radixSort(keys, indices, keysBuffer, indicesBuffer, 0, len);
+        }
+        return indices;
+    }
+
+    /**
+     * Устойчиво отсортировать строки по возрастанию в лексикографическом порядке.
+     *
+     * @param keys     строки (значения {@code null} не допускаются)
+     * @param parallel {@code true}, если сортировку следует выполнять параллельно
+     * @return перестановка: на i-м месте стоит исходный индекс i-й по порядку строки
+     */
+    static int[] sort(final String[] keys, final boolean parallel) {
+        final int len = keys.length;
+        final int[] indices = identity(len);
+        final int[] buffer = new int[len];
+        if (parallel && len > PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new StringSortTask(keys, indices, buffer, 0, len));
+        } else {
+            mergeSort(keys, indices, buffer, 0, len);
+        }
+        return indices;
+    }
+
+    private static int[] identity(final int len) {
+        final int[] indices = new int[len];
+        for (int i = 0; i < len; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    private static void radixSort(final long[] keys, final int[] indices,
+                                  final long[] keysBuffer, final int[] indicesBuffer,
+                                  final int from, final int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(keys, indices, from, to);
+            return;
+        }
+        final int[][] counts = new int[Long.BYTES][256];
+        for (int i = from; i < to; i++) {
+            final long key = keys[i] ^ Long.MIN_VALUE;
+            for (int b = 0; b < Long.BYTES; b++) {
+                counts[b][(int) (key >>> (b << 3)) & 0xFF]++;
+            }
+        }
+        long[] srcKeys = keys;
+        int[] srcIndices = indices;
+        long[] dstKeys = keysBuffer;
+        int[] dstIndices = indicesBuffer;
+        for (int b = 0; b < Long.BYTES; b++) {
+            final int[] count = counts[b];
+            if (count[(int) ((keys[from] ^ Long.MIN_VALUE) >>> (b << 3)) & 0xFF] == to - from) {
+                continue;
+            }
+            int position = from;
+            for (int d = 0; d < 256; d++) {
+                final int c = count[d];
+                count[d] = position;
+                position += c;
+            }
+            final int shift = b << 3;
+            for (int i = from; i < to; i++) {
+                final long key = srcKeys[i];
+                final int p = count[(int) ((key ^ Long.MIN_VALUE) >>> shift) & 0xFF]++;
+                dstKeys[p] = key;
+                dstIndices[p] = srcIndices[i];
+            }
+            final long[] tk = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = tk;
+            final int[] ti = srcIndices;
+            srcIndices = dstIndices;
+            dstIndices = ti;
+        }
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, from, keys, from, to - from);
+            System.arraycopy(srcIndices, from, indices, from, to - from);
+        }
+    }
+
+    private static void insertionSort(final long[] keys, final int[] indices, final int from, final int to) {
+        for (int i = from + 1; i < to; i++) {
+            final long key = keys[i];
+            final int index = indices[i];
+            int j = i - 1;
+            while (j >= from && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                indices[j + 1] = indices[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            indices[j + 1] = index;
+        }
+    }
+
+    /**
+     * Слить отсортированные части [from, mid) и [mid, to) с сохранением устойчивости.
+     */
+    private static void merge(final long[] keys, final int[] indices,
+                              final long[] keysBuffer, final int[] indicesBuffer,
+                              final int from, final int mid, final int to) {
+        if (keys[mid - 1] <= keys[mid]) {
+            return;
+        }
+        int i = from;
+        int j = mid;
+        int k = from;
+        while (i < mid && j < to) {
+            if (keys[j] < keys[i]) {
+                keysBuffer[k] = keys[j];
+                indicesBuffer[k++] = indices[j++];
+            } else {
+                keysBuffer[k] = keys[i];
+                indicesBuffer[k++] = indices[i++];
+            }
+        }
+        while (i < mid) {
+            keysBuffer[k] = keys[i];
+            indicesBuffer[k++] = indices[i++];
+        }
+        while (j < to) {
+            keysBuffer[k] = keys[j];
+            indicesBuffer[k++] = indices[j++];
+        }
+        System.arraycopy(keysBuffer, from, keys, from, to - from);
+        System.arraycopy(indicesBuffer, from, indices, from, to - from);
+    }
+
+    private static void mergeSort(final String[] keys, final int[] indices, final int[] buffer,
+                                  final int from, final int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                final int index = indices[i];
+                int j = i - 1;
+                while (j >= from && keys[indices[j]].compareTo(keys[index]) > 0) {
+                    indices[j + 1] = indices[j];
+                    j--;
+                }
+                indices[j + 1] = index;
+            }
+            return;
+        }
+        final int mid = (from + to) >>> 1;
+        mergeSort(keys, indices, buffer, from, mid);
+        mergeSort(keys, indices, buffer, mid, to);
+        merge(keys, indices, buffer, from, mid, to);
+    }
+
+    private static void merge(final String[] keys, final int[] indices, final int[] buffer,
+                              final int from, final int mid, final int to) {
+        if (keys[indices[mid - 1]].compareTo(keys[indices[mid]]) <= 0) {
+            return;
+        }
+        int i = from;
+        int j = mid;
+        int k = from;
+        while (i < mid && j < to) {
+            if (keys[indices[j]].compareTo(keys[indices[i]]) < 0) {
+                buffer[k++] = indices[j++];
+            } else {
+                buffer[k++] = indices[i++];
+            }
+        }
+        while (i < mid) {
+            buffer[k++] = indices[i++];
+        }
+        while (j < to) {
+            buffer[k++] = indices[j++];
+        }
+        System.arraycopy(buffer, from, indices, from, to - from);
+    }
+
+    private static class LongSortTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final long[] keys;
+        private final int[] indices;
+        private final long[] keysBuffer;
+        private final int[] indicesBuffer;
+        private final int from;
+        private final int to;
+
+        LongSortTask(final long[] keys, final int[] indices,
+                     final long[] keysBuffer, final int[] indicesBuffer,
+                     final int from, final int to) {
+            this.keys = keys;
+            this.indices = indices;
+            this.keysBuffer = keysBuffer;
+            this.indicesBuffer = indicesBuffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                radixSort(keys, indices, keysBuffer, indicesBuffer, from, to);
+                return;
+            }
+            final int mid = (from + to) >>> 1;
+            invokeAll(new LongSortTask(keys, indices, keysBuffer, indicesBuffer, from, mid),
+                    new LongSortTask(keys, indices, keysBuffer, indicesBuffer, mid, to));
+            merge(keys, indices, keysBuffer, indicesBuffer, from, mid, to);
+        }
+    }
+
+    private static class StringSortTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final String[] keys;
+        private final int[] indices;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+
+        StringSortTask(final String[] keys, final int[] indices, final int[] buffer, final int from, final int to) {
+            this.keys = keys;
+            this.indices = indices;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                mergeSort(keys, indices, buffer, from, to);
+                return;
+            }
+            final int mid = (from + to) >>> 1;
+            invokeAll(new StringSortTask(keys, indices, buffer, from, mid),
+                    new StringSortTask(keys, indices, buffer, mid, to));
+            merge(keys, indices, buffer, from, mid, to);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.algotrading.base.core.series;
+
+import com.algotrading.base.core.columns.DoubleColumn;
+import com.algotrading.base.core.columns.LongColumn;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * Свечи одного таймфрейма, полученные сжатием исходного временного ряда методом
+ * {@link FinSeries#compressedCandles(TimeframeSpec...)}, вместе с соответствием между строками исходного
+ * временного ряда и свечами.
+ * <p>
+ * Соответствие вычисляется при сжатии, поэтому получение свечи по строке исходного временного ряда
+ * не требует двоичного поиска, как в {@link com.algotrading.base.core.sync.TimeframeCouple}.
+ */
+public final class TimeframeCandles {
+    private final TimeframeSpec timeframe;
+    private final FinSeries candles;
+    private final int[] candleIndices;
+    private final int[] firstSourceIndices;
+    private final int[] lastSourceIndices;
+
+    private TimeframeCandles(final TimeframeSpec timeframe,
+                             final FinSeries candles,
+                             final int[] candleIndices,
+                             final int[] firstSourceIndices,
+                             final int[] lastSourceIndices) {
+        this.timeframe = timeframe;
+        this.candles = candles;
+        this.candleIndices = candleIndices;
+        this.firstSourceIndices = firstSourceIndices;
+        this.lastSourceIndices = lastSourceIndices;
+    }
+
+    public TimeframeSpec timeframe() {
+        return timeframe;
+    }
+
+    /**
+     * @return временной ряд свечей
+     */
+    public FinSeries candles() {
+        return candles;
+    }
+
+    /**
+     * Получить индекс свечи, содержащей строку исходного временного ряда. Строка, не прошедшая фильтр
+     * по времени, относится к свече, содержащей предыдущую прошедшую фильтр строку.
+     *
+     * @param sourceIndex индекс строки исходного временного ряда
+     * @return индекс свечи или (-1), если до этой строки включительно ни одна строка не прошла фильтр
+     */
+    public int candleIndex(final int sourceIndex) {
+        return candleIndices[sourceIndex];
+    }
+
+    /**
+     * @param candleIndex индекс свечи
+     * @return индекс первой строки исходного временного ряда, составляющей свечу
+     */
+    public int firstSourceIndex(final int candleIndex) {
+        return firstSourceIndices[candleIndex];
+    }
+
+    /**
+     * @param candleIndex индекс свечи
+     * @return индекс последней строки исходного временного ряда, составляющей свечу
+     */
+    public int lastSourceIndex(final int candleIndex) {
+        return lastSourceIndices[candleIndex];
+    }
+
+    /**
+     * Проверить, является ли строка исходного временного ряда последней строкой, составляющей свечу.
+     *
+     * @param sourceIndex индекс строки исходного временного ряда
+     * @return {@code true} или {@code false}
+     */
+    public boolean isLastSourceIndex(final int sourceIndex) {
+        final int candleIndex = candleIndices[sourceIndex];
+        return candleIndex >= 0 && lastSourceIndices[candleIndex] == sourceIndex;
+    }
+
+    /**
+     * Сжать свечи временного ряда сразу в несколько таймфреймов за один проход.
+     */
+    static TimeframeCandles[] compress(final FinSeries series, final TimeframeSpec... timeframes) {
+        final CandleCompression.Sources sources = new CandleCompression.Sources(series);
+        final LongColumn time = sources.time;
+        final DoubleColumn open = sources.open;
+        final DoubleColumn high = sources.high;
+        final DoubleColumn low = sources.low;
+        final DoubleColumn close = sources.close;
+        final LongColumn volume = sources.volume;
+        final LongColumn oi = sources.oi;
+        final int length = time.length();
+
+        // каждый фильтр вычисляется один раз для всей колонки, даже если он задан для нескольких таймфреймов
+        final Map<LongPredicate, Integer> filterIds = new IdentityHashMap<>();
+        final int[] filterOf = new int[timeframes.length];
+        for (int k = 0; k < timeframes.length; k++) {
+            filterOf[k] = filterIds.computeIfAbsent(timeframes[k].timeFilter(), f -> filterIds.size());
+        }
+        final boolean[][] masks = new boolean[filterIds.size()][];
+        filterIds.forEach((filter, id) -> masks[id] = CandleCompression.accepted(time, filter));
+
+        final Frame[] frames = new Frame[timeframes.length];
+        for (int k = 0; k < frames.length; k++) {
+            frames[k] = new Frame(timeframes[k], length, volume != null, oi != null);
+        }
+        for (int index = 0; index < length; index++) {
+            final long t = time.get(index);
+            final double o = open.get(index);
+            final double h = high.get(index);
+            final double l = low.get(index);
+            final double c = close.get(index);
+            final long v = (volume == null) ? 0L : volume.get(index);
+            final long i = (oi == null) ? 0L : oi.get(index);
+            for (int k = 0; k < frames.length; k++) {
+                final Frame frame = frames[k];
+                final boolean[] mask = masks[filterOf[k]];
+                if (mask == null || mask[index]) {
+                    frame.add(index, t, o, h, l, c, v, i);
+                }
+                frame.candleIndices[index] = frame.count - 1;
+            }
+        }
+        final TimeframeCandles[] result = new TimeframeCandles[frames.length];
+        for (int k = 0; k < frames.length; k++) {
+            result[k] = frames[k].finish();
+        }
+        return result;
+    }
+
+    /**
+     * Состояние сжатия для одного таймфрейма. Значения текущей свечи накапливаются в полях
+     * и записываются в колонки, когда начинается следующая свеча.
+     */
+    private static final class Frame {
+        private final TimeframeSpec timeframe;
+        private final FinSeries candles = new FinSeries();
+        private final LongColumn cTime = candles.acquireLongColumn(FinSeries.T);
+        private final DoubleColumn cOpen = candles.acquireDoubleColumn(FinSeries.O);
+        private final DoubleColumn cHigh = candles.acquireDoubleColumn(FinSeries.H);
+        private final DoubleColumn cLow = candles.acquireDoubleColumn(FinSeries.L);
+        private final DoubleColumn cClose = candles.acquireDoubleColumn(FinSeries.C);
+        private final LongColumn cVolume;
+        private final LongColumn cOi;
+        private final int[] candleIndices;
+        private int[] firstSourceIndices = new int[16];
+        private int[] lastSourceIndices = new int[16];
+        private int count;
+        private long frameStart;
+        private long frameLimit = Long.MIN_VALUE;
+        private double open;
+        private double high;
+        private double low;
+        private double close;
+        private long volume;
+        private long oi;
+
+        Frame(final TimeframeSpec timeframe, final int length, final boolean hasVolume, final boolean hasOi) {
+            this.timeframe = timeframe;
+            cVolume = hasVolume ? candles.acquireLongColumn(FinSeries.V) : null;
+            cOi = hasOi ? candles.acquireLongColumn(FinSeries.OI) : null;
+            candleIndices = new int[length];
+        }
+
+        void add(final int index, final long t, final double o, final double h, final double l, final double c,
+                 final long v, final long i) {
+            if (count > 0 && frameStart <= t && t < frameLimit) {
+                update(index, h, l, c, v, i);
+                return;
+            }
+            final long start = timeframe.timeFrameStart(t);
+            if (count > 0 && start == frameStart) {
+                update(index, h, l, c, v, i);
+                return;
+            }
+            if (count > 0) {
+                flush();
+            }
+            if (count == firstSourceIndices.length) {
+                firstSourceIndices = Arrays.copyOf(firstSourceIndices, 2 * count);
+                lastSourceIndices = Arrays.copyOf(lastSourceIndices, 2 * count);
+            }
+            firstSourceIndices[count] = index;
+            lastSourceIndices[count] = index;
+            count++;
+            frameStart = start;
+            frameLimit = timeframe.timeFrameLimit(start);
+            open = o;
+            high = h;
+            low = l;
+            close = c;
+            volume = v;
+            oi = i;
+        }
+
+        private void update(final int index, final double h, final double l, final double c,
+                            final long v, final long i) {
+            lastSourceIndices[count - 1] = index;
+            high = Math.max(high, h);
+            low = Math.min(low, l);
+            close = c;
+            volume += v;
+            oi = i;
+        }
+
+        private void flush() {
+            cTime.append(frameStart);
+            cOpen.append(open);
+            cHigh.append(high);
+            cLow.append(low);
+            cClose.append(close);
+            if (cVolume != null) {
+                cVolume.append(volume);
+            }
+            if (cOi != null) {
+                cOi.append(oi);
+            }
+        }
+
+        TimeframeCandles finish() {
+            if (count > 0) {
+                flush();
+            }
+            return new TimeframeCandles(timeframe, candles, candleIndices,
+                                        Arrays.copyOf(firstSourceIndices, count),
+                                        Arrays.copyOf(lastSourceIndices, count));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.algotrading.base.core.series;
+
+import com.algotrading.base.core.TimeCodes;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Описание таймфрейма для сжатия свечей методом {@link FinSeries#compressedCandles(TimeframeSpec...)}:
+ * фильтр меток времени и способ вычисления метки времени начала свечи.
+ * <p>
+ * Для таймфреймов, заданных периодом и единицей измерения времени, известны границы текущей свечи,
+ * поэтому при сжатии начало свечи вычисляется только для первой строки каждой свечи.
+ */
+public final class TimeframeSpec {
+    private final LongPredicate timeFilter;
+    private final LongUnaryOperator timeFrameStartFunction;
+    private final int period;
+    private final TimeUnit unit;
+    private final long unitLength;
+    private final long frameLength;
+
+    private TimeframeSpec(final LongPredicate timeFilter,
+                          final LongUnaryOperator timeFrameStartFunction,
+                          final int period,
+                          final TimeUnit unit) {
+        this.timeFilter = (timeFilter == null) ? FinSeries.ALL : timeFilter;
+        this.timeFrameStartFunction = timeFrameStartFunction;
+        this.period = period;
+        this.unit = unit;
+        unitLength = (unit == null) ? 0L : switch (unit) {
+            case DAYS -> 1_00_00_00_000L;
+            case HOURS -> 1_00_00_000L;
+            case MINUTES -> 1_00_000L;
+            default -> 1_000L;
+        };
+        // граница свечи -- её начало плюс длина, например, 10:45 + 15 мин = "10:60",
+        // что больше всех меток времени свечи и не больше 11:00
+        frameLength = period * unitLength;
+    }
+
+    /**
+     * @param timeFilter             фильтр меток времени строк, которые участвуют в сжатии,
+     *                               или {@code null}, если фильтрация не нужна
+     * @param timeFrameStartFunction функция, вычисляющая метку времени начала свечи по метке времени строки
+     * @return таймфрейм с произвольными границами свечей
+     */
+    public static TimeframeSpec of(final LongPredicate timeFilter, final LongUnaryOperator timeFrameStartFunction) {
+        return new TimeframeSpec(timeFilter, Objects.requireNonNull(timeFrameStartFunction), 0, null);
+    }
+
+    /**
+     * @param period период времени (делитель 60 для минут и секунд, делитель 24 для часов)
+     * @param unit   единица измерения времени ({@link TimeUnit#HOURS}, {@link TimeUnit#MINUTES},
+     *               {@link TimeUnit#SECONDS}) или {@link TimeUnit#DAYS}
+     * @return таймфрейм без фильтрации по времени
+     * @see TimeCodes#getTimeFrameStart(long, int, TimeUnit)
+     */
+    public static TimeframeSpec of(final int period, final TimeUnit unit) {
+        return of(FinSeries.ALL, period, unit);
+    }
+
+    /**
+     * @param timeFilter фильтр меток времени строк, которые участвуют в сжатии
+     * @param period     период времени (делитель 60 для минут и секунд, делитель 24 для часов)
+     * @param unit       единица измерения времени ({@link TimeUnit#HOURS}, {@link TimeUnit#MINUTES},
+     *                   {@link TimeUnit#SECONDS}) или {@link TimeUnit#DAYS}
+     * @return таймфрейм
+     * @throws IllegalArgumentException если период или единица измерения времени не поддерживаются
+     */
+    public static TimeframeSpec of(final LongPredicate timeFilter, final int period, final TimeUnit unit) {
+        TimeCodes.getTimeFrameStart(0L, period, unit);
+        return new TimeframeSpec(timeFilter, null, period, unit);
+    }
+
+    /**
+     * @param timeFilter фильтр меток времени строк, которые участвуют в сжатии
+     * @return дневной таймфрейм, как в методе {@link FinSeries#compressedDailyCandles(LongPredicate)}
+     */
+    public static TimeframeSpec daily(final LongPredicate timeFilter) {
+        return of(timeFilter, 1, TimeUnit.DAYS);
+    }
+
+    public LongPredicate timeFilter() {
+        return timeFilter;
+    }
+
+    /**
+     * @param t метка времени
+     * @return метка времени начала свечи, содержащей метку времени {@code t}
+     */
+    public long timeFrameStart(final long t) {
+        if (unit == null) {
+            return timeFrameStartFunction.applyAsLong(t);
+        }
+        // то же, что TimeCodes.getTimeFrameStart(t, period, unit): час, минута и секунда занимают
+        // по два десятичных разряда метки времени, а период в сутках равен 1
+        return t - t % unitLength - (t / unitLength % 100 % period) * unitLength;
+    }
+
+    /**
+     * @param frameStart метка времени начала свечи
+     * @return метка времени, не превосходящая начала следующей свечи и большая всех меток времени свечи,
+     * или {@link Long#MIN_VALUE}, если границы свечи неизвестны
+     */
+    long timeFrameLimit(final long frameStart) {
+        return (unit == null) ? Long.MIN_VALUE : frameStart + frameLength;
+    }
+
+    @Override
+    public String toString() {
+        return (unit == null) ? "TimeframeSpec[" + timeFrameStartFunction + ']'
+                : "TimeframeSpec[" + period + ' ' + unit + ']';
+    }
+}
@@ -1,6 +1,7 @@
 package com.algotrading.base.core.sync;
 
 import com.algotrading.base.core.columns.LongColumn;
+import com.algotrading.base.core.columns.LongSearchIndex;
 
 /**
  * Класс, реализующий выделение моментов времени, когда свеча с короткого таймфрейма является последней свечой,
@@ -16,6 +17,11 @@ public class TimeframeCouple {
      * Колонка timeCode длинного таймфрейма.
      */
     private final LongColumn longTimeCode;
+    /**
+     * Индекс для поиска в колонке timeCode длинного таймфрейма или {@code null}, если не построен.
+     * Используется, если колонка имеет класс {@link LongColumn} и отсортирована, см. {@link #longIndex()}.
+     */
+    private volatile LongSearchIndex longIndex = null;
 
     /**
      * Конструктор.
@@ -45,20 +51,34 @@ public class TimeframeCouple {
         if (tShort > longTimeCode.getLast()) {
             return longTimeCode.length() - 1;
         }
-        int a = 0;
-        int b = longTimeCode.length();
-        do {
-            final int c = (a + b) / 2;
-            final long tLong = longTimeCode.get(c);
-            if (tLong < tShort) {
-                a = c;
-            } else if (tLong > tShort) {
-                b = c;
-            } else {
-                return c;
-            }
-        } while (b - a > 1);
-        return a;
+        final LongSearchIndex index = longIndex();
+        if (index != null && index.isValidFor(longTimeCode)) {
+            return index.floorIndex(tShort);
+        }
+        // колонка изменилась после построения индекса или индекс не используется
+        final int id = longTimeCode.binarySearch(tShort);
+        return (id >= 0) ? id : -id - 2;
+    }
+
+    /**
+     * Получить индекс для поиска в колонке timeCode длинного таймфрейма. Индекс строится при первом поиске
+     * и строится заново, только если колонка с тех пор выросла хотя бы вдвое, поэтому в среднем на каждую
+     * добавленную строку приходится O(1) операций построения. Пока индекс не соответствует колонке,
+     * используется двоичный поиск по колонке.
+     *
+     * @return индекс или {@code null}, если колонка не имеет класс {@link LongColumn} или не отсортирована
+     */
+    private LongSearchIndex longIndex() {
+        if (longTimeCode.getClass() != LongColumn.class) {
+            // изменения подклассов индекс не отслеживает, а их поиск не требует копирования данных
+            return null;
+        }
+        LongSearchIndex index = longIndex;
+        if ((index == null || longTimeCode.length() >= 2 * index.length()) && longTimeCode.isNonDecreasing()) {
+            index = LongSearchIndex.of(longTimeCode);
+            longIndex = index;
+        }
+        return index;
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.algotrading.base.core.tester;
 
 import com.algotrading.base.core.DayTradingSession;
+import com.algotrading.base.core.SessionIndex;
 import com.algotrading.base.core.TimeCodes;
 import com.algotrading.base.core.columns.LongColumn;
 import com.algotrading.base.core.commission.Commission;
@@ -63,6 +64,10 @@ public abstract class MultiSecurityTest {
      * Набор свечных временных рядов.
      */
     protected final Map<String, FinSeries> marketDataMap = new LinkedHashMap<>();
+    /**
+     * Индексы торговых дней временных рядов из набора {@link #marketDataMap}.
+     */
+    private final Map<String, SessionIndex> sessionIndexMap = new HashMap<>();
     /**
      * Капитал для расчёта размера позиции.
      */
@@ -534,11 +539,28 @@ public abstract class MultiSecurityTest {
         getPositionsDifference(oldPositions, newPositions).forEach((secCode, volume) -> {
             final FinSeries series = marketDataMap.get(secCode);
             final int id = synchronizer.getLastIndex(series.timeCode());
-            final double price = series.close().get(getDayCloseId(series.timeCode(), id));
+            final double price = series.close().get(getSessionIndex(secCode).getLastSessionCandleIndex(id));
             Tester.appendOrder(orders, synchronizer.t(), secCode, volume, price, commission, comment);
         });
     }
 
+    /**
+     * Получить индекс торговых дней временного ряда. Индекс строится заново, если колонка timeCode
+     * временного ряда была заменена или изменила длину.
+     *
+     * @param secCode код бумаги
+     * @return индекс торговых дней
+     */
+    protected SessionIndex getSessionIndex(final String secCode) {
+        final LongColumn timeCode = marketDataMap.get(secCode).timeCode();
+        SessionIndex sessionIndex = sessionIndexMap.get(secCode);
+        if (sessionIndex == null || !sessionIndex.isValidFor(timeCode)) {
+            sessionIndex = SessionIndex.of(timeCode);
+            sessionIndexMap.put(secCode, sessionIndex);
+        }
+        return sessionIndex;
+    }
+
     public static int getDayCloseId(final LongColumn timeCode, int id) {
         while (!DayTradingSession.isLastSessionCandle(timeCode, id)) {
             id++;
@@ -320,16 +320,14 @@ public class Position {
                     ordersExecuted.add(o);
                 }
             } else if (activeOrder instanceof final TestStopOrder o) {
-                if (o.volume > 0 && price >= o.price - priceStep / 2
-                        || o.volume < 0 && price <= o.price + priceStep / 2) {
+                if (reached(o.volume, o.price, price)) {
                     o.executionPrice = hasGap ? price : o.price;
                     appendOrder(t, o.volume, o.executionPrice, o.commission, o.comment);
                     i.remove();
                     ordersExecuted.add(o);
                 }
             } else if (activeOrder instanceof final TestTakeStopOrder o) {
-                if (o.volume > 0 && price >= o.stopPrice - priceStep / 2
-                        || o.volume < 0 && price <= o.stopPrice + priceStep / 2) {
+                if (reached(o.volume, o.stopPrice, price)) {
                     o.executionPrice = hasGap ? price : o.stopPrice;
                     o.type = TestTakeStopOrder.Type.StopLoss;
                     appendOrder(t, o.volume, o.executionPrice, o.stopCommission, o.stopComment);
@@ -356,6 +354,43 @@ public class Position {
      * @return {@code true}, если пересечение произошло
      */
     private boolean crossed(final double x, final double a, final double b) {
-        return (a < x && x + priceStep / 2 < b) || (a > x && x - priceStep / 2 > b);
+        if (priceStep > 0) {
+            if (Double.isNaN(a) || Double.isNaN(b)) {
+                return false;
+            }
+            final long xTicks = ticks(x);
+            final long aTicks = ticks(a);
+            final long bTicks = ticks(b);
+            return (aTicks < xTicks && xTicks < bTicks) || (aTicks > xTicks && xTicks > bTicks);
+        }
+        return (a < x && x < b) || (a > x && x > b);
+    }
+
+    /**
+     * Узнать, достигла ли цена стоп-цены заявки с учётом шага цены.
+     *
+     * @param volume    объём заявки со знаком
+     * @param stopPrice стоп-цена
+     * @param price     цена
+     * @return {@code true}, если стоп-цена достигнута
+     */
+    private boolean reached(final long volume, final double stopPrice, final double price) {
+        if (priceStep > 0) {
+            if (Double.isNaN(price)) {
+                return false;
+            }
+            final long stopTicks = ticks(stopPrice);
+            final long priceTicks = ticks(price);
+            return volume > 0 && priceTicks >= stopTicks || volume < 0 && priceTicks <= stopTicks;
+        }
+        return volume > 0 && price >= stopPrice || volume < 0 && price <= stopPrice;
+    }
+
+    /**
+     * @param price цена
+     * @return цена, выраженная в шагах цены
+     */
+    private long ticks(final double price) {
+        return Math.round(price / priceStep);
     }
 }
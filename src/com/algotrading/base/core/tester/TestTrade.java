@@ -71,6 +71,10 @@ public class TestTrade {
      * Колонка с ценами закрытия (для вычисления эквити и просадок).
      */
     final DoubleColumn closeColumn;
+    /**
+     * Номер кода инструмента в словаре колонки заявок (-1, если номер неизвестен).
+     */
+    int securityId = -1;
 
     /**
      * Конструктор.
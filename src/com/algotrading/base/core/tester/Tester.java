@@ -1,19 +1,24 @@
 package com.algotrading.base.core.tester;
 
 import com.algotrading.base.core.TimeCodes;
+import com.algotrading.base.core.columns.ColumnOps;
 import com.algotrading.base.core.columns.DoubleColumn;
+import com.algotrading.base.core.columns.IntColumn;
 import com.algotrading.base.core.columns.LongColumn;
 import com.algotrading.base.core.columns.StringColumn;
+import com.algotrading.base.core.columns.SymbolColumn;
 import com.algotrading.base.core.commission.Commission;
 import com.algotrading.base.core.csv.CsvWriter;
 import com.algotrading.base.core.series.FinSeries;
 import com.algotrading.base.core.series.Series;
+import com.algotrading.base.core.series.SeriesMerge;
 import com.algotrading.base.core.sync.Synchronizer;
 
 import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 /**
@@ -55,6 +60,10 @@ public class Tester {
     private DoubleColumn ordersPrice = orders.getDoubleColumn("Price");
     private DoubleColumn ordersCommission = orders.getDoubleColumn("Commission");
     private StringColumn ordersComment = orders.getStringColumn("Comment");
+    /**
+     * Добавленные заявки, ещё не слитые со списком заявок.
+     */
+    private final List<FinSeries> addedOrders = new ArrayList<>();
     /**
      * Завершённые трейды.
      */
@@ -132,11 +141,11 @@ public class Tester {
     public static FinSeries newOrders() {
         return new FinSeries()
                 .withLongColumn(FinSeries.T)
-                .withStringColumn("Security")
+                .withSymbolColumn("Security")
                 .withLongColumn(FinSeries.V)
                 .withDoubleColumn("Price")
                 .withDoubleColumn("Commission")
-                .withStringColumn("Comment");
+                .withSymbolColumn("Comment");
     }
 
     /**
@@ -208,14 +217,8 @@ public class Tester {
                     .locale(Locale.getDefault())
                     .header("Date;Time;Equity,%")
                     .separator(";")
-                    .column(equity.getLongColumn("T"), t -> String.format("%02d.%02d.%04d",
-                            TimeCodes.day(t),
-                            TimeCodes.month(t),
-                            TimeCodes.year(t)))
-                    .column(equity.getLongColumn("T"), t -> String.format("%02d:%02d:%02d",
-                            TimeCodes.hour(t),
-                            TimeCodes.min(t),
-                            TimeCodes.sec(t)))
+                    .column(TimeCodes.yyyymmdd(equity.getLongColumn("T"), "Date"), Tester::formatDate)
+                    .column(TimeCodes.hhmmss(equity.getLongColumn("T"), "Time"), Tester::formatTime)
                     .column(equity.getDoubleColumn(EQUITY), "%.4f")
                     .write(ps, 0, equity.length());
         }
@@ -227,14 +230,8 @@ public class Tester {
                     .locale(Locale.getDefault())
                     .header("Date;Time;Equity,%;Funding,%;CapitalUsed,%")
                     .separator(";")
-                    .column(equity.getLongColumn("T"), t -> String.format("%02d.%02d.%04d",
-                            TimeCodes.day(t),
-                            TimeCodes.month(t),
-                            TimeCodes.year(t)))
-                    .column(equity.getLongColumn("T"), t -> String.format("%02d:%02d:%02d",
-                            TimeCodes.hour(t),
-                            TimeCodes.min(t),
-                            TimeCodes.sec(t)))
+                    .column(TimeCodes.yyyymmdd(equity.getLongColumn("T"), "Date"), Tester::formatDate)
+                    .column(TimeCodes.hhmmss(equity.getLongColumn("T"), "Time"), Tester::formatTime)
                     .column(equity.getDoubleColumn(EQUITY), "%.4f")
                     .column(equity.getDoubleColumn(FUNDING), "%.4f")
                     .column(equity.getDoubleColumn(CAPITAL_USED), "%.4f")
@@ -242,6 +239,41 @@ public class Tester {
         }
     }
 
+    /**
+     * @param yyyymmdd дата в формате YYYYMMDD
+     * @return дата в формате dd.MM.yyyy
+     */
+    private static String formatDate(final int yyyymmdd) {
+        final char[] chars = new char[10];
+        putDigits(chars, 0, yyyymmdd % 100, 2);
+        chars[2] = '.';
+        putDigits(chars, 3, yyyymmdd / 100 % 100, 2);
+        chars[5] = '.';
+        putDigits(chars, 6, yyyymmdd / 100_00, 4);
+        return new String(chars);
+    }
+
+    /**
+     * @param hhmmss время в формате HHMMSS
+     * @return время в формате HH:mm:ss
+     */
+    private static String formatTime(final int hhmmss) {
+        final char[] chars = new char[8];
+        putDigits(chars, 0, hhmmss / 100_00, 2);
+        chars[2] = ':';
+        putDigits(chars, 3, hhmmss / 100 % 100, 2);
+        chars[5] = ':';
+        putDigits(chars, 6, hhmmss % 100, 2);
+        return new String(chars);
+    }
+
+    private static void putDigits(final char[] chars, final int offset, int value, final int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
     /**
      * Задать начальный капитал.
      *
@@ -273,12 +305,14 @@ public class Tester {
 
     /**
      * Добавить заявки на покупку/продажу.
+     * <p>
+     * Заявки сливаются с ранее добавленными за один проход при проведении теста или получении списка заявок,
+     * поэтому временной ряд {@code newOrders} не следует изменять до этого момента.
      *
      * @param newOrders объект типа {@link FinSeries} с колонками, заданными в методе {@link #newOrders()}.
      */
     public void addOrders(final FinSeries newOrders) {
-        final int len2 = newOrders.length();
-        if (len2 == 0) {
+        if (newOrders.length() == 0) {
             return;
         }
         if (!orders.hasSameColumnsAs(newOrders)) {
@@ -287,68 +321,44 @@ public class Tester {
         if (!newOrders.timeCode().isNonDecreasing()) {
             throw new IllegalArgumentException("Column " + newOrders.timeCode() + " should be non-decreasing");
         }
-        final int len1 = orders.length();
-        if (len1 == 0) {
-            orders = newOrders;
-            ordersTimeCode = newOrders.timeCode();
-            ordersSecurity = newOrders.getStringColumn("Security");
-            ordersVolume = newOrders.volume();
-            ordersPrice = newOrders.getDoubleColumn("Price");
-            ordersCommission = newOrders.getDoubleColumn("Commission");
-            ordersComment = newOrders.getStringColumn("Comment");
+        addedOrders.add(newOrders);
+    }
+
+    /**
+     * Слить добавленные заявки со списком заявок.
+     */
+    private void mergeOrders() {
+        if (addedOrders.isEmpty()) {
             return;
         }
-        final LongColumn timeCode1 = ordersTimeCode;
-        final LongColumn timeCode2 = newOrders.timeCode();
-        final StringColumn security1 = ordersSecurity;
-        final StringColumn security2 = newOrders.getStringColumn("Security");
-        final LongColumn volume1 = ordersVolume;
-        final LongColumn volume2 = newOrders.volume();
-        final DoubleColumn price1 = ordersPrice;
-        final DoubleColumn price2 = newOrders.getDoubleColumn("Price");
-        final DoubleColumn commission1 = ordersCommission;
-        final DoubleColumn commission2 = newOrders.getDoubleColumn("Commission");
-        final StringColumn comment1 = ordersComment;
-        final StringColumn comment2 = newOrders.getStringColumn("Comment");
-
-        orders = newOrders();
-        orders.ensureCapacity(len1 + len2);
-        ordersTimeCode = orders.timeCode();
-        ordersSecurity = orders.getStringColumn("Security");
-        ordersVolume = orders.volume();
-        ordersPrice = orders.getDoubleColumn("Price");
-        ordersCommission = orders.getDoubleColumn("Commission");
-        ordersComment = orders.getStringColumn("Comment");
-
-        final Synchronizer sync = new Synchronizer();
-        sync.put(timeCode1);
-        sync.put(timeCode2);
-        while (sync.synchronize() != Long.MAX_VALUE) {
-            int index = sync.getUpdatedIndex(timeCode1);
-            if (index >= 0) {
-                ordersTimeCode.append(timeCode1.get(index));
-                ordersSecurity.append(security1.get(index));
-                ordersVolume.append(volume1.get(index));
-                ordersPrice.append(price1.get(index));
-                ordersCommission.append(commission1.get(index));
-                ordersComment.append(comment1.get(index));
-            }
-            index = sync.getUpdatedIndex(timeCode2);
-            if (index >= 0) {
-                ordersTimeCode.append(timeCode2.get(index));
-                ordersSecurity.append(security2.get(index));
-                ordersVolume.append(volume2.get(index));
-                ordersPrice.append(price2.get(index));
-                ordersCommission.append(commission2.get(index));
-                ordersComment.append(comment2.get(index));
-            }
+        final List<FinSeries> inputs = new ArrayList<>(addedOrders.size() + 1);
+        if (orders.length() > 0) {
+            inputs.add(orders);
+        }
+        inputs.addAll(addedOrders);
+        addedOrders.clear();
+        if (inputs.size() == 1) {
+            setOrders(inputs.get(0));
+        } else {
+            setOrders(SeriesMerge.merge(inputs, FinSeries.T, SeriesMerge.Duplicates.KEEP_ALL, false, newOrders()));
         }
     }
 
+    private void setOrders(final FinSeries newOrders) {
+        orders = newOrders;
+        ordersTimeCode = newOrders.timeCode();
+        ordersSecurity = newOrders.getStringColumn("Security");
+        ordersVolume = newOrders.volume();
+        ordersPrice = newOrders.getDoubleColumn("Price");
+        ordersCommission = newOrders.getDoubleColumn("Commission");
+        ordersComment = newOrders.getStringColumn("Comment");
+    }
+
     /**
      * Провести тест.
      */
     public void test() {
+        mergeOrders();
         doneTrades.clear();
         activeTrades.clear();
         equityAndCapitalUsed.setLength(0);
@@ -386,34 +396,20 @@ public class Tester {
         return equityAndCapitalUsed.copy();
     }
 
+    /**
+     * @return представление временного ряда с колонками {@link FinSeries#T}, {@link #EQUITY}, {@link #FUNDING},
+     * {@link #CAPITAL_USED} без копирования данных; действительно до следующего вызова метода {@link #test()}
+     */
+    public FinSeries viewEquityAndCapitalUsed() {
+        return equityAndCapitalUsed.view(0, equityAndCapitalUsed.length());
+    }
+
     /**
      * @return временной ряд с колонками {@link FinSeries#T}, {@link #EQUITY}, {@link #FUNDING}, {@link #CAPITAL_USED}
      * на закрытие дня
      */
     public FinSeries getEquityAndCapitalUsedDaily() {
-        final int len = equityAndCapitalUsed.length();
-        final LongColumn t = equityAndCapitalUsed.timeCode();
-        final DoubleColumn e = equityAndCapitalUsed.getDoubleColumn(EQUITY);
-        final DoubleColumn f = equityAndCapitalUsed.getDoubleColumn(FUNDING);
-        final DoubleColumn c = equityAndCapitalUsed.getDoubleColumn(CAPITAL_USED);
-        final FinSeries equityDaily = equityAndCapitalUsed.copy(0, 0);
-        final LongColumn tDaily = equityDaily.timeCode();
-        final DoubleColumn eDaily = equityDaily.getDoubleColumn(EQUITY);
-        final DoubleColumn fDaily = equityDaily.getDoubleColumn(FUNDING);
-        final DoubleColumn cDaily = equityDaily.getDoubleColumn(CAPITAL_USED);
-        for (int index = 0; index < len - 1; index++) {
-            if (TimeCodes.yyyymmdd(t.get(index)) != TimeCodes.yyyymmdd(t.get(index + 1))) {
-                tDaily.append(t.get(index));
-                eDaily.append(e.get(index));
-                fDaily.append(f.get(index));
-                cDaily.append(c.get(index));
-            }
-        }
-        tDaily.append(t.getLast());
-        eDaily.append(e.getLast());
-        fDaily.append(f.getLast());
-        cDaily.append(c.getLast());
-        return equityDaily;
+        return getEquityAndCapitalUsedAtTimeFrameEnds(TimeUnit.DAYS);
     }
 
     /**
@@ -421,30 +417,39 @@ public class Tester {
      * по часам
      */
     public FinSeries getEquityAndCapitalUsedHourly() {
+        return getEquityAndCapitalUsedAtTimeFrameEnds(TimeUnit.HOURS);
+    }
+
+    /**
+     * @param unit единица измерения времени таймфрейма ({@link TimeUnit#DAYS} или {@link TimeUnit#HOURS})
+     * @return строки эквити и использованного капитала, последние в своём таймфрейме
+     */
+    private FinSeries getEquityAndCapitalUsedAtTimeFrameEnds(final TimeUnit unit) {
         final int len = equityAndCapitalUsed.length();
         final LongColumn t = equityAndCapitalUsed.timeCode();
         final DoubleColumn e = equityAndCapitalUsed.getDoubleColumn(EQUITY);
         final DoubleColumn f = equityAndCapitalUsed.getDoubleColumn(FUNDING);
         final DoubleColumn c = equityAndCapitalUsed.getDoubleColumn(CAPITAL_USED);
-        final FinSeries equityHourly = equityAndCapitalUsed.copy(0, 0);
-        final LongColumn tHourly = equityHourly.timeCode();
-        final DoubleColumn eHourly = equityHourly.getDoubleColumn(EQUITY);
-        final DoubleColumn fHourly = equityHourly.getDoubleColumn(FUNDING);
-        final DoubleColumn cHourly = equityHourly.getDoubleColumn(CAPITAL_USED);
+        final IntColumn frameIds = TimeCodes.timeFrameIds(t, 1, unit, "FrameId");
+        final FinSeries result = equityAndCapitalUsed.copy(0, 0);
+        final LongColumn tResult = result.timeCode();
+        final DoubleColumn eResult = result.getDoubleColumn(EQUITY);
+        final DoubleColumn fResult = result.getDoubleColumn(FUNDING);
+        final DoubleColumn cResult = result.getDoubleColumn(CAPITAL_USED);
+        result.ensureCapacity(frameIds.getLast() + 1);
         for (int index = 0; index < len - 1; index++) {
-            if (TimeCodes.hour(t.get(index)) != TimeCodes.hour(t.get(index + 1))
-                    || TimeCodes.yyyymmdd(t.get(index)) != TimeCodes.yyyymmdd(t.get(index + 1))) {
-                tHourly.append(t.get(index));
-                eHourly.append(e.get(index));
-                fHourly.append(f.get(index));
-                cHourly.append(c.get(index));
+            if (frameIds.get(index) != frameIds.get(index + 1)) {
+                tResult.append(t.get(index));
+                eResult.append(e.get(index));
+                fResult.append(f.get(index));
+                cResult.append(c.get(index));
             }
         }
-        tHourly.append(t.getLast());
-        eHourly.append(e.getLast());
-        fHourly.append(f.getLast());
-        cHourly.append(c.getLast());
-        return equityHourly;
+        tResult.append(t.getLast());
+        eResult.append(e.getLast());
+        fResult.append(f.getLast());
+        cResult.append(c.getLast());
+        return result;
     }
 
     /**
@@ -455,15 +460,12 @@ public class Tester {
      * @param capital      размер капитала, в процентах к которому нужно сделать пересчёт
      */
     private static void makeEquityAndCapitalUsedPercent(final Series equitySeries, final double capital) {
-        final int len = equitySeries.length();
         final DoubleColumn equityColumn = equitySeries.getDoubleColumn(EQUITY);
         final DoubleColumn fundingColumn = equitySeries.getDoubleColumn(FUNDING);
         final DoubleColumn capitalColumn = equitySeries.getDoubleColumn(CAPITAL_USED);
-        for (int i = 0; i < len; i++) {
-            equityColumn.set(i, equityColumn.get(i) / capital * 100.0);
-            fundingColumn.set(i, fundingColumn.get(i) / capital * 100.0);
-            capitalColumn.set(i, capitalColumn.get(i) / capital * 100.0);
-        }
+        ColumnOps.multiply(ColumnOps.divide(equityColumn, capital, equityColumn), 100.0, equityColumn);
+        ColumnOps.multiply(ColumnOps.divide(fundingColumn, capital, fundingColumn), 100.0, fundingColumn);
+        ColumnOps.multiply(ColumnOps.divide(capitalColumn, capital, capitalColumn), 100.0, capitalColumn);
     }
 
     /**
@@ -530,6 +532,7 @@ public class Tester {
      * @return список всех ордеров (копия)
      */
     public FinSeries getOrders() {
+        mergeOrders();
         return orders.copy();
     }
 
@@ -558,16 +561,19 @@ public class Tester {
     }
 
     private void processOrders() {
-        final int len = orders.length();
-        while (ordersIndex < len && orders.timeCode().get(ordersIndex) <= synchronizer.t()) {
+        final int len = ordersTimeCode.length();
+        final long t = synchronizer.t();
+        while (ordersIndex < len && ordersTimeCode.get(ordersIndex) <= t) {
             final long volume = ordersVolume.get(ordersIndex);
             if (volume == 0) {
                 processFunding(ordersSecurity.get(ordersIndex),
+                        securityId(ordersIndex),
                         ordersPrice.get(ordersIndex), // в этом случае это размер фандинга на один контракт
                         ordersComment.get(ordersIndex));
             } else {
                 processOrder(ordersTimeCode.get(ordersIndex),
                         ordersSecurity.get(ordersIndex),
+                        securityId(ordersIndex),
                         ordersVolume.get(ordersIndex),
                         ordersPrice.get(ordersIndex),
                         ordersCommission.get(ordersIndex),
@@ -577,8 +583,23 @@ public class Tester {
         }
     }
 
+    /**
+     * @return номер кода инструмента заявки в словаре колонки заявок или -1, если колонка не использует словарь
+     */
+    private int securityId(final int index) {
+        return (ordersSecurity instanceof final SymbolColumn symbolColumn) ? symbolColumn.getId(index) : -1;
+    }
+
+    private static boolean isSameSecurity(final TestTrade trade, final String security, final int securityId) {
+        if (securityId >= 0 && trade.securityId >= 0) {
+            return trade.securityId == securityId;
+        }
+        return trade.security.equals(security);
+    }
+
     private void processOrder(final long t,
                               final String security,
+                              final int securityId,
                               final long volume,
                               final double price,
                               final double commission,
@@ -586,7 +607,7 @@ public class Tester {
         int tradeId = -1;
         for (int i = 0; i < activeTrades.size(); i++) {
             final TestTrade trade = activeTrades.get(i);
-            if (trade.security.equals(security)) {
+            if (isSameSecurity(trade, security, securityId)) {
                 tradeId = i;
                 break;
             }
@@ -595,8 +616,10 @@ public class Tester {
         totalCommission += commission;
         if (tradeId == -1) {
             final FinSeries s = securitiesMap.get(security);
-            activeTrades.add(new TestTrade(t, security, volume, price, commission,
-                    s.timeCode(), s.close()));
+            final TestTrade trade = new TestTrade(t, security, volume, price, commission,
+                    s.timeCode(), s.close());
+            trade.securityId = securityId;
+            activeTrades.add(trade);
         } else {
             final TestTrade trade = activeTrades.get(tradeId);
             final double oldVolume = trade.getVolume();
@@ -623,17 +646,20 @@ public class Tester {
                 doneTrades.add(trade);
                 doneTradesProfit += trade.getEquity(price);
                 doneTradesFunding += trade.getFunding();
-                activeTrades.add(new TestTrade(t, security, newVolume, price, commission2,
-                        trade.timeCodeColumn, trade.closeColumn));
+                final TestTrade newTrade = new TestTrade(t, security, newVolume, price, commission2,
+                        trade.timeCodeColumn, trade.closeColumn);
+                newTrade.securityId = securityId;
+                activeTrades.add(newTrade);
             }
         }
     }
 
     private void processFunding(final String security,
+                                final int securityId,
                                 final double fundingPerUnit,
                                 final String comment) {
         for (final TestTrade trade : activeTrades) {
-            if (trade.security.equals(security)) {
+            if (isSameSecurity(trade, security, securityId)) {
                 totalFunding += trade.update(fundingPerUnit);
             }
         }
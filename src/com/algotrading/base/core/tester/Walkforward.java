@@ -2,6 +2,7 @@ package com.algotrading.base.core.tester;
 
 import com.algotrading.base.core.TimeCodes;
 import com.algotrading.base.core.columns.DoubleColumn;
+import com.algotrading.base.core.columns.FloatColumn;
 import com.algotrading.base.core.columns.LongColumn;
 import com.algotrading.base.core.series.FinSeries;
 
@@ -43,12 +44,12 @@ public class Walkforward {
         }
         if (allEquities.timeCode() == null) {
             final LongColumn tColumn = allEquities.acquireLongColumn(FinSeries.T);
-            final DoubleColumn eColumn = allEquities.acquireDoubleColumn(equityId);
+            final DoubleColumn eColumn = acquireEquityColumn(equityId, equity);
             tColumn.append(timeCode);
             eColumn.append(equity);
         } else {
             final LongColumn tColumn = allEquities.timeCode();
-            final DoubleColumn eColumn = allEquities.acquireDoubleColumn(equityId);
+            final DoubleColumn eColumn = acquireEquityColumn(equityId, equity);
             if (eColumn.length() != equity.length()) {
                 throw new IllegalArgumentException("Incorrect equity length = " + equity.length() + ", expected " + eColumn.length());
             }
@@ -61,6 +62,17 @@ public class Walkforward {
         }
     }
 
+    /**
+     * Создать колонку для хранения эквити. Эквити типа {@link FloatColumn} хранятся с одинарной точностью,
+     * что вдвое уменьшает объём памяти при большом количестве эквити.
+     */
+    private DoubleColumn acquireEquityColumn(final String equityId, final DoubleColumn equity) {
+        final int len = allEquities.length();
+        return allEquities.acquireDoubleColumn(equityId, () -> (equity instanceof FloatColumn)
+                ? new FloatColumn(equityId, len)
+                : new DoubleColumn(equityId, len));
+    }
+
     /**
      * Провести walkforward-тест
      *
@@ -139,6 +151,14 @@ public class Walkforward {
         return walkforwardEquity.copy();
     }
 
+    /**
+     * @return представление временного ряда с эквити walkforward-теста без копирования данных;
+     * действительно до следующего вызова метода {@link #walkForward(List, EquitySelector)}
+     */
+    public FinSeries viewWalkforwardEquity() {
+        return walkforwardEquity.view(0, walkforwardEquity.length());
+    }
+
     /**
      * @return список строк с описанием выбранных эквити для каждого промежутка тестирования;
      * доступен после вызова метода {@link #walkForward(List, EquitySelector)}
@@ -1,5 +1,6 @@
 package com.algotrading.base.core.tester;
 
+import com.algotrading.base.core.SessionIndex;
 import com.algotrading.base.core.TimeCodes;
 import com.algotrading.base.core.columns.LongColumn;
 import com.algotrading.base.core.marketdata.futures.Futures;
@@ -123,40 +124,21 @@ public class WalkforwardIndices {
                                                                         final Futures[] futures,
                                                                         final int optimizationFutures) {
         final List<WalkforwardIndices> list = new ArrayList<>();
+        final SessionIndex sessionIndex = SessionIndex.of(timeCode);
         for (int i = optimizationFutures; i < futures.length; i++) {
             final Futures f = futures[i];
             final int futFrom = Math.max(from, f.previousExpiry);
             final int futTill = Math.min(till, f.rolling);
             if (futFrom < futTill) {
-                final int tradeFrom = getFirstDayIndex(timeCode, futFrom);
-                final int tradeTo = getLastDayIndex(timeCode, futTill) + 1;
-                final int optFrom = getFirstDayIndex(timeCode, futures[i - optimizationFutures].previousExpiry);
+                final int tradeFrom = sessionIndex.getFirstDayIndex(futFrom);
+                final int tradeTo = sessionIndex.getLastDayIndex(futTill) + 1;
+                final int optFrom = sessionIndex.getFirstDayIndex(futures[i - optimizationFutures].previousExpiry);
                 list.add(new WalkforwardIndices(optFrom, tradeFrom, tradeFrom, tradeTo));
             }
         }
         return list;
     }
 
-    private static int getFirstDayIndex(final LongColumn timeCode, final int yyyymmdd) {
-        final int len = timeCode.length();
-        for (int i = 0; i < len; i++) {
-            if (TimeCodes.yyyymmdd(timeCode.get(i)) == yyyymmdd) {
-                return i;
-            }
-        }
-        return len;
-    }
-
-    private static int getLastDayIndex(final LongColumn timeCode, final int yyyymmdd) {
-        final int len = timeCode.length();
-        for (int i = len - 1; i >= 0; i--) {
-            if (TimeCodes.yyyymmdd(timeCode.get(i)) == yyyymmdd) {
-                return i;
-            }
-        }
-        return -1;
-    }
-
     @Override
     public String toString() {
         return "[" + optFrom + ";" + optTo + ") => [" + tradeFrom + ";" + tradeTo + ")";
@@ -1,5 +1,6 @@
 module com.algotrading.base {
     requires java.logging;
+    requires static jdk.incubator.vector;
     requires json.simple;
     requires com.simpleutils;
     exports com.algotrading.base.core;